@@ -0,0 +1,72 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.Constants;
+import frc.robot.utils.LookupTableSplineFunction;
+
+/** Compare spline evaluation against lookup table for drive input curves */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputCurveBenchmark {
+  private static final int SAMPLE_COUNT = 4096;
+  private static final int TABLE_SIZE = 1001;
+
+  private PolynomialSplineFunction m_throttleSpline;
+  private PolynomialSplineFunction m_turnSpline;
+  private PolynomialSplineFunction m_throttleTable;
+  private PolynomialSplineFunction m_turnTable;
+  private double[] m_inputs;
+  private int m_index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    m_throttleSpline = Constants.Drive.DRIVE_THROTTLE_INPUT_CURVE;
+    m_turnSpline = Constants.Drive.DRIVE_TURN_INPUT_CURVE;
+    m_throttleTable = new LookupTableSplineFunction(m_throttleSpline, TABLE_SIZE);
+    m_turnTable = new LookupTableSplineFunction(m_turnSpline, TABLE_SIZE);
+
+    var random = new Random(SAMPLE_COUNT);
+    m_inputs = new double[SAMPLE_COUNT];
+    for (int i = 0; i < SAMPLE_COUNT; i++) m_inputs[i] = random.nextDouble();
+  }
+
+  private double nextInput() {
+    m_index = (m_index + 1) & (SAMPLE_COUNT - 1);
+    return m_inputs[m_index];
+  }
+
+  @Benchmark
+  public double spline() {
+    double input = nextInput();
+    return m_throttleSpline.value(input) + m_turnSpline.value(input);
+  }
+
+  @Benchmark
+  public double lookupTable() {
+    double input = nextInput();
+    return m_throttleTable.value(input) + m_turnTable.value(input);
+  }
+}
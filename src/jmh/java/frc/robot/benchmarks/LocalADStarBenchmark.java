@@ -0,0 +1,71 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.LocalADStarAK;
+
+/** Benchmark retrieving a calculated path from the AdvantageKit compatible pathfinder */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalADStarBenchmark {
+  private static final long PATHFINDING_TIMEOUT = 5000;
+  private static final Translation2d START = new Translation2d(2.0, 2.0);
+  private static final Pose2d GOAL = new Pose2d(1.85, 7.77, Rotation2d.fromDegrees(-90.0));
+
+  private LocalADStarAK m_pathfinder;
+  private PathConstraints m_constraints;
+  private GoalEndState m_goalEndState;
+
+  @Setup(Level.Trial)
+  public void setup() throws InterruptedException {
+    m_pathfinder = new LocalADStarAK();
+    m_constraints = new PathConstraints(4.0, 3.0, 2 * Math.PI, 4 * Math.PI);
+    m_goalEndState = new GoalEndState(0.0, GOAL.getRotation());
+
+    // Request path to blue amp, waiting for pathfinding thread to finish
+    m_pathfinder.setStartPosition(START);
+    m_pathfinder.setGoalPosition(GOAL.getTranslation());
+    long deadline = System.currentTimeMillis() + PATHFINDING_TIMEOUT;
+    while (!m_pathfinder.isNewPathAvailable()) {
+      if (System.currentTimeMillis() > deadline) throw new IllegalStateException("Pathfinder did not find a path");
+      Thread.sleep(10);
+    }
+  }
+
+  @Benchmark
+  public PathPlannerPath getCurrentPath() {
+    return m_pathfinder.getCurrentPath(m_constraints, m_goalEndState);
+  }
+
+  @Benchmark
+  public boolean isNewPathAvailable() {
+    return m_pathfinder.isNewPathAvailable();
+  }
+}
@@ -0,0 +1,74 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.math.filter.MedianFilter;
+import frc.robot.utils.SlidingMedianFilter;
+
+/** Compare WPILib MedianFilter against SlidingMedianFilter across tap counts */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MedianFilterBenchmark {
+  private static final int SAMPLE_COUNT = 4096;
+
+  @Param({ "10", "50", "100", "250", "500" })
+  public int taps;
+
+  private MedianFilter m_medianFilter;
+  private SlidingMedianFilter m_slidingMedianFilter;
+  private double[] m_samples;
+  private int m_index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var random = new Random(taps);
+    m_samples = new double[SAMPLE_COUNT];
+    for (int i = 0; i < SAMPLE_COUNT; i++) m_samples[i] = random.nextGaussian();
+
+    m_medianFilter = new MedianFilter(taps);
+    m_slidingMedianFilter = new SlidingMedianFilter(taps);
+
+    // Fill both windows, verifying output is identical
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      if (m_medianFilter.calculate(m_samples[i]) != m_slidingMedianFilter.calculate(m_samples[i]))
+        throw new IllegalStateException("SlidingMedianFilter output differs from MedianFilter");
+    }
+  }
+
+  private double nextSample() {
+    m_index = (m_index + 1) & (SAMPLE_COUNT - 1);
+    return m_samples[m_index];
+  }
+
+  @Benchmark
+  public double medianFilter() {
+    return m_medianFilter.calculate(nextSample());
+  }
+
+  @Benchmark
+  public double slidingMedianFilter() {
+    return m_slidingMedianFilter.calculate(nextSample());
+  }
+}
@@ -0,0 +1,64 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.lasarobotics.utils.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/** Benchmark PurplePath request and response JSON handling across path lengths */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurplePathJsonBenchmark {
+  @Param({ "2", "20", "100" })
+  public int points;
+
+  private List<Translation2d> m_request;
+  private String m_response;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    m_request = Arrays.asList(new Translation2d(2.0, 2.0), new Translation2d(1.85, 7.77));
+
+    // Build response as PurplePath server would return it
+    var path = new ArrayList<Translation2d>(points);
+    for (int i = 0; i < points; i++) {
+      double t = (double)i / Math.max(points - 1, 1);
+      path.add(new Translation2d(2.0 - 0.15 * t, 2.0 + 5.77 * t));
+    }
+    m_response = JSONObject.writePointList(path);
+  }
+
+  @Benchmark
+  public String writeRequest() {
+    return JSONObject.writePointList(m_request);
+  }
+
+  @Benchmark
+  public List<Translation2d> readResponse() {
+    return JSONObject.readPointList(m_response);
+  }
+}
@@ -0,0 +1,269 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.lasarobotics.drive.MAXSwerveModule;
+import org.lasarobotics.hardware.kauailabs.NavX2;
+import org.lasarobotics.hardware.kauailabs.NavX2InputsAutoLogged;
+import org.lasarobotics.hardware.revrobotics.Spark;
+import org.lasarobotics.hardware.revrobotics.Spark.MotorKind;
+import org.lasarobotics.hardware.revrobotics.SparkInputsAutoLogged;
+import org.lasarobotics.utils.GlobalConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Constants;
+import frc.robot.subsystems.vision.AprilTagCamera.AprilTagCameraResult;
+import frc.robot.subsystems.vision.VisionSubsystem;
+
+/**
+ * Benchmark DriveSubsystem teleop, aim and auto drive cycles, and pose update with vision fusion
+ * <p>
+ * Hardware is mocked as in DriveSubsystemTest, with stub-only mocks so invocations are not recorded.
+ * VisionSubsystem is replaced with a mock returning the same pre-built camera estimates every cycle.
+ * FPGA time is paused once odometry history is filled, so their fixed timestamps stay inside it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriveSubsystemBenchmark {
+  private static final int SAMPLE_COUNT = 1024;
+  private static final double VISION_LATENCY = 0.05;
+  private static final int HISTORY_FILL_CYCLES = 10;
+
+  private DriveSubsystem m_driveSubsystem;
+  private Command m_driveCommand;
+  private Command m_aimCommand;
+  private double[] m_xRequests;
+  private double[] m_yRequests;
+  private double[] m_rotateRequests;
+  private ChassisSpeeds[] m_autoSpeeds;
+  private List<AprilTagCameraResult> m_visionResults;
+  private int m_index;
+
+  /**
+   * Create mock Spark motor controller
+   * @param id Motor ID
+   * @return Mock Spark
+   */
+  private static Spark mockSpark(Spark.ID id) {
+    Spark spark = mock(Spark.class, withSettings().stubOnly());
+    when(spark.getInputs()).thenReturn(new SparkInputsAutoLogged());
+    when(spark.getID()).thenReturn(id);
+    return spark;
+  }
+
+  /**
+   * Create swerve module using mock motor controllers
+   * @param driveMotorID Drive motor ID
+   * @param rotateMotorID Rotate motor ID
+   * @param location Module location
+   * @return Swerve module
+   */
+  private static MAXSwerveModule createModule(Spark.ID driveMotorID, Spark.ID rotateMotorID, MAXSwerveModule.ModuleLocation location) {
+    Spark driveMotor = mockSpark(driveMotorID);
+    when(driveMotor.getKind()).thenReturn(MotorKind.NEO_VORTEX);
+
+    return new MAXSwerveModule(
+      new MAXSwerveModule.Hardware(driveMotor, mockSpark(rotateMotorID)),
+      location,
+      Constants.Drive.GEAR_RATIO,
+      DriveSubsystem.DRIVE_WHEELBASE,
+      DriveSubsystem.DRIVE_TRACK_WIDTH,
+      DriveSubsystem.AUTO_LOCK_TIME,
+      DriveSubsystem.MAX_SLIPPING_TIME,
+      DriveSubsystem.DRIVE_CURRENT_LIMIT,
+      Constants.Drive.DRIVE_SLIP_RATIO
+    );
+  }
+
+  /**
+   * Create tracked AprilTag target
+   * @param id Tag ID
+   * @param distance Distance from camera in meters
+   * @return Tracked target
+   */
+  private static PhotonTrackedTarget createTarget(int id, double distance) {
+    var cameraToTarget = new Transform3d(new Translation3d(distance, 0.0, 0.0), new Rotation3d());
+    return new PhotonTrackedTarget(0.0, 0.0, 1.0, 0.0, id, cameraToTarget, cameraToTarget, 0.05, List.of(), List.of());
+  }
+
+  /**
+   * Create camera estimates as VisionSubsystem would return them
+   * <p>
+   * CameraA and CameraB agree, CameraA with two tags so it feeds gyro bias estimation. CameraC sees
+   * two tags but is far off, so it is rejected until the gate relocalizes to it, after which CameraA
+   * relocalizes back; every vision gate path runs regularly.
+   * @param timestamp Capture timestamp in seconds
+   * @return List of camera results
+   */
+  private static List<AprilTagCameraResult> createVisionResults(double timestamp) {
+    return List.of(
+      new AprilTagCameraResult(
+        "CameraA",
+        new EstimatedRobotPose(new Pose3d(2.0, 5.5, 0.0, new Rotation3d()), timestamp, List.of(createTarget(7, 2.0), createTarget(8, 2.5)), PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR),
+        VecBuilder.fill(0.1, 0.1, 0.1)
+      ),
+      new AprilTagCameraResult(
+        "CameraB",
+        new EstimatedRobotPose(new Pose3d(2.02, 5.49, 0.0, new Rotation3d()), timestamp, List.of(createTarget(7, 2.1)), PoseStrategy.LOWEST_AMBIGUITY),
+        VecBuilder.fill(0.3, 0.3, 0.3)
+      ),
+      new AprilTagCameraResult(
+        "CameraC",
+        new EstimatedRobotPose(new Pose3d(6.0, 2.0, 0.0, new Rotation3d()), timestamp, List.of(createTarget(1, 3.0), createTarget(2, 3.5)), PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR),
+        VecBuilder.fill(0.1, 0.1, 0.1)
+      )
+    );
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    HAL.initialize(500, 0);
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+    DriverStationSim.notifyNewData();
+
+    // Replace vision with mock, before drive subsystem requests it
+    VisionSubsystem visionSubsystem = mock(VisionSubsystem.class, withSettings().stubOnly());
+    when(visionSubsystem.drainEstimatedGlobalPoses()).thenReturn(List.of());
+    VisionSubsystem.setInstance(visionSubsystem);
+
+    // Create hardware object using mock devices
+    NavX2 navx = mock(NavX2.class, withSettings().stubOnly());
+    when(navx.getInputs()).thenReturn(new NavX2InputsAutoLogged());
+    DriveSubsystem.Hardware drivetrainHardware = new DriveSubsystem.Hardware(
+      navx,
+      createModule(Constants.DriveHardware.LEFT_FRONT_DRIVE_MOTOR_ID, Constants.DriveHardware.LEFT_FRONT_ROTATE_MOTOR_ID, MAXSwerveModule.ModuleLocation.LeftFront),
+      createModule(Constants.DriveHardware.RIGHT_FRONT_DRIVE_MOTOR_ID, Constants.DriveHardware.RIGHT_FRONT_ROTATE_MOTOR_ID, MAXSwerveModule.ModuleLocation.RightFront),
+      createModule(Constants.DriveHardware.LEFT_REAR_DRIVE_MOTOR_ID, Constants.DriveHardware.LEFT_REAR_ROTATE_MOTOR_ID, MAXSwerveModule.ModuleLocation.LeftRear),
+      createModule(Constants.DriveHardware.RIGHT_REAR_DRIVE_MOTOR_ID, Constants.DriveHardware.RIGHT_REAR_ROTATE_MOTOR_ID, MAXSwerveModule.ModuleLocation.RightRear)
+    );
+
+    m_driveSubsystem = new DriveSubsystem(
+      drivetrainHardware,
+      Constants.Drive.DRIVE_ROTATE_PID,
+      Constants.Drive.DRIVE_CONTROL_CENTRICITY,
+      Constants.Drive.DRIVE_THROTTLE_INPUT_CURVE,
+      Constants.Drive.DRIVE_TURN_INPUT_CURVE,
+      Constants.Drive.DRIVE_TURN_SCALAR,
+      Constants.HID.CONTROLLER_DEADBAND,
+      Constants.Drive.DRIVE_LOOKAHEAD
+    );
+
+    // Pre-generate driver inputs and auto setpoints
+    var random = new Random(0);
+    m_xRequests = new double[SAMPLE_COUNT];
+    m_yRequests = new double[SAMPLE_COUNT];
+    m_rotateRequests = new double[SAMPLE_COUNT];
+    m_autoSpeeds = new ChassisSpeeds[SAMPLE_COUNT];
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      m_xRequests[i] = random.nextDouble() * 2.0 - 1.0;
+      m_yRequests[i] = random.nextDouble() * 2.0 - 1.0;
+      m_rotateRequests[i] = random.nextDouble() * 2.0 - 1.0;
+      m_autoSpeeds[i] = new ChassisSpeeds(m_xRequests[i] * 4.0, m_yRequests[i] * 4.0, m_rotateRequests[i] * Math.PI);
+    }
+
+    m_driveCommand = m_driveSubsystem.driveCommand(
+      () -> m_xRequests[m_index],
+      () -> m_yRequests[m_index],
+      () -> m_rotateRequests[m_index]
+    );
+    m_aimCommand = m_driveSubsystem.aimAtPointCommand(
+      () -> m_xRequests[m_index],
+      () -> m_yRequests[m_index],
+      () -> 0.0,
+      Constants.Field.BLUE_SPEAKER.getSecond(),
+      false,
+      true
+    );
+    m_driveCommand.initialize();
+    m_aimCommand.initialize();
+
+    // Fill odometry history, then pin FPGA time
+    SimHooks.pauseTiming();
+    for (int i = 0; i < HISTORY_FILL_CYCLES; i++) {
+      SimHooks.stepTiming(GlobalConstants.ROBOT_LOOP_PERIOD);
+      m_driveSubsystem.updatePose();
+    }
+
+    // Pre-build camera estimates within history, returned every cycle
+    m_visionResults = createVisionResults(Timer.getFPGATimestamp() - VISION_LATENCY);
+    when(visionSubsystem.drainEstimatedGlobalPoses()).thenReturn(m_visionResults);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    m_driveSubsystem.close();
+    SimHooks.resumeTiming();
+  }
+
+  private void next() {
+    m_index = (m_index + 1) & (SAMPLE_COUNT - 1);
+  }
+
+  @Benchmark
+  public DriveState teleopDrive() {
+    next();
+    m_driveCommand.execute();
+    return m_driveSubsystem.getState();
+  }
+
+  @Benchmark
+  public DriveState aimDrive() {
+    next();
+    m_aimCommand.execute();
+    return m_driveSubsystem.getState();
+  }
+
+  @Benchmark
+  public DriveState autoDrive() {
+    next();
+    m_driveSubsystem.autoDrive(m_autoSpeeds[m_index]);
+    return m_driveSubsystem.getState();
+  }
+
+  @Benchmark
+  public Pose2d updatePoseWithVision() {
+    m_driveSubsystem.updatePose();
+    return m_driveSubsystem.getPose();
+  }
+}
@@ -0,0 +1,134 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.vision;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Answers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import frc.robot.Constants;
+import frc.robot.subsystems.vision.AprilTagCamera.AprilTagCameraResult;
+
+/**
+ * Benchmark VisionSubsystem combining camera estimates
+ * <p>
+ * Each AprilTag camera is a stub-only spy that returns a fixed multi-tag estimate every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisionSubsystemBenchmark {
+  private VisionSubsystem m_visionSubsystem;
+
+  /**
+   * Create tracked AprilTag target
+   * @param id Tag ID
+   * @param distance Distance from camera in meters
+   * @return Tracked target
+   */
+  private static PhotonTrackedTarget createTarget(int id, double distance) {
+    var cameraToTarget = new Transform3d(new Translation3d(distance, 0.0, 0.0), new Rotation3d());
+    return new PhotonTrackedTarget(0.0, 0.0, 1.0, 0.0, id, cameraToTarget, cameraToTarget, 0.05, List.of(), List.of());
+  }
+
+  /**
+   * Create camera spy returning fixed estimate
+   * @param camera Camera to spy on
+   * @param x Estimated X position in meters
+   * @param tagIds IDs of tags used for estimate
+   * @return Camera spy
+   */
+  private static AprilTagCamera spyCamera(AprilTagCamera camera, double x, int... tagIds) {
+    var targets = new PhotonTrackedTarget[tagIds.length];
+    for (int i = 0; i < tagIds.length; i++) targets[i] = createTarget(tagIds[i], 2.0 + i);
+
+    var result = new AprilTagCameraResult(
+      "Camera",
+      new EstimatedRobotPose(new Pose3d(x, 5.5, 0.0, new Rotation3d()), 0.0, List.of(targets), PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR),
+      VecBuilder.fill(0.1, 0.1, 0.1)
+    );
+
+    AprilTagCamera spy = mock(
+      AprilTagCamera.class,
+      withSettings().spiedInstance(camera).defaultAnswer(Answers.CALLS_REAL_METHODS).stubOnly()
+    );
+    doAnswer((invocation) -> {
+      List<AprilTagCameraResult> results = invocation.getArgument(0);
+      results.add(result);
+      return 1;
+    }).when(spy).drainEstimatedPoses(any());
+    return spy;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    HAL.initialize(500, 0);
+
+    var hardware = new VisionSubsystem.Hardware(
+      new ObjectCamera(
+        Constants.VisionHardware.CAMERA_OBJECT_NAME,
+        Constants.VisionHardware.CAMERA_OBJECT_LOCATION,
+        Constants.VisionHardware.CAMERA_OBJECT_RESOLUTION,
+        Constants.VisionHardware.CAMERA_OBJECT_FOV
+      ),
+      spyCamera(
+        new AprilTagCamera(
+          Constants.VisionHardware.CAMERA_A_NAME,
+          Constants.VisionHardware.CAMERA_A_LOCATION,
+          Constants.VisionHardware.CAMERA_A_RESOLUTION,
+          Constants.VisionHardware.CAMERA_A_FOV
+        ),
+        2.0, 7, 8
+      ),
+      spyCamera(
+        new AprilTagCamera(
+          Constants.VisionHardware.CAMERA_B_NAME,
+          Constants.VisionHardware.CAMERA_B_LOCATION,
+          Constants.VisionHardware.CAMERA_B_RESOLUTION,
+          Constants.VisionHardware.CAMERA_B_FOV
+        ),
+        2.02, 6
+      )
+    );
+    m_visionSubsystem = new VisionSubsystem(hardware);
+
+    // Stop camera threads, so estimates are only updated by benchmark
+    m_visionSubsystem.close();
+  }
+
+  @Benchmark
+  public List<AprilTagCameraResult> updateEstimatedGlobalPoses() {
+    return m_visionSubsystem.drainEstimatedGlobalPoses();
+  }
+}
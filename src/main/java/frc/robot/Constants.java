@@ -72,6 +72,7 @@ public final class Constants {
     public static final double DRIVE_SLIP_RATIO = 0.05;
     public static final double DRIVE_TURN_SCALAR = 60.0;
     public static final double DRIVE_LOOKAHEAD = 6;
+    public static final double ACTUATION_LATENCY = 0.03;
 
     public static final ControlCentricity DRIVE_CONTROL_CENTRICITY = ControlCentricity.FIELD_CENTRIC;
 
@@ -127,6 +128,11 @@ public final class Constants {
   }
 
 
+  public static class Profiling {
+    public static final boolean ENABLED = true;
+    public static final int PUBLISH_PERIOD = 50;
+  }
+
   public static class SmartDashboard {
     public static final String SMARTDASHBOARD_DEFAULT_TAB = "SmartDashboard";
     public static final String SMARTDASHBOARD_AUTO_MODE = "Auto Mode";
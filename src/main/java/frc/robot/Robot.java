@@ -20,8 +20,12 @@ import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.PowerDistribution;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.utils.DashboardPublisher;
 
 public class Robot extends LoggedRobot {
+  private static final String DASHBOARD_PUBLISHED_LOG_ENTRY = "Dashboard/PublishedWrites";
+  private static final String DASHBOARD_SUPPRESSED_LOG_ENTRY = "Dashboard/SuppressedWrites";
+
   private Command autonomousCommand;
 
   private RobotContainer robotContainer;
@@ -42,7 +46,7 @@ public class Robot extends LoggedRobot {
 
     if (isReal()) {
        //If robot is real, log to USB drive and publish data to NetworkTables
-      //Logger.addDataReceiver(new WPILOGWriter("/media/sda1/"));
+      Logger.addDataReceiver(new WPILOGWriter("/media/sda1/"));
       //Logger.addDataReceiver(new NT4Publisher());
       new PowerDistribution();
       // Battery Tracking
@@ -72,6 +76,10 @@ public class Robot extends LoggedRobot {
   public void robotPeriodic() {
     PurpleManager.update();
     CommandScheduler.getInstance().run();
+
+    // Log dashboard traffic
+    Logger.recordOutput(DASHBOARD_PUBLISHED_LOG_ENTRY, DashboardPublisher.getInstance().getPublishedCount());
+    Logger.recordOutput(DASHBOARD_SUPPRESSED_LOG_ENTRY, DashboardPublisher.getInstance().getSuppressedCount());
   }
 // burrito wuz here
   @Override
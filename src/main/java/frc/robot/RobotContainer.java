@@ -90,6 +90,14 @@ public class RobotContainer {
     automodeChooser.addOption("Preload + 1", new AutoTrajectory(DRIVE_SUBSYSTEM, "Preload + 1").getCommand());
   }
 
+  /**
+   * Get drive subsystem
+   * @return Drive subsystem
+   */
+  public DriveSubsystem getDriveSubsystem() {
+    return DRIVE_SUBSYSTEM;
+  }
+
   /**
    * Get currently selected autonomous command
    * @return Autonomous command
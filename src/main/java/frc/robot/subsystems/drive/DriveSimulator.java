@@ -0,0 +1,413 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import java.util.Random;
+
+import org.lasarobotics.utils.GlobalConstants;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Deterministic physics-based swerve drivetrain simulator
+ * <p>
+ * Models each module's drive motor (DC motor with velocity control, back-EMF and current limit),
+ * steer motor (rate limited position control), and tire contact with the carpet (saturating slip
+ * friction with a friction circle, plus rolling resistance). Chassis dynamics are integrated in
+ * fixed substeps, independent of wall clock time, so the simulation can be stepped faster than
+ * real time. Sensor noise and gyro drift come from a seeded random number generator, so runs with
+ * the same seed and inputs are exactly repeatable.
+ */
+public class DriveSimulator {
+  // Robot
+  private static final double ROBOT_MASS = 60.0;
+  private static final double ROBOT_MOMENT_OF_INERTIA = 5.0;
+  private static final double GRAVITY = 9.81;
+
+  // Drive motor, NEO Vortex
+  private static final double NOMINAL_VOLTAGE = 12.0;
+  private static final double DRIVE_MOTOR_STALL_TORQUE = 3.6;
+  private static final double DRIVE_MOTOR_STALL_CURRENT = 211.0;
+  private static final double DRIVE_MOTOR_FREE_SPEED = 6784.0 * 2 * Math.PI / 60;
+  private static final double DRIVE_MOTOR_ROTOR_INERTIA = 1.0e-4;
+  private static final double DRIVE_VELOCITY_KP = 4.0;
+  private static final double WHEEL_RADIUS = 0.0381;
+
+  // Steer motor, NEO 550 position control
+  private static final double STEER_MAX_VELOCITY = 25.0;
+  private static final double STEER_TIME_CONSTANT = 0.02;
+
+  // Carpet
+  private static final double WHEEL_FRICTION_COEFFICIENT = 1.1;
+  private static final double ROLLING_RESISTANCE_COEFFICIENT = 0.02;
+  private static final double SLIP_SATURATION_VELOCITY = 0.2;
+  private static final double ROLLING_SATURATION_VELOCITY = 0.05;
+
+  // Sensors
+  private static final double ENCODER_VELOCITY_NOISE = 0.005;
+  private static final double GYRO_RATE_NOISE = Math.toRadians(0.1);
+  private static final double ACCELEROMETER_VELOCITY_NOISE = 0.02;
+
+  private static final double SUBSTEP_PERIOD = 0.0005;
+
+  private final Random m_random;
+  private final int m_moduleCount;
+  private final double[] m_moduleX;
+  private final double[] m_moduleY;
+  private final double m_maxLinearSpeed;
+  private final double m_stallForce;
+  private final double m_currentLimitForce;
+  private final double m_wheelMass;
+  private final double m_normalForce;
+  private final double m_gyroDriftRate;
+
+  // Commanded module setpoints
+  private final double[] m_commandedSpeeds;
+  private final double[] m_commandedAngles;
+
+  // Module state
+  private final double[] m_wheelSpeeds;
+  private final double[] m_wheelDistances;
+  private final double[] m_steerAngles;
+
+  // Chassis state, velocities are robot relative
+  private double m_x;
+  private double m_y;
+  private double m_heading;
+  private double m_vx;
+  private double m_vy;
+  private double m_omega;
+  private double m_gyroDrift;
+  private double m_time;
+
+  // Sensor outputs
+  private final SwerveModuleState[] m_moduleStates;
+  private final SwerveModulePosition[] m_modulePositions;
+  private double m_measuredYawRate;
+  private double m_measuredVelocityX;
+  private double m_measuredVelocityY;
+
+  /**
+   * Create drivetrain simulator
+   * @param seed Random seed for sensor noise and gyro drift
+   * @param maxLinearSpeed Free speed of drive wheels in m/s
+   * @param driveCurrentLimit Drive motor current limit in amps
+   * @param gyroDriftRate Magnitude of gyro yaw drift in rad/s
+   * @param moduleLocations Locations of swerve modules relative to robot center, in same order as modules are set
+   */
+  public DriveSimulator(long seed, double maxLinearSpeed, double driveCurrentLimit, double gyroDriftRate,
+                        Translation2d... moduleLocations) {
+    if (moduleLocations.length < 2) throw new IllegalArgumentException("A swerve drive requires at least two modules");
+    if (maxLinearSpeed <= 0.0) throw new IllegalArgumentException("Max linear speed must be positive");
+
+    this.m_random = new Random(seed);
+    this.m_moduleCount = moduleLocations.length;
+    this.m_moduleX = new double[m_moduleCount];
+    this.m_moduleY = new double[m_moduleCount];
+    this.m_maxLinearSpeed = maxLinearSpeed;
+
+    // Derive drive reduction from wheel free speed, then express motor in wheel linear terms
+    double reduction = DRIVE_MOTOR_FREE_SPEED * WHEEL_RADIUS / maxLinearSpeed;
+    this.m_stallForce = DRIVE_MOTOR_STALL_TORQUE * reduction / WHEEL_RADIUS;
+    this.m_currentLimitForce = m_stallForce * Math.min(driveCurrentLimit / DRIVE_MOTOR_STALL_CURRENT, 1.0);
+    this.m_wheelMass = DRIVE_MOTOR_ROTOR_INERTIA * (reduction / WHEEL_RADIUS) * (reduction / WHEEL_RADIUS);
+    this.m_normalForce = ROBOT_MASS * GRAVITY / m_moduleCount;
+    this.m_gyroDriftRate = m_random.nextBoolean() ? +gyroDriftRate : -gyroDriftRate;
+
+    this.m_commandedSpeeds = new double[m_moduleCount];
+    this.m_commandedAngles = new double[m_moduleCount];
+    this.m_wheelSpeeds = new double[m_moduleCount];
+    this.m_wheelDistances = new double[m_moduleCount];
+    this.m_steerAngles = new double[m_moduleCount];
+    this.m_moduleStates = new SwerveModuleState[m_moduleCount];
+    this.m_modulePositions = new SwerveModulePosition[m_moduleCount];
+
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_moduleX[i] = moduleLocations[i].getX();
+      m_moduleY[i] = moduleLocations[i].getY();
+      m_moduleStates[i] = new SwerveModuleState(0.0, GlobalConstants.ROTATION_ZERO);
+      m_modulePositions[i] = new SwerveModulePosition(0.0, GlobalConstants.ROTATION_ZERO);
+    }
+  }
+
+  /**
+   * Set commanded module states, held until next call
+   * @param moduleStates Module states sent to swerve modules
+   */
+  public void setInputs(SwerveModuleState[] moduleStates) {
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_commandedSpeeds[i] = moduleStates[i].speedMetersPerSecond;
+      m_commandedAngles[i] = moduleStates[i].angle.getRadians();
+    }
+  }
+
+  /**
+   * Command modules to stop, holding their current angles
+   */
+  public void stop() {
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_commandedSpeeds[i] = 0.0;
+      m_commandedAngles[i] = m_steerAngles[i];
+    }
+  }
+
+  /**
+   * Command modules to stop and point towards robot center
+   */
+  public void lock() {
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_commandedSpeeds[i] = 0.0;
+      m_commandedAngles[i] = Math.atan2(m_moduleY[i], m_moduleX[i]);
+    }
+  }
+
+  /**
+   * Advance simulation by given period, in fixed substeps
+   * @param dt Period in seconds
+   */
+  public void update(double dt) {
+    int substeps = Math.max((int)Math.round(dt / SUBSTEP_PERIOD), 1);
+    double h = dt / substeps;
+    for (int i = 0; i < substeps; i++) step(h);
+
+    m_time += dt;
+    m_gyroDrift += m_gyroDriftRate * dt;
+    updateSensors();
+  }
+
+  /**
+   * Integrate drivetrain dynamics over one substep
+   * @param h Substep period in seconds
+   */
+  private void step(double h) {
+    double forceX = 0.0, forceY = 0.0, torque = 0.0;
+    double maxFriction = WHEEL_FRICTION_COEFFICIENT * m_normalForce;
+
+    for (int i = 0; i < m_moduleCount; i++) {
+      // Optimize commanded state against current steer angle, as modules do
+      double targetSpeed = m_commandedSpeeds[i];
+      double angleError = MathUtil.angleModulus(m_commandedAngles[i] - m_steerAngles[i]);
+      if (Math.abs(angleError) > Math.PI / 2) {
+        angleError -= Math.copySign(Math.PI, angleError);
+        targetSpeed = -targetSpeed;
+      }
+
+      // Steer towards target, rate limited
+      double steerVelocity = MathUtil.clamp(angleError / STEER_TIME_CONSTANT, -STEER_MAX_VELOCITY, +STEER_MAX_VELOCITY);
+      m_steerAngles[i] = MathUtil.angleModulus(m_steerAngles[i] + steerVelocity * h);
+      double cos = Math.cos(m_steerAngles[i]), sin = Math.sin(m_steerAngles[i]);
+
+      // Drive motor velocity control with feedforward, limited by battery voltage and current limit
+      double wheelSpeed = m_wheelSpeeds[i];
+      double voltage = MathUtil.clamp(
+        NOMINAL_VOLTAGE * targetSpeed / m_maxLinearSpeed + DRIVE_VELOCITY_KP * (targetSpeed - wheelSpeed),
+        -NOMINAL_VOLTAGE,
+        +NOMINAL_VOLTAGE
+      );
+      double motorForce = m_stallForce * (voltage / NOMINAL_VOLTAGE - wheelSpeed / m_maxLinearSpeed);
+      motorForce = MathUtil.clamp(motorForce, -m_currentLimitForce, +m_currentLimitForce);
+
+      // Velocity of contact patch over ground, in wheel frame
+      double patchVx = m_vx - m_omega * m_moduleY[i];
+      double patchVy = m_vy + m_omega * m_moduleX[i];
+      double longitudinalVelocity = patchVx * cos + patchVy * sin;
+      double lateralVelocity = -patchVx * sin + patchVy * cos;
+
+      // Tire forces on robot from slip, limited to friction circle
+      double longitudinalForce = maxFriction * MathUtil.clamp((wheelSpeed - longitudinalVelocity) / SLIP_SATURATION_VELOCITY, -1.0, +1.0);
+      double lateralForce = -maxFriction * MathUtil.clamp(lateralVelocity / SLIP_SATURATION_VELOCITY, -1.0, +1.0);
+      double tireForce = Math.hypot(longitudinalForce, lateralForce);
+      if (tireForce > maxFriction) {
+        longitudinalForce *= maxFriction / tireForce;
+        lateralForce *= maxFriction / tireForce;
+      }
+
+      // Wheel dynamics, with carpet rolling resistance
+      double rollingForce = -ROLLING_RESISTANCE_COEFFICIENT * m_normalForce
+                            * MathUtil.clamp(wheelSpeed / ROLLING_SATURATION_VELOCITY, -1.0, +1.0);
+      m_wheelSpeeds[i] += (motorForce + rollingForce - longitudinalForce) / m_wheelMass * h;
+      m_wheelDistances[i] += m_wheelSpeeds[i] * h;
+
+      // Accumulate chassis force and torque
+      double moduleForceX = longitudinalForce * cos - lateralForce * sin;
+      double moduleForceY = longitudinalForce * sin + lateralForce * cos;
+      forceX += moduleForceX;
+      forceY += moduleForceY;
+      torque += m_moduleX[i] * moduleForceY - m_moduleY[i] * moduleForceX;
+    }
+
+    // Integrate chassis in rotating robot frame
+    double ax = forceX / ROBOT_MASS + m_omega * m_vy;
+    double ay = forceY / ROBOT_MASS - m_omega * m_vx;
+    m_vx += ax * h;
+    m_vy += ay * h;
+    m_omega += torque / ROBOT_MOMENT_OF_INERTIA * h;
+
+    // Integrate field pose
+    double cos = Math.cos(m_heading), sin = Math.sin(m_heading);
+    m_x += (m_vx * cos - m_vy * sin) * h;
+    m_y += (m_vx * sin + m_vy * cos) * h;
+    m_heading = MathUtil.angleModulus(m_heading + m_omega * h);
+  }
+
+  /**
+   * Sample simulated sensors
+   */
+  private void updateSensors() {
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_moduleStates[i].speedMetersPerSecond = m_wheelSpeeds[i] + m_random.nextGaussian() * ENCODER_VELOCITY_NOISE;
+      m_modulePositions[i].distanceMeters = m_wheelDistances[i];
+      if (m_moduleStates[i].angle.getRadians() != m_steerAngles[i]) {
+        Rotation2d angle = new Rotation2d(m_steerAngles[i]);
+        m_moduleStates[i].angle = angle;
+        m_modulePositions[i].angle = angle;
+      }
+    }
+
+    m_measuredYawRate = m_omega + m_gyroDriftRate + m_random.nextGaussian() * GYRO_RATE_NOISE;
+    m_measuredVelocityX = m_vx + m_random.nextGaussian() * ACCELEROMETER_VELOCITY_NOISE;
+    m_measuredVelocityY = m_vy + m_random.nextGaussian() * ACCELEROMETER_VELOCITY_NOISE;
+  }
+
+  /**
+   * Place robot at given field pose, at rest
+   * <p>
+   * Gyro yaw and encoder distances are unaffected, as if the robot was picked up and moved
+   * @param x X position in meters
+   * @param y Y position in meters
+   * @param heading Heading in radians
+   */
+  public void resetPose(double x, double y, double heading) {
+    m_gyroDrift -= heading - m_heading;
+    m_x = x;
+    m_y = y;
+    m_heading = heading;
+    m_vx = 0.0;
+    m_vy = 0.0;
+    m_omega = 0.0;
+    for (int i = 0; i < m_moduleCount; i++) m_wheelSpeeds[i] = 0.0;
+  }
+
+  /**
+   * Get simulated encoder module states from last update
+   * <p>
+   * Returned array is owned by this object and is overwritten on the next update.
+   * @return Array of module states
+   */
+  public SwerveModuleState[] getModuleStates() {
+    return m_moduleStates;
+  }
+
+  /**
+   * Get simulated encoder module positions from last update
+   * <p>
+   * Returned array is owned by this object and is overwritten on the next update.
+   * @return Array of module positions
+   */
+  public SwerveModulePosition[] getModulePositions() {
+    return m_modulePositions;
+  }
+
+  /**
+   * Get simulated gyro yaw, including drift
+   * @return Yaw in radians, NWU convention
+   */
+  public double getGyroYaw() {
+    return MathUtil.angleModulus(m_heading + m_gyroDrift);
+  }
+
+  /**
+   * Get simulated gyro yaw rate, including drift and noise
+   * @return Yaw rate in rad/s, counter-clockwise positive
+   */
+  public double getGyroYawRate() {
+    return m_measuredYawRate;
+  }
+
+  /**
+   * Get simulated accelerometer X velocity
+   * @return Robot relative X velocity in m/s
+   */
+  public double getMeasuredVelocityX() {
+    return m_measuredVelocityX;
+  }
+
+  /**
+   * Get simulated accelerometer Y velocity
+   * @return Robot relative Y velocity in m/s
+   */
+  public double getMeasuredVelocityY() {
+    return m_measuredVelocityY;
+  }
+
+  /**
+   * Get true X position
+   * @return X position in meters
+   */
+  public double getX() {
+    return m_x;
+  }
+
+  /**
+   * Get true Y position
+   * @return Y position in meters
+   */
+  public double getY() {
+    return m_y;
+  }
+
+  /**
+   * Get true heading
+   * @return Heading in radians
+   */
+  public double getHeading() {
+    return m_heading;
+  }
+
+  /**
+   * Get true robot relative X velocity
+   * @return X velocity in m/s
+   */
+  public double getVelocityX() {
+    return m_vx;
+  }
+
+  /**
+   * Get true robot relative Y velocity
+   * @return Y velocity in m/s
+   */
+  public double getVelocityY() {
+    return m_vy;
+  }
+
+  /**
+   * Get true rotate rate
+   * @return Rotate rate in rad/s, counter-clockwise positive
+   */
+  public double getYawRate() {
+    return m_omega;
+  }
+
+  /**
+   * Get true wheel surface speed
+   * @param index Module index
+   * @return Wheel speed in m/s
+   */
+  public double getWheelSpeed(int index) {
+    return m_wheelSpeeds[index];
+  }
+
+  /**
+   * Get simulated time elapsed
+   * @return Time in seconds
+   */
+  public double getTime() {
+    return m_time;
+  }
+}
@@ -0,0 +1,86 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import org.lasarobotics.utils.GlobalConstants;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Snapshot of drivetrain state, captured once per scheduler cycle
+ * <p>
+ * All consumers within a cycle should read from the same snapshot instead of querying
+ * the pose estimator or swerve modules directly. A single instance is owned by DriveSubsystem and
+ * filled in place every cycle, so fields must not be modified by consumers and should only be read
+ * on the main robot thread. Use {@link frc.robot.utils.PoseHistory} for pose queries from other threads.
+ */
+public class DriveState {
+  /** FPGA timestamp when snapshot was captured, in seconds */
+  public double timestamp;
+  /** Estimated robot pose */
+  public Pose2d pose;
+  /** Estimated robot X position, extrapolated forward by actuation latency, in meters */
+  public double predictedX;
+  /** Estimated robot Y position, extrapolated forward by actuation latency, in meters */
+  public double predictedY;
+  /** Estimated robot heading, extrapolated forward by actuation latency, in radians, not wrapped */
+  public double predictedHeading;
+  /** Gyro heading, NWU convention */
+  public Rotation2d heading;
+  /** Measured swerve module states */
+  public final SwerveModuleState[] moduleStates;
+  /** Measured swerve module positions */
+  public final SwerveModulePosition[] modulePositions;
+  /** Robot relative chassis speeds, derived from module states */
+  public final ChassisSpeeds chassisSpeeds;
+  /** Yaw rate in rad/s */
+  public double yawRate;
+  /** Filtered inertial velocity in m/s */
+  public double inertialVelocity;
+
+  private Pose2d m_predictedPose;
+
+  /**
+   * Create drivetrain state holder
+   * @param moduleStates Module state array, refreshed in place by owner
+   * @param modulePositions Module position array, refreshed in place by owner
+   */
+  public DriveState(SwerveModuleState[] moduleStates, SwerveModulePosition[] modulePositions) {
+    this.pose = new Pose2d();
+    this.heading = GlobalConstants.ROTATION_ZERO;
+    this.moduleStates = moduleStates;
+    this.modulePositions = modulePositions;
+    this.chassisSpeeds = new ChassisSpeeds();
+  }
+
+  /**
+   * Set predicted pose
+   * @param x Predicted X position in meters
+   * @param y Predicted Y position in meters
+   * @param heading Predicted heading in radians
+   */
+  void setPredictedPose(double x, double y, double heading) {
+    predictedX = x;
+    predictedY = y;
+    predictedHeading = heading;
+    m_predictedPose = null;
+  }
+
+  /**
+   * Get estimated robot pose, extrapolated forward by actuation latency
+   * <p>
+   * Created on first call after each update; per-cycle consumers should read
+   * {@link #predictedX}, {@link #predictedY} and {@link #predictedHeading} instead.
+   * @return Predicted robot pose
+   */
+  public Pose2d getPredictedPose() {
+    if (m_predictedPose == null) m_predictedPose = new Pose2d(predictedX, predictedY, Rotation2d.fromRadians(predictedHeading));
+    return m_predictedPose;
+  }
+}
@@ -4,13 +4,10 @@
 
 package frc.robot.subsystems.drive;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 
 import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
-import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
-import org.lasarobotics.drive.AdvancedSwerveKinematics;
 import org.lasarobotics.drive.AdvancedSwerveKinematics.ControlCentricity;
 import org.lasarobotics.drive.MAXSwerveModule;
 import org.lasarobotics.drive.RotatePIDController;
@@ -21,7 +18,6 @@ import org.lasarobotics.led.LEDStrip.Pattern;
 import org.lasarobotics.led.LEDSubsystem;
 import org.lasarobotics.utils.GlobalConstants;
 import org.lasarobotics.utils.PIDConstants;
-import org.littletonrobotics.junction.Logger;
 
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.path.PathConstraints;
@@ -31,9 +27,6 @@ import com.pathplanner.lib.util.ReplanningConfig;
 
 import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.VecBuilder;
-import edu.wpi.first.math.controller.ProfiledPIDController;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
-import edu.wpi.first.math.filter.MedianFilter;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
@@ -50,20 +43,30 @@ import edu.wpi.first.units.Angle;
 import edu.wpi.first.units.Current;
 import edu.wpi.first.units.Distance;
 import edu.wpi.first.units.Measure;
+import edu.wpi.first.units.MutableMeasure;
 import edu.wpi.first.units.Time;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.units.Velocity;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.Constants;
 import frc.robot.subsystems.vision.VisionSubsystem;
+import frc.robot.utils.DashboardPublisher;
+import frc.robot.utils.LookupTableSplineFunction;
+import frc.robot.utils.LoopProfiler;
+import frc.robot.utils.OutputLogger;
+import frc.robot.utils.PoseHistory;
+import frc.robot.utils.SlidingMedianFilter2d;
 
 public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
   public static class Hardware {
@@ -72,17 +75,28 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     MAXSwerveModule rFrontModule;
     MAXSwerveModule lRearModule;
     MAXSwerveModule rRearModule;
+    DriveSimulator simulator;
 
     public Hardware(NavX2 navx,
                     MAXSwerveModule lFrontModule,
                     MAXSwerveModule rFrontModule,
                     MAXSwerveModule lRearModule,
                     MAXSwerveModule rRearModule) {
+      this(navx, lFrontModule, rFrontModule, lRearModule, rRearModule, null);
+    }
+
+    public Hardware(NavX2 navx,
+                    MAXSwerveModule lFrontModule,
+                    MAXSwerveModule rFrontModule,
+                    MAXSwerveModule lRearModule,
+                    MAXSwerveModule rRearModule,
+                    DriveSimulator simulator) {
       this.navx = navx;
       this.lFrontModule = lFrontModule;
       this.rFrontModule = rFrontModule;
       this.lRearModule = lRearModule;
       this.rRearModule = rRearModule;
+      this.simulator = simulator;
     }
   }
 
@@ -96,16 +110,50 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
   public static final Measure<Velocity<Angle>> DRIVE_ROTATE_VELOCITY = Units.RadiansPerSecond.of(12 * Math.PI);
   public static final Measure<Velocity<Angle>> AIM_VELOCITY_THRESHOLD = Units.DegreesPerSecond.of(5.0);
   public static final Measure<Velocity<Velocity<Angle>>> DRIVE_ROTATE_ACCELERATION = Units.RadiansPerSecond.of(4 * Math.PI).per(Units.Second);
+  public static final Measure<Velocity<Velocity<Distance>>> MODULE_MAX_DRIVE_ACCELERATION = Units.MetersPerSecondPerSecond.of(10.0);
+  public static final Measure<Velocity<Angle>> MODULE_MAX_AZIMUTH_VELOCITY = Units.RadiansPerSecond.of(20.0);
   public static final Translation2d AIM_OFFSET = new Translation2d(0.0, -0.5);
   public final Measure<Velocity<Distance>> DRIVE_MAX_LINEAR_SPEED;
   public final Measure<Velocity<Velocity<Distance>>> DRIVE_AUTO_ACCELERATION;
 
   // Other settings
   private static final int INERTIAL_VELOCITY_FILTER_TAPS = 100;
+  private static final int INPUT_CURVE_TABLE_SIZE = 1001;
+  private static final double FIELD_POSE_PUBLISH_RATE = 10.0;
+  private static final SlidingMedianFilter2d.Mode INERTIAL_VELOCITY_FILTER_MODE = SlidingMedianFilter2d.Mode.INDEPENDENT;
   private static final double TOLERANCE = 1.5;
   private static final double TIP_THRESHOLD = 35.0;
   private static final double BALANCED_THRESHOLD = 10.0;
-  private static final double AIM_VELOCITY_COMPENSATION_FUDGE_FACTOR = 0.1;
+  private static final double TIP_ONSET_THRESHOLD = 5.0;
+  private static final double TIP_CONFIRM_THRESHOLD = 20.0;
+  private static final double TIP_PREDICTION_HORIZON = 0.3;
+  private static final double TIP_FILTER_GAIN = 0.5;
+  private static final double SHOT_EXIT_VELOCITY = 12.0;
+  private static final double SHOT_LATENCY = 0.1;
+  private static final int SHOT_SOLVER_MAX_ITERATIONS = 8;
+  private static final double SHOT_SOLVER_TOLERANCE = 1e-3;
+  private static final long SIMULATION_SEED = 0L;
+  private static final int POSE_HISTORY_CAPACITY = 512;
+  private static final double VISION_FUSION_WINDOW = 0.01;
+  private static final int POSE_QUERY_HISTORY_CAPACITY = 256;
+  private static final double VISION_GATE_DOWNWEIGHT_THRESHOLD = 3.0;
+  private static final double VISION_GATE_REJECT_THRESHOLD = 5.0;
+  private static final int VISION_GATE_RELOCALIZE_COUNT = 10;
+  private static final double VISION_RELOCALIZE_STDDEV = 1e-3;
+  private static final double GYRO_BIAS_HEADING_NOISE = 1e-3;
+  private static final double GYRO_BIAS_NOISE = 1e-5;
+  private static final Measure<Velocity<Angle>> GYRO_BIAS_MAX = Units.DegreesPerSecond.of(2.0 / 60);
+  private static final int GYRO_BIAS_MIN_TAGS = 2;
+  private static final Measure<Distance> VISION_RESET_MAX_DISAGREEMENT = Units.Meters.of(0.5);
+  private static final Measure<Angle> VISION_RESET_MAX_HEADING_DISAGREEMENT = Units.Degrees.of(10.0);
+  private static final int VISION_RESET_MIN_RESULTS = 2;
+  private static final double VISION_RESET_MIN_SCORE = 0.5;
+  private static final Measure<Time> VISION_RESET_MAX_AGE = Units.Seconds.of(0.5);
+  private static final double ODOMETRY_TRUST_MODULE_THRESHOLD = 0.3;
+  private static final double ODOMETRY_TRUST_INERTIAL_THRESHOLD = 0.5;
+  private static final double ODOMETRY_TRUST_JERK_THRESHOLD = 250.0;
+  private static final double ODOMETRY_TRUST_MAX_SCALE = 10.0;
+  private static final double ODOMETRY_TRUST_RECOVERY_TIME = 0.5;
   private static final Matrix<N3, N1> ODOMETRY_STDDEV = VecBuilder.fill(0.03, 0.03, Math.toRadians(1.0));
   private static final Matrix<N3, N1> VISION_STDDEV = VecBuilder.fill(1.0, 1.0, Math.toRadians(3.0));
   private static final PIDConstants AUTO_AIM_PID = new PIDConstants(10.0, 0.0, 0.5, 0.0, 0.0, GlobalConstants.ROBOT_LOOP_PERIOD);
@@ -122,17 +170,60 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
 
   // Log
   private static final String POSE_LOG_ENTRY = "/Pose";
+  private static final String PREDICTED_POSE_LOG_ENTRY = "/PredictedPose";
   private static final String ACTUAL_SWERVE_STATE_LOG_ENTRY = "/ActualSwerveState";
   private static final String DESIRED_SWERVE_STATE_LOG_ENTRY = "/DesiredSwerveState";
+  private static final String AIM_POINT_LOG_ENTRY = "/AimPoint";
+  private static final String AIM_ERROR_LOG_ENTRY = "/AimError";
+  private static final String SIMULATED_POSE_LOG_ENTRY = "/Sim/TruePose";
+  private static final String TIP_SEVERITY_LOG_ENTRY = "/AntiTip/Severity";
+  private static final String TIP_DETECTIONS_LOG_ENTRY = "/AntiTip/Detections";
+  private static final String TIP_FALSE_POSITIVES_LOG_ENTRY = "/AntiTip/FalsePositives";
+  private static final String TIP_DETECTION_LATENCY_LOG_ENTRY = "/AntiTip/DetectionLatency";
+  private static final String VISION_GATE_LOG_ENTRY = "/VisionGate";
+  private static final String GYRO_BIAS_LOG_ENTRY = "/GyroBias/Bias";
+  private static final String GYRO_BIAS_STDDEV_LOG_ENTRY = "/GyroBias/BiasStdDev";
+  private static final String VISION_RESET_COUNT_LOG_ENTRY = "/VisionReset/Count";
+  private static final String VISION_RESET_REFUSED_LOG_ENTRY = "/VisionReset/Refused";
+  private static final String VISION_RESET_NO_RESULTS_LOG_ENTRY = "/VisionReset/NoResults";
+  private static final String VISION_RESET_DISAGREEMENT_LOG_ENTRY = "/VisionReset/Disagreement";
+  private static final String ODOMETRY_TRUST_SCALE_LOG_ENTRY = "/OdometryTrust/Scale";
+  private static final String ODOMETRY_TRUST_MODULE_RESIDUAL_LOG_ENTRY = "/OdometryTrust/ModuleResidual";
+  private static final String ODOMETRY_TRUST_INERTIAL_ERROR_LOG_ENTRY = "/OdometryTrust/InertialError";
+  private static final String ODOMETRY_TRUST_JERK_LOG_ENTRY = "/OdometryTrust/Jerk";
+  private static final OutputLogger.Policy POSE_LOG_POLICY = OutputLogger.Policy.onChange(1e-3);
+  private static final OutputLogger.Policy SWERVE_STATE_LOG_POLICY = OutputLogger.Policy.onChange(1e-3);
+  private static final OutputLogger.Policy AIM_POINT_LOG_POLICY = OutputLogger.Policy.everyNCycles(5);
+  private static final OutputLogger.Policy AIM_ERROR_LOG_POLICY = OutputLogger.Policy.onChange(0.1);
+  private static final OutputLogger.Policy TIP_LOG_POLICY = OutputLogger.Policy.onChange(1e-3);
+  private static final OutputLogger.Policy GYRO_BIAS_LOG_POLICY = OutputLogger.Policy.onChange(1e-6);
+  private static final OutputLogger.Policy VISION_RESET_LOG_POLICY = OutputLogger.Policy.onChange(1e-3);
+  private static final OutputLogger.Policy ODOMETRY_TRUST_LOG_POLICY = OutputLogger.Policy.onChange(1e-3);
+
+  // Profiler stages
+  private static final int FILTER_STAGE = 0;
+  private static final int ODOMETRY_STAGE = 1;
+  private static final int VISION_STAGE = 2;
+  private static final int DASHBOARD_STAGE = 3;
+  private static final int LOG_STAGE = 4;
 
 
   private ThrottleMap m_throttleMap;
-  private RotatePIDController m_rotatePIDController;
-  private ProfiledPIDController m_autoAimPIDControllerFront;
-  private ProfiledPIDController m_autoAimPIDControllerBack;
+  private HeadingController m_headingController;
   private SwerveDriveKinematics m_kinematics;
-  private SwerveDrivePoseEstimator m_poseEstimator;
-  private AdvancedSwerveKinematics m_advancedKinematics;
+  private FastSwervePoseEstimator m_poseEstimator;
+  private VisionGate m_visionGate;
+  private PoseHistory m_poseHistory;
+  private GyroBiasEstimator m_gyroBiasEstimator;
+  private VisionConsensus m_visionConsensus;
+  private OdometryTrustEstimator m_odometryTrustEstimator;
+  private long m_visionResetCount;
+  private long m_visionResetRefusedCount;
+  private long m_visionResetNoResultsCount;
+  private double[] m_visionPredictedPose;
+  private FastSwerveKinematics m_fastKinematics;
+  private SwerveSetpointGenerator m_setpointGenerator;
+  private final DriveSimulator m_simulator;
   private HolonomicPathFollowerConfig m_pathFollowerConfig;
 
   private NavX2 m_navx;
@@ -143,15 +234,48 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
 
 
   private ControlCentricity m_controlCentricity;
+  private DriveState m_state;
   private ChassisSpeeds m_desiredChassisSpeeds;
+  private SwerveModuleState[] m_measuredModuleStates;
+  private SwerveModulePosition[] m_measuredModulePositions;
+  private MutableMeasure<Velocity<Distance>> m_inertialVelocity;
+  private MutableMeasure<Velocity<Angle>> m_desiredRotateRate;
   private boolean m_isTractionControlEnabled = true;
+  private boolean m_isSetpointGeneratorEnabled = true;
   private Rotation2d m_allianceCorrection;
   private Pose2d m_previousPose;
-  private Rotation2d m_currentHeading;
+  private PoseExtrapolator m_poseExtrapolator;
+  private MovingShotSolver m_shotSolver;
   private PurplePathClient m_purplePathClient;
   private Field2d m_field;
-  private MedianFilter m_xVelocityFilter;
-  private MedianFilter m_yVelocityFilter;
+  private DashboardPublisher.Field2dEntry m_fieldEntry;
+  private DashboardPublisher.BooleanEntry m_tractionControlEntry;
+  private DashboardPublisher.BooleanEntry m_purplePathEntry;
+  private DashboardPublisher.BooleanEntry m_fieldCentricEntry;
+  private SlidingMedianFilter2d m_inertialVelocityFilter;
+  private TipPredictor m_tipPredictor;
+  private LoopProfiler m_profiler;
+  private OutputLogger.Pose2dOutput m_poseOutput;
+  private OutputLogger.Pose2dOutput m_predictedPoseOutput;
+  private OutputLogger.SwerveModuleStatesOutput m_actualSwerveStateOutput;
+  private OutputLogger.SwerveModuleStatesOutput m_desiredSwerveStateOutput;
+  private OutputLogger.Pose2dOutput m_aimPointOutput;
+  private OutputLogger.DoubleOutput m_aimErrorOutput;
+  private OutputLogger.Pose2dOutput m_simulatedPoseOutput;
+  private OutputLogger.DoubleOutput m_tipSeverityOutput;
+  private OutputLogger.LongOutput m_tipDetectionsOutput;
+  private OutputLogger.LongOutput m_tipFalsePositivesOutput;
+  private OutputLogger.DoubleOutput m_tipDetectionLatencyOutput;
+  private OutputLogger.DoubleOutput m_gyroBiasOutput;
+  private OutputLogger.DoubleOutput m_gyroBiasStdDevOutput;
+  private OutputLogger.LongOutput m_visionResetCountOutput;
+  private OutputLogger.LongOutput m_visionResetRefusedOutput;
+  private OutputLogger.LongOutput m_visionResetNoResultsOutput;
+  private OutputLogger.DoubleOutput m_visionResetDisagreementOutput;
+  private OutputLogger.DoubleOutput m_odometryTrustScaleOutput;
+  private OutputLogger.DoubleOutput m_odometryTrustModuleResidualOutput;
+  private OutputLogger.DoubleOutput m_odometryTrustInertialErrorOutput;
+  private OutputLogger.DoubleOutput m_odometryTrustJerkOutput;
 
   private Alliance m_currentAlliance;
 
@@ -164,7 +288,7 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
       lock();
       LEDSubsystem.getInstance().endOverride();
     },
-    this::isBalanced,
+    () -> isBalanced() && !isTipping(),
     this
   );
 
@@ -193,9 +317,31 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     this.m_rFrontModule = drivetrainHardware.rFrontModule;
     this.m_lRearModule = drivetrainHardware.lRearModule;
     this.m_rRearModule = drivetrainHardware.rRearModule;
+    this.m_simulator = drivetrainHardware.simulator;
     this.m_controlCentricity = controlCentricity;
-    this.m_throttleMap = new ThrottleMap(throttleInputCurve, DRIVE_MAX_LINEAR_SPEED, deadband);
-    this.m_rotatePIDController = new RotatePIDController(turnInputCurve, pidf, turnScalar, deadband, lookAhead);
+    this.m_measuredModuleStates = new SwerveModuleState[4];
+    this.m_measuredModulePositions = new SwerveModulePosition[4];
+    for (int i = 0; i < m_measuredModuleStates.length; i++) {
+      m_measuredModuleStates[i] = new SwerveModuleState();
+      m_measuredModulePositions[i] = new SwerveModulePosition();
+    }
+    this.m_throttleMap = new ThrottleMap(
+      new LookupTableSplineFunction(throttleInputCurve, INPUT_CURVE_TABLE_SIZE),
+      DRIVE_MAX_LINEAR_SPEED,
+      deadband
+    );
+    this.m_headingController = new HeadingController(
+      new RotatePIDController(
+        new LookupTableSplineFunction(turnInputCurve, INPUT_CURVE_TABLE_SIZE),
+        pidf,
+        turnScalar,
+        deadband,
+        lookAhead
+      ),
+      AUTO_AIM_PID,
+      AIM_PID_CONSTRAINT,
+      TOLERANCE
+    );
     this.m_pathFollowerConfig = new HolonomicPathFollowerConfig(
       new com.pathplanner.lib.util.PIDConstants(3.1, 0.0, 0.0),
       new com.pathplanner.lib.util.PIDConstants(5.0, 0.0, 0.1),
@@ -205,16 +351,46 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
       GlobalConstants.ROBOT_LOOP_PERIOD
     );
     this.m_allianceCorrection = GlobalConstants.ROTATION_ZERO;
-    this.m_xVelocityFilter = new MedianFilter(INERTIAL_VELOCITY_FILTER_TAPS);
-    this.m_yVelocityFilter = new MedianFilter(INERTIAL_VELOCITY_FILTER_TAPS);
+    this.m_inertialVelocityFilter = new SlidingMedianFilter2d(INERTIAL_VELOCITY_FILTER_TAPS, INERTIAL_VELOCITY_FILTER_MODE);
+    this.m_profiler = new LoopProfiler(
+      getName(),
+      Constants.Profiling.ENABLED,
+      Constants.Profiling.PUBLISH_PERIOD,
+      "Filter", "Odometry", "Vision", "Dashboard", "Log"
+    );
+
+    // Initialise log outputs
+    m_poseOutput = OutputLogger.pose2dOutput(getName() + POSE_LOG_ENTRY, POSE_LOG_POLICY);
+    m_predictedPoseOutput = OutputLogger.pose2dOutput(getName() + PREDICTED_POSE_LOG_ENTRY, POSE_LOG_POLICY);
+    m_actualSwerveStateOutput = OutputLogger.swerveModuleStatesOutput(getName() + ACTUAL_SWERVE_STATE_LOG_ENTRY, SWERVE_STATE_LOG_POLICY, 4);
+    m_desiredSwerveStateOutput = OutputLogger.swerveModuleStatesOutput(getName() + DESIRED_SWERVE_STATE_LOG_ENTRY, SWERVE_STATE_LOG_POLICY, 4);
+    m_aimPointOutput = OutputLogger.pose2dOutput(getName() + AIM_POINT_LOG_ENTRY, AIM_POINT_LOG_POLICY);
+    m_aimErrorOutput = OutputLogger.doubleOutput(getName() + AIM_ERROR_LOG_ENTRY, AIM_ERROR_LOG_POLICY);
+    m_simulatedPoseOutput = OutputLogger.pose2dOutput(getName() + SIMULATED_POSE_LOG_ENTRY, POSE_LOG_POLICY);
+    m_tipSeverityOutput = OutputLogger.doubleOutput(getName() + TIP_SEVERITY_LOG_ENTRY, TIP_LOG_POLICY);
+    m_tipDetectionsOutput = OutputLogger.longOutput(getName() + TIP_DETECTIONS_LOG_ENTRY, TIP_LOG_POLICY);
+    m_tipFalsePositivesOutput = OutputLogger.longOutput(getName() + TIP_FALSE_POSITIVES_LOG_ENTRY, TIP_LOG_POLICY);
+    m_tipDetectionLatencyOutput = OutputLogger.doubleOutput(getName() + TIP_DETECTION_LATENCY_LOG_ENTRY, TIP_LOG_POLICY);
+    m_gyroBiasOutput = OutputLogger.doubleOutput(getName() + GYRO_BIAS_LOG_ENTRY, GYRO_BIAS_LOG_POLICY);
+    m_gyroBiasStdDevOutput = OutputLogger.doubleOutput(getName() + GYRO_BIAS_STDDEV_LOG_ENTRY, GYRO_BIAS_LOG_POLICY);
+    m_visionResetCountOutput = OutputLogger.longOutput(getName() + VISION_RESET_COUNT_LOG_ENTRY, VISION_RESET_LOG_POLICY);
+    m_visionResetRefusedOutput = OutputLogger.longOutput(getName() + VISION_RESET_REFUSED_LOG_ENTRY, VISION_RESET_LOG_POLICY);
+    m_visionResetNoResultsOutput = OutputLogger.longOutput(getName() + VISION_RESET_NO_RESULTS_LOG_ENTRY, VISION_RESET_LOG_POLICY);
+    m_visionResetDisagreementOutput = OutputLogger.doubleOutput(getName() + VISION_RESET_DISAGREEMENT_LOG_ENTRY, VISION_RESET_LOG_POLICY);
+    m_odometryTrustScaleOutput = OutputLogger.doubleOutput(getName() + ODOMETRY_TRUST_SCALE_LOG_ENTRY, ODOMETRY_TRUST_LOG_POLICY);
+    m_odometryTrustModuleResidualOutput = OutputLogger.doubleOutput(getName() + ODOMETRY_TRUST_MODULE_RESIDUAL_LOG_ENTRY, ODOMETRY_TRUST_LOG_POLICY);
+    m_odometryTrustInertialErrorOutput = OutputLogger.doubleOutput(getName() + ODOMETRY_TRUST_INERTIAL_ERROR_LOG_ENTRY, ODOMETRY_TRUST_LOG_POLICY);
+    m_odometryTrustJerkOutput = OutputLogger.doubleOutput(getName() + ODOMETRY_TRUST_JERK_LOG_ENTRY, ODOMETRY_TRUST_LOG_POLICY);
 
     // Calibrate and reset navX
     while (m_navx.isCalibrating()) stop();
     m_navx.reset();
 
-    // Setup rotate PID
-    m_rotatePIDController.setTolerance(TOLERANCE);
-    m_rotatePIDController.setSetpoint(getAngle().in(Units.Degrees));
+    // Estimate gyro bias from vision, correcting gyro angle
+    m_gyroBiasEstimator = new GyroBiasEstimator(GYRO_BIAS_HEADING_NOISE, GYRO_BIAS_NOISE, GYRO_BIAS_MAX.in(Units.RadiansPerSecond));
+
+    // Start in driver heading control, holding initial heading
+    m_headingController.resetDriver(getAngle());
 
     // Define drivetrain kinematics
     m_kinematics = new SwerveDriveKinematics(m_lFrontModule.getModuleCoordinate(),
@@ -222,39 +398,104 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
                                              m_lRearModule.getModuleCoordinate(),
                                              m_rRearModule.getModuleCoordinate());
 
-    // Define advanced drivetrain kinematics
-    m_advancedKinematics = new AdvancedSwerveKinematics(m_lFrontModule.getModuleCoordinate(),
-                                                        m_rFrontModule.getModuleCoordinate(),
-                                                        m_lRearModule.getModuleCoordinate(),
-                                                        m_rRearModule.getModuleCoordinate());
+    // Define allocation-free drivetrain kinematics
+    m_fastKinematics = new FastSwerveKinematics(m_lFrontModule.getModuleCoordinate(),
+                                                m_rFrontModule.getModuleCoordinate(),
+                                                m_lRearModule.getModuleCoordinate(),
+                                                m_rRearModule.getModuleCoordinate());
+
+    // Initialise setpoint generator, starting from measured module states
+    m_setpointGenerator = new SwerveSetpointGenerator(
+      4,
+      MODULE_MAX_DRIVE_ACCELERATION.in(Units.MetersPerSecondPerSecond),
+      MODULE_MAX_AZIMUTH_VELOCITY.in(Units.RadiansPerSecond)
+    );
+    m_setpointGenerator.reset(getModuleStates());
 
     // Initialise pose estimator
-    m_poseEstimator = new SwerveDrivePoseEstimator(
-      m_kinematics,
+    m_poseEstimator = new FastSwervePoseEstimator(
+      new Translation2d[] {
+        m_lFrontModule.getModuleCoordinate(),
+        m_rFrontModule.getModuleCoordinate(),
+        m_lRearModule.getModuleCoordinate(),
+        m_rRearModule.getModuleCoordinate()
+      },
       getRotation2d(),
       getModulePositions(),
       new Pose2d(),
       ODOMETRY_STDDEV,
-      VISION_STDDEV
+      VISION_STDDEV,
+      POSE_HISTORY_CAPACITY
     );
 
-    // Initialise chassis speeds
-    m_desiredChassisSpeeds = new ChassisSpeeds();
+    // Initialise odometry trust, scaling odometry standard deviations during slip and collisions
+    m_odometryTrustEstimator = new OdometryTrustEstimator(
+      new Translation2d[] {
+        m_lFrontModule.getModuleCoordinate(),
+        m_rFrontModule.getModuleCoordinate(),
+        m_lRearModule.getModuleCoordinate(),
+        m_rRearModule.getModuleCoordinate()
+      },
+      ODOMETRY_TRUST_MODULE_THRESHOLD,
+      ODOMETRY_TRUST_INERTIAL_THRESHOLD,
+      ODOMETRY_TRUST_JERK_THRESHOLD,
+      ODOMETRY_TRUST_MAX_SCALE,
+      ODOMETRY_TRUST_RECOVERY_TIME
+    );
+
+    // Initialise vision outlier gate
+    m_visionGate = new VisionGate(
+      getName() + VISION_GATE_LOG_ENTRY,
+      ODOMETRY_STDDEV,
+      VISION_GATE_DOWNWEIGHT_THRESHOLD,
+      VISION_GATE_REJECT_THRESHOLD,
+      VISION_GATE_RELOCALIZE_COUNT
+    );
+    m_visionPredictedPose = new double[3];
+
+    // Initialise multi-camera consensus for re-localization
+    m_visionConsensus = new VisionConsensus(
+      VISION_RESET_MAX_DISAGREEMENT.in(Units.Meters),
+      VISION_RESET_MAX_HEADING_DISAGREEMENT.in(Units.Radians),
+      VISION_RESET_MIN_RESULTS,
+      VISION_RESET_MIN_SCORE,
+      VISION_RESET_MAX_AGE.in(Units.Seconds)
+    );
 
-    // Setup anti-tip command
-    //new Trigger(this::isTipping).whileTrue(ANTI_TIP_COMMAND);
+    // Initialise history of fused poses for time-indexed queries
+    m_poseHistory = new PoseHistory(POSE_QUERY_HISTORY_CAPACITY);
 
-    // Setup auto-aim PID controller
-    m_autoAimPIDControllerFront = new ProfiledPIDController(AUTO_AIM_PID.kP, 0.0, AUTO_AIM_PID.kD, AIM_PID_CONSTRAINT, AUTO_AIM_PID.period);
-    m_autoAimPIDControllerFront.enableContinuousInput(-180.0, +180.0);
-    m_autoAimPIDControllerFront.setTolerance(TOLERANCE);
-    m_autoAimPIDControllerBack = new ProfiledPIDController(AUTO_AIM_PID.kP, 0.0, AUTO_AIM_PID.kD, AIM_PID_CONSTRAINT, AUTO_AIM_PID.period);
-    m_autoAimPIDControllerBack.enableContinuousInput(-180.0, +180.0);
-    m_autoAimPIDControllerBack.setTolerance(TOLERANCE);
+    // Initialise pose extrapolator, compensating for actuation latency
+    m_poseExtrapolator = new PoseExtrapolator(Constants.Drive.ACTUATION_LATENCY);
+
+    // Capture initial drivetrain state into reusable holder
+    m_state = new DriveState(getModuleStates(), getModulePositions());
+    updateState();
+
+    // Initialise chassis speeds and reusable traction control inputs
+    m_desiredChassisSpeeds = new ChassisSpeeds();
+    m_inertialVelocity = MutableMeasure.zero(Units.MetersPerSecond);
+    m_desiredRotateRate = MutableMeasure.zero(Units.RadiansPerSecond);
+
+    // Create tip predictor, updated once per loop
+    m_tipPredictor = new TipPredictor(
+      TIP_THRESHOLD,
+      TIP_ONSET_THRESHOLD,
+      TIP_CONFIRM_THRESHOLD,
+      TIP_PREDICTION_HORIZON,
+      TIP_FILTER_GAIN
+    );
+
+    // Setup anti-tip command, as soon as tipping is predicted
+    new Trigger(this::isTipping).whileTrue(ANTI_TIP_COMMAND);
 
     // Initialise other variables
     m_previousPose = new Pose2d();
-    m_currentHeading = new Rotation2d();
+    m_shotSolver = new MovingShotSolver(
+      MovingShotSolver.ProjectileModel.constantVelocity(SHOT_EXIT_VELOCITY, SHOT_LATENCY),
+      SHOT_SOLVER_MAX_ITERATIONS,
+      SHOT_SOLVER_TOLERANCE
+    );
 
     // Initalise PurplePathClient
     m_purplePathClient = new PurplePathClient(this);
@@ -263,6 +504,12 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     m_field = new Field2d();
     SmartDashboard.putData(m_field);
 
+    // Initialise dashboard entries
+    m_fieldEntry = DashboardPublisher.getInstance().field2dEntry(m_field, FIELD_POSE_PUBLISH_RATE);
+    m_tractionControlEntry = DashboardPublisher.getInstance().booleanEntry("TC");
+    m_purplePathEntry = DashboardPublisher.getInstance().booleanEntry("PurplePath");
+    m_fieldCentricEntry = DashboardPublisher.getInstance().booleanEntry("FC");
+
     // Setup path logging callback
     PathPlannerLogging.setLogActivePathCallback((poses) -> {
       if (poses.isEmpty()) return;
@@ -274,8 +521,9 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
       m_field.getObject("currentPath").setTrajectory(trajectory);
     });
 
-    // Set VisionSubsystem pose supplier for simulation
+    // Set VisionSubsystem pose supplier for simulation, and history for projecting detections
     VisionSubsystem.getInstance().setPoseSupplier(this::getPose);
+    VisionSubsystem.getInstance().setPoseHistory(m_poseHistory);
   }
 
   /**
@@ -349,7 +597,22 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
       Constants.Drive.DRIVE_SLIP_RATIO
     );
 
-    Hardware drivetrainHardware = new Hardware(navx, lFrontModule, rFrontModule, lRearModule, rRearModule);
+    // Create drivetrain physics simulator, replacing module sensors in simulation
+    DriveSimulator simulator = null;
+    if (RobotBase.isSimulation()) {
+      simulator = new DriveSimulator(
+        SIMULATION_SEED,
+        DRIVE_MAX_LINEAR_SPEED.in(Units.MetersPerSecond),
+        DRIVE_CURRENT_LIMIT.in(Units.Amps),
+        NAVX2_YAW_DRIFT_RATE.in(Units.RadiansPerSecond),
+        lFrontModule.getModuleCoordinate(),
+        rFrontModule.getModuleCoordinate(),
+        lRearModule.getModuleCoordinate(),
+        rRearModule.getModuleCoordinate()
+      );
+    }
+
+    Hardware drivetrainHardware = new Hardware(navx, lFrontModule, rFrontModule, lRearModule, rRearModule, simulator);
 
     return drivetrainHardware;
   }
@@ -363,7 +626,8 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     m_rFrontModule.set(moduleStates);
     m_lRearModule.set(moduleStates);
     m_rRearModule.set(moduleStates);
-    Logger.recordOutput(getName() + DESIRED_SWERVE_STATE_LOG_ENTRY, moduleStates);
+    if (m_simulator != null) m_simulator.setInputs(moduleStates);
+    m_desiredSwerveStateOutput.set(moduleStates);
   }
 
   /**
@@ -377,157 +641,344 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     m_rFrontModule.set(moduleStates, inertialVelocity, rotateRate);
     m_lRearModule.set(moduleStates, inertialVelocity, rotateRate);
     m_rRearModule.set(moduleStates, inertialVelocity, rotateRate);
-    Logger.recordOutput(getName() + DESIRED_SWERVE_STATE_LOG_ENTRY, moduleStates);
+    if (m_simulator != null) m_simulator.setInputs(moduleStates);
+    m_desiredSwerveStateOutput.set(moduleStates);
   }
 
   /**
    * Drive robot and apply traction control
-   * @param xRequest Desired X (forward) velocity
-   * @param yRequest Desired Y (sideways) velocity
-   * @param rotateRequest Desired rotate rate
-   * @param inertialVelocity Current robot inertial velocity
-   * @param controlCentricity Current robot rotate rate
+   * @param controlCentricity Control centricity
+   * @param xRequest Desired X (forward) velocity in m/s
+   * @param yRequest Desired Y (sideways) velocity in m/s
+   * @param rotateRequest Desired rotate rate in rad/s
+   * @param inertialVelocity Current robot inertial velocity in m/s
    */
   private void drive(ControlCentricity controlCentricity,
-                     Measure<Velocity<Distance>> xRequest,
-                     Measure<Velocity<Distance>> yRequest,
-                     Measure<Velocity<Angle>> rotateRequest,
-                     Measure<Velocity<Distance>> inertialVelocity) {
-    // Get requested chassis speeds, correcting for second order kinematics
-    m_desiredChassisSpeeds = AdvancedSwerveKinematics.correctForDynamics(
-      new ChassisSpeeds(xRequest, yRequest, rotateRequest)
-    );
-
-    // Convert speeds to module states, correcting for 2nd order kinematics
-    SwerveModuleState[] moduleStates = m_advancedKinematics.toSwerveModuleStates(
-      m_desiredChassisSpeeds,
-      getPose().getRotation().plus(m_allianceCorrection),
-      controlCentricity
+                     double xRequest,
+                     double yRequest,
+                     double rotateRequest,
+                     double inertialVelocity) {
+    // Convert speeds to module states, correcting for 2nd order kinematics and desaturating
+    SwerveModuleState[] moduleStates = m_fastKinematics.calculate(
+      xRequest,
+      yRequest,
+      rotateRequest,
+      m_state.pose.getRotation().getRadians() + m_allianceCorrection.getRadians(),
+      controlCentricity,
+      DRIVE_MAX_LINEAR_SPEED.in(Units.MetersPerSecond)
     );
-
-    // Desaturate drive speeds
-    SwerveDriveKinematics.desaturateWheelSpeeds(moduleStates, DRIVE_MAX_LINEAR_SPEED);
+    moduleStates = limitSetpoint(moduleStates);
+    updateDesiredChassisSpeeds();
 
     // Set modules to calculated states, WITH traction control
-    setSwerveModules(moduleStates, inertialVelocity, Units.RadiansPerSecond.of(m_desiredChassisSpeeds.omegaRadiansPerSecond));
+    m_inertialVelocity.mut_setMagnitude(inertialVelocity);
+    m_desiredRotateRate.mut_setMagnitude(m_desiredChassisSpeeds.omegaRadiansPerSecond);
+    setSwerveModules(moduleStates, m_inertialVelocity, m_desiredRotateRate);
   }
 
   /**
    * Drive robot without traction control
-   *
-   * @param xRequest      Desired X (forward) velocity
-   * @param yRequest      Desired Y (sideways) velocity
-   * @param rotateRequest Desired rotate rate
-   */
-  private void drive(Measure<Velocity<Distance>> xRequest,
-                     Measure<Velocity<Distance>> yRequest,
-                     Measure<Velocity<Angle>> rotateRequest) {
-    // Get requested chassis speeds, correcting for second order kinematics
-    m_desiredChassisSpeeds = AdvancedSwerveKinematics.correctForDynamics(
-      new ChassisSpeeds(xRequest, yRequest, rotateRequest)
-    );
+   * @param xRequest Desired X (forward) velocity in m/s
+   * @param yRequest Desired Y (sideways) velocity in m/s
+   * @param rotateRequest Desired rotate rate in rad/s
+   */
+  private void drive(double xRequest, double yRequest, double rotateRequest) {
+    drive(xRequest, yRequest, rotateRequest, true);
+  }
 
-    // Convert speeds to module states, correcting for 2nd order kinematics
-    SwerveModuleState[] moduleStates = m_advancedKinematics.toSwerveModuleStates(
-      m_desiredChassisSpeeds,
-      getPose().getRotation().plus(m_allianceCorrection),
-            ControlCentricity.ROBOT_CENTRIC
+  /**
+   * Drive robot without traction control
+   * @param xRequest Desired X (forward) velocity in m/s
+   * @param yRequest Desired Y (sideways) velocity in m/s
+   * @param rotateRequest Desired rotate rate in rad/s
+   * @param isLimited True to limit to module capabilities, false for safety paths that must act immediately
+   */
+  private void drive(double xRequest, double yRequest, double rotateRequest, boolean isLimited) {
+    // Convert speeds to module states, correcting for 2nd order kinematics and desaturating
+    SwerveModuleState[] moduleStates = m_fastKinematics.calculate(
+      xRequest,
+      yRequest,
+      rotateRequest,
+      m_state.pose.getRotation().getRadians(),
+      ControlCentricity.ROBOT_CENTRIC,
+      DRIVE_MAX_LINEAR_SPEED.in(Units.MetersPerSecond)
     );
-
-    // Desaturate drive speeds
-    SwerveDriveKinematics.desaturateWheelSpeeds(moduleStates, DRIVE_MAX_LINEAR_SPEED);
+    moduleStates = isLimited ? limitSetpoint(moduleStates) : bypassSetpoint(moduleStates);
+    updateDesiredChassisSpeeds();
 
     // Set modules to calculated states, WITHOUT traction control
     setSwerveModules(moduleStates);
   }
 
+  /**
+   * Limit module states to what modules can achieve this loop, if enabled
+   * @param moduleStates Desired module states
+   * @return Dynamically feasible module states
+   */
+  private SwerveModuleState[] limitSetpoint(SwerveModuleState[] moduleStates) {
+    if (!m_isSetpointGeneratorEnabled) return bypassSetpoint(moduleStates);
+
+    return m_setpointGenerator.calculate(moduleStates, GlobalConstants.ROBOT_LOOP_PERIOD);
+  }
+
+  /**
+   * Pass module states through unlimited, setpoint generator continues from them
+   * @param moduleStates Desired module states
+   * @return Same module states
+   */
+  private SwerveModuleState[] bypassSetpoint(SwerveModuleState[] moduleStates) {
+    m_setpointGenerator.reset(moduleStates);
+    return moduleStates;
+  }
+
+  /**
+   * Copy last requested chassis speeds from kinematics buffer
+   */
+  private void updateDesiredChassisSpeeds() {
+    m_desiredChassisSpeeds.vxMetersPerSecond = m_fastKinematics.getVx();
+    m_desiredChassisSpeeds.vyMetersPerSecond = m_fastKinematics.getVy();
+    m_desiredChassisSpeeds.omegaRadiansPerSecond = m_fastKinematics.getOmega();
+  }
+
   /**
    * Get current module states
+   * <p>
+   * Returned array is reused and is overwritten on the next call.
    * @return Array of swerve module states
    */
   private SwerveModuleState[] getModuleStates() {
-     return new SwerveModuleState[] {
-      m_lFrontModule.getState(),
-      m_rFrontModule.getState(),
-      m_lRearModule.getState(),
-      m_rRearModule.getState()
-    };
+    if (m_simulator != null) {
+      // Copy simulated states in place
+      var simulatedStates = m_simulator.getModuleStates();
+      for (int i = 0; i < m_measuredModuleStates.length; i++) {
+        m_measuredModuleStates[i].speedMetersPerSecond = simulatedStates[i].speedMetersPerSecond;
+        m_measuredModuleStates[i].angle = simulatedStates[i].angle;
+      }
+      return m_measuredModuleStates;
+    }
+
+    m_measuredModuleStates[0] = m_lFrontModule.getState();
+    m_measuredModuleStates[1] = m_rFrontModule.getState();
+    m_measuredModuleStates[2] = m_lRearModule.getState();
+    m_measuredModuleStates[3] = m_rRearModule.getState();
+    return m_measuredModuleStates;
   }
 
   /**
    * Get current module positions
+   * <p>
+   * Returned array is reused and is overwritten on the next call.
    * @return Array of swerve module positions
    */
   private SwerveModulePosition[] getModulePositions() {
-    return new SwerveModulePosition[] {
-      m_lFrontModule.getPosition(),
-      m_rFrontModule.getPosition(),
-      m_lRearModule.getPosition(),
-      m_rRearModule.getPosition()
-    };
+    if (m_simulator != null) {
+      // Copy simulated positions in place
+      var simulatedPositions = m_simulator.getModulePositions();
+      for (int i = 0; i < m_measuredModulePositions.length; i++) {
+        m_measuredModulePositions[i].distanceMeters = simulatedPositions[i].distanceMeters;
+        m_measuredModulePositions[i].angle = simulatedPositions[i].angle;
+      }
+      return m_measuredModulePositions;
+    }
+
+    m_measuredModulePositions[0] = m_lFrontModule.getPosition();
+    m_measuredModulePositions[1] = m_rFrontModule.getPosition();
+    m_measuredModulePositions[2] = m_lRearModule.getPosition();
+    m_measuredModulePositions[3] = m_rRearModule.getPosition();
+    return m_measuredModulePositions;
+  }
+
+  /**
+   * Capture drivetrain state snapshot for this cycle, filling holder in place
+   * <p>
+   * Module states and positions are shared with the holder, and must be refreshed before calling.
+   */
+  private void updateState() {
+    // Derive robot relative chassis speeds from module states
+    m_fastKinematics.toChassisSpeeds(m_state.moduleStates, m_state.chassisSpeeds);
+
+    // Extrapolate pose forward by actuation latency
+    var pose = m_poseEstimator.getEstimatedPosition();
+    m_poseExtrapolator.update(
+      pose.getX(), pose.getY(), pose.getRotation().getRadians(),
+      m_state.chassisSpeeds.vxMetersPerSecond,
+      m_state.chassisSpeeds.vyMetersPerSecond,
+      m_state.chassisSpeeds.omegaRadiansPerSecond
+    );
+
+    // Fill remaining fields
+    m_state.timestamp = Timer.getFPGATimestamp();
+    m_state.pose = pose;
+    m_state.setPredictedPose(m_poseExtrapolator.getX(), m_poseExtrapolator.getY(), m_poseExtrapolator.getHeading());
+    m_state.heading = getRotation2d();
+    m_state.yawRate = getRotateRate().in(Units.RadiansPerSecond);
+    m_state.inertialVelocity = m_inertialVelocityFilter.getMagnitude();
+  }
+
+  /**
+   * Update odometry trust from wheel slip and collision signals, before fusing vision
+   * <p>
+   * Only translation is scaled, heading comes from the gyro and is unaffected by slip.
+   * @param moduleStates Measured module states
+   */
+  private void updateOdometryTrust(SwerveModuleState[] moduleStates) {
+    m_odometryTrustEstimator.update(
+      Timer.getFPGATimestamp(),
+      moduleStates,
+      m_inertialVelocityFilter.getMagnitude(),
+      m_navx.getInputs().xVelocity.in(Units.MetersPerSecond),
+      m_navx.getInputs().yVelocity.in(Units.MetersPerSecond)
+    );
+
+    double scale = m_odometryTrustEstimator.getScale();
+    double xStdDev = ODOMETRY_STDDEV.get(0, 0) * scale;
+    double yStdDev = ODOMETRY_STDDEV.get(1, 0) * scale;
+    double thetaStdDev = ODOMETRY_STDDEV.get(2, 0);
+    m_poseEstimator.setStateStdDevs(xStdDev, yStdDev, thetaStdDev);
+    m_visionGate.setStateStdDevs(xStdDev, yStdDev, thetaStdDev);
   }
 
   /**
-   * Update robot pose
+   * Update robot pose and capture drivetrain state
+   * <p>
+   * Odometry is integrated once per loop. PurpleLib refreshes NavX and module inputs only in
+   * {@code PurpleManager.update()}, without hardware timestamps, so sampling them faster would only
+   * repeat the same frames.
    */
-  private void updatePose() {
+  void updatePose() {
+    // Read module inputs once for this cycle
+    var moduleStates = getModuleStates();
+    var modulePositions = getModulePositions();
+
     // Save previous pose
-    m_previousPose = getPose();
+    m_previousPose = m_state.pose;
 
     // Update pose based on odometry
-    m_poseEstimator.update(getRotation2d(), getModulePositions());
+    m_poseEstimator.update(getRotation2d(), modulePositions);
+    m_profiler.mark(ODOMETRY_STAGE);
 
-    // Update current heading
-    m_currentHeading = new Rotation2d(getPose().getX() - m_previousPose.getX(), getPose().getY() - m_previousPose.getY());
+    // Trust odometry less while wheels slip or after collisions
+    updateOdometryTrust(moduleStates);
 
-    // Get estimated poses from VisionSubsystem
-    var apriltagCameraResults = VisionSubsystem.getInstance().getEstimatedGlobalPoses();
+    // Take new estimated poses from VisionSubsystem, only consumer of its camera results
+    var apriltagCameraResults = VisionSubsystem.getInstance().drainEstimatedGlobalPoses();
 
-    // Exit if no valid vision pose estimates
-    if (apriltagCameraResults.isEmpty()) return;
+    // Keep latest result of each camera for vision reset, they are only delivered once
+    for (var result : apriltagCameraResults) m_visionConsensus.addResult(result);
 
-    // Add vision measurements to pose estimator
+    // Gate vision measurements, then fuse those remaining from all cameras in one pass
     for (var result : apriltagCameraResults) {
-      //if (result.estimatedPose.toPose2d().getTranslation().getDistance(m_previousPose.getTranslation()) > 1.0) continue;
-      m_poseEstimator.addVisionMeasurement(
-        result.estimatedRobotPose.estimatedPose.toPose2d(),
-        result.estimatedRobotPose.timestampSeconds,
-        result.visionMeasurementStdDevs
+      var pose = result.estimatedRobotPose.estimatedPose;
+      double timestamp = result.estimatedRobotPose.timestampSeconds;
+      double xStdDev = result.visionMeasurementStdDevs.get(0, 0);
+      double yStdDev = result.visionMeasurementStdDevs.get(1, 0);
+      double thetaStdDev = result.visionMeasurementStdDevs.get(2, 0);
+      double theta = pose.getRotation().getZ();
+
+      // Skip if too old for odometry history
+      if (!m_poseEstimator.getPoseAt(timestamp, m_visionPredictedPose)) continue;
+
+      var decision = m_visionGate.evaluate(
+        result.cameraName,
+        result.estimatedRobotPose.targetsUsed.size(),
+        m_visionPredictedPose[0], m_visionPredictedPose[1], m_visionPredictedPose[2],
+        pose.getX(), pose.getY(), theta,
+        xStdDev, yStdDev, thetaStdDev
       );
+      for (var target : result.estimatedRobotPose.targetsUsed) m_visionGate.recordTag(target.getFiducialId());
+
+      // Estimate gyro bias from consistent multi-tag headings
+      if (decision == VisionGate.Decision.ACCEPT && result.estimatedRobotPose.targetsUsed.size() >= GYRO_BIAS_MIN_TAGS) {
+        double gyroAngle = m_poseEstimator.getGyroAngleAt(timestamp);
+        if (!Double.isNaN(gyroAngle)) m_gyroBiasEstimator.addMeasurement(timestamp, gyroAngle, theta, thetaStdDev);
+      }
+
+      switch (decision) {
+        case REJECT:
+          break;
+        case RELOCALIZE:
+          // Trust multi-tag position almost fully to recover lost odometry, heading only as measured
+          m_poseEstimator.queueVisionMeasurement(
+            pose.getX(), pose.getY(), theta, timestamp,
+            VISION_RELOCALIZE_STDDEV, VISION_RELOCALIZE_STDDEV, thetaStdDev
+          );
+          break;
+        default:
+          double scale = m_visionGate.getScale();
+          m_poseEstimator.queueVisionMeasurement(
+            pose.getX(), pose.getY(), theta, timestamp,
+            xStdDev * scale, yStdDev * scale, thetaStdDev * scale
+          );
+          break;
+      }
     }
+    m_poseEstimator.fuseVisionMeasurements(VISION_FUSION_WINDOW);
+
+    // Record fused pose for time-indexed queries
+    double latestTimestamp = m_poseEstimator.getLatestTimestamp();
+    if (!Double.isNaN(latestTimestamp))
+      m_poseHistory.record(latestTimestamp, m_poseEstimator.getX(), m_poseEstimator.getY(), m_poseEstimator.getHeading());
+
+    // Capture state for consumers this cycle
+    updateState();
+    m_profiler.mark(VISION_STAGE);
   }
 
   /**
    * Log DriveSubsystem outputs
    */
   private void logOutputs() {
-    Logger.recordOutput(getName() + POSE_LOG_ENTRY, getPose());
-    Logger.recordOutput(getName() + ACTUAL_SWERVE_STATE_LOG_ENTRY, getModuleStates());
+    m_poseOutput.set(m_state.pose);
+    m_predictedPoseOutput.set(m_state.predictedX, m_state.predictedY, m_state.predictedHeading);
+    m_actualSwerveStateOutput.set(m_state.moduleStates);
+    m_tipSeverityOutput.set(m_tipPredictor.getSeverity());
+    m_tipDetectionsOutput.set(m_tipPredictor.getDetectionCount());
+    m_tipFalsePositivesOutput.set(m_tipPredictor.getFalsePositiveCount());
+    m_tipDetectionLatencyOutput.set(m_tipPredictor.getDetectionLatency());
+    m_visionGate.log();
+    m_gyroBiasOutput.set(Math.toDegrees(m_gyroBiasEstimator.getBias()));
+    m_gyroBiasStdDevOutput.set(Math.toDegrees(m_gyroBiasEstimator.getBiasStdDev()));
+    m_visionResetCountOutput.set(m_visionResetCount);
+    m_visionResetRefusedOutput.set(m_visionResetRefusedCount);
+    m_visionResetNoResultsOutput.set(m_visionResetNoResultsCount);
+    m_visionResetDisagreementOutput.set(m_visionConsensus.getDistance());
+    m_odometryTrustScaleOutput.set(m_odometryTrustEstimator.getScale());
+    m_odometryTrustModuleResidualOutput.set(m_odometryTrustEstimator.getModuleResidual());
+    m_odometryTrustInertialErrorOutput.set(m_odometryTrustEstimator.getInertialError());
+    m_odometryTrustJerkOutput.set(m_odometryTrustEstimator.getJerk());
   }
 
   /**
    * SmartDashboard indicators
    */
   private void smartDashboard() {
-    m_field.setRobotPose(getPose());
-    SmartDashboard.putBoolean("TC", m_isTractionControlEnabled);
-    SmartDashboard.putBoolean("PurplePath", m_purplePathClient.isConnected());
-    SmartDashboard.putBoolean("FC", m_controlCentricity.equals(ControlCentricity.FIELD_CENTRIC));
+    m_fieldEntry.setRobotPose(m_state.pose);
+    m_tractionControlEntry.set(m_isTractionControlEnabled);
+    m_purplePathEntry.set(m_purplePathClient.isConnected());
+    m_fieldCentricEntry.set(m_controlCentricity.equals(ControlCentricity.FIELD_CENTRIC));
+  }
+
+  /**
+   * Feed latest NavX pitch and roll to tip predictor
+   */
+  private void updateTipPredictor() {
+    m_tipPredictor.update(
+      RobotController.getFPGATime() / 1e6,
+      getPitch().in(Units.Degrees),
+      getRoll().in(Units.Degrees)
+    );
   }
 
   /**
    * Start calling this repeatedly when robot is in danger of tipping over
    */
   private void antiTip() {
-    // Calculate direction of tip
-    double direction = Math.atan2(getRoll().in(Units.Degrees), getPitch().in(Units.Degrees));
+    // Get predicted direction of tip
+    double direction = m_tipPredictor.getDirection();
 
-    // Drive to counter tipping motion
-    drive(
-            DRIVE_MAX_LINEAR_SPEED.divide(4).times(Math.cos(direction)),
-      DRIVE_MAX_LINEAR_SPEED.divide(4).times(Math.sin(direction)),
-      Units.DegreesPerSecond.of(0.0)
-    );
+    // Drive to counter tipping motion, scaled by how soon tip is predicted, bypassing setpoint limits
+    double speed = m_tipPredictor.getSeverity() * DRIVE_MAX_LINEAR_SPEED.in(Units.MetersPerSecond) / 4;
+    drive(speed * Math.cos(direction), speed * Math.sin(direction), 0.0, false);
   }
 
   /**
@@ -547,54 +998,55 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
 
     // Drive normally and return if invalid point
     if (point == null) {
-      double rotateOutput = -m_rotatePIDController.calculate(getAngle(), getRotateRate(), rotateRequest);
+      double rotateOutput = m_headingController.driverRate(getAngle(), getRotateRate(), rotateRequest);
       drive(
         controlCentricity,
-        Units.MetersPerSecond.of(-velocityOutput * Math.cos(moveDirection)),
-        Units.MetersPerSecond.of(-velocityOutput * Math.sin(moveDirection)),
-        Units.DegreesPerSecond.of(rotateOutput),
-        getInertialVelocity()
+        -velocityOutput * Math.cos(moveDirection),
+        -velocityOutput * Math.sin(moveDirection),
+        Math.toRadians(rotateOutput),
+        m_state.inertialVelocity
       );
       return;
     }
 
-    // Adjust point
-    point = point.plus(AIM_OFFSET);
-    // Get current pose
-    Pose2d currentPose = getPose();
-    // Angle to target point
-    Rotation2d targetAngle = new Rotation2d(point.getX() - currentPose.getX(), point.getY() - currentPose.getY());
-    // Movement vector of robot
-    Vector2D robotVector = new Vector2D(velocityOutput * m_currentHeading.getCos(), velocityOutput * m_currentHeading.getSin());
-    // Aim point
-    Translation2d aimPoint = point.minus(new Translation2d(robotVector.getX(), robotVector.getY()));
-    // Vector from robot to target
-    Vector2D targetVector = new Vector2D(currentPose.getTranslation().getDistance(point) * targetAngle.getCos(), currentPose.getTranslation().getDistance(point) * targetAngle.getSin());
-    // Parallel component of robot's motion to target vector
-    Vector2D parallelRobotVector = targetVector.scalarMultiply(robotVector.dotProduct(targetVector) / targetVector.getNormSq());
-    // Perpendicular component of robot's motion to target vector
-    Vector2D perpendicularRobotVector = robotVector.subtract(parallelRobotVector).scalarMultiply(velocityCorrection ? AIM_VELOCITY_COMPENSATION_FUDGE_FACTOR : 0.0);
-    // Adjust aim point using calculated vector
-    Translation2d adjustedPoint = point.minus(new Translation2d(perpendicularRobotVector.getX(), perpendicularRobotVector.getY()));
-    // Calculate new angle using adjusted point
-    Rotation2d adjustedAngle = new Rotation2d(adjustedPoint.getX() - currentPose.getX(), adjustedPoint.getY() - currentPose.getY());
-    // Calculate necessary rotate rate
-    double rotateOutput = reversed
-      ? m_autoAimPIDControllerBack.calculate(currentPose.getRotation().plus(GlobalConstants.ROTATION_PI).getDegrees(), adjustedAngle.getDegrees())
-      : m_autoAimPIDControllerFront.calculate(currentPose.getRotation().getDegrees(), adjustedAngle.getDegrees());
+    // Get pose predicted for when command takes effect, and field relative velocity
+    double heading = m_state.predictedHeading;
+    double velocityX = 0.0, velocityY = 0.0;
+    if (velocityCorrection) {
+      double cos = Math.cos(heading), sin = Math.sin(heading);
+      velocityX = m_state.chassisSpeeds.vxMetersPerSecond * cos - m_state.chassisSpeeds.vyMetersPerSecond * sin;
+      velocityY = m_state.chassisSpeeds.vxMetersPerSecond * sin + m_state.chassisSpeeds.vyMetersPerSecond * cos;
+    }
+
+    // Solve for heading to adjusted point, accounting for time of flight
+    m_shotSolver.solve(
+      m_state.predictedX, m_state.predictedY,
+      velocityX, velocityY,
+      point.getX() + AIM_OFFSET.getX(), point.getY() + AIM_OFFSET.getY()
+    );
+    double targetAngle = Math.toDegrees(m_shotSolver.getHeading());
+
+    // Calculate necessary rotate rate, adding feedforward to track target while moving
+    double rotateOutput = m_headingController.aim(
+      Math.toDegrees(heading),
+      Math.toDegrees(m_state.chassisSpeeds.omegaRadiansPerSecond),
+      targetAngle,
+      reversed
+    );
+    rotateOutput += Math.toDegrees(m_shotSolver.getYawRate());
 
     // Log aim point
-    Logger.recordOutput(getName() + "/AimPoint", new Pose2d(aimPoint, new Rotation2d()));
-    double aimError = currentPose.getRotation().getDegrees() - adjustedAngle.getDegrees();
-    Logger.recordOutput(getName() + "/AimError", Math.copySign(((180 - Math.abs(aimError)) % 180), (aimError)));
+    m_aimPointOutput.set(m_shotSolver.getAimX(), m_shotSolver.getAimY(), 0.0);
+    double aimError = Math.toDegrees(heading) - targetAngle;
+    m_aimErrorOutput.set(Math.copySign(((180 - Math.abs(aimError)) % 180), (aimError)));
 
     // Drive robot accordingly
     drive(
       controlCentricity,
-      Units.MetersPerSecond.of(-velocityOutput * Math.cos(moveDirection)),
-      Units.MetersPerSecond.of(-velocityOutput * Math.sin(moveDirection)),
-      Units.DegreesPerSecond.of(rotateOutput),
-      getInertialVelocity()
+      -velocityOutput * Math.cos(moveDirection),
+      -velocityOutput * Math.sin(moveDirection),
+      Math.toRadians(rotateOutput),
+      m_state.inertialVelocity
     );
   }
 
@@ -609,24 +1061,27 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     double moveDirection = Math.atan2(yRequest, xRequest);
     double velocityOutput = m_throttleMap.throttleLookup(moveRequest);
 
-    double sourceDistance = getPose().getTranslation().getDistance(Constants.Field.SOURCE.getGoalPose().getTranslation());
-
-    Rotation2d currentRotation = getPose().getRotation();
+    var sourcePose = Constants.Field.SOURCE.getGoalPose();
+    double sourceDistance = Math.hypot(m_state.predictedX - sourcePose.getX(), m_state.predictedY - sourcePose.getY());
 
     double desiredAngle;
     if (sourceDistance < 2){
       desiredAngle = m_selectedSourceDirection.in(Units.Degrees);
     } else desiredAngle = m_selectedAmpDirection.in(Units.Degrees);
 
-    double rotateOutput = m_autoAimPIDControllerFront.calculate(currentRotation.getDegrees(), desiredAngle);
+    double rotateOutput = m_headingController.snap(
+      Math.toDegrees(m_state.predictedHeading),
+      Math.toDegrees(m_state.chassisSpeeds.omegaRadiansPerSecond),
+      desiredAngle
+    );
 
     // Drive with the pose to the snapped cardinal direction
     drive(
       m_controlCentricity,
-      Units.MetersPerSecond.of(-velocityOutput * Math.cos(moveDirection)),
-      Units.MetersPerSecond.of(-velocityOutput * Math.sin(moveDirection)),
-      Units.DegreesPerSecond.of(rotateOutput),
-      getInertialVelocity()
+      -velocityOutput * Math.cos(moveDirection),
+      -velocityOutput * Math.sin(moveDirection),
+      Math.toRadians(rotateOutput),
+      m_state.inertialVelocity
     );
   }
 
@@ -648,14 +1103,14 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
    * @param angle Desired angle in degrees
    */
   private void aimAtAngle(double angle) {
-    double rotateOutput = m_rotatePIDController.calculate(getAngle().in(Units.Degrees), getAngle().in(Units.Degrees) + angle);
+    double rotateOutput = m_headingController.turn(getAngle().in(Units.Degrees), angle);
 
     drive(
       m_controlCentricity,
-      Units.MetersPerSecond.of(0),
-      Units.MetersPerSecond.of(0),
-      Units.DegreesPerSecond.of(rotateOutput),
-      getInertialVelocity()
+      0.0,
+      0.0,
+      Math.toRadians(rotateOutput),
+      m_state.inertialVelocity
     );
   }
 
@@ -672,25 +1127,15 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
 
     // Get throttle and rotate output
     double velocityOutput = m_throttleMap.throttleLookup(moveRequest);
-    double rotateOutput = -m_rotatePIDController.calculate(getAngle(), getRotateRate(), rotateRequest);
-
-    // Update auto-aim controllers
-    m_autoAimPIDControllerFront.calculate(
-      getPose().getRotation().getDegrees(),
-      getPose().getRotation().getDegrees()
-    );
-    m_autoAimPIDControllerBack.calculate(
-      getPose().getRotation().plus(GlobalConstants.ROTATION_PI).getDegrees(),
-      getPose().getRotation().plus(GlobalConstants.ROTATION_PI).getDegrees()
-    );
+    double rotateOutput = m_headingController.driverRate(getAngle(), getRotateRate(), rotateRequest);
 
     // Drive robot
     drive(
       m_controlCentricity,
-      Units.MetersPerSecond.of(-velocityOutput * Math.cos(moveDirection)),
-      Units.MetersPerSecond.of(-velocityOutput * Math.sin(moveDirection)),
-      Units.DegreesPerSecond.of(rotateOutput),
-      getInertialVelocity()
+      -velocityOutput * Math.cos(moveDirection),
+      -velocityOutput * Math.sin(moveDirection),
+      Math.toRadians(rotateOutput),
+      m_state.inertialVelocity
     );
   }
 
@@ -702,6 +1147,8 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     m_rFrontModule.lock();
     m_lRearModule.lock();
     m_rRearModule.lock();
+    if (m_simulator != null) m_simulator.lock();
+    m_setpointGenerator.reset(m_state.moduleStates);
   }
 
   /**
@@ -712,6 +1159,8 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     m_rFrontModule.stop();
     m_lRearModule.stop();
     m_rRearModule.stop();
+    if (m_simulator != null) m_simulator.stop();
+    m_setpointGenerator.reset(m_state.moduleStates);
   }
 
   /**
@@ -732,6 +1181,7 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     m_rFrontModule.disabledExit();
     m_lRearModule.disabledExit();
     m_rRearModule.disabledExit();
+    m_setpointGenerator.reset(m_state.moduleStates);
   }
 
   /**
@@ -767,71 +1217,118 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     m_rRearModule.disableTractionControl();
   }
 
+  /**
+   * Enable setpoint generator, continuing from measured module states
+   */
+  private void enableSetpointGenerator() {
+    m_isSetpointGeneratorEnabled = true;
+    m_setpointGenerator.reset(m_state.moduleStates);
+  }
+
+  /**
+   * Disable setpoint generator
+   */
+  private void disableSetpointGenerator() {
+    m_isSetpointGeneratorEnabled = false;
+  }
+
   /**
    * Reset pose estimator
    * @param pose Pose to set robot to
    */
   private void resetPose(Pose2d pose) {
+    // Place simulated robot at pose as well
+    if (m_simulator != null) m_simulator.resetPose(pose.getX(), pose.getY(), pose.getRotation().getRadians());
+
+    var modulePositions = getModulePositions();
     m_poseEstimator.resetPosition(
       getRotation2d(),
-      getModulePositions(),
+      modulePositions,
       pose
     );
+    m_poseHistory.clear();
+    updateState();
   }
 
   /**
    * Reset current pose to vision estimate
+   * <p>
+   * Uses the latest result of each camera still within max age, as kept by pose updates,
+   * without taking more from vision subsystem.
    */
   private void resetPoseToVision() {
-    // Get vision estimated poses
-    var visionEstimatedRobotPoses = VisionSubsystem.getInstance().getEstimatedGlobalPoses();
-
-    // Exit if no valid vision pose estimates
-    if (visionEstimatedRobotPoses.isEmpty()) return;
-
-    // Add vision measurements to pose estimator
-    for (var visionEstimatedRobotPose : visionEstimatedRobotPoses) {
-      m_poseEstimator.resetPosition(
-        getRotation2d(),
-        getModulePositions(),
-        visionEstimatedRobotPose.estimatedRobotPose.estimatedPose.toPose2d()
-      );
+    // Combine latest fresh vision estimated poses into consensus pose
+    var outcome = m_visionConsensus.calculate(Timer.getFPGATimestamp());
+
+    // Refuse to reset if not enough valid vision pose estimates
+    if (outcome == VisionConsensus.Outcome.NO_RESULTS) {
+      m_visionResetNoResultsCount++;
+      return;
+    }
+
+    // Refuse to reset if cameras disagree
+    if (outcome == VisionConsensus.Outcome.DISAGREE) {
+      m_visionResetRefusedCount++;
+      return;
     }
+
+    // Reset pose estimator once to consensus pose
+    var modulePositions = getModulePositions();
+    m_poseEstimator.resetPosition(getRotation2d(), modulePositions, m_visionConsensus.getPose());
+    m_visionResetCount++;
+    m_poseHistory.clear();
+    updateState();
   }
 
   @Override
   public void periodic() {
     // This method will be called once per scheduler run
+    m_profiler.start();
+
     // Filter inertial velocity
-    m_navx.getInputs().xVelocity = Units.MetersPerSecond.of(
-      m_xVelocityFilter.calculate(m_navx.getInputs().xVelocity.in(Units.MetersPerSecond))
-    );
-    m_navx.getInputs().yVelocity = Units.MetersPerSecond.of(
-      m_yVelocityFilter.calculate(m_navx.getInputs().yVelocity.in(Units.MetersPerSecond))
+    m_inertialVelocityFilter.calculate(
+      m_navx.getInputs().xVelocity.in(Units.MetersPerSecond),
+      m_navx.getInputs().yVelocity.in(Units.MetersPerSecond)
     );
+    m_profiler.mark(FILTER_STAGE);
+
+    // Update tip prediction
+    updateTipPredictor();
 
     if (RobotBase.isSimulation()) return;
     updatePose();
     smartDashboard();
+    m_profiler.mark(DASHBOARD_STAGE);
     logOutputs();
+    m_profiler.mark(LOG_STAGE);
+    m_profiler.end();
+    m_profiler.publish();
   }
 
   @Override
   public void simulationPeriodic() {
     // This method will be called once per scheduler run in simulation
-    double randomNoise = ThreadLocalRandom.current().nextDouble(0.8, 1.0);
-    m_navx.getInputs().xVelocity = Units.MetersPerSecond.of(m_desiredChassisSpeeds.vxMetersPerSecond * randomNoise);
-    m_navx.getInputs().yVelocity = Units.MetersPerSecond.of(m_desiredChassisSpeeds.vyMetersPerSecond * randomNoise);
-    m_navx.getInputs().yawRate = Units.RadiansPerSecond.of(m_desiredChassisSpeeds.omegaRadiansPerSecond * randomNoise);
-
-    int yawDriftDirection = ThreadLocalRandom.current().nextDouble(1.0) < 0.5 ? -1 : +1;
-    double angle = m_navx.getSimAngle() - Math.toDegrees(m_desiredChassisSpeeds.omegaRadiansPerSecond * randomNoise) * GlobalConstants.ROBOT_LOOP_PERIOD
-                   + (NAVX2_YAW_DRIFT_RATE.in(Units.DegreesPerSecond) * GlobalConstants.ROBOT_LOOP_PERIOD * yawDriftDirection);
-    m_navx.setSimAngle(angle);
+    if (m_simulator != null) {
+      // Step drivetrain physics using module states commanded last loop
+      m_simulator.update(GlobalConstants.ROBOT_LOOP_PERIOD);
+
+      // Feed simulated gyro back, module sensors are read from simulator directly
+      m_navx.getInputs().xVelocity = Units.MetersPerSecond.of(m_simulator.getMeasuredVelocityX());
+      m_navx.getInputs().yVelocity = Units.MetersPerSecond.of(m_simulator.getMeasuredVelocityY());
+      m_navx.getInputs().yawRate = Units.RadiansPerSecond.of(m_simulator.getGyroYawRate());
+      m_navx.setSimAngle(-Math.toDegrees(m_simulator.getGyroYaw()));
+      m_simulatedPoseOutput.set(m_simulator.getX(), m_simulator.getY(), m_simulator.getHeading());
+    }
 
+    // Exclude simulation and other subsystems from profiled stages
+    m_profiler.skip();
     updatePose();
     smartDashboard();
+    m_profiler.mark(DASHBOARD_STAGE);
     logOutputs();
+    m_profiler.mark(LOG_STAGE);
+    m_profiler.end();
+    m_profiler.publish();
   }
 
   /**
@@ -880,34 +1377,11 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
    * @param speeds Calculated swerve module states
    */
   public void autoDrive(ChassisSpeeds speeds) {
-    // Get requested chassis speeds, correcting for second order kinematics
-    m_desiredChassisSpeeds = AdvancedSwerveKinematics.correctForDynamics(speeds);
-
-    // Convert speeds to module states, correcting for 2nd order kinematics
-    SwerveModuleState[] moduleStates = m_advancedKinematics.toSwerveModuleStates(
-      m_desiredChassisSpeeds,
-      getPose().getRotation(),
-      ControlCentricity.ROBOT_CENTRIC
-    );
-
-    // Desaturate drive speeds
-    SwerveDriveKinematics.desaturateWheelSpeeds(moduleStates, DRIVE_MAX_LINEAR_SPEED);
-
-    // Set modules to calculated states, WITHOUT traction control
-    setSwerveModules(moduleStates);
-
-    // Update turn PID
-    m_rotatePIDController.calculate(getAngle(), getRotateRate(), 0.0);
+    // Drive robot centric, WITHOUT traction control
+    drive(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
 
-    // Update auto-aim controllers
-    m_autoAimPIDControllerFront.calculate(
-      getPose().getRotation().getDegrees(),
-      getPose().getRotation().getDegrees()
-    );
-    m_autoAimPIDControllerBack.calculate(
-      getPose().getRotation().plus(GlobalConstants.ROTATION_PI).getDegrees(),
-      getPose().getRotation().plus(GlobalConstants.ROTATION_PI).getDegrees()
-    );
+    // Release heading control, so it resumes from current heading after auto
+    m_headingController.reset();
   }
 
   /**
@@ -975,6 +1449,29 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     return aimAtPointCommand(() -> 0.0, () -> 0.0, () -> 0.0, () -> point, reversed, velocityCorrection);
   }
 
+  /**
+   * Aim robot at alliance speaker while strafing, compensating for robot's own velocity
+   * @param xRequestSupplier X axis speed supplier [-1.0, +1.0]
+   * @param yRequestSupplier Y axis speed supplier [-1.0, +1.0]
+   * @param rotateRequestSupplier Rotate speed supplier (ONLY USED IF POINT IS NULL) [-1.0, +1.0]
+   * @param reversed True to point rear of robot toward speaker
+   * @return Command that will aim at speaker while strafing
+   */
+  public Command aimAtSpeakerCommand(DoubleSupplier xRequestSupplier, DoubleSupplier yRequestSupplier, DoubleSupplier rotateRequestSupplier,
+                                     boolean reversed) {
+    return aimAtPointCommand(xRequestSupplier, yRequestSupplier, rotateRequestSupplier, this::getSpeakerLocation, reversed, true);
+  }
+
+  /**
+   * Get location of speaker for current alliance
+   * @return Speaker location
+   */
+  private Translation2d getSpeakerLocation() {
+    return DriverStation.getAlliance().filter(value -> value == Alliance.Red).isPresent()
+      ? Constants.Field.RED_SPEAKER.getSecond()
+      : Constants.Field.BLUE_SPEAKER.getSecond();
+  }
+
   /**
    * Change robot aim by desired angle
    * @return Command that aims robot
@@ -1045,6 +1542,22 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     return runOnce(this::disableTractionControl);
   }
 
+  /**
+   * Enable setpoint generator
+   * @return Command to enable setpoint generator
+   */
+  public Command enableSetpointGeneratorCommand() {
+    return runOnce(this::enableSetpointGenerator);
+  }
+
+  /**
+   * Disable setpoint generator
+   * @return Command to disable setpoint generator
+   */
+  public Command disableSetpointGeneratorCommand() {
+    return runOnce(this::disableSetpointGenerator);
+  }
+
   /**
    * Reset pose estimator
    * @param poseSupplier Pose supplier
@@ -1108,11 +1621,10 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
   }
 
   /**
-   * Reset DriveSubsystem turn PID
+   * Reset DriveSubsystem heading control, next mode engaged starts from current heading
    */
   public void resetRotatePID() {
-    m_rotatePIDController.setSetpoint(getAngle().in(Units.Degrees));
-    m_rotatePIDController.reset();
+    m_headingController.reset();
   }
 
   /**
@@ -1138,18 +1650,75 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
 
   /**
    * Get robot relative speeds
-   * @return Robot relative speeds
+   * @return Robot relative speeds, as of the latest drivetrain state snapshot
    */
   public ChassisSpeeds getChassisSpeeds() {
-    return m_kinematics.toChassisSpeeds(getModuleStates());
+    return m_state.chassisSpeeds;
   }
 
   /**
    * Get estimated robot pose
-   * @return Currently estimated robot pose
+   * @return Currently estimated robot pose, as of the latest drivetrain state snapshot
    */
   public Pose2d getPose() {
-    return m_poseEstimator.getEstimatedPosition();
+    return m_state.pose;
+  }
+
+  /**
+   * Get estimated robot pose at a past time, interpolated from pose history
+   * @param timestamp FPGA timestamp in seconds
+   * @param pose Array to receive X and Y position in meters, and heading in radians
+   * @return True if pose was found, false if older than history
+   */
+  public boolean getPoseAt(double timestamp, double[] pose) {
+    return m_poseHistory.getPoseAt(timestamp, pose);
+  }
+
+  /**
+   * Get history of estimated poses, for allocation-free pose and velocity queries from any thread
+   * @return Pose history
+   */
+  public PoseHistory getPoseHistory() {
+    return m_poseHistory;
+  }
+
+  /**
+   * Get estimated robot pose, extrapolated forward by actuation latency
+   * <p>
+   * Use this as feedback for aim and snap heading control, since their output takes effect after
+   * this delay. Path following uses the measured pose, as the path controller's feedforward
+   * already leads the robot.
+   * @return Predicted robot pose, as of the latest drivetrain state snapshot
+   */
+  public Pose2d getPredictedPose() {
+    return m_state.getPredictedPose();
+  }
+
+  /**
+   * Get drivetrain state snapshot
+   * <p>
+   * Captured once per scheduler cycle into the same holder, which is filled in place on the main
+   * robot thread. Use {@link #getPoseHistory()} for pose queries from other threads.
+   * @return Latest drivetrain state
+   */
+  public DriveState getState() {
+    return m_state;
+  }
+
+  /**
+   * Get drivetrain physics simulator
+   * @return Drivetrain simulator, null if not simulated
+   */
+  public DriveSimulator getSimulator() {
+    return m_simulator;
+  }
+
+  /**
+   * Get tip predictor
+   * @return Tip predictor
+   */
+  public TipPredictor getTipPredictor() {
+    return m_tipPredictor;
   }
 
   /**
@@ -1161,12 +1730,11 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
   }
 
   /**
-   * Get whether or not robot is tipping over
+   * Get whether or not robot is tipping over, or predicted to tip shortly
    * @return True if robot is tipping
    */
   public boolean isTipping() {
-    return Math.abs(getPitch().in(Units.Degrees)) > TIP_THRESHOLD ||
-           Math.abs(getRoll().in(Units.Degrees)) > TIP_THRESHOLD;
+    return m_tipPredictor.isTipping();
   }
 
 
@@ -1184,7 +1752,7 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
    * @return True if aimed
    */
   public boolean isAimed() {
-    return (m_autoAimPIDControllerFront.atGoal() || m_autoAimPIDControllerBack.atGoal()) && getRotateRate().lt(AIM_VELOCITY_THRESHOLD);
+    return m_headingController.atGoal() && getRotateRate().lt(AIM_VELOCITY_THRESHOLD);
   }
 
   /**
@@ -1192,9 +1760,7 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
    * @return Inertial velocity of robot in m/s
    */
   public Measure<Velocity<Distance>> getInertialVelocity() {
-    return Units.MetersPerSecond.of(
-      Math.hypot(m_navx.getInputs().xVelocity.in(Units.MetersPerSecond), m_navx.getInputs().yVelocity.in(Units.MetersPerSecond))
-    );
+    return Units.MetersPerSecond.of(m_state.inertialVelocity);
   }
 
   /**
@@ -1232,7 +1798,7 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
   }
 
   /**
-   * Return the heading of the robot as a Rotation2d.
+   * Return the heading of the robot as a Rotation2d, corrected for estimated gyro bias.
    *
    * <p>The angle is expected to increase as the gyro turns counterclockwise when looked at from the
    * top. It needs to follow the NWU axis convention.
@@ -1240,7 +1806,9 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
    * @return Current heading of the robot as a Rotation2d.
    */
   public Rotation2d getRotation2d() {
-    return m_navx.getInputs().rotation2d;
+    double correction = m_gyroBiasEstimator.getCorrection(Timer.getFPGATimestamp());
+    if (correction == 0.0) return m_navx.getInputs().rotation2d;
+    return Rotation2d.fromRadians(m_navx.getInputs().rotation2d.getRadians() + correction);
   }
 
   @Override
@@ -0,0 +1,246 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import org.lasarobotics.drive.AdvancedSwerveKinematics.ControlCentricity;
+import org.lasarobotics.utils.GlobalConstants;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Swerve inverse kinematics on primitive buffers
+ * <p>
+ * Performs the same steps as {@code AdvancedSwerveKinematics.correctForDynamics},
+ * {@code toSwerveModuleStates} and {@code SwerveDriveKinematics.desaturateWheelSpeeds},
+ * using primitive buffers that are reused every loop. {@link #update} is allocation-free, with
+ * results read through {@link #getSpeed} and {@link #getAngle}. {@link #calculate} also writes
+ * them into a reused module state array; as {@link Rotation2d} is immutable, it creates one new
+ * rotation for each module whose angle changed. {@link #toChassisSpeeds} performs the least squares
+ * forward kinematics of {@code SwerveDriveKinematics.toChassisSpeeds} in closed form, without allocating.
+ */
+public class FastSwerveKinematics {
+  private static final double EPSILON = 1e-9;
+
+  private final int m_moduleCount;
+  private final double[] m_moduleX;
+  private final double[] m_moduleY;
+  private final double[] m_speeds;
+  private final double[] m_angles;
+  private final SwerveModuleState[] m_moduleStates;
+  private final double m_centerX;
+  private final double m_centerY;
+  private final double m_inertia;
+
+  private double m_vx;
+  private double m_vy;
+  private double m_omega;
+
+  /**
+   * Create swerve kinematics
+   * @param moduleLocations Locations of swerve modules relative to robot center, in same order as modules are set
+   */
+  public FastSwerveKinematics(Translation2d... moduleLocations) {
+    if (moduleLocations.length < 2) throw new IllegalArgumentException("A swerve drive requires at least two modules");
+
+    this.m_moduleCount = moduleLocations.length;
+    this.m_moduleX = new double[m_moduleCount];
+    this.m_moduleY = new double[m_moduleCount];
+    this.m_speeds = new double[m_moduleCount];
+    this.m_angles = new double[m_moduleCount];
+    this.m_moduleStates = new SwerveModuleState[m_moduleCount];
+
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_moduleX[i] = moduleLocations[i].getX();
+      m_moduleY[i] = moduleLocations[i].getY();
+      m_moduleStates[i] = new SwerveModuleState(0.0, GlobalConstants.ROTATION_ZERO);
+    }
+
+    // Precompute module centroid and spread about it for forward kinematics
+    double sumX = 0.0, sumY = 0.0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      sumX += m_moduleX[i];
+      sumY += m_moduleY[i];
+    }
+    this.m_centerX = sumX / m_moduleCount;
+    this.m_centerY = sumY / m_moduleCount;
+    double inertia = 0.0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      double dx = m_moduleX[i] - m_centerX, dy = m_moduleY[i] - m_centerY;
+      inertia += dx * dx + dy * dy;
+    }
+    if (inertia < EPSILON) throw new IllegalArgumentException("Swerve modules must not all be at the same location");
+    this.m_inertia = inertia;
+  }
+
+  /**
+   * Calculate module speeds and angles from requested chassis speeds, without allocating
+   * @param vx Requested X velocity in m/s
+   * @param vy Requested Y velocity in m/s
+   * @param omega Requested rotate rate in rad/s
+   * @param headingRadians Current robot heading in radians, used for field centric control
+   * @param controlCentricity Control centricity
+   * @param maxLinearSpeed Maximum module speed in m/s
+   */
+  public void update(double vx, double vy, double omega, double headingRadians,
+                     ControlCentricity controlCentricity, double maxLinearSpeed) {
+    // Correct for second order dynamics by discretizing over one loop
+    discretize(vx, vy, omega, GlobalConstants.ROBOT_LOOP_PERIOD);
+
+    // Convert field centric speeds to robot centric
+    double robotVx = m_vx, robotVy = m_vy;
+    if (controlCentricity == ControlCentricity.FIELD_CENTRIC) {
+      double cos = Math.cos(headingRadians), sin = Math.sin(headingRadians);
+      robotVx = +m_vx * cos + m_vy * sin;
+      robotVy = -m_vx * sin + m_vy * cos;
+    }
+
+    // Calculate module speeds and angles, holding previous angles if stationary
+    boolean stationary = Math.abs(robotVx) < EPSILON && Math.abs(robotVy) < EPSILON && Math.abs(m_omega) < EPSILON;
+    double maxSpeed = 0.0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      if (stationary) {
+        m_speeds[i] = 0.0;
+        continue;
+      }
+      double moduleVx = robotVx - m_omega * m_moduleY[i];
+      double moduleVy = robotVy + m_omega * m_moduleX[i];
+      m_speeds[i] = Math.hypot(moduleVx, moduleVy);
+      m_angles[i] = Math.atan2(moduleVy, moduleVx);
+      maxSpeed = Math.max(maxSpeed, m_speeds[i]);
+    }
+
+    // Desaturate drive speeds
+    if (maxSpeed > maxLinearSpeed) {
+      double scale = maxLinearSpeed / maxSpeed;
+      for (int i = 0; i < m_moduleCount; i++) m_speeds[i] *= scale;
+    }
+  }
+
+  /**
+   * Calculate module states from requested chassis speeds
+   * <p>
+   * Returned array is owned by this object and is overwritten on the next call. A new rotation is
+   * created for each module whose angle changed; use {@link #update} where no module states are needed.
+   * @param vx Requested X velocity in m/s
+   * @param vy Requested Y velocity in m/s
+   * @param omega Requested rotate rate in rad/s
+   * @param headingRadians Current robot heading in radians, used for field centric control
+   * @param controlCentricity Control centricity
+   * @param maxLinearSpeed Maximum module speed in m/s
+   * @return Array of module states, in the same order as module locations were supplied
+   */
+  public SwerveModuleState[] calculate(double vx, double vy, double omega, double headingRadians,
+                                       ControlCentricity controlCentricity, double maxLinearSpeed) {
+    update(vx, vy, omega, headingRadians, controlCentricity, maxLinearSpeed);
+
+    // Write into reusable module states, only creating a new rotation if angle changed
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_moduleStates[i].speedMetersPerSecond = m_speeds[i];
+      if (m_moduleStates[i].angle.getRadians() != m_angles[i]) m_moduleStates[i].angle = new Rotation2d(m_angles[i]);
+    }
+
+    return m_moduleStates;
+  }
+
+  /**
+   * Calculate robot relative chassis speeds from measured module states, without allocating
+   * <p>
+   * Gives the same least squares solution as {@code SwerveDriveKinematics.toChassisSpeeds}.
+   * @param moduleStates Measured module states, in the same order as module locations were supplied
+   * @param chassisSpeeds Chassis speeds to write result into
+   */
+  public void toChassisSpeeds(SwerveModuleState[] moduleStates, ChassisSpeeds chassisSpeeds) {
+    // Sum module velocity components, and their moments about the module centroid
+    double sumVx = 0.0, sumVy = 0.0, moment = 0.0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      double speed = moduleStates[i].speedMetersPerSecond;
+      double moduleVx = speed * moduleStates[i].angle.getCos();
+      double moduleVy = speed * moduleStates[i].angle.getSin();
+      sumVx += moduleVx;
+      sumVy += moduleVy;
+      moment += (m_moduleX[i] - m_centerX) * moduleVy - (m_moduleY[i] - m_centerY) * moduleVx;
+    }
+
+    // Rotation about centroid, then translate centroid velocity back to robot center
+    double omega = moment / m_inertia;
+    chassisSpeeds.vxMetersPerSecond = sumVx / m_moduleCount + omega * m_centerY;
+    chassisSpeeds.vyMetersPerSecond = sumVy / m_moduleCount - omega * m_centerX;
+    chassisSpeeds.omegaRadiansPerSecond = omega;
+  }
+
+  /**
+   * Discretize chassis speeds over given period, storing result
+   * @param vx X velocity in m/s
+   * @param vy Y velocity in m/s
+   * @param omega Rotate rate in rad/s
+   * @param dt Period in seconds
+   */
+  private void discretize(double vx, double vy, double omega, double dt) {
+    double dx = vx * dt, dy = vy * dt, dtheta = omega * dt;
+
+    double halfDtheta = 0.5 * dtheta;
+    double cosMinusOne = Math.cos(dtheta) - 1.0;
+    double halfThetaByTanOfHalfDtheta = (Math.abs(cosMinusOne) < EPSILON)
+      ? 1.0 - dtheta * dtheta / 12.0
+      : -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+
+    m_vx = (dx * halfThetaByTanOfHalfDtheta + dy * halfDtheta) / dt;
+    m_vy = (dy * halfThetaByTanOfHalfDtheta - dx * halfDtheta) / dt;
+    m_omega = dtheta / dt;
+  }
+
+  /**
+   * Get X velocity from last calculation, after correcting for dynamics
+   * @return X velocity in m/s
+   */
+  public double getVx() {
+    return m_vx;
+  }
+
+  /**
+   * Get Y velocity from last calculation, after correcting for dynamics
+   * @return Y velocity in m/s
+   */
+  public double getVy() {
+    return m_vy;
+  }
+
+  /**
+   * Get rotate rate from last calculation, after correcting for dynamics
+   * @return Rotate rate in rad/s
+   */
+  public double getOmega() {
+    return m_omega;
+  }
+
+  /**
+   * Get module speed from last update
+   * @param index Module index
+   * @return Module speed in m/s
+   */
+  public double getSpeed(int index) {
+    return m_speeds[index];
+  }
+
+  /**
+   * Get module angle from last update
+   * @param index Module index
+   * @return Module angle in radians
+   */
+  public double getAngle(int index) {
+    return m_angles[index];
+  }
+
+  /**
+   * Get number of modules
+   * @return Number of modules
+   */
+  public int getModuleCount() {
+    return m_moduleCount;
+  }
+}
@@ -0,0 +1,809 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import java.util.Arrays;
+
+import edu.wpi.first.math.MathSharedStore;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+
+/**
+ * Allocation-free swerve drive pose estimator
+ * <p>
+ * Performs the same steps as WPILib {@code SwerveDrivePoseEstimator}: odometry is integrated
+ * from module deltas and gyro angle, vision measurements are fused at their timestamp using a
+ * steady state Kalman gain, and odometry recorded after that timestamp is replayed on top of the
+ * corrected pose. History is held in a fixed capacity ring buffer of primitive arrays, sorted by
+ * timestamp, instead of a {@code TreeMap} of objects. Interpolation, twist and replay math work on
+ * primitives, and replay only touches entries newer than the measurement.
+ * <p>
+ * Measurements from several cameras can be queued and fused together. The batch is sorted by
+ * timestamp, measurements close enough in time are combined by inverse variance weighting, and
+ * the results are applied oldest first, replaying each stretch of history only up to the next
+ * measurement. History is replayed once per batch instead of once per measurement.
+ * <p>
+ * Not thread safe, must only be used from the main robot thread.
+ */
+public class FastSwervePoseEstimator {
+  private static final double BUFFER_DURATION = 1.5;
+  private static final double EPSILON = 1e-9;
+  private static final int INITIAL_BATCH_CAPACITY = 8;
+
+  private final int m_moduleCount;
+  private final int m_capacity;
+  private final int m_mask;
+  private final double[] m_forwardKinematics;
+  private final double[] m_q = new double[3];
+  private final double[] m_visionVariances = new double[3];
+  private final double[] m_visionK = new double[3];
+
+  // Pose history, sorted by timestamp
+  private final double[] m_times;
+  private final double[] m_poseX;
+  private final double[] m_poseY;
+  private final double[] m_poseTheta;
+  private final double[] m_gyro;
+  private final double[] m_distances;
+  private final double[] m_angles;
+  private int m_head;
+  private int m_size;
+
+  // Odometry state
+  private double m_x;
+  private double m_y;
+  private double m_theta;
+  private double m_gyroOffset;
+  private double m_previousAngle;
+  private final double[] m_previousDistances;
+
+  // Scratch values, reused every call
+  private final double[] m_inputDistances;
+  private final double[] m_inputAngles;
+  private final double[] m_sampleDistances;
+  private final double[] m_sampleAngles;
+  private final double[] m_replayDistances;
+  private final double[] m_replayAngles;
+  private double m_sampleX;
+  private double m_sampleY;
+  private double m_sampleTheta;
+  private double m_sampleGyro;
+  private double m_twistX;
+  private double m_twistY;
+  private double m_twistTheta;
+  private double m_resultX;
+  private double m_resultY;
+  private double m_resultTheta;
+
+  // Queued vision measurements
+  private double[] m_batchX = new double[INITIAL_BATCH_CAPACITY];
+  private double[] m_batchY = new double[INITIAL_BATCH_CAPACITY];
+  private double[] m_batchTheta = new double[INITIAL_BATCH_CAPACITY];
+  private double[] m_batchTimes = new double[INITIAL_BATCH_CAPACITY];
+  private double[] m_batchVariances = new double[INITIAL_BATCH_CAPACITY * 3];
+  private int[] m_batchOrder = new int[INITIAL_BATCH_CAPACITY];
+  private int m_batchSize;
+
+  private Pose2d m_estimatedPose;
+
+  /**
+   * Create pose estimator
+   * @param moduleLocations Locations of swerve modules relative to robot center, in same order as module positions
+   * @param gyroAngle Current gyro angle
+   * @param modulePositions Current module positions
+   * @param initialPose Starting pose estimate
+   * @param stateStdDevs Standard deviations of odometry x, y and heading, in meters and radians
+   * @param visionMeasurementStdDevs Standard deviations of vision x, y and heading, in meters and radians
+   * @param historyCapacity Minimum number of samples to hold, rounded up to a power of two
+   */
+  public FastSwervePoseEstimator(Translation2d[] moduleLocations, Rotation2d gyroAngle, SwerveModulePosition[] modulePositions,
+                                 Pose2d initialPose, Matrix<N3, N1> stateStdDevs, Matrix<N3, N1> visionMeasurementStdDevs,
+                                 int historyCapacity) {
+    if (moduleLocations.length < 2) throw new IllegalArgumentException("A swerve drive requires at least two modules");
+    if (modulePositions.length != moduleLocations.length) throw new IllegalArgumentException("Module positions must match module locations");
+    if (historyCapacity < 2) throw new IllegalArgumentException("History capacity must be at least two");
+
+    int capacity = 1;
+    while (capacity < historyCapacity) capacity <<= 1;
+
+    this.m_moduleCount = moduleLocations.length;
+    this.m_capacity = capacity;
+    this.m_mask = m_capacity - 1;
+    this.m_forwardKinematics = createForwardKinematics(moduleLocations);
+    this.m_times = new double[m_capacity];
+    this.m_poseX = new double[m_capacity];
+    this.m_poseY = new double[m_capacity];
+    this.m_poseTheta = new double[m_capacity];
+    this.m_gyro = new double[m_capacity];
+    this.m_distances = new double[m_capacity * m_moduleCount];
+    this.m_angles = new double[m_capacity * m_moduleCount];
+    this.m_previousDistances = new double[m_moduleCount];
+    this.m_inputDistances = new double[m_moduleCount];
+    this.m_inputAngles = new double[m_moduleCount];
+    this.m_sampleDistances = new double[m_moduleCount];
+    this.m_sampleAngles = new double[m_moduleCount];
+    this.m_replayDistances = new double[m_moduleCount];
+    this.m_replayAngles = new double[m_moduleCount];
+
+    for (int i = 0; i < 3; i++) m_q[i] = stateStdDevs.get(i, 0) * stateStdDevs.get(i, 0);
+    setVisionMeasurementStdDevs(visionMeasurementStdDevs);
+
+    readPositions(modulePositions);
+    resetOdometry(gyroAngle.getRadians(), m_inputDistances, initialPose.getX(), initialPose.getY(), initialPose.getRotation().getRadians());
+  }
+
+  /**
+   * Create least squares forward kinematics matrix, mapping module deltas to chassis twist
+   * @param moduleLocations Locations of swerve modules relative to robot center
+   * @return Row major 3 x 2N pseudo-inverse of inverse kinematics matrix
+   */
+  private static double[] createForwardKinematics(Translation2d[] moduleLocations) {
+    int count = moduleLocations.length;
+
+    // Inverse kinematics rows are [1, 0, -y] and [0, 1, x], build normal matrix
+    double sumX = 0.0, sumY = 0.0, sumSquares = 0.0;
+    for (var location : moduleLocations) {
+      sumX += location.getX();
+      sumY += location.getY();
+      sumSquares += location.getX() * location.getX() + location.getY() * location.getY();
+    }
+    double[][] normal = {
+      { count, 0.0, -sumY },
+      { 0.0, count, sumX },
+      { -sumY, sumX, sumSquares }
+    };
+
+    // Invert normal matrix using cofactors
+    double[][] inverse = new double[3][3];
+    double determinant = 0.0;
+    for (int row = 0; row < 3; row++) {
+      for (int column = 0; column < 3; column++) {
+        int r0 = (column + 1) % 3, r1 = (column + 2) % 3;
+        int c0 = (row + 1) % 3, c1 = (row + 2) % 3;
+        inverse[row][column] = normal[r0][c0] * normal[r1][c1] - normal[r0][c1] * normal[r1][c0];
+      }
+      determinant += normal[0][row] * inverse[row][0];
+    }
+    if (Math.abs(determinant) < EPSILON) throw new IllegalArgumentException("Module locations do not determine chassis motion");
+
+    // Multiply inverse normal matrix by transpose of inverse kinematics
+    double[] forward = new double[3 * 2 * count];
+    for (int row = 0; row < 3; row++) {
+      for (int i = 0; i < count; i++) {
+        double x = moduleLocations[i].getX(), y = moduleLocations[i].getY();
+        forward[row * 2 * count + 2 * i] = (inverse[row][0] - inverse[row][2] * y) / determinant;
+        forward[row * 2 * count + 2 * i + 1] = (inverse[row][1] + inverse[row][2] * x) / determinant;
+      }
+    }
+
+    return forward;
+  }
+
+  /**
+   * Set standard deviations of odometry, such as when wheels are slipping
+   * <p>
+   * Gains of subsequent vision measurements are recalculated, pose history is unchanged.
+   * @param xStdDev Standard deviation of odometry x in meters
+   * @param yStdDev Standard deviation of odometry y in meters
+   * @param thetaStdDev Standard deviation of odometry heading in radians
+   */
+  public void setStateStdDevs(double xStdDev, double yStdDev, double thetaStdDev) {
+    m_q[0] = xStdDev * xStdDev;
+    m_q[1] = yStdDev * yStdDev;
+    m_q[2] = thetaStdDev * thetaStdDev;
+    for (int i = 0; i < 3; i++) m_visionK[i] = getVisionGain(i, m_visionVariances[i]);
+  }
+
+  /**
+   * Set standard deviations of vision measurements
+   * @param visionMeasurementStdDevs Standard deviations of vision x, y and heading, in meters and radians
+   */
+  public void setVisionMeasurementStdDevs(Matrix<N3, N1> visionMeasurementStdDevs) {
+    for (int i = 0; i < 3; i++) {
+      m_visionVariances[i] = visionMeasurementStdDevs.get(i, 0) * visionMeasurementStdDevs.get(i, 0);
+      m_visionK[i] = getVisionGain(i, m_visionVariances[i]);
+    }
+  }
+
+  /**
+   * Calculate steady state Kalman gain for one axis of vision measurement
+   * @param axis Axis index, x, y or heading
+   * @param variance Variance of measurement on axis
+   * @return Gain [0.0, 1.0]
+   */
+  private double getVisionGain(int axis, double variance) {
+    return m_q[axis] == 0.0 ? 0.0 : m_q[axis] / (m_q[axis] + Math.sqrt(m_q[axis] * variance));
+  }
+
+  /**
+   * Reset robot pose, clearing history
+   * @param gyroAngle Current gyro angle
+   * @param modulePositions Current module positions
+   * @param pose Pose to reset to
+   */
+  public void resetPosition(Rotation2d gyroAngle, SwerveModulePosition[] modulePositions, Pose2d pose) {
+    readPositions(modulePositions);
+    resetOdometry(gyroAngle.getRadians(), m_inputDistances, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+    m_head = 0;
+    m_size = 0;
+    m_batchSize = 0;
+  }
+
+  /**
+   * Update pose with current sensor readings, timestamped now
+   * @param gyroAngle Current gyro angle
+   * @param modulePositions Current module positions
+   */
+  public void update(Rotation2d gyroAngle, SwerveModulePosition[] modulePositions) {
+    updateWithTime(MathSharedStore.getTimestamp(), gyroAngle, modulePositions);
+  }
+
+  /**
+   * Update pose with timestamped sensor readings
+   * @param timestamp Timestamp of readings in seconds
+   * @param gyroAngle Gyro angle
+   * @param modulePositions Module positions
+   */
+  public void updateWithTime(double timestamp, Rotation2d gyroAngle, SwerveModulePosition[] modulePositions) {
+    readPositions(modulePositions);
+    updateWithTime(timestamp, gyroAngle.getRadians(), m_inputDistances, m_inputAngles);
+  }
+
+  /**
+   * Update pose with timestamped sensor readings
+   * @param timestamp Timestamp of readings in seconds
+   * @param gyroAngle Gyro angle in radians
+   * @param distances Module drive distances in meters
+   * @param angles Module angles in radians
+   */
+  public void updateWithTime(double timestamp, double gyroAngle, double[] distances, double[] angles) {
+    updateOdometry(gyroAngle, distances, angles);
+    addSample(timestamp, gyroAngle, distances, angles);
+    m_estimatedPose = null;
+  }
+
+  /**
+   * Fuse vision measurement, using current vision standard deviations
+   * @param visionRobotPose Robot pose measured by vision
+   * @param timestamp Timestamp of measurement in seconds, same epoch as odometry
+   */
+  public void addVisionMeasurement(Pose2d visionRobotPose, double timestamp) {
+    addVisionMeasurement(visionRobotPose.getX(), visionRobotPose.getY(), visionRobotPose.getRotation().getRadians(), timestamp);
+  }
+
+  /**
+   * Fuse vision measurement
+   * @param visionRobotPose Robot pose measured by vision
+   * @param timestamp Timestamp of measurement in seconds, same epoch as odometry
+   * @param visionMeasurementStdDevs Standard deviations of measurement x, y and heading, in meters and radians
+   */
+  public void addVisionMeasurement(Pose2d visionRobotPose, double timestamp, Matrix<N3, N1> visionMeasurementStdDevs) {
+    setVisionMeasurementStdDevs(visionMeasurementStdDevs);
+    addVisionMeasurement(visionRobotPose, timestamp);
+  }
+
+  /**
+   * Fuse vision measurement, using current vision standard deviations
+   * @param x Measured X position in meters
+   * @param y Measured Y position in meters
+   * @param theta Measured heading in radians
+   * @param timestamp Timestamp of measurement in seconds, same epoch as odometry
+   */
+  public void addVisionMeasurement(double x, double y, double theta, double timestamp) {
+    // Skip if measurement is older than history
+    if (!isWithinHistory(timestamp)) return;
+
+    correct(x, y, theta, timestamp, m_visionK[0], m_visionK[1], m_visionK[2]);
+    replay(timestamp, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Queue vision measurement to be fused in next batch
+   * @param visionRobotPose Robot pose measured by vision
+   * @param timestamp Timestamp of measurement in seconds, same epoch as odometry
+   * @param visionMeasurementStdDevs Standard deviations of measurement x, y and heading, in meters and radians
+   */
+  public void queueVisionMeasurement(Pose2d visionRobotPose, double timestamp, Matrix<N3, N1> visionMeasurementStdDevs) {
+    queueVisionMeasurement(
+      visionRobotPose.getX(),
+      visionRobotPose.getY(),
+      visionRobotPose.getRotation().getRadians(),
+      timestamp,
+      visionMeasurementStdDevs.get(0, 0),
+      visionMeasurementStdDevs.get(1, 0),
+      visionMeasurementStdDevs.get(2, 0)
+    );
+  }
+
+  /**
+   * Queue vision measurement to be fused in next batch
+   * @param x Measured X position in meters
+   * @param y Measured Y position in meters
+   * @param theta Measured heading in radians
+   * @param timestamp Timestamp of measurement in seconds, same epoch as odometry
+   * @param xStdDev Standard deviation of X position in meters
+   * @param yStdDev Standard deviation of Y position in meters
+   * @param thetaStdDev Standard deviation of heading in radians
+   */
+  public void queueVisionMeasurement(double x, double y, double theta, double timestamp,
+                                     double xStdDev, double yStdDev, double thetaStdDev) {
+    // Grow batch if more cameras reported than expected
+    if (m_batchSize == m_batchTimes.length) {
+      int capacity = m_batchTimes.length * 2;
+      m_batchX = Arrays.copyOf(m_batchX, capacity);
+      m_batchY = Arrays.copyOf(m_batchY, capacity);
+      m_batchTheta = Arrays.copyOf(m_batchTheta, capacity);
+      m_batchTimes = Arrays.copyOf(m_batchTimes, capacity);
+      m_batchVariances = Arrays.copyOf(m_batchVariances, capacity * 3);
+      m_batchOrder = Arrays.copyOf(m_batchOrder, capacity);
+    }
+
+    int index = m_batchSize++;
+    m_batchX[index] = x;
+    m_batchY[index] = y;
+    m_batchTheta[index] = theta;
+    m_batchTimes[index] = timestamp;
+    m_batchVariances[index * 3] = xStdDev * xStdDev;
+    m_batchVariances[index * 3 + 1] = yStdDev * yStdDev;
+    m_batchVariances[index * 3 + 2] = thetaStdDev * thetaStdDev;
+  }
+
+  /**
+   * Fuse all queued vision measurements in a single replay pass
+   * <p>
+   * Measurements are applied in timestamp order. Each group of measurements whose timestamps are
+   * within the fusion window of the oldest in the group is combined into one measurement, weighting
+   * each axis by inverse variance, with combined variance reduced accordingly.
+   * @param fusionWindow Maximum timestamp spread of combined measurements in seconds, zero to only combine equal timestamps
+   * @return Number of corrections applied after combining
+   */
+  public int fuseVisionMeasurements(double fusionWindow) {
+    // Sort queued measurements by timestamp, batch is small so use insertion sort
+    for (int i = 0; i < m_batchSize; i++) {
+      int j = i;
+      while (j > 0 && m_batchTimes[m_batchOrder[j - 1]] > m_batchTimes[i]) {
+        m_batchOrder[j] = m_batchOrder[j - 1];
+        j--;
+      }
+      m_batchOrder[j] = i;
+    }
+
+    int corrections = 0;
+    double previousTimestamp = Double.NaN;
+    int next = 0;
+    while (next < m_batchSize) {
+      // Combine measurements within window of oldest in group
+      int first = m_batchOrder[next];
+      double referenceTheta = m_batchTheta[first];
+      double sumTime = 0.0, sumWX = 0.0, sumWY = 0.0, sumWTheta = 0.0;
+      double sumX = 0.0, sumY = 0.0, sumTheta = 0.0;
+      int count = 0;
+      for (; next < m_batchSize; next++) {
+        int index = m_batchOrder[next];
+        if (m_batchTimes[index] - m_batchTimes[first] > fusionWindow) break;
+
+        double wX = 1.0 / m_batchVariances[index * 3];
+        double wY = 1.0 / m_batchVariances[index * 3 + 1];
+        double wTheta = 1.0 / m_batchVariances[index * 3 + 2];
+        sumTime += m_batchTimes[index];
+        sumX += wX * m_batchX[index];
+        sumY += wY * m_batchY[index];
+        sumTheta += wTheta * MathUtil.angleModulus(m_batchTheta[index] - referenceTheta);
+        sumWX += wX;
+        sumWY += wY;
+        sumWTheta += wTheta;
+        count++;
+      }
+      double timestamp = sumTime / count;
+
+      // Skip if measurement is older than history
+      if (!isWithinHistory(timestamp)) continue;
+
+      // Bring history up to date as far as this measurement, then correct
+      if (corrections > 0) replay(previousTimestamp, timestamp);
+      correct(
+        sumX / sumWX,
+        sumY / sumWY,
+        MathUtil.angleModulus(referenceTheta + sumTheta / sumWTheta),
+        timestamp,
+        getVisionGain(0, 1.0 / sumWX),
+        getVisionGain(1, 1.0 / sumWY),
+        getVisionGain(2, 1.0 / sumWTheta)
+      );
+      previousTimestamp = timestamp;
+      corrections++;
+    }
+
+    // Replay remaining history after last correction
+    if (corrections > 0) replay(previousTimestamp, Double.POSITIVE_INFINITY);
+    m_batchSize = 0;
+
+    return corrections;
+  }
+
+  /**
+   * Get whether timestamp is recent enough to be corrected
+   * @param timestamp Time in seconds
+   * @return True if history covers timestamp
+   */
+  private boolean isWithinHistory(double timestamp) {
+    return m_size > 0 && m_times[slot(m_size - 1)] - BUFFER_DURATION <= timestamp;
+  }
+
+  /**
+   * Correct odometry pose at time of measurement, without replaying newer history
+   * @param x Measured X position in meters
+   * @param y Measured Y position in meters
+   * @param theta Measured heading in radians
+   * @param timestamp Timestamp of measurement in seconds
+   * @param xGain Gain applied to X correction
+   * @param yGain Gain applied to Y correction
+   * @param thetaGain Gain applied to heading correction
+   */
+  private void correct(double x, double y, double theta, double timestamp, double xGain, double yGain, double thetaGain) {
+    // Get odometry pose at time of measurement
+    getSample(timestamp);
+
+    // Scale twist from odometry pose to vision pose by Kalman gain
+    log(m_sampleX, m_sampleY, m_sampleTheta, x, y, theta);
+    exp(m_sampleX, m_sampleY, m_sampleTheta, m_twistX * xGain, m_twistY * yGain, m_twistTheta * thetaGain);
+
+    // Reset odometry to corrected pose at measurement time, and record it
+    resetOdometry(m_sampleGyro, m_sampleDistances, m_resultX, m_resultY, m_resultTheta);
+    addSample(timestamp, m_sampleGyro, m_sampleDistances, m_sampleAngles);
+  }
+
+  /**
+   * Replay recorded odometry on top of corrected pose, overwriting recorded poses
+   * @param startTime Time of correction in seconds, first sample replayed
+   * @param endTime Time in seconds after which replay stops
+   */
+  private void replay(double startTime, double endTime) {
+    int start = floorIndex(startTime);
+    if (start < 0 || m_times[slot(start)] < startTime) start++;
+    for (int i = start; i < m_size; i++) {
+      int slot = slot(i);
+      if (m_times[slot] > endTime) break;
+
+      System.arraycopy(m_distances, slot * m_moduleCount, m_replayDistances, 0, m_moduleCount);
+      System.arraycopy(m_angles, slot * m_moduleCount, m_replayAngles, 0, m_moduleCount);
+      updateOdometry(m_gyro[slot], m_replayDistances, m_replayAngles);
+      m_poseX[slot] = m_x;
+      m_poseY[slot] = m_y;
+      m_poseTheta[slot] = m_theta;
+    }
+    m_estimatedPose = null;
+  }
+
+  /**
+   * Get current pose estimate
+   * @return Estimated pose
+   */
+  public Pose2d getEstimatedPosition() {
+    if (m_estimatedPose == null) m_estimatedPose = new Pose2d(m_x, m_y, Rotation2d.fromRadians(m_theta));
+    return m_estimatedPose;
+  }
+
+  /**
+   * Get odometry pose at time, interpolating between recorded samples
+   * @param timestamp Time in seconds, same epoch as odometry
+   * @param pose Array to receive X and Y position in meters, and heading in radians
+   * @return True if history covers timestamp, otherwise pose is unchanged
+   */
+  public boolean getPoseAt(double timestamp, double[] pose) {
+    if (!isWithinHistory(timestamp)) return false;
+
+    getSample(timestamp);
+    pose[0] = m_sampleX;
+    pose[1] = m_sampleY;
+    pose[2] = m_sampleTheta;
+    return true;
+  }
+
+  /**
+   * Get estimated X position
+   * @return X position in meters
+   */
+  public double getX() {
+    return m_x;
+  }
+
+  /**
+   * Get estimated Y position
+   * @return Y position in meters
+   */
+  public double getY() {
+    return m_y;
+  }
+
+  /**
+   * Get estimated heading
+   * @return Heading in radians
+   */
+  public double getHeading() {
+    return m_theta;
+  }
+
+  /**
+   * Get gyro angle recorded at time, interpolating between recorded samples
+   * @param timestamp Time in seconds, same epoch as odometry
+   * @return Gyro angle in radians, NaN if history does not cover timestamp
+   */
+  public double getGyroAngleAt(double timestamp) {
+    if (!isWithinHistory(timestamp)) return Double.NaN;
+
+    getSample(timestamp);
+    return m_sampleGyro;
+  }
+
+  /**
+   * Get time of newest sample in history
+   * @return Timestamp in seconds, NaN if history is empty
+   */
+  public double getLatestTimestamp() {
+    return m_size > 0 ? m_times[slot(m_size - 1)] : Double.NaN;
+  }
+
+  /**
+   * Get number of samples in history
+   * @return Sample count
+   */
+  public int getHistorySize() {
+    return m_size;
+  }
+
+  /**
+   * Copy module positions into input scratch arrays
+   * @param modulePositions Module positions
+   */
+  private void readPositions(SwerveModulePosition[] modulePositions) {
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_inputDistances[i] = modulePositions[i].distanceMeters;
+      m_inputAngles[i] = modulePositions[i].angle.getRadians();
+    }
+  }
+
+  /**
+   * Reset odometry to pose
+   * @param gyroAngle Gyro angle in radians
+   * @param distances Module drive distances in meters
+   * @param x X position in meters
+   * @param y Y position in meters
+   * @param theta Heading in radians
+   */
+  private void resetOdometry(double gyroAngle, double[] distances, double x, double y, double theta) {
+    m_x = x;
+    m_y = y;
+    m_theta = theta;
+    m_previousAngle = theta;
+    m_gyroOffset = MathUtil.angleModulus(theta - gyroAngle);
+    System.arraycopy(distances, 0, m_previousDistances, 0, m_moduleCount);
+    m_estimatedPose = null;
+  }
+
+  /**
+   * Integrate odometry from previous sensor readings
+   * @param gyroAngle Gyro angle in radians
+   * @param distances Module drive distances in meters
+   * @param angles Module angles in radians
+   */
+  private void updateOdometry(double gyroAngle, double[] distances, double[] angles) {
+    double angle = MathUtil.angleModulus(gyroAngle + m_gyroOffset);
+    toTwist(m_previousDistances, 0, distances, angles);
+    exp(m_x, m_y, m_theta, m_twistX, m_twistY, MathUtil.angleModulus(angle - m_previousAngle));
+
+    System.arraycopy(distances, 0, m_previousDistances, 0, m_moduleCount);
+    m_previousAngle = angle;
+    m_x = m_resultX;
+    m_y = m_resultY;
+    m_theta = angle;
+  }
+
+  /**
+   * Calculate chassis translation twist from module deltas, storing result
+   * @param startDistances Array holding start distances
+   * @param startOffset Index of first start distance
+   * @param endDistances End distances
+   * @param endAngles End module angles in radians
+   */
+  private void toTwist(double[] startDistances, int startOffset, double[] endDistances, double[] endAngles) {
+    int columns = 2 * m_moduleCount;
+    double twistX = 0.0, twistY = 0.0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      double delta = endDistances[i] - startDistances[startOffset + i];
+      double deltaX = delta * Math.cos(endAngles[i]);
+      double deltaY = delta * Math.sin(endAngles[i]);
+      twistX += m_forwardKinematics[2 * i] * deltaX + m_forwardKinematics[2 * i + 1] * deltaY;
+      twistY += m_forwardKinematics[columns + 2 * i] * deltaX + m_forwardKinematics[columns + 2 * i + 1] * deltaY;
+    }
+    m_twistX = twistX;
+    m_twistY = twistY;
+  }
+
+  /**
+   * Apply twist to pose along constant curvature arc, storing result
+   * @param x Start X position in meters
+   * @param y Start Y position in meters
+   * @param theta Start heading in radians
+   * @param dx Twist X component in meters
+   * @param dy Twist Y component in meters
+   * @param dtheta Twist rotation in radians
+   */
+  private void exp(double x, double y, double theta, double dx, double dy, double dtheta) {
+    double sinTheta = Math.sin(dtheta), cosTheta = Math.cos(dtheta);
+
+    double s, c;
+    if (Math.abs(dtheta) < EPSILON) {
+      s = 1.0 - dtheta * dtheta / 6.0;
+      c = 0.5 * dtheta;
+    } else {
+      s = sinTheta / dtheta;
+      c = (1.0 - cosTheta) / dtheta;
+    }
+    double robotDx = dx * s - dy * c;
+    double robotDy = dx * c + dy * s;
+
+    double cos = Math.cos(theta), sin = Math.sin(theta);
+    m_resultX = x + robotDx * cos - robotDy * sin;
+    m_resultY = y + robotDx * sin + robotDy * cos;
+    m_resultTheta = MathUtil.angleModulus(theta + dtheta);
+  }
+
+  /**
+   * Calculate twist taking start pose to end pose, storing result
+   * @param x0 Start X position in meters
+   * @param y0 Start Y position in meters
+   * @param theta0 Start heading in radians
+   * @param x1 End X position in meters
+   * @param y1 End Y position in meters
+   * @param theta1 End heading in radians
+   */
+  private void log(double x0, double y0, double theta0, double x1, double y1, double theta1) {
+    // Express end pose relative to start pose
+    double cos = Math.cos(theta0), sin = Math.sin(theta0);
+    double dx = (x1 - x0) * cos + (y1 - y0) * sin;
+    double dy = -(x1 - x0) * sin + (y1 - y0) * cos;
+    double dtheta = MathUtil.angleModulus(theta1 - theta0);
+
+    double halfDtheta = dtheta / 2.0;
+    double cosMinusOne = Math.cos(dtheta) - 1.0;
+    double halfThetaByTanOfHalfDtheta = Math.abs(cosMinusOne) < EPSILON
+      ? 1.0 - dtheta * dtheta / 12.0
+      : -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+
+    m_twistX = dx * halfThetaByTanOfHalfDtheta + dy * halfDtheta;
+    m_twistY = -dx * halfDtheta + dy * halfThetaByTanOfHalfDtheta;
+    m_twistTheta = dtheta;
+  }
+
+  /**
+   * Get odometry sample at time, interpolating between recorded samples, storing result
+   * @param timestamp Time in seconds
+   */
+  private void getSample(double timestamp) {
+    int index = floorIndex(timestamp);
+
+    // Use nearest sample if exact, or outside recorded history
+    if (index < 0 || index == m_size - 1 || m_times[slot(index)] == timestamp) {
+      int slot = slot(Math.max(index, 0));
+      m_sampleX = m_poseX[slot];
+      m_sampleY = m_poseY[slot];
+      m_sampleTheta = m_poseTheta[slot];
+      m_sampleGyro = m_gyro[slot];
+      System.arraycopy(m_distances, slot * m_moduleCount, m_sampleDistances, 0, m_moduleCount);
+      System.arraycopy(m_angles, slot * m_moduleCount, m_sampleAngles, 0, m_moduleCount);
+      return;
+    }
+
+    int start = slot(index), end = slot(index + 1);
+    double t = (timestamp - m_times[start]) / (m_times[end] - m_times[start]);
+
+    // Interpolate sensor readings
+    for (int i = 0; i < m_moduleCount; i++) {
+      int startIndex = start * m_moduleCount + i, endIndex = end * m_moduleCount + i;
+      m_sampleDistances[i] = MathUtil.interpolate(m_distances[startIndex], m_distances[endIndex], t);
+      m_sampleAngles[i] = MathUtil.angleModulus(
+        m_angles[startIndex] + MathUtil.angleModulus(m_angles[endIndex] - m_angles[startIndex]) * t
+      );
+    }
+    m_sampleGyro = MathUtil.angleModulus(m_gyro[start] + MathUtil.angleModulus(m_gyro[end] - m_gyro[start]) * t);
+
+    // Integrate odometry from start sample to interpolated readings
+    toTwist(m_distances, start * m_moduleCount, m_sampleDistances, m_sampleAngles);
+    exp(m_poseX[start], m_poseY[start], m_poseTheta[start], m_twistX, m_twistY, MathUtil.angleModulus(m_sampleGyro - m_gyro[start]));
+    m_sampleX = m_resultX;
+    m_sampleY = m_resultY;
+    m_sampleTheta = m_resultTheta;
+  }
+
+  /**
+   * Record current odometry pose with sensor readings, replacing any sample at same time
+   * @param timestamp Time in seconds
+   * @param gyroAngle Gyro angle in radians
+   * @param distances Module drive distances in meters
+   * @param angles Module angles in radians
+   */
+  private void addSample(double timestamp, double gyroAngle, double[] distances, double[] angles) {
+    // Drop samples too old to be useful
+    while (m_size > 0 && timestamp - m_times[m_head] >= BUFFER_DURATION) {
+      m_head = (m_head + 1) & m_mask;
+      m_size--;
+    }
+
+    int index = floorIndex(timestamp);
+    if (index < 0 || m_times[slot(index)] != timestamp) {
+      index++;
+
+      // Drop oldest sample if full
+      if (m_size == m_capacity) {
+        if (index == 0) return;
+        m_head = (m_head + 1) & m_mask;
+        m_size--;
+        index--;
+      }
+
+      // Shift newer samples up to make room
+      for (int i = m_size; i > index; i--) copySample(slot(i - 1), slot(i));
+      m_size++;
+    }
+
+    int slot = slot(index);
+    m_times[slot] = timestamp;
+    m_poseX[slot] = m_x;
+    m_poseY[slot] = m_y;
+    m_poseTheta[slot] = m_theta;
+    m_gyro[slot] = gyroAngle;
+    System.arraycopy(distances, 0, m_distances, slot * m_moduleCount, m_moduleCount);
+    System.arraycopy(angles, 0, m_angles, slot * m_moduleCount, m_moduleCount);
+  }
+
+  /**
+   * Copy sample between slots
+   * @param from Source slot
+   * @param to Destination slot
+   */
+  private void copySample(int from, int to) {
+    m_times[to] = m_times[from];
+    m_poseX[to] = m_poseX[from];
+    m_poseY[to] = m_poseY[from];
+    m_poseTheta[to] = m_poseTheta[from];
+    m_gyro[to] = m_gyro[from];
+    System.arraycopy(m_distances, from * m_moduleCount, m_distances, to * m_moduleCount, m_moduleCount);
+    System.arraycopy(m_angles, from * m_moduleCount, m_angles, to * m_moduleCount, m_moduleCount);
+  }
+
+  /**
+   * Find newest sample at or before time
+   * @param timestamp Time in seconds
+   * @return Index into history, oldest first, or -1 if all samples are newer
+   */
+  private int floorIndex(double timestamp) {
+    // Fast path for appending in order
+    if (m_size > 0 && m_times[slot(m_size - 1)] <= timestamp) return m_size - 1;
+
+    int low = 0, high = m_size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (m_times[slot(middle)] <= timestamp) low = middle + 1;
+      else high = middle - 1;
+    }
+    return high;
+  }
+
+  /**
+   * Get ring buffer slot of history index
+   * @param index Index into history, oldest first
+   * @return Slot in backing arrays
+   */
+  private int slot(int index) {
+    return (m_head + index) & m_mask;
+  }
+}
@@ -0,0 +1,146 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * Estimates gyro yaw bias from vision heading measurements
+ * <p>
+ * A two state Kalman filter tracks the offset between corrected gyro angle and field heading, and
+ * the remaining drift rate of the corrected gyro. The offset is a nuisance state, allowed to wander
+ * slowly. After each measurement the estimated drift is moved into the applied bias, limited to a
+ * maximum rate, and the gyro correction is the integral of the applied bias over time, so changing
+ * the bias never makes corrected heading jump.
+ * <p>
+ * Must only be used from the main robot thread.
+ */
+public class GyroBiasEstimator {
+  private final double m_headingVariance;
+  private final double m_biasVariance;
+  private final double m_maxBias;
+
+  // Applied bias, and its integral as of correction time
+  private double m_bias;
+  private double m_correction;
+  private double m_correctionTime = Double.NaN;
+
+  // Filter state, offset and remaining drift rate, with covariance
+  private boolean m_isInitialized;
+  private double m_lastTime;
+  private double m_offset;
+  private double m_drift;
+  private double m_p00;
+  private double m_p01;
+  private double m_p11;
+
+  /**
+   * Create gyro bias estimator
+   * @param headingNoise Random walk of gyro to field heading offset, in radians per root second
+   * @param biasNoise Random walk of gyro bias, in radians per second per root second
+   * @param maxBias Largest bias that may be applied, in radians per second
+   */
+  public GyroBiasEstimator(double headingNoise, double biasNoise, double maxBias) {
+    if (maxBias <= 0.0) throw new IllegalArgumentException("Max bias must be positive");
+
+    this.m_headingVariance = headingNoise * headingNoise;
+    this.m_biasVariance = biasNoise * biasNoise;
+    this.m_maxBias = maxBias;
+  }
+
+  /**
+   * Update bias estimate with vision heading measurement
+   * @param timestamp Time of measurement in seconds
+   * @param gyroAngle Corrected gyro angle at time of measurement, in radians
+   * @param heading Field heading measured by vision, in radians
+   * @param headingStdDev Standard deviation of measured heading, in radians
+   * @return True if measurement was used, false if out of order
+   */
+  public boolean addMeasurement(double timestamp, double gyroAngle, double heading, double headingStdDev) {
+    double offset = MathUtil.angleModulus(heading - gyroAngle);
+    double measurementVariance = headingStdDev * headingStdDev;
+
+    // Initialise offset from first measurement, bias unknown within bounds
+    if (!m_isInitialized) {
+      m_isInitialized = true;
+      m_lastTime = timestamp;
+      m_offset = offset;
+      m_drift = 0.0;
+      m_p00 = measurementVariance;
+      m_p01 = 0.0;
+      m_p11 = m_maxBias * m_maxBias;
+      return true;
+    }
+
+    double dt = timestamp - m_lastTime;
+    if (dt < 0.0) return false;
+    m_lastTime = timestamp;
+
+    // Predict, offset changes by drift over elapsed time
+    m_offset += m_drift * dt;
+    m_p00 += 2.0 * dt * m_p01 + dt * dt * m_p11 + m_headingVariance * dt;
+    m_p01 += dt * m_p11;
+    m_p11 += m_biasVariance * dt;
+
+    // Correct with measured offset
+    double innovation = MathUtil.angleModulus(offset - m_offset);
+    double s = m_p00 + measurementVariance;
+    double k0 = m_p00 / s, k1 = m_p01 / s;
+    m_offset = MathUtil.angleModulus(m_offset + k0 * innovation);
+    m_drift += k1 * innovation;
+    m_p11 -= k1 * m_p01;
+    m_p01 *= 1.0 - k0;
+    m_p00 *= 1.0 - k0;
+
+    // Move estimated drift into applied bias, within bounds
+    double bias = MathUtil.clamp(m_bias + m_drift, -m_maxBias, +m_maxBias);
+    setBias(timestamp, bias);
+
+    return true;
+  }
+
+  /**
+   * Change applied bias, keeping correction continuous
+   * @param timestamp Time of change in seconds
+   * @param bias New bias in radians per second
+   */
+  private void setBias(double timestamp, double bias) {
+    // Integrate correction up to change, never going back in time
+    if (Double.isNaN(m_correctionTime)) m_correctionTime = timestamp;
+    double changeTime = Math.max(timestamp, m_correctionTime);
+    m_correction = getCorrection(changeTime);
+    m_correctionTime = changeTime;
+
+    // Drift still to be corrected is what could not be applied
+    m_drift -= bias - m_bias;
+    m_bias = bias;
+  }
+
+  /**
+   * Get correction to add to raw gyro angle
+   * @param timestamp Time in seconds
+   * @return Correction in radians
+   */
+  public double getCorrection(double timestamp) {
+    if (Double.isNaN(m_correctionTime)) return 0.0;
+    return m_correction + m_bias * (timestamp - m_correctionTime);
+  }
+
+  /**
+   * Get applied gyro bias, positive when gyro reads low
+   * @return Bias in radians per second
+   */
+  public double getBias() {
+    return m_bias;
+  }
+
+  /**
+   * Get confidence in bias estimate
+   * @return Standard deviation of bias estimate in radians per second
+   */
+  public double getBiasStdDev() {
+    return m_isInitialized ? Math.sqrt(Math.max(m_p11, 0.0)) : m_maxBias;
+  }
+}
@@ -0,0 +1,177 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import org.lasarobotics.drive.RotatePIDController;
+import org.lasarobotics.utils.PIDConstants;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.units.Angle;
+import edu.wpi.first.units.Measure;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.units.Velocity;
+
+/**
+ * Single heading controller for all drivetrain rotation modes
+ * <p>
+ * Driver rate control uses the driver rotate PID, which holds heading when the stick is released.
+ * Turning by a driver requested angle also uses the driver rotate PID.
+ * Aim and snap modes share one profiled controller. Only the active mode is calculated each
+ * cycle; when the mode changes, or after control is released, the newly engaged controller is
+ * reset to the measured heading and rate, so the transfer is bumpless without keeping idle
+ * controllers updated.
+ */
+public class HeadingController {
+  /** Heading control mode */
+  public enum Mode {
+    /** Not controlling heading */
+    NONE,
+    /** Driver commands rotate rate, heading held when released */
+    DRIVER,
+    /** Driver turns by an angle from current heading */
+    TURN,
+    /** Point front of robot at target heading */
+    AIM_FRONT,
+    /** Point rear of robot at target heading */
+    AIM_REAR,
+    /** Snap to a fixed field direction */
+    SNAP
+  }
+
+  private final RotatePIDController m_driverController;
+  private final ProfiledPIDController m_profiledController;
+  private Mode m_mode = Mode.NONE;
+
+  /**
+   * Create heading controller
+   * @param driverController Driver rotate PID controller
+   * @param profiledPID PID constants for aim and snap modes, in degrees
+   * @param constraints Heading profile constraints, in degrees
+   * @param tolerance Heading tolerance in degrees
+   */
+  public HeadingController(RotatePIDController driverController, PIDConstants profiledPID,
+                           TrapezoidProfile.Constraints constraints, double tolerance) {
+    this.m_driverController = driverController;
+    this.m_profiledController = new ProfiledPIDController(profiledPID.kP, 0.0, profiledPID.kD, constraints, profiledPID.period);
+
+    m_driverController.setTolerance(tolerance);
+    m_profiledController.enableContinuousInput(-180.0, +180.0);
+    m_profiledController.setTolerance(tolerance);
+  }
+
+  /**
+   * Calculate rotate rate from driver request
+   * @param angle Current gyro angle
+   * @param rotateRate Current gyro rotate rate
+   * @param rotateRequest Desired rotate speed [-1.0, +1.0]
+   * @return Rotate rate output in degrees per second
+   */
+  public double driverRate(Measure<Angle> angle, Measure<Velocity<Angle>> rotateRate, double rotateRequest) {
+    // Start holding current heading if just engaged
+    if (m_mode != Mode.DRIVER) resetDriver(angle);
+
+    return -m_driverController.calculate(angle, rotateRate, rotateRequest);
+  }
+
+  /**
+   * Calculate rotate rate to turn by an angle from current heading, using driver rotate PID
+   * @param angle Current gyro angle in degrees
+   * @param delta Angle to turn by, in same convention as gyro angle, in degrees
+   * @return Rotate rate output in degrees per second
+   */
+  public double turn(double angle, double delta) {
+    // Clear driver controller state if just engaged
+    if (m_mode != Mode.TURN) {
+      m_driverController.reset();
+      m_mode = Mode.TURN;
+    }
+
+    return m_driverController.calculate(angle, angle + delta);
+  }
+
+  /**
+   * Calculate rotate rate to aim at target heading
+   * @param heading Current heading in degrees
+   * @param rate Current rotate rate in degrees per second
+   * @param targetHeading Heading to target in degrees
+   * @param reversed True to point rear of robot at target
+   * @return Rotate rate output in degrees per second
+   */
+  public double aim(double heading, double rate, double targetHeading, boolean reversed) {
+    return reversed
+      ? calculate(Mode.AIM_REAR, MathUtil.inputModulus(heading + 180.0, -180.0, +180.0), rate, targetHeading)
+      : calculate(Mode.AIM_FRONT, heading, rate, targetHeading);
+  }
+
+  /**
+   * Calculate rotate rate to snap to field direction
+   * @param heading Current heading in degrees
+   * @param rate Current rotate rate in degrees per second
+   * @param targetHeading Field direction in degrees
+   * @return Rotate rate output in degrees per second
+   */
+  public double snap(double heading, double rate, double targetHeading) {
+    return calculate(Mode.SNAP, heading, rate, targetHeading);
+  }
+
+  /**
+   * Calculate profiled controller output, resetting to measured state if mode changed
+   * @param mode Requested mode
+   * @param measurement Current heading of aimed axis in degrees
+   * @param rate Current rotate rate in degrees per second
+   * @param goal Desired heading of aimed axis in degrees
+   * @return Rotate rate output in degrees per second
+   */
+  private double calculate(Mode mode, double measurement, double rate, double goal) {
+    if (m_mode != mode) {
+      m_profiledController.reset(measurement, rate);
+      m_mode = mode;
+    }
+
+    return m_profiledController.calculate(measurement, goal);
+  }
+
+  /**
+   * Engage driver mode, holding given heading
+   * @param angle Gyro angle to hold
+   */
+  public void resetDriver(Measure<Angle> angle) {
+    m_driverController.setSetpoint(angle.in(Units.Degrees));
+    m_driverController.reset();
+    m_mode = Mode.DRIVER;
+  }
+
+  /**
+   * Release heading control, next mode engaged will start from measured state
+   */
+  public void reset() {
+    m_mode = Mode.NONE;
+  }
+
+  /**
+   * Get active mode
+   * @return Heading control mode
+   */
+  public Mode getMode() {
+    return m_mode;
+  }
+
+  /**
+   * Get whether active aim or snap mode has reached its goal
+   * @return True if at goal, false in driver mode or when released
+   */
+  public boolean atGoal() {
+    switch (m_mode) {
+      case AIM_FRONT:
+      case AIM_REAR:
+      case SNAP:
+        return m_profiledController.atGoal();
+      default:
+        return false;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+/**
+ * Allocation-free shoot-on-the-move aiming solver
+ * <p>
+ * A game piece launched from a moving robot inherits the robot's field relative velocity, so the
+ * robot must aim at a virtual target offset against its motion by the distance travelled during
+ * the time of flight. Since time of flight depends on distance to the virtual target, the solution
+ * is found by fixed-point iteration, bounded by a maximum iteration count.
+ */
+public class MovingShotSolver {
+  /** Projectile model, must not allocate */
+  @FunctionalInterface
+  public interface ProjectileModel {
+    /**
+     * Get time of flight to a target
+     * @param distance Horizontal distance to target in meters
+     * @return Time from shot command to arrival at target in seconds
+     */
+    double timeOfFlight(double distance);
+
+    /**
+     * Get rate of change of time of flight with distance, by central difference unless overridden
+     * @param distance Horizontal distance to target in meters
+     * @return Derivative of time of flight in s/m
+     */
+    default double timeOfFlightDerivative(double distance) {
+      double step = 1e-3;
+      double lower = Math.max(distance - step, 0.0);
+      return (timeOfFlight(distance + step) - timeOfFlight(lower)) / (distance + step - lower);
+    }
+
+    /**
+     * Create projectile model with constant horizontal speed
+     * @param exitVelocity Horizontal exit velocity in m/s
+     * @param latency Delay between shot command and exit in seconds
+     * @return Projectile model
+     */
+    static ProjectileModel constantVelocity(double exitVelocity, double latency) {
+      if (exitVelocity <= 0.0) throw new IllegalArgumentException("Exit velocity must be positive");
+      return (distance) -> latency + distance / exitVelocity;
+    }
+  }
+
+  private final ProjectileModel m_projectileModel;
+  private final int m_maxIterations;
+  private final double m_tolerance;
+
+  private double m_aimX;
+  private double m_aimY;
+  private double m_heading;
+  private double m_yawRate;
+  private double m_timeOfFlight;
+  private int m_iterations;
+  private boolean m_isConverged;
+
+  /**
+   * Create moving shot solver
+   * @param projectileModel Projectile model
+   * @param maxIterations Maximum number of time of flight iterations
+   * @param tolerance Time of flight convergence tolerance in seconds
+   */
+  public MovingShotSolver(ProjectileModel projectileModel, int maxIterations, double tolerance) {
+    if (maxIterations < 1) throw new IllegalArgumentException("Max iterations must be positive");
+
+    this.m_projectileModel = projectileModel;
+    this.m_maxIterations = maxIterations;
+    this.m_tolerance = tolerance;
+  }
+
+  /**
+   * Solve for heading to hit target while moving
+   * @param robotX Robot X position in meters
+   * @param robotY Robot Y position in meters
+   * @param velocityX Field relative robot X velocity in m/s
+   * @param velocityY Field relative robot Y velocity in m/s
+   * @param targetX Target X position in meters
+   * @param targetY Target Y position in meters
+   * @return True if time of flight converged within tolerance
+   */
+  public boolean solve(double robotX, double robotY,
+                       double velocityX, double velocityY,
+                       double targetX, double targetY) {
+    // Start with stationary solution
+    double dx = targetX - robotX;
+    double dy = targetY - robotY;
+    double timeOfFlight = m_projectileModel.timeOfFlight(Math.hypot(dx, dy));
+
+    // Iterate virtual target until time of flight converges
+    m_isConverged = false;
+    m_iterations = 0;
+    while (m_iterations < m_maxIterations) {
+      m_iterations++;
+      dx = targetX - velocityX * timeOfFlight - robotX;
+      dy = targetY - velocityY * timeOfFlight - robotY;
+      double nextTimeOfFlight = m_projectileModel.timeOfFlight(Math.hypot(dx, dy));
+      boolean converged = Math.abs(nextTimeOfFlight - timeOfFlight) < m_tolerance;
+      timeOfFlight = nextTimeOfFlight;
+      if (converged) {
+        m_isConverged = true;
+        break;
+      }
+    }
+
+    // Final virtual target using converged time of flight
+    dx = targetX - velocityX * timeOfFlight - robotX;
+    dy = targetY - velocityY * timeOfFlight - robotY;
+    double distanceSquared = dx * dx + dy * dy;
+    double distance = Math.sqrt(distanceSquared);
+
+    m_aimX = robotX + dx;
+    m_aimY = robotY + dy;
+    m_heading = Math.atan2(dy, dx);
+    m_timeOfFlight = timeOfFlight;
+    // Rate of change of bearing to virtual target as robot moves past it. Virtual target also
+    // moves as time of flight changes with distance, scaling its relative velocity by 1 / (1 + t' * vr)
+    if (distance > 0.0) {
+      double radialVelocity = (dx * velocityX + dy * velocityY) / distance;
+      double scale = 1.0 + m_projectileModel.timeOfFlightDerivative(distance) * radialVelocity;
+      m_yawRate = (dy * velocityX - dx * velocityY) / distanceSquared / scale;
+    } else m_yawRate = 0.0;
+
+    return m_isConverged;
+  }
+
+  /**
+   * Get virtual target X position from last solution
+   * @return Aim point X in meters
+   */
+  public double getAimX() {
+    return m_aimX;
+  }
+
+  /**
+   * Get virtual target Y position from last solution
+   * @return Aim point Y in meters
+   */
+  public double getAimY() {
+    return m_aimY;
+  }
+
+  /**
+   * Get field relative heading to virtual target from last solution
+   * @return Heading in radians
+   */
+  public double getHeading() {
+    return m_heading;
+  }
+
+  /**
+   * Get feedforward yaw rate required to keep tracking target from last solution
+   * @return Yaw rate in rad/s, counter-clockwise positive
+   */
+  public double getYawRate() {
+    return m_yawRate;
+  }
+
+  /**
+   * Get time of flight from last solution
+   * @return Time of flight in seconds
+   */
+  public double getTimeOfFlight() {
+    return m_timeOfFlight;
+  }
+
+  /**
+   * Get number of iterations used by last solution
+   * @return Iteration count
+   */
+  public int getIterations() {
+    return m_iterations;
+  }
+
+  /**
+   * Get whether last solution converged
+   * @return True if converged within tolerance
+   */
+  public boolean isConverged() {
+    return m_isConverged;
+  }
+}
@@ -0,0 +1,181 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Estimates how far odometry can be trusted from signs of wheel slip and collisions
+ * <p>
+ * Three signals are compared against thresholds. Module velocity disagreement is the largest
+ * difference between a module's measured velocity and the rigid body motion best fitting all
+ * modules. Inertial error is the difference between wheel speed and inertial speed, as used by
+ * traction control. Jerk is the rate of change of acceleration derived from inertial velocity, which
+ * spikes on impact. The largest signal relative to its threshold gives a scale for odometry standard
+ * deviations, applied immediately when it rises and relaxing exponentially when it falls, so vision
+ * keeps correcting for a while after a collision.
+ * <p>
+ * Does not allocate, must only be used from the main robot thread.
+ */
+public class OdometryTrustEstimator {
+  private final double[] m_moduleX;
+  private final double[] m_moduleY;
+  private final double m_moduleInertia;
+  private final double m_moduleThreshold;
+  private final double m_inertialThreshold;
+  private final double m_jerkThreshold;
+  private final double m_maxScale;
+  private final double m_recoveryTime;
+
+  private int m_sampleCount;
+  private double m_timestamp;
+  private double m_velocityX;
+  private double m_velocityY;
+  private double m_accelerationX;
+  private double m_accelerationY;
+
+  private double m_moduleResidual;
+  private double m_inertialError;
+  private double m_jerk;
+  private double m_scale = 1.0;
+
+  /**
+   * Create odometry trust estimator
+   * @param moduleLocations Locations of swerve modules relative to robot center, in same order as module states
+   * @param moduleThreshold Module velocity disagreement above which odometry is distrusted, in m/s
+   * @param inertialThreshold Wheel to inertial speed difference above which odometry is distrusted, in m/s
+   * @param jerkThreshold Jerk above which odometry is distrusted, in m/s^3
+   * @param maxScale Largest scale applied to odometry standard deviations
+   * @param recoveryTime Time constant of scale relaxing back once signals fall, in seconds
+   */
+  public OdometryTrustEstimator(Translation2d[] moduleLocations,
+                                double moduleThreshold, double inertialThreshold, double jerkThreshold,
+                                double maxScale, double recoveryTime) {
+    if (moduleLocations.length < 2) throw new IllegalArgumentException("At least two modules are required");
+    if (moduleThreshold <= 0.0 || inertialThreshold <= 0.0 || jerkThreshold <= 0.0)
+      throw new IllegalArgumentException("Thresholds must be positive");
+    if (maxScale < 1.0) throw new IllegalArgumentException("Max scale must be at least one");
+    if (recoveryTime <= 0.0) throw new IllegalArgumentException("Recovery time must be positive");
+
+    // Store module locations relative to their centroid, so rigid body fit separates
+    double centroidX = 0.0, centroidY = 0.0;
+    for (var location : moduleLocations) {
+      centroidX += location.getX() / moduleLocations.length;
+      centroidY += location.getY() / moduleLocations.length;
+    }
+    this.m_moduleX = new double[moduleLocations.length];
+    this.m_moduleY = new double[moduleLocations.length];
+    double inertia = 0.0;
+    for (int i = 0; i < moduleLocations.length; i++) {
+      m_moduleX[i] = moduleLocations[i].getX() - centroidX;
+      m_moduleY[i] = moduleLocations[i].getY() - centroidY;
+      inertia += m_moduleX[i] * m_moduleX[i] + m_moduleY[i] * m_moduleY[i];
+    }
+    if (inertia <= 0.0) throw new IllegalArgumentException("Module locations must not coincide");
+
+    this.m_moduleInertia = inertia;
+    this.m_moduleThreshold = moduleThreshold;
+    this.m_inertialThreshold = inertialThreshold;
+    this.m_jerkThreshold = jerkThreshold;
+    this.m_maxScale = maxScale;
+    this.m_recoveryTime = recoveryTime;
+  }
+
+  /**
+   * Update trust with latest measurements
+   * @param timestamp Time of measurements in seconds
+   * @param moduleStates Measured module states
+   * @param inertialSpeed Inertial speed compared by traction control, in m/s
+   * @param inertialVelocityX Unfiltered inertial X velocity in m/s
+   * @param inertialVelocityY Unfiltered inertial Y velocity in m/s
+   */
+  public void update(double timestamp, SwerveModuleState[] moduleStates,
+                     double inertialSpeed, double inertialVelocityX, double inertialVelocityY) {
+    double dt = timestamp - m_timestamp;
+    if (m_sampleCount > 0 && dt <= 0.0) return;
+
+    // Fit rigid body motion to module velocities, centroid velocity is the mean
+    double meanX = 0.0, meanY = 0.0, angularMomentum = 0.0;
+    for (int i = 0; i < m_moduleX.length; i++) {
+      double vx = moduleStates[i].speedMetersPerSecond * moduleStates[i].angle.getCos();
+      double vy = moduleStates[i].speedMetersPerSecond * moduleStates[i].angle.getSin();
+      meanX += vx / m_moduleX.length;
+      meanY += vy / m_moduleX.length;
+      angularMomentum += m_moduleX[i] * vy - m_moduleY[i] * vx;
+    }
+    double omega = angularMomentum / m_moduleInertia;
+
+    // Find module disagreeing most with fitted motion
+    m_moduleResidual = 0.0;
+    for (int i = 0; i < m_moduleX.length; i++) {
+      double vx = moduleStates[i].speedMetersPerSecond * moduleStates[i].angle.getCos();
+      double vy = moduleStates[i].speedMetersPerSecond * moduleStates[i].angle.getSin();
+      double errorX = vx - (meanX - omega * m_moduleY[i]);
+      double errorY = vy - (meanY + omega * m_moduleX[i]);
+      m_moduleResidual = Math.max(m_moduleResidual, Math.hypot(errorX, errorY));
+    }
+
+    // Compare wheel speed with inertial speed
+    m_inertialError = Math.abs(Math.hypot(meanX, meanY) - inertialSpeed);
+
+    // Differentiate inertial velocity twice for jerk
+    m_jerk = 0.0;
+    if (m_sampleCount > 0) {
+      double accelerationX = (inertialVelocityX - m_velocityX) / dt;
+      double accelerationY = (inertialVelocityY - m_velocityY) / dt;
+      if (m_sampleCount > 1) m_jerk = Math.hypot(accelerationX - m_accelerationX, accelerationY - m_accelerationY) / dt;
+      m_accelerationX = accelerationX;
+      m_accelerationY = accelerationY;
+    }
+    m_velocityX = inertialVelocityX;
+    m_velocityY = inertialVelocityY;
+
+    // Scale by worst signal, rising immediately and relaxing over recovery time
+    double target = MathUtil.clamp(
+      Math.max(m_moduleResidual / m_moduleThreshold, Math.max(m_inertialError / m_inertialThreshold, m_jerk / m_jerkThreshold)),
+      1.0,
+      m_maxScale
+    );
+    if (target >= m_scale || m_sampleCount == 0) m_scale = target;
+    else m_scale = target + (m_scale - target) * Math.exp(-dt / m_recoveryTime);
+
+    m_timestamp = timestamp;
+    if (m_sampleCount < 2) m_sampleCount++;
+  }
+
+  /**
+   * Get scale to apply to odometry standard deviations
+   * @return Scale [1.0, max scale]
+   */
+  public double getScale() {
+    return m_scale;
+  }
+
+  /**
+   * Get largest disagreement of a module with rigid body motion
+   * @return Module velocity disagreement in m/s
+   */
+  public double getModuleResidual() {
+    return m_moduleResidual;
+  }
+
+  /**
+   * Get difference between wheel and inertial speed
+   * @return Inertial error in m/s
+   */
+  public double getInertialError() {
+    return m_inertialError;
+  }
+
+  /**
+   * Get jerk derived from inertial velocity
+   * @return Jerk in m/s^3
+   */
+  public double getJerk() {
+    return m_jerk;
+  }
+}
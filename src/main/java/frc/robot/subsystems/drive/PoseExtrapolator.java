@@ -0,0 +1,120 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Latency-compensating pose extrapolator
+ * <p>
+ * Commands sent to the drivetrain take effect some time after the pose they were calculated from
+ * was measured. This predicts where the robot will be once a command takes effect by integrating
+ * measured robot relative chassis speeds along a constant curvature arc over the actuation latency,
+ * the same way {@link Pose2d#exp} integrates a twist.
+ */
+public class PoseExtrapolator {
+  private static final double EPSILON = 1e-9;
+
+  private double m_latency;
+  private double m_x;
+  private double m_y;
+  private double m_heading;
+
+  /**
+   * Create pose extrapolator
+   * @param latency Actuation latency to predict over, in seconds
+   */
+  public PoseExtrapolator(double latency) {
+    setLatency(latency);
+  }
+
+  /**
+   * Predict pose after actuation latency, storing result
+   * @param x Measured X position in meters
+   * @param y Measured Y position in meters
+   * @param heading Measured heading in radians
+   * @param vx Robot relative X velocity in m/s
+   * @param vy Robot relative Y velocity in m/s
+   * @param omega Rotate rate in rad/s, counter-clockwise positive
+   */
+  public void update(double x, double y, double heading, double vx, double vy, double omega) {
+    double dx = vx * m_latency, dy = vy * m_latency, dtheta = omega * m_latency;
+
+    // Integrate twist along arc, using Taylor series for small rotations
+    double s, c;
+    if (Math.abs(dtheta) < EPSILON) {
+      s = 1.0 - dtheta * dtheta / 6.0;
+      c = 0.5 * dtheta;
+    } else {
+      s = Math.sin(dtheta) / dtheta;
+      c = (1.0 - Math.cos(dtheta)) / dtheta;
+    }
+    double robotDx = dx * s - dy * c;
+    double robotDy = dx * c + dy * s;
+
+    // Rotate displacement into field frame
+    double cos = Math.cos(heading), sin = Math.sin(heading);
+    m_x = x + robotDx * cos - robotDy * sin;
+    m_y = y + robotDx * sin + robotDy * cos;
+    m_heading = heading + dtheta;
+  }
+
+  /**
+   * Predict pose after actuation latency
+   * @param pose Measured pose
+   * @param speeds Measured robot relative chassis speeds
+   * @return Predicted pose
+   */
+  public Pose2d predict(Pose2d pose, ChassisSpeeds speeds) {
+    update(
+      pose.getX(), pose.getY(), pose.getRotation().getRadians(),
+      speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond
+    );
+    return new Pose2d(m_x, m_y, Rotation2d.fromRadians(m_heading));
+  }
+
+  /**
+   * Set actuation latency
+   * @param latency Actuation latency to predict over, in seconds
+   */
+  public void setLatency(double latency) {
+    if (latency < 0.0) throw new IllegalArgumentException("Latency must not be negative");
+    m_latency = latency;
+  }
+
+  /**
+   * Get actuation latency
+   * @return Actuation latency in seconds
+   */
+  public double getLatency() {
+    return m_latency;
+  }
+
+  /**
+   * Get predicted X position from last update
+   * @return Predicted X position in meters
+   */
+  public double getX() {
+    return m_x;
+  }
+
+  /**
+   * Get predicted Y position from last update
+   * @return Predicted Y position in meters
+   */
+  public double getY() {
+    return m_y;
+  }
+
+  /**
+   * Get predicted heading from last update
+   * @return Predicted heading in radians, not wrapped
+   */
+  public double getHeading() {
+    return m_heading;
+  }
+}
@@ -0,0 +1,192 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import org.lasarobotics.utils.GlobalConstants;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Allocation-free swerve setpoint generator
+ * <p>
+ * Limits the change between consecutive module setpoints to what each module can physically
+ * achieve in one loop, given a maximum drive acceleration and azimuth velocity. Since module
+ * velocities are linear in chassis speeds, moving every module the same fraction of the way from
+ * its previous setpoint to its desired setpoint keeps the modules kinematically consistent. The
+ * largest feasible fraction is found by bisection, so modules never fight each other.
+ * <p>
+ * Modules that are effectively stopped are steered toward their desired angle at the azimuth
+ * velocity limit, with drive speed scaled by the cosine of their remaining angle error.
+ */
+public class SwerveSetpointGenerator {
+  private static final double EPSILON = 1e-9;
+  private static final int BISECTION_ITERATIONS = 10;
+
+  private final int m_moduleCount;
+  private final double m_maxDriveAcceleration;
+  private final double m_maxAzimuthVelocity;
+  private final double[] m_previousSpeeds;
+  private final double[] m_previousAngles;
+  private final double[] m_deltaX;
+  private final double[] m_deltaY;
+  private final SwerveModuleState[] m_moduleStates;
+
+  private double m_maxSpeedStep;
+  private double m_maxAngleStep;
+  private double m_candidateSpeed;
+  private double m_candidateAngle;
+  private double m_fraction;
+
+  /**
+   * Create swerve setpoint generator
+   * @param moduleCount Number of swerve modules
+   * @param maxDriveAcceleration Maximum module drive acceleration in m/s^2
+   * @param maxAzimuthVelocity Maximum module azimuth velocity in rad/s
+   */
+  public SwerveSetpointGenerator(int moduleCount, double maxDriveAcceleration, double maxAzimuthVelocity) {
+    if (moduleCount < 2) throw new IllegalArgumentException("A swerve drive requires at least two modules");
+    if (maxDriveAcceleration <= 0.0) throw new IllegalArgumentException("Max drive acceleration must be positive");
+    if (maxAzimuthVelocity <= 0.0) throw new IllegalArgumentException("Max azimuth velocity must be positive");
+
+    this.m_moduleCount = moduleCount;
+    this.m_maxDriveAcceleration = maxDriveAcceleration;
+    this.m_maxAzimuthVelocity = maxAzimuthVelocity;
+    this.m_previousSpeeds = new double[moduleCount];
+    this.m_previousAngles = new double[moduleCount];
+    this.m_deltaX = new double[moduleCount];
+    this.m_deltaY = new double[moduleCount];
+    this.m_moduleStates = new SwerveModuleState[moduleCount];
+
+    for (int i = 0; i < moduleCount; i++) m_moduleStates[i] = new SwerveModuleState(0.0, GlobalConstants.ROTATION_ZERO);
+  }
+
+  /**
+   * Reset previous setpoint, such as to measured module states
+   * @param moduleStates Module states to continue from
+   */
+  public void reset(SwerveModuleState[] moduleStates) {
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_previousSpeeds[i] = moduleStates[i].speedMetersPerSecond;
+      m_previousAngles[i] = moduleStates[i].angle.getRadians();
+      m_moduleStates[i].speedMetersPerSecond = m_previousSpeeds[i];
+      m_moduleStates[i].angle = moduleStates[i].angle;
+    }
+    m_fraction = 1.0;
+  }
+
+  /**
+   * Calculate next feasible module setpoint
+   * <p>
+   * Returned array is owned by this object and is overwritten on the next call.
+   * @param desiredStates Desired module states, such as from kinematics
+   * @param dt Loop period in seconds
+   * @return Array of module states, in the same order as desired states
+   */
+  public SwerveModuleState[] calculate(SwerveModuleState[] desiredStates, double dt) {
+    m_maxSpeedStep = m_maxDriveAcceleration * dt;
+    m_maxAngleStep = m_maxAzimuthVelocity * dt;
+
+    // Get change in module velocity vectors from previous to desired setpoint
+    for (int i = 0; i < m_moduleCount; i++) {
+      double desiredSpeed = desiredStates[i].speedMetersPerSecond;
+      double desiredAngle = desiredStates[i].angle.getRadians();
+      m_deltaX[i] = desiredSpeed * Math.cos(desiredAngle) - m_previousSpeeds[i] * Math.cos(m_previousAngles[i]);
+      m_deltaY[i] = desiredSpeed * Math.sin(desiredAngle) - m_previousSpeeds[i] * Math.sin(m_previousAngles[i]);
+    }
+
+    // Find largest fraction of change that every module can achieve
+    double fraction = 1.0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      if (isFeasible(i, fraction)) continue;
+      double lower = 0.0, upper = fraction;
+      for (int j = 0; j < BISECTION_ITERATIONS; j++) {
+        double mid = 0.5 * (lower + upper);
+        if (isFeasible(i, mid)) lower = mid;
+        else upper = mid;
+      }
+      fraction = lower;
+    }
+    m_fraction = fraction;
+
+    // Apply fraction, steering stopped modules toward their desired angle
+    for (int i = 0; i < m_moduleCount; i++) {
+      interpolate(i, fraction, desiredStates[i].angle.getRadians());
+      double speed = m_candidateSpeed;
+      double angle = m_candidateAngle;
+      double angleError = angle - m_previousAngles[i];
+      double angleStep = MathUtil.clamp(angleError, -m_maxAngleStep, +m_maxAngleStep);
+      angle = m_previousAngles[i] + angleStep;
+      speed *= Math.cos(angleError - angleStep);
+
+      m_previousSpeeds[i] = speed;
+      m_previousAngles[i] = MathUtil.angleModulus(angle);
+      m_moduleStates[i].speedMetersPerSecond = speed;
+      if (m_moduleStates[i].angle.getRadians() != m_previousAngles[i]) m_moduleStates[i].angle = new Rotation2d(m_previousAngles[i]);
+    }
+
+    return m_moduleStates;
+  }
+
+  /**
+   * Check if module can reach given fraction of its change within limits
+   * @param index Module index
+   * @param fraction Fraction of change from previous to desired setpoint [0.0, 1.0]
+   * @return True if feasible
+   */
+  private boolean isFeasible(int index, double fraction) {
+    interpolate(index, fraction, m_previousAngles[index]);
+
+    // Drive acceleration limit
+    if (Math.abs(m_candidateSpeed - m_previousSpeeds[index]) > m_maxSpeedStep + EPSILON) return false;
+
+    // Azimuth velocity limit, only while moving, since stopped modules are steered separately
+    if (Math.abs(m_previousSpeeds[index]) <= m_maxSpeedStep) return true;
+    return Math.abs(m_candidateAngle - m_previousAngles[index]) <= m_maxAngleStep + EPSILON;
+  }
+
+  /**
+   * Interpolate module velocity vector, storing signed speed and angle closest to previous angle
+   * @param index Module index
+   * @param fraction Fraction of change from previous to desired setpoint [0.0, 1.0]
+   * @param fallbackAngle Angle to use if module velocity is zero, in radians
+   */
+  private void interpolate(int index, double fraction, double fallbackAngle) {
+    double previousAngle = m_previousAngles[index];
+    double x = m_previousSpeeds[index] * Math.cos(previousAngle) + fraction * m_deltaX[index];
+    double y = m_previousSpeeds[index] * Math.sin(previousAngle) + fraction * m_deltaY[index];
+    double speed = Math.hypot(x, y);
+
+    // Hold angle if stationary
+    double angle = (speed < EPSILON) ? fallbackAngle : Math.atan2(y, x);
+
+    // Reverse drive direction rather than turning more than 90 degrees
+    double angleError = MathUtil.angleModulus(angle - previousAngle);
+    if (Math.abs(angleError) > Math.PI / 2) {
+      angleError -= Math.copySign(Math.PI, angleError);
+      speed = -speed;
+    }
+
+    m_candidateSpeed = speed;
+    m_candidateAngle = previousAngle + angleError;
+  }
+
+  /**
+   * Get fraction of requested change applied by last calculation
+   * @return Fraction of change from previous to desired setpoint [0.0, 1.0]
+   */
+  public double getFraction() {
+    return m_fraction;
+  }
+
+  /**
+   * Get number of modules
+   * @return Number of modules
+   */
+  public int getModuleCount() {
+    return m_moduleCount;
+  }
+}
@@ -0,0 +1,226 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+/**
+ * Predicts robot tipping from pitch and roll
+ * <p>
+ * Tilt is treated as a vector of pitch and roll. Angular rate and acceleration are estimated from
+ * successive sensor samples, and tilt is extrapolated at constant acceleration to find the time
+ * until it reaches the tip angle. Tipping is predicted when that time falls within the horizon.
+ * <p>
+ * Each excursion above the onset angle is tracked as an event, recording the latency from onset to
+ * detection. A detection whose event never exceeds the confirm angle is counted as a false positive.
+ * Updated and read once per loop from the main robot thread.
+ */
+public class TipPredictor {
+  private static final int PREDICTION_STEPS = 20;
+  private static final double MIN_SEVERITY = 0.5;
+  private static final double MAX_UNCHANGED_TIME = 0.1;
+
+  private final double m_tipAngle;
+  private final double m_onsetAngle;
+  private final double m_confirmAngle;
+  private final double m_horizon;
+  private final double m_filterGain;
+
+  private boolean m_hasSample;
+  private double m_timestamp;
+  private double m_pitch;
+  private double m_roll;
+  private double m_pitchRate;
+  private double m_rollRate;
+  private double m_pitchAcceleration;
+  private double m_rollAcceleration;
+
+  private boolean m_isTipping;
+  private double m_timeToTip = Double.POSITIVE_INFINITY;
+  private double m_direction;
+  private double m_severity;
+
+  private boolean m_isEventActive;
+  private boolean m_isEventDetected;
+  private double m_eventStartTime;
+  private double m_eventPeakAngle;
+  private double m_detectionLatency;
+  private long m_detectionCount;
+  private long m_falsePositiveCount;
+
+  /**
+   * Create tip predictor
+   * @param tipAngle Tilt at which robot is considered to be tipping over, in degrees
+   * @param onsetAngle Tilt above sensor noise at which a tip event starts, in degrees
+   * @param confirmAngle Tilt an event must exceed for its detection to count as genuine, in degrees
+   * @param horizon Time to tip below which tipping is predicted, in seconds
+   * @param filterGain Low pass filter gain applied to rate and acceleration estimates (0.0, 1.0]
+   */
+  public TipPredictor(double tipAngle, double onsetAngle, double confirmAngle, double horizon, double filterGain) {
+    if (onsetAngle <= 0.0 || onsetAngle >= tipAngle) throw new IllegalArgumentException("Onset angle must be between zero and tip angle");
+    if (confirmAngle < onsetAngle || confirmAngle > tipAngle) throw new IllegalArgumentException("Confirm angle must be between onset and tip angle");
+    if (horizon <= 0.0) throw new IllegalArgumentException("Horizon must be positive");
+    if (filterGain <= 0.0 || filterGain > 1.0) throw new IllegalArgumentException("Filter gain must be in (0.0, 1.0]");
+
+    this.m_tipAngle = tipAngle;
+    this.m_onsetAngle = onsetAngle;
+    this.m_confirmAngle = confirmAngle;
+    this.m_horizon = horizon;
+    this.m_filterGain = filterGain;
+  }
+
+  /**
+   * Update prediction with new sensor sample
+   * <p>
+   * Samples that repeat the previous sensor frame are ignored, unless the frame has been unchanged
+   * long enough that the robot is genuinely still.
+   * @param timestamp Sample timestamp in seconds
+   * @param pitch Pitch angle in degrees
+   * @param roll Roll angle in degrees
+   * @return True if sample was used
+   */
+  public boolean update(double timestamp, double pitch, double roll) {
+    if (m_hasSample) {
+      double dt = timestamp - m_timestamp;
+
+      // Skip out of order samples, and repeated reads of same sensor frame
+      if (dt <= 0.0) return false;
+      if (pitch == m_pitch && roll == m_roll && dt < MAX_UNCHANGED_TIME) return false;
+
+      // Estimate angular rate and acceleration
+      double pitchRate = m_pitchRate + ((pitch - m_pitch) / dt - m_pitchRate) * m_filterGain;
+      double rollRate = m_rollRate + ((roll - m_roll) / dt - m_rollRate) * m_filterGain;
+      m_pitchAcceleration += ((pitchRate - m_pitchRate) / dt - m_pitchAcceleration) * m_filterGain;
+      m_rollAcceleration += ((rollRate - m_rollRate) / dt - m_rollAcceleration) * m_filterGain;
+      m_pitchRate = pitchRate;
+      m_rollRate = rollRate;
+    }
+    m_hasSample = true;
+    m_timestamp = timestamp;
+    m_pitch = pitch;
+    m_roll = roll;
+
+    predict();
+    trackEvent(timestamp, Math.hypot(pitch, roll));
+
+    return true;
+  }
+
+  /**
+   * Extrapolate tilt to find time to tip and predicted tip direction
+   */
+  private void predict() {
+    double tilt = Math.hypot(m_pitch, m_roll);
+    double predictedPitch = m_pitch;
+    double predictedRoll = m_roll;
+    m_timeToTip = Double.POSITIVE_INFINITY;
+
+    if (tilt >= m_tipAngle) {
+      m_timeToTip = 0.0;
+    } else if (tilt >= m_onsetAngle) {
+      // Step through horizon until extrapolated tilt reaches tip angle
+      double step = m_horizon / PREDICTION_STEPS;
+      for (int i = 1; i <= PREDICTION_STEPS; i++) {
+        double t = step * i;
+        double pitch = m_pitch + m_pitchRate * t + 0.5 * m_pitchAcceleration * t * t;
+        double roll = m_roll + m_rollRate * t + 0.5 * m_rollAcceleration * t * t;
+        if (Math.hypot(pitch, roll) < m_tipAngle) continue;
+
+        m_timeToTip = t;
+        predictedPitch = pitch;
+        predictedRoll = roll;
+        break;
+      }
+    }
+
+    // Severity scales from minimum at horizon up to full when already at tip angle
+    m_isTipping = m_timeToTip <= m_horizon;
+    m_direction = Math.atan2(predictedRoll, predictedPitch);
+    m_severity = m_isTipping ? 1.0 - (1.0 - MIN_SEVERITY) * (m_timeToTip / m_horizon) : 0.0;
+  }
+
+  /**
+   * Track tip event for detection latency and false positive statistics
+   * @param timestamp Sample timestamp in seconds
+   * @param tilt Magnitude of tilt in degrees
+   */
+  private void trackEvent(double timestamp, double tilt) {
+    // Start event when tilt rises above onset angle
+    if (!m_isEventActive) {
+      if (tilt < m_onsetAngle) return;
+      m_isEventActive = true;
+      m_isEventDetected = false;
+      m_eventStartTime = timestamp;
+      m_eventPeakAngle = tilt;
+    }
+    m_eventPeakAngle = Math.max(m_eventPeakAngle, tilt);
+
+    // Record first detection of this event
+    if (m_isTipping && !m_isEventDetected) {
+      m_isEventDetected = true;
+      m_detectionLatency = timestamp - m_eventStartTime;
+      m_detectionCount++;
+    }
+
+    // End event once robot settles back below onset angle
+    if (tilt >= m_onsetAngle) return;
+    if (m_isEventDetected && m_eventPeakAngle < m_confirmAngle) m_falsePositiveCount++;
+    m_isEventActive = false;
+  }
+
+  /**
+   * Get whether robot is predicted to tip within horizon
+   * @return True if tipping
+   */
+  public boolean isTipping() {
+    return m_isTipping;
+  }
+
+  /**
+   * Get predicted time until robot reaches tip angle
+   * @return Time to tip in seconds, infinite if not predicted within horizon
+   */
+  public double getTimeToTip() {
+    return m_timeToTip;
+  }
+
+  /**
+   * Get predicted direction of tip, as angle of tilt vector from pitch axis towards roll axis
+   * @return Tip direction in radians
+   */
+  public double getDirection() {
+    return m_direction;
+  }
+
+  /**
+   * Get severity of predicted tip, used to scale counter-drive response
+   * @return Severity [0.0, 1.0], zero if not tipping
+   */
+  public double getSeverity() {
+    return m_severity;
+  }
+
+  /**
+   * Get latency from onset to detection of most recent detected tip event
+   * @return Detection latency in seconds
+   */
+  public double getDetectionLatency() {
+    return m_detectionLatency;
+  }
+
+  /**
+   * Get number of tip events detected
+   * @return Total detection count
+   */
+  public long getDetectionCount() {
+    return m_detectionCount;
+  }
+
+  /**
+   * Get number of detected tip events that never exceeded confirm angle
+   * @return Total false positive count
+   */
+  public long getFalsePositiveCount() {
+    return m_falsePositiveCount;
+  }
+}
@@ -0,0 +1,201 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.subsystems.vision.AprilTagCamera.AprilTagCameraResult;
+
+/**
+ * Combines AprilTag camera results into a single consensus pose for re-localization
+ * <p>
+ * Each result is scored by how many tags it used, how ambiguous they were and how far away they
+ * were. The consensus is the score weighted mean of the estimated poses, with heading averaged on
+ * the unit circle. If any scored result lies too far from the consensus the cameras are considered
+ * to disagree, and no pose is produced. A lone result is only trusted if its score is high enough.
+ * <p>
+ * Cameras deliver results at their own rate, so the latest result of each camera is kept and
+ * consensus can be calculated from those still fresh at a given time.
+ */
+public class VisionConsensus {
+  public enum Outcome {
+    /** Cameras agree, consensus pose is valid */
+    AGREE,
+    /** Not enough usable results */
+    NO_RESULTS,
+    /** Cameras disagree beyond threshold */
+    DISAGREE
+  }
+
+  private static final double AMBIGUITY_WEIGHT = 10.0;
+  private static final double MIN_TAG_DISTANCE = 0.5;
+
+  private final double m_maxDistance;
+  private final double m_maxHeading;
+  private final int m_minResults;
+  private final double m_minScore;
+  private final double m_maxAge;
+  private final HashMap<String, AprilTagCameraResult> m_latestResults = new HashMap<>();
+  private final ArrayList<AprilTagCameraResult> m_freshResults = new ArrayList<>();
+
+  private Pose2d m_pose;
+  private int m_resultCount;
+  private double m_distance;
+  private double m_heading;
+
+  /**
+   * Create vision consensus
+   * @param maxDistance Largest distance of any result from consensus position, in meters
+   * @param maxHeading Largest difference of any result from consensus heading, in radians
+   * @param minResults Number of scored results required, unless their total score reaches minScore
+   * @param minScore Total score that allows fewer than minResults scored results
+   * @param maxAge Largest age of a camera's latest result to be used, in seconds
+   */
+  public VisionConsensus(double maxDistance, double maxHeading, int minResults, double minScore, double maxAge) {
+    if (maxDistance <= 0.0 || maxHeading <= 0.0) throw new IllegalArgumentException("Thresholds must be positive");
+    if (minResults < 1) throw new IllegalArgumentException("At least one result must be required");
+    if (maxAge <= 0.0) throw new IllegalArgumentException("Max age must be positive");
+
+    this.m_maxDistance = maxDistance;
+    this.m_maxHeading = maxHeading;
+    this.m_minResults = minResults;
+    this.m_minScore = minScore;
+    this.m_maxAge = maxAge;
+  }
+
+  /**
+   * Score camera result, higher is more trustworthy
+   * <p>
+   * Score grows with number of tags used, and falls with their mean ambiguity and the square of
+   * their mean distance from the camera, as position error grows with distance squared.
+   * @param result AprilTag camera result
+   * @return Score, zero if result used no tags
+   */
+  public static double getScore(AprilTagCameraResult result) {
+    var targets = result.estimatedRobotPose.targetsUsed;
+    if (targets.isEmpty()) return 0.0;
+
+    double ambiguity = 0.0, distance = 0.0;
+    for (var target : targets) {
+      // Ambiguity is negative when not calculated, such as for multi-tag estimates
+      ambiguity += Math.max(target.getPoseAmbiguity(), 0.0);
+      distance += target.getBestCameraToTarget().getTranslation().getNorm();
+    }
+    ambiguity /= targets.size();
+    distance = Math.max(distance / targets.size(), MIN_TAG_DISTANCE);
+
+    return targets.size() / ((1.0 + AMBIGUITY_WEIGHT * ambiguity) * distance * distance);
+  }
+
+  /**
+   * Keep camera result as latest of its camera, unless a newer one is already kept
+   * @param result AprilTag camera result
+   */
+  public void addResult(AprilTagCameraResult result) {
+    var latest = m_latestResults.get(result.cameraName);
+    if (latest != null && latest.estimatedRobotPose.timestampSeconds > result.estimatedRobotPose.timestampSeconds) return;
+
+    m_latestResults.put(result.cameraName, result);
+  }
+
+  /**
+   * Calculate consensus pose of the latest result of each camera
+   * @param timestamp Current time in seconds, results older than max age are ignored
+   * @return Whether cameras agree, if so consensus pose is available from {@link VisionConsensus#getPose()}
+   */
+  public Outcome calculate(double timestamp) {
+    // Collect latest results that are still fresh
+    m_freshResults.clear();
+    for (var result : m_latestResults.values())
+      if (timestamp - result.estimatedRobotPose.timestampSeconds <= m_maxAge) m_freshResults.add(result);
+
+    return calculate(m_freshResults);
+  }
+
+  /**
+   * Calculate consensus pose of camera results
+   * @param results AprilTag camera results
+   * @return Whether cameras agree, if so consensus pose is available from {@link VisionConsensus#getPose()}
+   */
+  public Outcome calculate(List<AprilTagCameraResult> results) {
+    m_pose = null;
+    m_resultCount = 0;
+    m_distance = 0.0;
+    m_heading = 0.0;
+
+    // Score weighted mean of poses, heading as mean direction
+    double totalScore = 0.0, x = 0.0, y = 0.0, cos = 0.0, sin = 0.0;
+    for (var result : results) {
+      double score = getScore(result);
+      if (score <= 0.0) continue;
+
+      var pose = result.estimatedRobotPose.estimatedPose;
+      double theta = pose.getRotation().getZ();
+      totalScore += score;
+      x += score * pose.getX();
+      y += score * pose.getY();
+      cos += score * Math.cos(theta);
+      sin += score * Math.sin(theta);
+      m_resultCount++;
+    }
+    // Require several results, or one trustworthy enough on its own
+    if (m_resultCount == 0) return Outcome.NO_RESULTS;
+    if (m_resultCount < m_minResults && totalScore < m_minScore) return Outcome.NO_RESULTS;
+
+    x /= totalScore;
+    y /= totalScore;
+    double heading = Math.atan2(sin, cos);
+
+    // Find largest disagreement of any scored result with consensus
+    for (var result : results) {
+      if (getScore(result) <= 0.0) continue;
+
+      var pose = result.estimatedRobotPose.estimatedPose;
+      m_distance = Math.max(m_distance, Math.hypot(pose.getX() - x, pose.getY() - y));
+      m_heading = Math.max(m_heading, Math.abs(MathUtil.angleModulus(pose.getRotation().getZ() - heading)));
+    }
+    if (m_distance > m_maxDistance || m_heading > m_maxHeading) return Outcome.DISAGREE;
+
+    m_pose = new Pose2d(x, y, Rotation2d.fromRadians(heading));
+    return Outcome.AGREE;
+  }
+
+  /**
+   * Get consensus pose from last calculation
+   * @return Consensus pose, null if cameras did not agree
+   */
+  public Pose2d getPose() {
+    return m_pose;
+  }
+
+  /**
+   * Get number of results used in last calculation
+   * @return Number of results with nonzero score
+   */
+  public int getResultCount() {
+    return m_resultCount;
+  }
+
+  /**
+   * Get largest position disagreement from last calculation
+   * @return Largest distance of any result from consensus position, in meters
+   */
+  public double getDistance() {
+    return m_distance;
+  }
+
+  /**
+   * Get largest heading disagreement from last calculation
+   * @return Largest difference of any result from consensus heading, in radians
+   */
+  public double getHeading() {
+    return m_heading;
+  }
+}
@@ -0,0 +1,309 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.utils.OutputLogger;
+
+/**
+ * Innovation gate for vision measurements
+ * <p>
+ * Each measurement is compared to the odometry pose at its timestamp. The innovation is normalised
+ * per axis by the innovation variance of the pose estimator, its steady state prior variance
+ * {@code sqrt(q * r)} plus the measurement variance {@code r}, giving a Mahalanobis distance.
+ * Measurements within the downweight threshold are accepted as is, those up to the reject threshold
+ * have their standard deviations inflated, and the rest are rejected. If enough measurements in a
+ * row from one camera are rejected, odometry is assumed to be lost and the next multi-tag measurement
+ * from that camera is used to re-localize. Single-tag solves may be ambiguous, so they never do.
+ * <p>
+ * Acceptance is counted per camera and per AprilTag. Must only be used from the main robot thread.
+ */
+public class VisionGate {
+  /** Gating decision for one measurement */
+  public enum Decision {
+    /** Consistent with odometry, fuse as is */
+    ACCEPT,
+    /** Borderline, fuse with inflated standard deviations */
+    DOWNWEIGHT,
+    /** Outlier, discard */
+    REJECT,
+    /** Odometry lost, reset pose to measurement */
+    RELOCALIZE
+  }
+
+  /** Acceptance statistics for one camera or tag */
+  public static class Statistics {
+    private final OutputLogger.LongOutput m_acceptedOutput;
+    private final OutputLogger.LongOutput m_downweightedOutput;
+    private final OutputLogger.LongOutput m_rejectedOutput;
+    private long m_accepted;
+    private long m_downweighted;
+    private long m_rejected;
+    private int m_consecutiveRejections;
+
+    private Statistics(String key) {
+      this.m_acceptedOutput = OutputLogger.longOutput(key + ACCEPTED_LOG_ENTRY, STATISTICS_LOG_POLICY);
+      this.m_downweightedOutput = OutputLogger.longOutput(key + DOWNWEIGHTED_LOG_ENTRY, STATISTICS_LOG_POLICY);
+      this.m_rejectedOutput = OutputLogger.longOutput(key + REJECTED_LOG_ENTRY, STATISTICS_LOG_POLICY);
+    }
+
+    private void record(Decision decision) {
+      switch (decision) {
+        case DOWNWEIGHT:
+          m_downweighted++;
+          break;
+        case REJECT:
+          m_rejected++;
+          break;
+        default:
+          m_accepted++;
+          break;
+      }
+    }
+
+    private void log() {
+      m_acceptedOutput.set(m_accepted);
+      m_downweightedOutput.set(m_downweighted);
+      m_rejectedOutput.set(m_rejected);
+    }
+
+    /**
+     * Get number of measurements accepted as is, including re-localizations
+     * @return Accepted count
+     */
+    public long getAccepted() {
+      return m_accepted;
+    }
+
+    /**
+     * Get number of measurements accepted with inflated standard deviations
+     * @return Downweighted count
+     */
+    public long getDownweighted() {
+      return m_downweighted;
+    }
+
+    /**
+     * Get number of measurements rejected
+     * @return Rejected count
+     */
+    public long getRejected() {
+      return m_rejected;
+    }
+  }
+
+  private static final int MAX_TAG_ID = 32;
+  private static final int MIN_RELOCALIZE_TAGS = 2;
+  private static final String CAMERA_LOG_ENTRY = "/Camera/";
+  private static final String TAG_LOG_ENTRY = "/Tag/";
+  private static final String ACCEPTED_LOG_ENTRY = "/Accepted";
+  private static final String DOWNWEIGHTED_LOG_ENTRY = "/Downweighted";
+  private static final String REJECTED_LOG_ENTRY = "/Rejected";
+  private static final String MAX_DISTANCE_LOG_ENTRY = "/MaxDistance";
+  private static final String RELOCALIZATIONS_LOG_ENTRY = "/Relocalizations";
+  private static final OutputLogger.Policy STATISTICS_LOG_POLICY = OutputLogger.Policy.onChange(0.0);
+
+  private final String m_logKey;
+  private final double[] m_stateVariances = new double[3];
+  private final double m_downweightThreshold;
+  private final double m_rejectThreshold;
+  private final int m_relocalizeCount;
+
+  private final Statistics m_cycleStatistics;
+  private final HashMap<String, Statistics> m_cameraStatistics = new HashMap<>();
+  private Statistics[] m_cameraStatisticsArray = new Statistics[0];
+  private final Statistics[] m_tagStatistics = new Statistics[MAX_TAG_ID + 1];
+  private final OutputLogger.DoubleOutput m_maxDistanceOutput;
+  private final OutputLogger.LongOutput m_relocalizationsOutput;
+
+  private Decision m_decision = Decision.ACCEPT;
+  private double m_distance;
+  private double m_scale = 1.0;
+  private double m_cycleMaxDistance;
+  private long m_relocalizations;
+
+  /**
+   * Create vision gate
+   * @param logKey Log key prefix for gating outputs
+   * @param stateStdDevs Standard deviations of odometry x, y and heading used by pose estimator, in meters and radians
+   * @param downweightThreshold Mahalanobis distance above which measurements are downweighted
+   * @param rejectThreshold Mahalanobis distance above which measurements are rejected
+   * @param relocalizeCount Consecutive rejections after which the next measurement re-localizes
+   */
+  public VisionGate(String logKey, Matrix<N3, N1> stateStdDevs, double downweightThreshold, double rejectThreshold, int relocalizeCount) {
+    if (downweightThreshold <= 0.0) throw new IllegalArgumentException("Downweight threshold must be positive");
+    if (rejectThreshold < downweightThreshold) throw new IllegalArgumentException("Reject threshold must not be below downweight threshold");
+    if (relocalizeCount < 1) throw new IllegalArgumentException("Relocalize count must be positive");
+
+    this.m_logKey = logKey;
+    for (int i = 0; i < 3; i++) m_stateVariances[i] = stateStdDevs.get(i, 0) * stateStdDevs.get(i, 0);
+    this.m_downweightThreshold = downweightThreshold;
+    this.m_rejectThreshold = rejectThreshold;
+    this.m_relocalizeCount = relocalizeCount;
+
+    // Decision counts of current cycle, cleared each time they are logged
+    this.m_cycleStatistics = new Statistics(logKey);
+    this.m_maxDistanceOutput = OutputLogger.doubleOutput(logKey + MAX_DISTANCE_LOG_ENTRY, OutputLogger.Policy.EVERY_CYCLE);
+    this.m_relocalizationsOutput = OutputLogger.longOutput(logKey + RELOCALIZATIONS_LOG_ENTRY, STATISTICS_LOG_POLICY);
+  }
+
+  /**
+   * Set standard deviations of odometry, matching those given to pose estimator
+   * @param xStdDev Standard deviation of odometry x in meters
+   * @param yStdDev Standard deviation of odometry y in meters
+   * @param thetaStdDev Standard deviation of odometry heading in radians
+   */
+  public void setStateStdDevs(double xStdDev, double yStdDev, double thetaStdDev) {
+    m_stateVariances[0] = xStdDev * xStdDev;
+    m_stateVariances[1] = yStdDev * yStdDev;
+    m_stateVariances[2] = thetaStdDev * thetaStdDev;
+  }
+
+  /**
+   * Gate vision measurement against odometry pose at its timestamp
+   * @param cameraName Name of camera measurement came from
+   * @param tagCount Number of AprilTags used in measurement
+   * @param predictedX Odometry X position in meters
+   * @param predictedY Odometry Y position in meters
+   * @param predictedTheta Odometry heading in radians
+   * @param x Measured X position in meters
+   * @param y Measured Y position in meters
+   * @param theta Measured heading in radians
+   * @param xStdDev Standard deviation of measured X position in meters
+   * @param yStdDev Standard deviation of measured Y position in meters
+   * @param thetaStdDev Standard deviation of measured heading in radians
+   * @return Gating decision
+   */
+  public Decision evaluate(String cameraName, int tagCount,
+                           double predictedX, double predictedY, double predictedTheta,
+                           double x, double y, double theta,
+                           double xStdDev, double yStdDev, double thetaStdDev) {
+    // Calculate Mahalanobis distance of innovation, axes are independent
+    double distanceSquared = getNormalizedInnovation(0, x - predictedX, xStdDev)
+      + getNormalizedInnovation(1, y - predictedY, yStdDev)
+      + getNormalizedInnovation(2, MathUtil.angleModulus(theta - predictedTheta), thetaStdDev);
+    m_distance = Math.sqrt(distanceSquared);
+    m_cycleMaxDistance = Math.max(m_cycleMaxDistance, m_distance);
+
+    // Get camera statistics, rejections are counted per camera
+    var cameraStatistics = m_cameraStatistics.get(cameraName);
+    if (cameraStatistics == null) {
+      cameraStatistics = new Statistics(m_logKey + CAMERA_LOG_ENTRY + cameraName);
+      m_cameraStatistics.put(cameraName, cameraStatistics);
+      m_cameraStatisticsArray = Arrays.copyOf(m_cameraStatisticsArray, m_cameraStatisticsArray.length + 1);
+      m_cameraStatisticsArray[m_cameraStatisticsArray.length - 1] = cameraStatistics;
+    }
+
+    // Decide, inflating variance in proportion to distance when downweighting
+    m_scale = 1.0;
+    if (m_distance <= m_downweightThreshold) {
+      m_decision = Decision.ACCEPT;
+      cameraStatistics.m_consecutiveRejections = 0;
+    } else if (m_distance <= m_rejectThreshold) {
+      m_decision = Decision.DOWNWEIGHT;
+      m_scale = Math.sqrt(m_distance / m_downweightThreshold);
+      cameraStatistics.m_consecutiveRejections = 0;
+    } else if (++cameraStatistics.m_consecutiveRejections > m_relocalizeCount && tagCount >= MIN_RELOCALIZE_TAGS) {
+      m_decision = Decision.RELOCALIZE;
+      cameraStatistics.m_consecutiveRejections = 0;
+      m_relocalizations++;
+    } else {
+      m_decision = Decision.REJECT;
+    }
+
+    // Update statistics
+    m_cycleStatistics.record(m_decision);
+    cameraStatistics.record(m_decision);
+
+    return m_decision;
+  }
+
+  /**
+   * Get squared innovation on one axis, normalised by innovation variance
+   * @param axis Axis index, x, y or heading
+   * @param innovation Difference between measurement and prediction
+   * @param stdDev Standard deviation of measurement
+   * @return Squared normalised innovation, zero if axis has no variance
+   */
+  private double getNormalizedInnovation(int axis, double innovation, double stdDev) {
+    double measurementVariance = stdDev * stdDev;
+    double innovationVariance = Math.sqrt(m_stateVariances[axis] * measurementVariance) + measurementVariance;
+    return innovationVariance > 0.0 ? innovation * innovation / innovationVariance : 0.0;
+  }
+
+  /**
+   * Count last decision against tag used in measurement
+   * @param id AprilTag ID, ignored if out of range
+   */
+  public void recordTag(int id) {
+    if (id < 0 || id > MAX_TAG_ID) return;
+    if (m_tagStatistics[id] == null) m_tagStatistics[id] = new Statistics(m_logKey + TAG_LOG_ENTRY + id);
+    m_tagStatistics[id].record(m_decision);
+  }
+
+  /**
+   * Get standard deviation multiplier for last measurement
+   * @return Scale, greater than one if downweighted
+   */
+  public double getScale() {
+    return m_scale;
+  }
+
+  /**
+   * Get Mahalanobis distance of last measurement
+   * @return Distance
+   */
+  public double getDistance() {
+    return m_distance;
+  }
+
+  /**
+   * Get statistics of a camera
+   * @param cameraName Name of camera
+   * @return Statistics, null if camera has not reported
+   */
+  public Statistics getCameraStatistics(String cameraName) {
+    return m_cameraStatistics.get(cameraName);
+  }
+
+  /**
+   * Get statistics of a tag
+   * @param id AprilTag ID
+   * @return Statistics, null if tag has not been used
+   */
+  public Statistics getTagStatistics(int id) {
+    return (id < 0 || id > MAX_TAG_ID) ? null : m_tagStatistics[id];
+  }
+
+  /**
+   * Get number of re-localizations
+   * @return Re-localization count
+   */
+  public long getRelocalizations() {
+    return m_relocalizations;
+  }
+
+  /**
+   * Log decisions made since last call and accumulated statistics, then start next cycle
+   */
+  public void log() {
+    m_cycleStatistics.log();
+    m_maxDistanceOutput.set(m_cycleMaxDistance);
+    m_relocalizationsOutput.set(m_relocalizations);
+    for (int i = 0; i < m_cameraStatisticsArray.length; i++) m_cameraStatisticsArray[i].log();
+    for (int i = 0; i < m_tagStatistics.length; i++) if (m_tagStatistics[i] != null) m_tagStatistics[i].log();
+
+    m_cycleStatistics.m_accepted = 0;
+    m_cycleStatistics.m_downweighted = 0;
+    m_cycleStatistics.m_rejected = 0;
+    m_cycleMaxDistance = 0.0;
+  }
+}
@@ -4,7 +4,7 @@
 
 package frc.robot.subsystems.vision;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.List;
 
 import org.photonvision.EstimatedRobotPose;
 import org.photonvision.PhotonCamera;
@@ -27,21 +27,26 @@ import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.units.Distance;
 import edu.wpi.first.units.Measure;
 import edu.wpi.first.units.Units;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants;
+import frc.robot.utils.DashboardPublisher;
 
 /** Create a camera */
 public class AprilTagCamera implements Runnable, AutoCloseable {
   private final double APRILTAG_POSE_AMBIGUITY_THRESHOLD = 0.2;
   private final double POSE_MAX_HEIGHT = 0.75;
   private final Measure<Distance> MAX_TAG_DISTANCE = Units.Meters.of(100.0);
+  public static final int RESULT_BUFFER_DEPTH = 16;
 
   public static class AprilTagCameraResult {
+    public final String cameraName;
     public final EstimatedRobotPose estimatedRobotPose;
     public final Matrix<N3, N1> visionMeasurementStdDevs;
 
-    public AprilTagCameraResult(EstimatedRobotPose estimatedRobotPose,
+    public AprilTagCameraResult(String cameraName,
+                                EstimatedRobotPose estimatedRobotPose,
                                 Matrix<N3, N1> visionMeasurementStdDevs) {
+      this.cameraName = cameraName;
       this.estimatedRobotPose = estimatedRobotPose;
       this.visionMeasurementStdDevs = visionMeasurementStdDevs;
     }
@@ -67,7 +72,13 @@ public class AprilTagCamera implements Runnable, AutoCloseable {
   private PhotonCameraSim m_cameraSim;
   private PhotonPoseEstimator m_poseEstimator;
   private Transform3d m_transform;
-  private AtomicReference<AprilTagCameraResult> m_atomicEstimatedRobotPose;
+  private AprilTagCameraResultBuffer m_results;
+  private DashboardPublisher.BooleanEntry m_connectedEntry;
+  private double m_lastResultTimestamp = Double.NaN;
+
+  private volatile long m_frameCount;
+  private volatile double m_processingTime;
+  private volatile double m_latency;
 
   /**
    * Create VisionCamera
@@ -85,7 +96,8 @@ public class AprilTagCamera implements Runnable, AutoCloseable {
     this.m_poseEstimator = new PhotonPoseEstimator(fieldLayout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, m_camera, m_transform);
     m_poseEstimator.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
 
-    this.m_atomicEstimatedRobotPose = new AtomicReference<AprilTagCameraResult>();
+    this.m_results = new AprilTagCameraResultBuffer(RESULT_BUFFER_DEPTH);
+    this.m_connectedEntry = DashboardPublisher.getInstance().booleanEntry(name);
 
     // Create simulated AprilTag camera
     var cameraProperties = SimCameraProperties.PERFECT_90DEG();
@@ -127,14 +139,33 @@ public class AprilTagCamera implements Runnable, AutoCloseable {
     if (m_poseEstimator == null || m_camera == null) return;
 
     // Put camera connected indicator on SmartDashboard
-    SmartDashboard.putBoolean(m_camera.getName(), m_camera.isConnected());
+    boolean isConnected = m_camera.isConnected();
+    m_connectedEntry.set(isConnected);
 
     // Return if camera is not connected
-    if (!m_camera.isConnected()) return;
+    if (!isConnected) return;
 
     // Update and log inputs
     PhotonPipelineResult pipelineResult = m_camera.getLatestResult();
 
+    // Return if result has already been processed
+    double resultTimestamp = pipelineResult.getTimestampSeconds();
+    if (resultTimestamp == m_lastResultTimestamp) return;
+    m_lastResultTimestamp = resultTimestamp;
+
+    // Process result, measuring processing time and latency from capture
+    long startTime = System.nanoTime();
+    update(pipelineResult);
+    m_processingTime = (System.nanoTime() - startTime) / 1e9;
+    m_latency = Timer.getFPGATimestamp() - resultTimestamp;
+    m_frameCount++;
+  }
+
+  /**
+   * Estimate pose from new pipeline result
+   * @param pipelineResult Latest pipeline result
+   */
+  private void update(PhotonPipelineResult pipelineResult) {
     // Return if result is non-existent or invalid
     if (!pipelineResult.hasTargets()) return;
     if (pipelineResult.targets.size() == 1
@@ -156,23 +187,66 @@ public class AprilTagCamera implements Runnable, AutoCloseable {
         double xyStdDev = 0.01 * Math.pow(closestTagDistance.in(Units.Meters), 2.0) / estimatedRobotPose.targetsUsed.size();
         double thetaStdDev = 0.01 * Math.pow(closestTagDistance.in(Units.Meters), 2.0) / estimatedRobotPose.targetsUsed.size();
 
-        // Set result
+        // Queue result for consumer
         var result = new AprilTagCameraResult(
+          m_camera.getName(),
           estimatedRobotPose,
           VecBuilder.fill(xyStdDev, xyStdDev, thetaStdDev)
         );
-        m_atomicEstimatedRobotPose.set(result);
+        m_results.offer(result);
     });
   }
 
   /**
-   * Gets the latest robot pose. Calling this will only return the pose once.
-   * If it returns a non-null value, it is a new estimate that hasn't been returned before.
-   * This pose will always be for the BLUE alliance.
-   * @return Latest estimated pose
+   * Moves all robot pose estimates made since last call into list, oldest first.
+   * Each estimate is returned exactly once, unless dropped because too many were waiting.
+   * These poses will always be for the BLUE alliance.
+   * Must only be called from one consumer thread.
+   * @param results List to append estimates to
+   * @return Number of estimates added
+   */
+  public int drainEstimatedPoses(List<AprilTagCameraResult> results) {
+    return m_results.drainTo(results);
+  }
+
+  /**
+   * Get number of estimates dropped because consumer did not drain them in time, thread safe
+   * @return Total overflow count
+   */
+  public long getOverflowCount() {
+    return m_results.getOverflowCount();
+  }
+
+  /**
+   * Get camera name
+   * @return Name of camera
+   */
+  public String getName() {
+    return m_camera.getName();
+  }
+
+  /**
+   * Get number of new pipeline results processed, thread safe
+   * @return Total frame count
+   */
+  public long getFrameCount() {
+    return m_frameCount;
+  }
+
+  /**
+   * Get time taken to process latest pipeline result, thread safe
+   * @return Processing time in seconds
+   */
+  public double getProcessingTime() {
+    return m_processingTime;
+  }
+
+  /**
+   * Get time from capture of latest pipeline result until its estimate was available, thread safe
+   * @return End to end latency in seconds
    */
-  public AprilTagCameraResult getLatestEstimatedPose() {
-    return m_atomicEstimatedRobotPose.getAndSet(null);
+  public double getLatency() {
+    return m_latency;
   }
 
   /**
@@ -0,0 +1,105 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.vision;
+
+import java.util.List;
+
+import frc.robot.subsystems.vision.AprilTagCamera.AprilTagCameraResult;
+
+/**
+ * Lock-free ring buffer of AprilTag camera results
+ * <p>
+ * Safe for exactly one producer thread and one consumer thread. Every result offered while there is
+ * space is drained exactly once, in the order it was offered. When the buffer is full, new results
+ * are dropped and counted as overflows. Neither side allocates.
+ */
+public class AprilTagCameraResultBuffer {
+  private final int m_capacity;
+  private final int m_mask;
+  private final AprilTagCameraResult[] m_results;
+
+  private volatile long m_head;
+  private volatile long m_tail;
+  private volatile long m_overflowCount;
+
+  /**
+   * Create camera result buffer
+   * @param depth Minimum number of results to hold, rounded up to a power of two
+   */
+  public AprilTagCameraResultBuffer(int depth) {
+    if (depth < 1) throw new IllegalArgumentException("Buffer depth must be positive");
+
+    int capacity = 1;
+    while (capacity < depth) capacity <<= 1;
+
+    this.m_capacity = capacity;
+    this.m_mask = m_capacity - 1;
+    this.m_results = new AprilTagCameraResult[m_capacity];
+  }
+
+  /**
+   * Add result to buffer, called from producer thread only
+   * @param result Camera result
+   * @return True if result was added, false if buffer was full and result was dropped
+   */
+  public boolean offer(AprilTagCameraResult result) {
+    long head = m_head;
+    if (head - m_tail >= m_capacity) {
+      m_overflowCount++;
+      return false;
+    }
+
+    m_results[(int)(head & m_mask)] = result;
+
+    // Publish result
+    m_head = head + 1;
+    return true;
+  }
+
+  /**
+   * Move all available results into list in order offered, called from consumer thread only
+   * @param results List to append results to
+   * @return Number of results drained
+   */
+  public int drainTo(List<AprilTagCameraResult> results) {
+    long tail = m_tail;
+    long head = m_head;
+
+    int count = 0;
+    for (; tail < head; tail++, count++) {
+      int slot = (int)(tail & m_mask);
+      results.add(m_results[slot]);
+      m_results[slot] = null;
+    }
+
+    // Release slots back to producer
+    m_tail = tail;
+    return count;
+  }
+
+  /**
+   * Get number of results waiting to be drained
+   * @return Number of results in buffer
+   */
+  public int size() {
+    return (int)(m_head - m_tail);
+  }
+
+  /**
+   * Get buffer capacity
+   * @return Maximum number of results buffer can hold
+   */
+  public int getCapacity() {
+    return m_capacity;
+  }
+
+  /**
+   * Get number of results dropped because buffer was full
+   * @return Total overflow count
+   */
+  public long getOverflowCount() {
+    return m_overflowCount;
+  }
+}
@@ -0,0 +1,106 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems.vision;
+
+import java.util.EnumSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.photonvision.PhotonCamera;
+
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Event driven AprilTag camera processing thread
+ * <p>
+ * A NetworkTables listener on the camera's raw result topic wakes a dedicated thread as soon as
+ * PhotonVision publishes a new pipeline result, so each camera is processed independently and
+ * without waiting for the next robot loop. Wake-ups arriving while a result is being processed are
+ * coalesced. If no result arrives within the idle period the camera is still run, keeping its
+ * connection status current, and results already processed are skipped by timestamp.
+ */
+public class AprilTagCameraThread implements AutoCloseable {
+  private static final String RESULT_TOPIC = "rawBytes";
+
+  private final AprilTagCamera m_camera;
+  private final Semaphore m_wakeup = new Semaphore(0);
+  private final Thread m_thread;
+  private final NetworkTableInstance m_instance;
+  private final long m_idlePeriod;
+  private int m_listenerHandle;
+
+  private volatile boolean m_isRunning;
+
+  /**
+   * Create camera thread
+   * @param camera AprilTag camera to process
+   * @param instance NetworkTables instance PhotonVision publishes to
+   * @param idlePeriod Longest time to wait for a new result before running camera anyway, in seconds
+   */
+  public AprilTagCameraThread(AprilTagCamera camera, NetworkTableInstance instance, double idlePeriod) {
+    if (idlePeriod <= 0.0) throw new IllegalArgumentException("Idle period must be positive");
+
+    this.m_camera = camera;
+    this.m_instance = instance;
+    this.m_idlePeriod = (long)(idlePeriod * 1e9);
+    this.m_thread = new Thread(this::loop, camera.getName());
+    m_thread.setDaemon(true);
+  }
+
+  /**
+   * Process camera each time a new result is published, until stopped
+   */
+  private void loop() {
+    while (m_isRunning) {
+      try {
+        m_wakeup.tryAcquire(m_idlePeriod, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        break;
+      }
+
+      // Coalesce wake-ups, only the latest result is available
+      m_wakeup.drainPermits();
+      m_camera.run();
+    }
+  }
+
+  /**
+   * Start listening for results and processing camera
+   */
+  public void start() {
+    if (m_isRunning) return;
+    m_isRunning = true;
+
+    var topic = m_instance.getTable(PhotonCamera.kTableName).getSubTable(m_camera.getName()).getTopic(RESULT_TOPIC);
+    m_listenerHandle = m_instance.addListener(
+      topic,
+      EnumSet.of(NetworkTableEvent.Kind.kValueAll),
+      (event) -> m_wakeup.release()
+    );
+    m_thread.start();
+  }
+
+  /**
+   * Get whether thread is processing camera
+   * @return True if running
+   */
+  public boolean isRunning() {
+    return m_isRunning;
+  }
+
+  @Override
+  public void close() {
+    if (!m_isRunning) return;
+    m_isRunning = false;
+    m_instance.removeListener(m_listenerHandle);
+    m_thread.interrupt();
+    try {
+      m_thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
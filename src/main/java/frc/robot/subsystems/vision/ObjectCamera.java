@@ -138,6 +138,14 @@ public class ObjectCamera implements AutoCloseable {
     return Optional.of(Units.Degrees.of(result.getBestTarget().getYaw()));
   }
 
+  /**
+   * Get capture time of latest frame
+   * @return FPGA timestamp of frame in seconds
+   */
+  public double getTimestamp() {
+    return m_camera.getLatestResult().getTimestampSeconds();
+  }
+
   /**
    * Get camera to robot transform
    * @return Camera to robot transform
@@ -5,10 +5,8 @@
 package frc.robot.subsystems.vision;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import org.lasarobotics.utils.GlobalConstants;
@@ -20,17 +18,21 @@ import edu.wpi.first.apriltag.AprilTagFieldLayout;
 import edu.wpi.first.apriltag.AprilTagFields;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.units.Angle;
 import edu.wpi.first.units.Distance;
 import edu.wpi.first.units.Measure;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.subsystems.vision.AprilTagCamera.AprilTagCameraResult;
+import frc.robot.utils.LoopProfiler;
+import frc.robot.utils.OutputLogger;
+import frc.robot.utils.PoseHistory;
 
 public class VisionSubsystem extends SubsystemBase implements AutoCloseable {
   public static class Hardware {
@@ -55,55 +57,129 @@ public class VisionSubsystem extends SubsystemBase implements AutoCloseable {
   private static final String OBJECT_HEADING_LOG_ENTRY = "/ObjectHeading";
   private static final String OBJECT_POSE_LOG_ENTRY = "/ObjectPose";
   private static final String OBJECT_DETECTED_LOG_ENTRY = "/ObjectDetected";
+  private static final String CAMERA_LOG_ENTRY = "/Camera/";
+  private static final String FRAME_RATE_LOG_ENTRY = "/FrameRate";
+  private static final String PROCESSING_TIME_LOG_ENTRY = "/ProcessingTime";
+  private static final String LATENCY_LOG_ENTRY = "/Latency";
+  private static final String OVERFLOWS_LOG_ENTRY = "/Overflows";
 
   private static final double INTAKE_YAW_TOLERANCE = 1;
+  private static final int MAX_VISIBLE_TAGS = 16;
+  private static final double FRAME_RATE_PERIOD = 0.5;
+  private static final double CAMERA_IDLE_PERIOD = 0.1;
+  private static final OutputLogger.Policy ESTIMATE_LOG_POLICY = OutputLogger.Policy.onChange(0.0);
+  private static final OutputLogger.Policy CAMERA_LOG_POLICY = OutputLogger.Policy.onChange(1e-3);
 
-  private AtomicReference<List<AprilTagCameraResult>> m_estimatedRobotPoses;
-  private AtomicReference<List<AprilTag>> m_visibleTags;
-  private AtomicReference<List<Pose2d>> m_loggedEstimatedPoses;
-  private AtomicReference<List<Pose3d>> m_visibleTagPoses;
+  // Profiler stages
+  private static final int ESTIMATE_STAGE = 0;
+
+  private ArrayList<AprilTagCameraResult> m_estimatedRobotPoses;
+  private ArrayList<AprilTag> m_visibleTags;
+  private ArrayList<Pose3d> m_loggedEstimatedPoses;
+  private ArrayList<Pose3d> m_visibleTagPoses;
+  private AprilTag[] m_tagsById;
 
   private ObjectCamera m_objectCamera;
   private AprilTagCamera[] m_apriltagCameras;
-  private Notifier m_cameraNotifier;
+  private AprilTagCameraThread[] m_cameraThreads;
+  private Notifier m_simNotifier;
   private AprilTagFieldLayout m_fieldLayout;
   private Supplier<Pose2d> m_poseSupplier;
+  private PoseHistory m_poseHistory;
   private VisionSystemSim m_sim;
+  private LoopProfiler m_profiler;
+  private OutputLogger.StructArrayOutput<Pose3d> m_visibleTagsOutput;
+  private OutputLogger.StructArrayOutput<Pose3d> m_estimatedPosesOutput;
+  private OutputLogger.Pose2dOutput m_objectPoseOutput;
+  private OutputLogger.DoubleOutput[] m_frameRateOutputs;
+  private OutputLogger.DoubleOutput[] m_processingTimeOutputs;
+  private OutputLogger.DoubleOutput[] m_latencyOutputs;
+  private OutputLogger.LongOutput[] m_overflowOutputs;
+  private long[] m_previousFrameCounts;
+  private double m_previousFrameRateTime = Double.NaN;
+  private double[] m_objectRobotPose = new double[3];
+  private double[] m_objectLocation = new double[2];
+  private boolean m_isStepped;
 
   /**
    * Create a new vision subsystem
    * @param visionHardware Vision hardware
    */
-  private VisionSubsystem(Hardware visionHardware) {
+  VisionSubsystem(Hardware visionHardware) {
     setName(getClass().getSimpleName());
     this.m_apriltagCameras = visionHardware.cameras;
     this.m_objectCamera = visionHardware.objectCamera;
-    this.m_estimatedRobotPoses = new AtomicReference<List<AprilTagCameraResult>>();
-    this.m_visibleTags = new AtomicReference<List<AprilTag>>();
-    this.m_loggedEstimatedPoses = new AtomicReference<List<Pose2d>>();
-    this.m_visibleTagPoses = new AtomicReference<List<Pose3d>>();
+
+    // Process cameras on main thread when simulated time is only advanced by stepping loops
+    this.m_isStepped = RobotBase.isSimulation() && SimHooks.isTimingPaused();
+
+    // Reusable lists handed to consumer each cycle, sized to hold every camera's full result buffer
+    int maxEstimates = m_apriltagCameras.length * AprilTagCamera.RESULT_BUFFER_DEPTH;
+    this.m_estimatedRobotPoses = new ArrayList<AprilTagCameraResult>(maxEstimates);
+    this.m_visibleTags = new ArrayList<AprilTag>(MAX_VISIBLE_TAGS);
+    this.m_loggedEstimatedPoses = new ArrayList<Pose3d>(maxEstimates);
+    this.m_visibleTagPoses = new ArrayList<Pose3d>(MAX_VISIBLE_TAGS);
 
     this.m_sim = new VisionSystemSim(getName());
+    this.m_profiler = new LoopProfiler(
+      getName(),
+      Constants.Profiling.ENABLED,
+      Constants.Profiling.PUBLISH_PERIOD,
+      "Estimate"
+    );
+    this.m_visibleTagsOutput = OutputLogger.structArrayOutput(
+      getName() + VISIBLE_TAGS_LOG_ENTRY,
+      ESTIMATE_LOG_POLICY,
+      Pose3d[]::new,
+      MAX_VISIBLE_TAGS
+    );
+    this.m_estimatedPosesOutput = OutputLogger.structArrayOutput(
+      getName() + ESTIMATED_POSES_LOG_ENTRY,
+      ESTIMATE_LOG_POLICY,
+      Pose3d[]::new,
+      maxEstimates
+    );
+    this.m_objectPoseOutput = OutputLogger.pose2dOutput(getName() + OBJECT_POSE_LOG_ENTRY, ESTIMATE_LOG_POLICY);
+
+    // Create per camera metrics outputs
+    this.m_frameRateOutputs = new OutputLogger.DoubleOutput[m_apriltagCameras.length];
+    this.m_processingTimeOutputs = new OutputLogger.DoubleOutput[m_apriltagCameras.length];
+    this.m_latencyOutputs = new OutputLogger.DoubleOutput[m_apriltagCameras.length];
+    this.m_overflowOutputs = new OutputLogger.LongOutput[m_apriltagCameras.length];
+    this.m_previousFrameCounts = new long[m_apriltagCameras.length];
+    for (int i = 0; i < m_apriltagCameras.length; i++) {
+      var cameraKey = getName() + CAMERA_LOG_ENTRY + m_apriltagCameras[i].getName();
+      m_frameRateOutputs[i] = OutputLogger.doubleOutput(cameraKey + FRAME_RATE_LOG_ENTRY, CAMERA_LOG_POLICY);
+      m_processingTimeOutputs[i] = OutputLogger.doubleOutput(cameraKey + PROCESSING_TIME_LOG_ENTRY, CAMERA_LOG_POLICY);
+      m_latencyOutputs[i] = OutputLogger.doubleOutput(cameraKey + LATENCY_LOG_ENTRY, CAMERA_LOG_POLICY);
+      m_overflowOutputs[i] = OutputLogger.longOutput(cameraKey + OVERFLOWS_LOG_ENTRY, CAMERA_LOG_POLICY);
+    }
 
     // Load AprilTag field layout
     m_fieldLayout = AprilTagFields.k2024Crescendo.loadAprilTagLayoutField();
     // PV estimates will always be blue
     m_fieldLayout.setOrigin(AprilTagFieldLayout.OriginPosition.kBlueAllianceWallRightSide);
 
+    // Index tags by ID for lookup without allocating
+    int maxTagId = 0;
+    for (var tag : m_fieldLayout.getTags()) maxTagId = Math.max(maxTagId, tag.ID);
+    m_tagsById = new AprilTag[maxTagId + 1];
+    for (var tag : m_fieldLayout.getTags()) m_tagsById[tag.ID] = tag;
+
     // Set field layout for sim
     m_sim.addAprilTags(m_fieldLayout);
 
-    // Setup camera pose estimation threads
-    this.m_cameraNotifier = (RobotBase.isReal())
-    ? new Notifier(() -> {
-      for (var camera : m_apriltagCameras) camera.run();
-      updateEstimatedGlobalPoses();
-    })
-    : new Notifier(() -> {
-      if (m_poseSupplier != null) m_sim.update(m_poseSupplier.get());
-      for (var camera : m_apriltagCameras) camera.run();
-      updateEstimatedGlobalPoses();
-    });
+    // Setup camera pose estimation threads, each woken when its camera publishes a new result
+    this.m_cameraThreads = new AprilTagCameraThread[m_isStepped ? 0 : m_apriltagCameras.length];
+    for (int i = 0; i < m_cameraThreads.length; i++)
+      m_cameraThreads[i] = new AprilTagCameraThread(m_apriltagCameras[i], NetworkTableInstance.getDefault(), CAMERA_IDLE_PERIOD);
+
+    // Setup vision sim, publishing simulated camera results
+    if (RobotBase.isSimulation() && !m_isStepped) {
+      m_simNotifier = new Notifier(() -> {
+        if (m_poseSupplier != null) m_sim.update(m_poseSupplier.get());
+      });
+    }
 
     // Set all cameras to primary pipeline
     for (var camera : m_apriltagCameras) camera.setPipelineIndex(0);
@@ -117,9 +193,14 @@ public class VisionSubsystem extends SubsystemBase implements AutoCloseable {
     // Add AprilTag cameras to sim
     for (var camera : m_apriltagCameras) m_sim.addCamera(camera.getCameraSim(), camera.getTransform());
 
-    // Start camera thread
-    m_cameraNotifier.setName(getName());
-    m_cameraNotifier.startPeriodic(GlobalConstants.ROBOT_LOOP_PERIOD);
+    // Start camera threads
+    for (var cameraThread : m_cameraThreads) cameraThread.start();
+
+    // Start vision sim
+    if (m_simNotifier != null) {
+      m_simNotifier.setName(getName() + "Sim");
+      m_simNotifier.startPeriodic(GlobalConstants.ROBOT_LOOP_PERIOD);
+    }
   }
 
   /**
@@ -151,35 +232,30 @@ public class VisionSubsystem extends SubsystemBase implements AutoCloseable {
     return visionHardware;
   }
 
-   /**
+  /**
    * Update currently estimated robot pose from each camera
    */
-  private void updateEstimatedGlobalPoses() {
-    var apriltagCameraResult = new ArrayList<AprilTagCameraResult>();
-
-    var visibleTags = new ArrayList<AprilTag>();
-    var loggedPoses = new ArrayList<Pose2d>();
-    var visibleTagPoseList = new ArrayList<Pose3d>();
-    for (var camera : m_apriltagCameras) {
-      var result = camera.getLatestEstimatedPose();
-      if (result == null) continue;
-      result.estimatedRobotPose.targetsUsed.forEach((photonTrackedTarget) -> {
-        var tag = getTag(photonTrackedTarget.getFiducialId());
-        if (tag.isPresent()) {
-          visibleTags.add(tag.get());
-          visibleTagPoseList.add(tag.get().pose);
-        }
-      });
-      apriltagCameraResult.add(result);
-      loggedPoses.add(result.estimatedRobotPose.estimatedPose.toPose2d());
+  void updateEstimatedGlobalPoses() {
+    m_estimatedRobotPoses.clear();
+    m_visibleTags.clear();
+    m_visibleTagPoses.clear();
+    m_loggedEstimatedPoses.clear();
+
+    // Take every estimate made by each camera since last update
+    for (var camera : m_apriltagCameras) camera.drainEstimatedPoses(m_estimatedRobotPoses);
+
+    // Collect visible tags and estimated poses for logging
+    for (int i = 0; i < m_estimatedRobotPoses.size(); i++) {
+      var result = m_estimatedRobotPoses.get(i);
+      var targets = result.estimatedRobotPose.targetsUsed;
+      for (int j = 0; j < targets.size(); j++) {
+        int id = targets.get(j).getFiducialId();
+        if (id < 0 || id >= m_tagsById.length || m_tagsById[id] == null) continue;
+        m_visibleTags.add(m_tagsById[id]);
+        m_visibleTagPoses.add(m_tagsById[id].pose);
+      }
+      m_loggedEstimatedPoses.add(result.estimatedRobotPose.estimatedPose);
     }
-
-    // Log visible tags and estimated poses
-    m_visibleTagPoses.set(visibleTagPoseList);
-    m_loggedEstimatedPoses.set(loggedPoses);
-
-    m_visibleTags.set(visibleTags);
-    m_estimatedRobotPoses.set(apriltagCameraResult);
   }
 
   /**
@@ -191,6 +267,14 @@ public class VisionSubsystem extends SubsystemBase implements AutoCloseable {
     return m_subsystem;
   }
 
+  /**
+   * Replace instance of vision subsystem, such as with a mock for benchmarks
+   * @param subsystem Vision subsystem to return from {@link #getInstance()}
+   */
+  public static void setInstance(VisionSubsystem subsystem) {
+    m_subsystem = subsystem;
+  }
+
   /**
    * Set pose supplier for simulation
    * @param poseSupplier Pose supplier from drive subsystem
@@ -199,68 +283,123 @@ public class VisionSubsystem extends SubsystemBase implements AutoCloseable {
     m_poseSupplier = poseSupplier;
   }
 
+  /**
+   * Set pose history, used to locate objects from robot pose when frame was captured
+   * @param poseHistory Pose history from drive subsystem
+   */
+  public void setPoseHistory(PoseHistory poseHistory) {
+    m_poseHistory = poseHistory;
+  }
+
+  /**
+   * Log per camera frame rate, processing time and latency
+   */
+  private void logCameraMetrics() {
+    double timestamp = Timer.getFPGATimestamp();
+    boolean updateFrameRate = Double.isNaN(m_previousFrameRateTime) || timestamp - m_previousFrameRateTime >= FRAME_RATE_PERIOD;
+
+    for (int i = 0; i < m_apriltagCameras.length; i++) {
+      var camera = m_apriltagCameras[i];
+      m_processingTimeOutputs[i].set(camera.getProcessingTime() * 1000);
+      m_latencyOutputs[i].set(camera.getLatency() * 1000);
+      m_overflowOutputs[i].set(camera.getOverflowCount());
+
+      // Frame rate over last period
+      if (!updateFrameRate) continue;
+      long frameCount = camera.getFrameCount();
+      if (!Double.isNaN(m_previousFrameRateTime))
+        m_frameRateOutputs[i].set((frameCount - m_previousFrameCounts[i]) / (timestamp - m_previousFrameRateTime));
+      m_previousFrameCounts[i] = frameCount;
+    }
+    if (updateFrameRate) m_previousFrameRateTime = timestamp;
+  }
+
   @Override
   public void periodic() {
     // This method will be called once per scheduler run
-    var objectLocation = getObjectLocation();
-    Logger.recordOutput(getName() + OBJECT_DETECTED_LOG_ENTRY, getObjectLocation().isPresent());
-    if (objectLocation.isEmpty()) return;
+    // Publish estimate timing and camera thread metrics from main thread
+    m_profiler.publish();
+    logCameraMetrics();
+
+    boolean isObjectLocated = getObjectLocation(m_objectLocation);
+    Logger.recordOutput(getName() + OBJECT_DETECTED_LOG_ENTRY, isObjectLocated);
+    if (!isObjectLocated) return;
     Logger.recordOutput(getName() + "/shouldIntake", shouldIntake());
-    Logger.recordOutput(getName() + OBJECT_POSE_LOG_ENTRY, objectLocation.get());
+    m_objectPoseOutput.set(m_objectLocation[0], m_objectLocation[1], m_objectRobotPose[2]);
   }
 
   @Override
   public void simulationPeriodic() {
     // This method will be called once per scheduler run in simulation
-    var objectLocation = getObjectLocation();
-    if (objectLocation.isEmpty()) return;
-
-    Logger.recordOutput(getName() + OBJECT_POSE_LOG_ENTRY, objectLocation.get());
+    // Update vision sim and process cameras in step with simulated time
+    if (m_isStepped) {
+      if (m_poseSupplier != null) m_sim.update(m_poseSupplier.get());
+      for (var camera : m_apriltagCameras) camera.run();
+    }
   }
 
   /**
-   * Get currently estimated robot poses from each camera
+   * Take robot poses estimated by each camera since last call, each estimate returned exactly once
+   * <p>
+   * This drains the camera result buffers, so there must be a single consumer calling it once per
+   * cycle; estimates taken by any other caller are lost to it. The returned list is reused, it is
+   * only valid until the next call, and must only be used from the main robot thread.
    * @return List of estimated poses, the timestamp, and targets used to create the estimate
    */
-  public List<AprilTagCameraResult> getEstimatedGlobalPoses() {
-    Logger.recordOutput(getName() + VISIBLE_TAGS_LOG_ENTRY, m_visibleTagPoses.get().toArray(new Pose3d[0]));
-    Logger.recordOutput(getName() + ESTIMATED_POSES_LOG_ENTRY, m_loggedEstimatedPoses.get().toArray(new Pose2d[0]));
+  public List<AprilTagCameraResult> drainEstimatedGlobalPoses() {
+    // Collect results processed by camera threads since last call
+    m_profiler.start();
+    updateEstimatedGlobalPoses();
+    m_profiler.mark(ESTIMATE_STAGE);
+    m_profiler.end();
 
-    return m_estimatedRobotPoses.getAndSet(Collections.emptyList());
+    m_visibleTagsOutput.set(m_visibleTagPoses);
+    m_estimatedPosesOutput.set(m_loggedEstimatedPoses);
+
+    return m_estimatedRobotPoses;
   }
 
   /**
-   * Get IDs of currently visible tags
+   * Get IDs of currently visible tags, from main robot thread only
    * @return List of IDs of currently visible tags
    */
   public List<AprilTag> getVisibleTags() {
-    return m_visibleTags.get();
+    return m_visibleTags;
   }
 
   public Optional<AprilTag> getTag(int id) {
-    return m_fieldLayout.getTags().stream().filter((tag) -> tag.ID == id).findFirst();
+    if (id < 0 || id >= m_tagsById.length) return Optional.empty();
+    return Optional.ofNullable(m_tagsById[id]);
   }
 
   /**
    * Get the position of an object that can be seen by the object camera.
-   * @return The position of the object, relative to the field
+   * @param location Array to receive X and Y position of the object relative to the field, in meters
+   * @return True if object was located
    */
-  public Optional<Translation2d> getObjectLocation() {
-
+  public boolean getObjectLocation(double[] location) {
     Optional<Measure<Angle>> yaw = m_objectCamera.getYaw();
     Optional<Measure<Distance>> distance = m_objectCamera.getDistance();
-    Pose2d pose = m_poseSupplier.get();
-    if (yaw.isEmpty() || distance.isEmpty() || pose == null) return Optional.empty();
+    if (yaw.isEmpty() || distance.isEmpty()) return false;
+
+    // Use robot pose when frame was captured, falling back to current pose
+    if (m_poseHistory == null || !m_poseHistory.getPoseAt(m_objectCamera.getTimestamp(), m_objectRobotPose)) {
+      if (m_poseSupplier == null) return false;
+      Pose2d pose = m_poseSupplier.get();
+      m_objectRobotPose[0] = pose.getX();
+      m_objectRobotPose[1] = pose.getY();
+      m_objectRobotPose[2] = pose.getRotation().getRadians();
+    }
 
     Logger.recordOutput(getName() + OBJECT_DISTANCE_LOG_ENTRY, distance.get());
     Logger.recordOutput(getName() + OBJECT_HEADING_LOG_ENTRY, yaw.get());
-    return Optional.of(pose.getTranslation().plus(
-      new Translation2d(
-        // distance.get().in(Units.Meters),
-        1,
-        Rotation2d.fromRadians(pose.getRotation().getRadians() - yaw.get().in(Units.Radians))
-      )
-    ));
+
+    // Project object from robot along camera yaw
+    double range = 1; // distance.get().in(Units.Meters)
+    double heading = m_objectRobotPose[2] - yaw.get().in(Units.Radians);
+    location[0] = m_objectRobotPose[0] + range * Math.cos(heading);
+    location[1] = m_objectRobotPose[1] + range * Math.sin(heading);
+    return true;
   }
 
   /**
@@ -286,8 +425,9 @@ public class VisionSubsystem extends SubsystemBase implements AutoCloseable {
 
   @Override
   public void close() {
+    for (var cameraThread : m_cameraThreads) cameraThread.close();
     for (var camera : m_apriltagCameras) camera.close();
     m_objectCamera.close();
-    m_cameraNotifier.close();
+    if (m_simNotifier != null) m_simNotifier.close();
   }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.util.sendable.SendableRegistry;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Change-detecting, rate-limited SmartDashboard publisher
+ * <p>
+ * Each entry caches the last value written to NetworkTables and skips writes when the value has
+ * not changed. Entries may also be given a maximum publish rate, in which case changes arriving
+ * too soon are held back until the next call after the period has elapsed. Entries are intended
+ * to be updated every cycle from a single thread, which may differ between entries.
+ * <p>
+ * Entries are keyed by SmartDashboard key. Creating an entry for a key that already has one
+ * replaces it in the totals, so recreating subsystems, as in tests, does not grow the publisher.
+ */
+public class DashboardPublisher {
+  private static DashboardPublisher m_instance;
+
+  private final DoubleSupplier m_clock;
+  private final Map<String, Entry> m_entries;
+
+  /**
+   * Create dashboard publisher
+   * @param clock Supplier of current time in seconds
+   */
+  DashboardPublisher(DoubleSupplier clock) {
+    this.m_clock = clock;
+    this.m_entries = new ConcurrentHashMap<String, Entry>();
+  }
+
+  /**
+   * Get instance of dashboard publisher, creating if nonexistent
+   * @return Instance of dashboard publisher
+   */
+  public static synchronized DashboardPublisher getInstance() {
+    if (m_instance == null) m_instance = new DashboardPublisher(Timer::getFPGATimestamp);
+    return m_instance;
+  }
+
+  /** Cached dashboard entry */
+  public abstract class Entry {
+    private final double m_minPeriod;
+    private double m_lastPublishTime = Double.NEGATIVE_INFINITY;
+    private boolean m_hasPublished;
+    private volatile long m_publishedCount;
+    private volatile long m_suppressedCount;
+
+    /**
+     * Create entry, replacing any existing entry with same key
+     * @param key SmartDashboard key
+     * @param maxRate Maximum publish rate in Hz, or 0 for no limit
+     */
+    private Entry(String key, double maxRate) {
+      this.m_minPeriod = (maxRate > 0.0) ? 1.0 / maxRate : 0.0;
+      m_entries.put(key, this);
+    }
+
+    /**
+     * Decide whether to write value, updating counters
+     * @param changed True if value differs from last published value
+     * @return True if value should be written
+     */
+    boolean shouldPublish(boolean changed) {
+      if (m_hasPublished && !changed) {
+        m_suppressedCount++;
+        return false;
+      }
+
+      // Hold back changes until rate limit period has elapsed
+      if (m_minPeriod > 0.0) {
+        double now = m_clock.getAsDouble();
+        if (now - m_lastPublishTime < m_minPeriod) {
+          m_suppressedCount++;
+          return false;
+        }
+        m_lastPublishTime = now;
+      }
+
+      m_hasPublished = true;
+      m_publishedCount++;
+      return true;
+    }
+
+    /**
+     * Get number of writes sent to NetworkTables
+     * @return Published write count
+     */
+    public long getPublishedCount() {
+      return m_publishedCount;
+    }
+
+    /**
+     * Get number of writes skipped because value was unchanged or rate limited
+     * @return Suppressed write count
+     */
+    public long getSuppressedCount() {
+      return m_suppressedCount;
+    }
+  }
+
+  /** Boolean SmartDashboard entry */
+  public class BooleanEntry extends Entry {
+    private final String m_key;
+    private boolean m_value;
+
+    private BooleanEntry(String key, double maxRate) {
+      super(key, maxRate);
+      this.m_key = key;
+    }
+
+    /**
+     * Publish value if changed
+     * @param value New value
+     */
+    public void set(boolean value) {
+      if (!shouldPublish(value != m_value)) return;
+      m_value = value;
+      SmartDashboard.putBoolean(m_key, value);
+    }
+  }
+
+  /** Field2d robot pose entry */
+  public class Field2dEntry extends Entry {
+    private final Field2d m_field;
+    private double m_x;
+    private double m_y;
+    private double m_rotation;
+
+    private Field2dEntry(Field2d field, double maxRate) {
+      super(SendableRegistry.getName(field), maxRate);
+      this.m_field = field;
+    }
+
+    /**
+     * Publish robot pose if changed
+     * @param pose New robot pose
+     */
+    public void setRobotPose(Pose2d pose) {
+      double x = pose.getX(), y = pose.getY(), rotation = pose.getRotation().getRadians();
+      if (!shouldPublish(x != m_x || y != m_y || rotation != m_rotation)) return;
+      m_x = x;
+      m_y = y;
+      m_rotation = rotation;
+      m_field.setRobotPose(pose);
+    }
+  }
+
+  /**
+   * Create boolean entry without rate limit
+   * @param key SmartDashboard key
+   * @return Boolean entry
+   */
+  public BooleanEntry booleanEntry(String key) {
+    return booleanEntry(key, 0.0);
+  }
+
+  /**
+   * Create boolean entry
+   * @param key SmartDashboard key
+   * @param maxRate Maximum publish rate in Hz, or 0 for no limit
+   * @return Boolean entry
+   */
+  public BooleanEntry booleanEntry(String key, double maxRate) {
+    return new BooleanEntry(key, maxRate);
+  }
+
+  /**
+   * Create Field2d robot pose entry
+   * @param field Field2d already added to SmartDashboard
+   * @param maxRate Maximum publish rate in Hz, or 0 for no limit
+   * @return Field2d entry
+   */
+  public Field2dEntry field2dEntry(Field2d field, double maxRate) {
+    return new Field2dEntry(field, maxRate);
+  }
+
+  /**
+   * Get number of entries
+   * @return Entry count, one per key
+   */
+  public int getEntryCount() {
+    return m_entries.size();
+  }
+
+  /**
+   * Get total writes sent to NetworkTables by all entries
+   * @return Published write count
+   */
+  public long getPublishedCount() {
+    long count = 0;
+    for (var entry : m_entries.values()) count += entry.getPublishedCount();
+    return count;
+  }
+
+  /**
+   * Get total writes suppressed by all entries
+   * @return Suppressed write count
+   */
+  public long getSuppressedCount() {
+    long count = 0;
+    for (var entry : m_entries.values()) count += entry.getSuppressedCount();
+    return count;
+  }
+}
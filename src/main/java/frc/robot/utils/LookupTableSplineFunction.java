@@ -0,0 +1,92 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
+import org.apache.commons.math3.exception.OutOfRangeException;
+
+/**
+ * Spline function evaluated from a dense precomputed lookup table
+ * <p>
+ * The source spline is sampled at evenly spaced points on construction, and {@link #value(double)}
+ * linearly interpolates between samples, avoiding the knot search and polynomial evaluation
+ * on every call. Can be passed anywhere a {@link PolynomialSplineFunction} is expected.
+ * <p>
+ * Only {@link #value(double)} is accelerated. All other methods, including
+ * {@code value(DerivativeStructure)}, {@link #derivative()} and
+ * {@link #polynomialSplineDerivative()}, are inherited unchanged. They evaluate the exact source
+ * spline at its usual cost, so they can differ from {@link #value(double)} by up to
+ * {@link #getMaxError()}.
+ */
+public class LookupTableSplineFunction extends PolynomialSplineFunction {
+  private final double m_min;
+  private final double m_max;
+  private final double m_inverseStep;
+  private final double[] m_table;
+  private final double m_maxError;
+
+  /**
+   * Create lookup table from spline function
+   * @param spline Spline function to sample
+   * @param size Number of samples in table, at least 2
+   */
+  public LookupTableSplineFunction(PolynomialSplineFunction spline, int size) {
+    super(spline.getKnots(), spline.getPolynomials());
+    if (size < 2) throw new IllegalArgumentException("Lookup table size must be at least 2");
+
+    double[] knots = spline.getKnots();
+    this.m_min = knots[0];
+    this.m_max = knots[knots.length - 1];
+    double step = (m_max - m_min) / (size - 1);
+    this.m_inverseStep = 1.0 / step;
+
+    // Sample spline, pinning last entry to end of domain
+    this.m_table = new double[size];
+    for (int i = 0; i < size - 1; i++) m_table[i] = spline.value(m_min + i * step);
+    m_table[size - 1] = spline.value(m_max);
+
+    // Measure interpolation error at midpoints between samples
+    double maxError = 0.0;
+    for (int i = 0; i < size - 1; i++) {
+      double x = Math.min(m_min + (i + 0.5) * step, m_max);
+      maxError = Math.max(maxError, Math.abs(value(x) - spline.value(x)));
+    }
+    this.m_maxError = maxError;
+  }
+
+  /**
+   * Evaluate function by interpolating lookup table
+   * @param x Point to evaluate
+   * @return Interpolated value
+   * @throws OutOfRangeException if x is outside spline domain
+   */
+  @Override
+  public double value(double x) {
+    if (x < m_min || x > m_max) throw new OutOfRangeException(x, m_min, m_max);
+    if (x == m_max) return m_table[m_table.length - 1];
+
+    double position = (x - m_min) * m_inverseStep;
+    int index = (int)position;
+    if (index >= m_table.length - 1) return m_table[m_table.length - 1];
+
+    return m_table[index] + (m_table[index + 1] - m_table[index]) * (position - index);
+  }
+
+  /**
+   * Get number of samples in table
+   * @return Table size
+   */
+  public int getSize() {
+    return m_table.length;
+  }
+
+  /**
+   * Get interpolation error measured at midpoints between samples on construction
+   * @return Approximate maximum absolute error versus source spline
+   */
+  public double getMaxError() {
+    return m_maxError;
+  }
+}
@@ -0,0 +1,212 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import java.util.Arrays;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Lightweight per-stage loop timing profiler
+ * <p>
+ * Stage durations are measured with {@link System#nanoTime()} and accumulated into fixed-bucket
+ * histograms. Every N cycles, p50/p99/max are computed for each stage and the cycle total, then
+ * published via {@link Logger#recordOutput(String, double)} on the next call to {@link #publish()}.
+ * Cycles may be recorded on a different thread to the one publishing, such as a {@code Notifier}.
+ * When disabled, every method returns immediately.
+ */
+public class LoopProfiler {
+  private static final long BUCKET_WIDTH_NANOS = 20_000;
+  private static final int BUCKET_COUNT = 1000;
+  private static final double NANOS_TO_MILLIS = 1e-6;
+
+  private static final String LOG_ENTRY = "/Profiler/";
+  private static final String TOTAL_STAGE = "Total";
+  private static final String P50_LOG_ENTRY = "/P50";
+  private static final String P99_LOG_ENTRY = "/P99";
+  private static final String MAX_LOG_ENTRY = "/Max";
+
+  private final boolean m_enabled;
+  private final int m_publishPeriod;
+  private final int m_stageCount;
+  private final int[][] m_histograms;
+  private final long[] m_maxNanos;
+  private final double[] m_stats;
+  private final String[] m_p50Keys;
+  private final String[] m_p99Keys;
+  private final String[] m_maxKeys;
+
+  private long m_lastMarkNanos;
+  private long m_cycleNanos;
+  private int m_cycleCount;
+  private volatile boolean m_hasNewStats;
+
+  /**
+   * Create loop profiler
+   * @param name Log prefix, typically subsystem name
+   * @param enabled True to enable profiling, false to make all calls no-ops
+   * @param publishPeriod Number of cycles per published window
+   * @param stages Names of stages, in the order they are marked
+   */
+  public LoopProfiler(String name, boolean enabled, int publishPeriod, String... stages) {
+    if (publishPeriod < 1) throw new IllegalArgumentException("Publish period must be positive");
+
+    this.m_enabled = enabled;
+    this.m_publishPeriod = publishPeriod;
+    this.m_stageCount = stages.length;
+
+    // Last slot is reserved for cycle total
+    int slots = m_stageCount + 1;
+    this.m_histograms = new int[slots][BUCKET_COUNT + 1];
+    this.m_maxNanos = new long[slots];
+    this.m_stats = new double[slots * 3];
+    this.m_p50Keys = new String[slots];
+    this.m_p99Keys = new String[slots];
+    this.m_maxKeys = new String[slots];
+
+    // Build log keys once
+    for (int i = 0; i < slots; i++) {
+      String prefix = name + LOG_ENTRY + ((i < m_stageCount) ? stages[i] : TOTAL_STAGE);
+      m_p50Keys[i] = prefix + P50_LOG_ENTRY;
+      m_p99Keys[i] = prefix + P99_LOG_ENTRY;
+      m_maxKeys[i] = prefix + MAX_LOG_ENTRY;
+    }
+  }
+
+  /**
+   * Start timing a new cycle
+   */
+  public void start() {
+    if (!m_enabled) return;
+    m_cycleNanos = 0;
+    m_lastMarkNanos = System.nanoTime();
+  }
+
+  /**
+   * Mark end of a stage, recording time elapsed since previous mark
+   * @param stage Stage index
+   */
+  public void mark(int stage) {
+    if (!m_enabled) return;
+    long now = System.nanoTime();
+    record(stage, now - m_lastMarkNanos);
+    m_lastMarkNanos = now;
+  }
+
+  /**
+   * Exclude time elapsed since previous mark from all stages
+   */
+  public void skip() {
+    if (!m_enabled) return;
+    m_lastMarkNanos = System.nanoTime();
+  }
+
+  /**
+   * End current cycle, computing statistics if publish window is complete
+   */
+  public void end() {
+    if (!m_enabled) return;
+    record(m_stageCount, m_cycleNanos);
+
+    if (++m_cycleCount < m_publishPeriod) return;
+
+    // Summarise window and hand off to publishing thread
+    synchronized (m_stats) {
+      for (int i = 0; i <= m_stageCount; i++) {
+        m_stats[i * 3 + 0] = percentile(m_histograms[i], m_maxNanos[i], 0.50) * NANOS_TO_MILLIS;
+        m_stats[i * 3 + 1] = percentile(m_histograms[i], m_maxNanos[i], 0.99) * NANOS_TO_MILLIS;
+        m_stats[i * 3 + 2] = m_maxNanos[i] * NANOS_TO_MILLIS;
+        Arrays.fill(m_histograms[i], 0);
+        m_maxNanos[i] = 0;
+      }
+    }
+    m_cycleCount = 0;
+    m_hasNewStats = true;
+  }
+
+  /**
+   * Log latest statistics in milliseconds, if a new window has completed
+   */
+  public void publish() {
+    if (!m_enabled || !m_hasNewStats) return;
+
+    synchronized (m_stats) {
+      for (int i = 0; i <= m_stageCount; i++) {
+        Logger.recordOutput(m_p50Keys[i], m_stats[i * 3 + 0]);
+        Logger.recordOutput(m_p99Keys[i], m_stats[i * 3 + 1]);
+        Logger.recordOutput(m_maxKeys[i], m_stats[i * 3 + 2]);
+      }
+      m_hasNewStats = false;
+    }
+  }
+
+  /**
+   * Get whether profiler is enabled
+   * @return True if enabled
+   */
+  public boolean isEnabled() {
+    return m_enabled;
+  }
+
+  /**
+   * Get median duration of stage from last completed window
+   * @param stage Stage index, or number of stages for cycle total
+   * @return Median duration in milliseconds, rounded up to histogram bucket width
+   */
+  public double getP50(int stage) {
+    synchronized (m_stats) { return m_stats[stage * 3 + 0]; }
+  }
+
+  /**
+   * Get 99th percentile duration of stage from last completed window
+   * @param stage Stage index, or number of stages for cycle total
+   * @return 99th percentile duration in milliseconds, rounded up to histogram bucket width
+   */
+  public double getP99(int stage) {
+    synchronized (m_stats) { return m_stats[stage * 3 + 1]; }
+  }
+
+  /**
+   * Get maximum duration of stage from last completed window
+   * @param stage Stage index, or number of stages for cycle total
+   * @return Maximum duration in milliseconds
+   */
+  public double getMax(int stage) {
+    synchronized (m_stats) { return m_stats[stage * 3 + 2]; }
+  }
+
+  /**
+   * Record stage duration
+   * @param stage Stage index, or number of stages for cycle total
+   * @param nanos Duration in nanoseconds
+   */
+  void record(int stage, long nanos) {
+    if (stage < m_stageCount) m_cycleNanos += nanos;
+    int bucket = (int)Math.min(nanos / BUCKET_WIDTH_NANOS, BUCKET_COUNT);
+    m_histograms[stage][bucket]++;
+    if (nanos > m_maxNanos[stage]) m_maxNanos[stage] = nanos;
+  }
+
+  /**
+   * Calculate percentile from histogram
+   * @param histogram Bucket counts, last bucket holds overflow
+   * @param maxNanos Largest recorded duration in nanoseconds
+   * @param fraction Percentile as fraction [0.0, 1.0]
+   * @return Upper bound of bucket containing percentile, limited to maximum, in nanoseconds
+   */
+  private static double percentile(int[] histogram, long maxNanos, double fraction) {
+    long total = 0;
+    for (int count : histogram) total += count;
+    if (total == 0) return 0.0;
+
+    long rank = Math.max((long)Math.ceil(fraction * total), 1);
+    long seen = 0;
+    for (int i = 0; i < histogram.length; i++) {
+      seen += histogram[i];
+      if (seen >= rank) return Math.min((i + 1) * BUCKET_WIDTH_NANOS, maxNanos);
+    }
+    return maxNanos;
+  }
+}
@@ -0,0 +1,362 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.util.struct.StructSerializable;
+
+/**
+ * Policy-driven facade over {@link Logger#recordOutput}
+ * <p>
+ * Each output owns its full log key, built once, and a {@link Policy} deciding whether a value
+ * is recorded on a given call: every call, every N calls, or only when it has changed by more
+ * than an epsilon since it was last recorded. Values that are skipped remain at their previously
+ * recorded value in the log. Outputs must only be used from the main robot thread.
+ */
+public final class OutputLogger {
+  private OutputLogger() {}
+
+  /** Decides when an output is recorded */
+  public static final class Policy {
+    private enum Kind { EVERY_CYCLE, EVERY_N_CYCLES, ON_CHANGE }
+
+    /** Record on every call */
+    public static final Policy EVERY_CYCLE = new Policy(Kind.EVERY_CYCLE, 1, 0.0);
+
+    private final Kind m_kind;
+    private final int m_period;
+    private final double m_epsilon;
+
+    private Policy(Kind kind, int period, double epsilon) {
+      this.m_kind = kind;
+      this.m_period = period;
+      this.m_epsilon = epsilon;
+    }
+
+    /**
+     * Record on every Nth call
+     * @param period Number of calls between records
+     * @return Policy
+     */
+    public static Policy everyNCycles(int period) {
+      if (period < 1) throw new IllegalArgumentException("Period must be positive");
+      return new Policy(Kind.EVERY_N_CYCLES, period, 0.0);
+    }
+
+    /**
+     * Record only when value changes by more than epsilon in any component
+     * @param epsilon Change threshold, 0 to record any change
+     * @return Policy
+     */
+    public static Policy onChange(double epsilon) {
+      if (epsilon < 0.0) throw new IllegalArgumentException("Epsilon must not be negative");
+      return new Policy(Kind.ON_CHANGE, 1, epsilon);
+    }
+  }
+
+  /** Base output, tracking policy state */
+  public static abstract class Output {
+    protected final String m_key;
+    protected final Policy m_policy;
+    private boolean m_hasRecorded;
+    private int m_cycle;
+    private long m_recordedCount;
+    private long m_suppressedCount;
+
+    private Output(String key, Policy policy) {
+      this.m_key = key;
+      this.m_policy = policy;
+    }
+
+    /**
+     * Whether policy compares values before recording
+     * @return True if value comparison is needed
+     */
+    boolean isChangeDriven() {
+      return m_policy.m_kind == Policy.Kind.ON_CHANGE && m_hasRecorded;
+    }
+
+    /**
+     * Decide whether to record on this call, updating counters
+     * @param changed True if value changed beyond epsilon, ignored unless policy is on change
+     * @return True if value should be recorded
+     */
+    boolean shouldRecord(boolean changed) {
+      boolean record;
+      switch (m_policy.m_kind) {
+        case EVERY_N_CYCLES:
+          record = m_cycle == 0;
+          m_cycle = (m_cycle + 1) % m_policy.m_period;
+          break;
+        case ON_CHANGE:
+          record = !m_hasRecorded || changed;
+          break;
+        default:
+          record = true;
+          break;
+      }
+
+      if (record) {
+        m_hasRecorded = true;
+        m_recordedCount++;
+      } else m_suppressedCount++;
+      return record;
+    }
+
+    /**
+     * Check if two values differ by more than policy epsilon
+     * @param a First value
+     * @param b Second value
+     * @return True if values differ
+     */
+    boolean differs(double a, double b) {
+      return Math.abs(a - b) > m_policy.m_epsilon || (Double.isNaN(a) != Double.isNaN(b));
+    }
+
+    /**
+     * Get log key
+     * @return Full log key
+     */
+    public String getKey() {
+      return m_key;
+    }
+
+    /**
+     * Get number of values recorded
+     * @return Recorded count
+     */
+    public long getRecordedCount() {
+      return m_recordedCount;
+    }
+
+    /**
+     * Get number of values skipped by policy
+     * @return Suppressed count
+     */
+    public long getSuppressedCount() {
+      return m_suppressedCount;
+    }
+  }
+
+  /** Double output */
+  public static class DoubleOutput extends Output {
+    private double m_value;
+
+    private DoubleOutput(String key, Policy policy) {
+      super(key, policy);
+    }
+
+    /**
+     * Record value according to policy
+     * @param value Value
+     */
+    public void set(double value) {
+      if (!shouldRecord(isChangeDriven() && differs(value, m_value))) return;
+      m_value = value;
+      Logger.recordOutput(m_key, value);
+    }
+  }
+
+  /** Integer output */
+  public static class LongOutput extends Output {
+    private long m_value;
+
+    private LongOutput(String key, Policy policy) {
+      super(key, policy);
+    }
+
+    /**
+     * Record value according to policy
+     * @param value Value
+     */
+    public void set(long value) {
+      if (!shouldRecord(isChangeDriven() && differs(value, m_value))) return;
+      m_value = value;
+      Logger.recordOutput(m_key, value);
+    }
+  }
+
+  /** Pose2d output, epsilon applies to meters and radians */
+  public static class Pose2dOutput extends Output {
+    private double m_x;
+    private double m_y;
+    private double m_rotation;
+
+    private Pose2dOutput(String key, Policy policy) {
+      super(key, policy);
+    }
+
+    /**
+     * Record pose according to policy
+     * @param pose Pose
+     */
+    public void set(Pose2d pose) {
+      double x = pose.getX(), y = pose.getY(), rotation = pose.getRotation().getRadians();
+      if (!shouldRecord(isChangeDriven() && changed(x, y, rotation))) return;
+      update(x, y, rotation);
+      Logger.recordOutput(m_key, pose);
+    }
+
+    /**
+     * Record pose according to policy, only creating a Pose2d when recorded
+     * @param x X position in meters
+     * @param y Y position in meters
+     * @param rotation Rotation in radians
+     */
+    public void set(double x, double y, double rotation) {
+      if (!shouldRecord(isChangeDriven() && changed(x, y, rotation))) return;
+      update(x, y, rotation);
+      Logger.recordOutput(m_key, new Pose2d(x, y, Rotation2d.fromRadians(rotation)));
+    }
+
+    private boolean changed(double x, double y, double rotation) {
+      return differs(x, m_x) || differs(y, m_y) || differs(rotation, m_rotation);
+    }
+
+    private void update(double x, double y, double rotation) {
+      m_x = x;
+      m_y = y;
+      m_rotation = rotation;
+    }
+  }
+
+  /** Swerve module state array output, epsilon applies to m/s and radians */
+  public static class SwerveModuleStatesOutput extends Output {
+    private final double[] m_speeds;
+    private final double[] m_angles;
+
+    private SwerveModuleStatesOutput(String key, Policy policy, int moduleCount) {
+      super(key, policy);
+      this.m_speeds = new double[moduleCount];
+      this.m_angles = new double[moduleCount];
+    }
+
+    /**
+     * Record module states according to policy
+     * @param states Module states, same length as module count
+     */
+    public void set(SwerveModuleState[] states) {
+      if (!shouldRecord(isChangeDriven() && changed(states))) return;
+      for (int i = 0; i < m_speeds.length; i++) {
+        m_speeds[i] = states[i].speedMetersPerSecond;
+        m_angles[i] = states[i].angle.getRadians();
+      }
+      Logger.recordOutput(m_key, states);
+    }
+
+    private boolean changed(SwerveModuleState[] states) {
+      for (int i = 0; i < m_speeds.length; i++) {
+        if (differs(states[i].speedMetersPerSecond, m_speeds[i])
+            || differs(states[i].angle.getRadians(), m_angles[i])) return true;
+      }
+      return false;
+    }
+  }
+
+  /** Struct array output for lists, reusing one preallocated array per length */
+  public static class StructArrayOutput<T extends StructSerializable> extends Output {
+    private final IntFunction<T[]> m_arrayFactory;
+    private final T[][] m_buffers;
+    private T[] m_value;
+
+    @SuppressWarnings("unchecked")
+    private StructArrayOutput(String key, Policy policy, IntFunction<T[]> arrayFactory, int maxLength) {
+      super(key, policy);
+      this.m_arrayFactory = arrayFactory;
+      this.m_buffers = (T[][])new StructSerializable[maxLength + 1][];
+      for (int i = 0; i <= maxLength; i++) m_buffers[i] = arrayFactory.apply(i);
+      this.m_value = m_buffers[0];
+    }
+
+    /**
+     * Record list contents according to policy, comparing elements with equals() if on change
+     * @param values Values to record
+     */
+    public void set(List<T> values) {
+      int length = values.size();
+      if (!shouldRecord(isChangeDriven() && changed(values))) return;
+
+      // Copy into reusable array of matching length, allocating only if longer than expected
+      T[] buffer = (length < m_buffers.length) ? m_buffers[length] : m_arrayFactory.apply(length);
+      for (int i = 0; i < length; i++) buffer[i] = values.get(i);
+
+      m_value = buffer;
+      Logger.recordOutput(m_key, buffer);
+    }
+
+    private boolean changed(List<T> values) {
+      if (values.size() != m_value.length) return true;
+      for (int i = 0; i < m_value.length; i++) {
+        if (!Objects.equals(values.get(i), m_value[i])) return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Create double output
+   * @param key Full log key
+   * @param policy Record policy
+   * @return Double output
+   */
+  public static DoubleOutput doubleOutput(String key, Policy policy) {
+    return new DoubleOutput(key, policy);
+  }
+
+  /**
+   * Create integer output
+   * @param key Full log key
+   * @param policy Record policy
+   * @return Integer output
+   */
+  public static LongOutput longOutput(String key, Policy policy) {
+    return new LongOutput(key, policy);
+  }
+
+  /**
+   * Create Pose2d output
+   * @param key Full log key
+   * @param policy Record policy
+   * @return Pose2d output
+   */
+  public static Pose2dOutput pose2dOutput(String key, Policy policy) {
+    return new Pose2dOutput(key, policy);
+  }
+
+  /**
+   * Create swerve module state array output
+   * @param key Full log key
+   * @param policy Record policy
+   * @param moduleCount Number of swerve modules
+   * @return Swerve module state array output
+   */
+  public static SwerveModuleStatesOutput swerveModuleStatesOutput(String key, Policy policy, int moduleCount) {
+    return new SwerveModuleStatesOutput(key, policy, moduleCount);
+  }
+
+  /**
+   * Create struct array output for lists
+   * @param <T> Struct type
+   * @param key Full log key
+   * @param policy Record policy
+   * @param arrayFactory Array constructor, such as {@code Pose2d[]::new}
+   * @param maxLength Largest list length to keep a preallocated array for
+   * @return Struct array output
+   */
+  public static <T extends StructSerializable> StructArrayOutput<T> structArrayOutput(String key,
+                                                                                      Policy policy,
+                                                                                      IntFunction<T[]> arrayFactory,
+                                                                                      int maxLength) {
+    return new StructArrayOutput<T>(key, policy, arrayFactory, maxLength);
+  }
+}
@@ -0,0 +1,200 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import java.util.concurrent.locks.StampedLock;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * Bounded history of timestamped robot poses, queried by time
+ * <p>
+ * Poses are held in a fixed capacity ring buffer of primitive arrays, oldest overwritten first.
+ * Queries binary search for the samples either side of the requested time and interpolate between
+ * them, without allocating.
+ * <p>
+ * One thread records, any number of threads may query. Readers use optimistic reads of a
+ * {@link StampedLock}, retrying if a record happened meanwhile, so they never block the writer.
+ */
+public class PoseHistory {
+  private final int m_mask;
+  private final double[] m_times;
+  private final double[] m_x;
+  private final double[] m_y;
+  private final double[] m_theta;
+  private final StampedLock m_lock = new StampedLock();
+  private int m_head;
+  private int m_size;
+
+  /**
+   * Create pose history
+   * @param capacity Minimum number of poses to hold, rounded up to a power of two
+   */
+  public PoseHistory(int capacity) {
+    if (capacity < 2) throw new IllegalArgumentException("Capacity must be at least two");
+
+    int size = 1;
+    while (size < capacity) size <<= 1;
+
+    this.m_mask = size - 1;
+    this.m_times = new double[size];
+    this.m_x = new double[size];
+    this.m_y = new double[size];
+    this.m_theta = new double[size];
+  }
+
+  /**
+   * Record pose, must only be called from one thread
+   * <p>
+   * Poses must be recorded in time order. A pose at the same time as the newest replaces it, an
+   * older pose is ignored.
+   * @param timestamp Time of pose in seconds
+   * @param x X position in meters
+   * @param y Y position in meters
+   * @param theta Heading in radians
+   */
+  public void record(double timestamp, double x, double y, double theta) {
+    if (m_size > 0 && timestamp < m_times[slot(m_size - 1)]) return;
+
+    long stamp = m_lock.writeLock();
+    try {
+      int index;
+      if (m_size > 0 && timestamp == m_times[slot(m_size - 1)]) index = m_size - 1;
+      else if (m_size <= m_mask) index = m_size++;
+      else {
+        // Full, overwrite oldest
+        m_head = (m_head + 1) & m_mask;
+        index = m_size - 1;
+      }
+
+      int slot = slot(index);
+      m_times[slot] = timestamp;
+      m_x[slot] = x;
+      m_y[slot] = y;
+      m_theta[slot] = theta;
+    } finally {
+      m_lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Clear history, such as after pose is reset, must only be called from recording thread
+   */
+  public void clear() {
+    long stamp = m_lock.writeLock();
+    m_head = 0;
+    m_size = 0;
+    m_lock.unlockWrite(stamp);
+  }
+
+  /**
+   * Get pose at time, interpolating between recorded poses
+   * <p>
+   * Times after the newest pose return the newest pose.
+   * @param timestamp Time in seconds
+   * @param pose Array to receive X and Y position in meters, and heading in radians
+   * @return True if pose was found, false if history is empty or older than time requested
+   */
+  public boolean getPoseAt(double timestamp, double[] pose) {
+    while (true) {
+      long stamp = m_lock.tryOptimisticRead();
+      int head = m_head, size = m_size;
+      int index = floorIndex(head, size, timestamp);
+
+      double x, y, theta;
+      if (index < 0) {
+        x = y = theta = Double.NaN;
+      } else if (index == size - 1) {
+        int slot = (head + index) & m_mask;
+        x = m_x[slot];
+        y = m_y[slot];
+        theta = m_theta[slot];
+      } else {
+        int start = (head + index) & m_mask, end = (head + index + 1) & m_mask;
+        double t = (timestamp - m_times[start]) / (m_times[end] - m_times[start]);
+        x = MathUtil.interpolate(m_x[start], m_x[end], t);
+        y = MathUtil.interpolate(m_y[start], m_y[end], t);
+        theta = MathUtil.angleModulus(m_theta[start] + MathUtil.angleModulus(m_theta[end] - m_theta[start]) * t);
+      }
+
+      // Retry if a pose was recorded while reading
+      if (!m_lock.validate(stamp)) continue;
+      if (index < 0) return false;
+
+      pose[0] = x;
+      pose[1] = y;
+      pose[2] = theta;
+      return true;
+    }
+  }
+
+  /**
+   * Get field relative velocity at time, from the recorded poses either side of it
+   * <p>
+   * Times after the newest pose return velocity between the two newest poses.
+   * @param timestamp Time in seconds
+   * @param velocity Array to receive X and Y velocity in meters per second, and rotate rate in radians per second
+   * @return True if velocity was found, false if fewer than two poses or older than time requested
+   */
+  public boolean getVelocityAt(double timestamp, double[] velocity) {
+    while (true) {
+      long stamp = m_lock.tryOptimisticRead();
+      int head = m_head, size = m_size;
+      int index = Math.min(floorIndex(head, size, timestamp), size - 2);
+
+      double vx = Double.NaN, vy = Double.NaN, omega = Double.NaN;
+      if (index >= 0) {
+        int start = (head + index) & m_mask, end = (head + index + 1) & m_mask;
+        double dt = m_times[end] - m_times[start];
+        vx = (m_x[end] - m_x[start]) / dt;
+        vy = (m_y[end] - m_y[start]) / dt;
+        omega = MathUtil.angleModulus(m_theta[end] - m_theta[start]) / dt;
+      }
+
+      // Retry if a pose was recorded while reading
+      if (!m_lock.validate(stamp)) continue;
+      if (index < 0) return false;
+
+      velocity[0] = vx;
+      velocity[1] = vy;
+      velocity[2] = omega;
+      return true;
+    }
+  }
+
+  /**
+   * Get number of poses held
+   * @return Pose count
+   */
+  public int size() {
+    return m_size;
+  }
+
+  /**
+   * Find newest pose at or before time
+   * @param head Head of ring buffer
+   * @param size Number of poses
+   * @param timestamp Time in seconds
+   * @return Index into history, oldest first, or -1 if all poses are newer
+   */
+  private int floorIndex(int head, int size, double timestamp) {
+    int low = 0, high = size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (m_times[(head + middle) & m_mask] <= timestamp) low = middle + 1;
+      else high = middle - 1;
+    }
+    return high;
+  }
+
+  /**
+   * Get ring buffer slot of history index
+   * @param index Index into history, oldest first
+   * @return Slot in backing arrays
+   */
+  private int slot(int index) {
+    return (m_head + index) & m_mask;
+  }
+}
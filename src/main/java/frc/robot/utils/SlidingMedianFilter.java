@@ -0,0 +1,179 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+/**
+ * Sliding window median filter with O(log n) updates
+ * <p>
+ * Drop-in replacement for {@link edu.wpi.first.math.filter.MedianFilter}, producing identical
+ * output. The window is split between an indexed max-heap holding the lower half and an indexed
+ * min-heap holding the upper half, so the oldest sample can be removed without a linear scan.
+ */
+public class SlidingMedianFilter {
+  private static final byte LOW = 0;
+  private static final byte HIGH = 1;
+
+  private final int m_size;
+  private final double[] m_values;
+  private final byte[] m_heapOf;
+  private final int[] m_heapIndex;
+  private final int[] m_lowHeap;
+  private final int[] m_highHeap;
+
+  private int m_lowCount;
+  private int m_highCount;
+  private int m_count;
+  private int m_next;
+
+  /**
+   * Create sliding median filter
+   * @param size Number of samples in window
+   */
+  public SlidingMedianFilter(int size) {
+    if (size < 1) throw new IllegalArgumentException("Filter size must be positive");
+
+    this.m_size = size;
+    this.m_values = new double[size];
+    this.m_heapOf = new byte[size];
+    this.m_heapIndex = new int[size];
+    this.m_lowHeap = new int[size];
+    this.m_highHeap = new int[size];
+  }
+
+  /**
+   * Add sample and calculate median of window
+   * @param value New sample
+   * @return Median of current window
+   */
+  public double calculate(double value) {
+    // Evict oldest sample once window is full
+    int slot = m_next;
+    if (m_count == m_size) remove(slot);
+    else m_count++;
+
+    m_values[slot] = value;
+    insert(slot);
+    m_next = (m_next + 1) % m_size;
+
+    return median();
+  }
+
+  /**
+   * Get median of current window without adding a sample
+   * @return Median, or 0 if empty
+   */
+  public double lastValue() {
+    return (m_count == 0) ? 0.0 : median();
+  }
+
+  /**
+   * Reset filter, clearing window
+   */
+  public void reset() {
+    m_lowCount = 0;
+    m_highCount = 0;
+    m_count = 0;
+    m_next = 0;
+  }
+
+  /**
+   * Get window size
+   * @return Number of samples in window
+   */
+  public int getSize() {
+    return m_size;
+  }
+
+  private double median() {
+    if (m_lowCount > m_highCount) return m_values[m_lowHeap[0]];
+    return (m_values[m_lowHeap[0]] + m_values[m_highHeap[0]]) / 2.0;
+  }
+
+  private void insert(int slot) {
+    if (m_lowCount == 0 || m_values[slot] <= m_values[m_lowHeap[0]]) push(LOW, slot);
+    else push(HIGH, slot);
+    rebalance();
+  }
+
+  private void remove(int slot) {
+    byte heap = m_heapOf[slot];
+    int[] array = (heap == LOW) ? m_lowHeap : m_highHeap;
+    int index = m_heapIndex[slot];
+    int last = (heap == LOW) ? --m_lowCount : --m_highCount;
+
+    // Move last element into the gap, then restore heap order around it
+    if (index != last) {
+      int moved = array[last];
+      set(heap, array, index, moved);
+      siftUp(heap, array, index);
+      siftDown(heap, array, m_heapIndex[moved], last);
+    }
+    rebalance();
+  }
+
+  private void rebalance() {
+    // Keep lower half equal to or one larger than upper half
+    if (m_lowCount > m_highCount + 1) push(HIGH, pop(LOW));
+    else if (m_highCount > m_lowCount) push(LOW, pop(HIGH));
+  }
+
+  private void push(byte heap, int slot) {
+    int[] array = (heap == LOW) ? m_lowHeap : m_highHeap;
+    int index = (heap == LOW) ? m_lowCount++ : m_highCount++;
+    set(heap, array, index, slot);
+    siftUp(heap, array, index);
+  }
+
+  private int pop(byte heap) {
+    int[] array = (heap == LOW) ? m_lowHeap : m_highHeap;
+    int top = array[0];
+    int last = (heap == LOW) ? --m_lowCount : --m_highCount;
+    if (last > 0) {
+      set(heap, array, 0, array[last]);
+      siftDown(heap, array, 0, last);
+    }
+    return top;
+  }
+
+  private void siftUp(byte heap, int[] array, int index) {
+    while (index > 0) {
+      int parent = (index - 1) >> 1;
+      if (!before(heap, array[index], array[parent])) break;
+      swap(heap, array, index, parent);
+      index = parent;
+    }
+  }
+
+  private void siftDown(byte heap, int[] array, int index, int count) {
+    while (true) {
+      int left = 2 * index + 1;
+      if (left >= count) break;
+      int child = left;
+      if (left + 1 < count && before(heap, array[left + 1], array[left])) child = left + 1;
+      if (!before(heap, array[child], array[index])) break;
+      swap(heap, array, index, child);
+      index = child;
+    }
+  }
+
+  /**
+   * Whether slot a belongs closer to the top of the heap than slot b
+   */
+  private boolean before(byte heap, int a, int b) {
+    return (heap == LOW) ? m_values[a] > m_values[b] : m_values[a] < m_values[b];
+  }
+
+  private void set(byte heap, int[] array, int index, int slot) {
+    array[index] = slot;
+    m_heapOf[slot] = heap;
+    m_heapIndex[slot] = index;
+  }
+
+  private void swap(byte heap, int[] array, int i, int j) {
+    int slot = array[i];
+    set(heap, array, i, array[j]);
+    set(heap, array, j, slot);
+  }
+}
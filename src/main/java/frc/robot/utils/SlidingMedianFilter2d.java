@@ -0,0 +1,104 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+/**
+ * Sliding window median filter for 2D vectors, such as planar velocity
+ */
+public class SlidingMedianFilter2d {
+  public enum Mode {
+    /** Filter each axis separately, magnitude is calculated from filtered axes */
+    INDEPENDENT,
+    /** Filter vector magnitude only, direction follows latest sample */
+    MAGNITUDE;
+  }
+
+  private final Mode m_mode;
+  private final SlidingMedianFilter m_xFilter;
+  private final SlidingMedianFilter m_yFilter;
+  private final SlidingMedianFilter m_magnitudeFilter;
+
+  private double m_x;
+  private double m_y;
+  private double m_magnitude;
+
+  /**
+   * Create 2D sliding median filter
+   * @param size Number of samples in window
+   * @param mode Filter mode
+   */
+  public SlidingMedianFilter2d(int size, Mode mode) {
+    this.m_mode = mode;
+    this.m_xFilter = (mode == Mode.INDEPENDENT) ? new SlidingMedianFilter(size) : null;
+    this.m_yFilter = (mode == Mode.INDEPENDENT) ? new SlidingMedianFilter(size) : null;
+    this.m_magnitudeFilter = (mode == Mode.MAGNITUDE) ? new SlidingMedianFilter(size) : null;
+  }
+
+  /**
+   * Add sample to filter
+   * @param x X component
+   * @param y Y component
+   */
+  public void calculate(double x, double y) {
+    switch (m_mode) {
+      case INDEPENDENT:
+        m_x = m_xFilter.calculate(x);
+        m_y = m_yFilter.calculate(y);
+        m_magnitude = Math.hypot(m_x, m_y);
+        break;
+      case MAGNITUDE:
+        double magnitude = Math.hypot(x, y);
+        m_magnitude = m_magnitudeFilter.calculate(magnitude);
+        double scale = (magnitude > 0.0) ? m_magnitude / magnitude : 0.0;
+        m_x = x * scale;
+        m_y = y * scale;
+        break;
+    }
+  }
+
+  /**
+   * Get filtered X component
+   * @return Filtered X
+   */
+  public double getX() {
+    return m_x;
+  }
+
+  /**
+   * Get filtered Y component
+   * @return Filtered Y
+   */
+  public double getY() {
+    return m_y;
+  }
+
+  /**
+   * Get filtered magnitude
+   * @return Filtered magnitude
+   */
+  public double getMagnitude() {
+    return m_magnitude;
+  }
+
+  /**
+   * Get filter mode
+   * @return Filter mode
+   */
+  public Mode getMode() {
+    return m_mode;
+  }
+
+  /**
+   * Reset filter
+   */
+  public void reset() {
+    if (m_xFilter != null) m_xFilter.reset();
+    if (m_yFilter != null) m_yFilter.reset();
+    if (m_magnitudeFilter != null) m_magnitudeFilter.reset();
+    m_x = 0.0;
+    m_y = 0.0;
+    m_magnitude = 0.0;
+  }
+}
@@ -0,0 +1,345 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.lasarobotics.hardware.PurpleManager;
+import org.lasarobotics.utils.GlobalConstants;
+
+import com.pathplanner.lib.pathfinding.Pathfinding;
+import com.pathplanner.lib.util.PathPlannerLogging;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.subsystems.drive.DriveSimulator;
+import frc.robot.subsystems.drive.DriveSubsystem;
+
+/**
+ * Headless autonomous simulation harness
+ * <p>
+ * Boots {@link RobotContainer} in simulation, selects an auto from the auto mode chooser, then steps
+ * the command scheduler and drivetrain simulator with simulated time paused between loops, so autos
+ * run as fast as the CPU allows. Measures auto completion time, path tracking error of the true
+ * robot pose against the PathPlanner target pose, loop execution time and allocation rate.
+ * <p>
+ * Simulated time is paused before robot code boots, so subsystems run cameras and tip detection
+ * within the loop rather than on background threads, keeping runs deterministic.
+ * <p>
+ * Robot code is built on static state, so there is only one harness per JVM.
+ */
+public class AutoSimulation {
+  private static final double AUTO_TIMEOUT = 15.0;
+  private static final String SELECTED_KEY = "selected";
+  private static final String OPTIONS_KEY = "options";
+
+  private static AutoSimulation m_instance;
+
+  private final RobotContainer m_robotContainer;
+  private final DriveSubsystem m_driveSubsystem;
+  private final StringPublisher m_autoModePublisher;
+  private final com.sun.management.ThreadMXBean m_threadBean;
+  private final long[] m_loopTimes;
+
+  private Pose2d m_targetPose;
+
+  /** Autonomous simulation result */
+  public static class Result {
+    public final String autoName;
+    public final boolean completed;
+    public final double completionTime;
+    public final int loops;
+    public final double trackingErrorRms;
+    public final double trackingErrorMax;
+    public final double estimationErrorMax;
+    public final double loopTimeMean;
+    public final double loopTimeMedian;
+    public final double loopTimeP99;
+    public final double loopTimeMax;
+    public final int loopOverruns;
+    public final double allocatedBytesPerLoop;
+    public final double allocationRate;
+
+    /**
+     * Create autonomous simulation result
+     * @param autoName Name of auto in chooser
+     * @param completed True if auto finished before timeout
+     * @param completionTime Simulated time taken by auto in seconds
+     * @param loops Number of robot loops simulated
+     * @param trackingErrorRms RMS distance between true pose and path target pose in meters
+     * @param trackingErrorMax Max distance between true pose and path target pose in meters
+     * @param estimationErrorMax Max distance between estimated pose and true pose in meters
+     * @param loopTimeMean Mean loop execution time in milliseconds
+     * @param loopTimeMedian Median loop execution time in milliseconds
+     * @param loopTimeP99 99th percentile loop execution time in milliseconds
+     * @param loopTimeMax Max loop execution time in milliseconds
+     * @param loopOverruns Number of loops exceeding robot loop period
+     * @param allocatedBytesPerLoop Mean bytes allocated on robot thread per loop
+     * @param allocationRate Bytes allocated on robot thread per second of robot time
+     */
+    public Result(String autoName, boolean completed, double completionTime, int loops,
+                  double trackingErrorRms, double trackingErrorMax, double estimationErrorMax,
+                  double loopTimeMean, double loopTimeMedian, double loopTimeP99, double loopTimeMax, int loopOverruns,
+                  double allocatedBytesPerLoop, double allocationRate) {
+      this.autoName = autoName;
+      this.completed = completed;
+      this.completionTime = completionTime;
+      this.loops = loops;
+      this.trackingErrorRms = trackingErrorRms;
+      this.trackingErrorMax = trackingErrorMax;
+      this.estimationErrorMax = estimationErrorMax;
+      this.loopTimeMean = loopTimeMean;
+      this.loopTimeMedian = loopTimeMedian;
+      this.loopTimeP99 = loopTimeP99;
+      this.loopTimeMax = loopTimeMax;
+      this.loopOverruns = loopOverruns;
+      this.allocatedBytesPerLoop = allocatedBytesPerLoop;
+      this.allocationRate = allocationRate;
+    }
+
+    /**
+     * Format result as JSON object
+     * @return JSON string
+     */
+    public String toJson() {
+      return String.format(
+        Locale.ROOT,
+        "{\n" +
+        "  \"auto\": \"%s\",\n" +
+        "  \"completed\": %b,\n" +
+        "  \"completionTime\": %.3f,\n" +
+        "  \"loops\": %d,\n" +
+        "  \"trackingErrorRms\": %.4f,\n" +
+        "  \"trackingErrorMax\": %.4f,\n" +
+        "  \"estimationErrorMax\": %.4f,\n" +
+        "  \"loopTimeMeanMs\": %.4f,\n" +
+        "  \"loopTimeMedianMs\": %.4f,\n" +
+        "  \"loopTimeP99Ms\": %.4f,\n" +
+        "  \"loopTimeMaxMs\": %.4f,\n" +
+        "  \"loopOverruns\": %d,\n" +
+        "  \"allocatedBytesPerLoop\": %.1f,\n" +
+        "  \"allocationRateBytesPerSecond\": %.1f\n" +
+        "}\n",
+        autoName.replace("\"", "\\\""), completed, completionTime, loops,
+        trackingErrorRms, trackingErrorMax, estimationErrorMax,
+        loopTimeMean, loopTimeMedian, loopTimeP99, loopTimeMax, loopOverruns,
+        allocatedBytesPerLoop, allocationRate
+      );
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+        Locale.ROOT,
+        "%s: %s in %.2f s, tracking error %.3f m RMS / %.3f m max, loop %.3f ms mean / %.3f ms p99, %.0f B/loop",
+        autoName, completed ? "completed" : "timed out", completionTime, trackingErrorRms, trackingErrorMax,
+        loopTimeMean, loopTimeP99, allocatedBytesPerLoop
+      );
+    }
+  }
+
+  /**
+   * Create autonomous simulation harness, booting robot code
+   */
+  private AutoSimulation() {
+    // Initialize HAL and driver station as blue alliance, disabled
+    HAL.initialize(500, 0);
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+    DriverStationSim.setEnabled(false);
+    DriverStationSim.notifyNewData();
+
+    // Freeze simulated time, it is only advanced by stepping loops
+    SimHooks.pauseTiming();
+
+    // Boot robot code as Robot does
+    Pathfinding.setPathfinder(new LocalADStarAK());
+    m_robotContainer = new RobotContainer();
+    m_driveSubsystem = m_robotContainer.getDriveSubsystem();
+    SmartDashboard.updateValues();
+
+    // Select autos through NetworkTables, as the dashboard does
+    m_autoModePublisher = NetworkTableInstance.getDefault()
+      .getTable(Constants.SmartDashboard.SMARTDASHBOARD_DEFAULT_TAB)
+      .getSubTable(Constants.SmartDashboard.SMARTDASHBOARD_AUTO_MODE)
+      .getStringTopic(SELECTED_KEY)
+      .publish();
+
+    // Track path target pose
+    PathPlannerLogging.setLogTargetPoseCallback((pose) -> m_targetPose = pose);
+
+    // Measure allocations of robot thread
+    m_threadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    m_threadBean.setThreadAllocatedMemoryEnabled(true);
+
+    m_loopTimes = new long[(int)Math.ceil(AUTO_TIMEOUT / GlobalConstants.ROBOT_LOOP_PERIOD)];
+  }
+
+  /**
+   * Get instance of autonomous simulation harness, booting robot code if nonexistent
+   * @return Instance of autonomous simulation harness
+   */
+  public static synchronized AutoSimulation getInstance() {
+    if (m_instance == null) m_instance = new AutoSimulation();
+    return m_instance;
+  }
+
+  /**
+   * Get names of autos available in chooser
+   * @return Array of auto names
+   */
+  public String[] getAutoNames() {
+    return NetworkTableInstance.getDefault()
+      .getTable(Constants.SmartDashboard.SMARTDASHBOARD_DEFAULT_TAB)
+      .getSubTable(Constants.SmartDashboard.SMARTDASHBOARD_AUTO_MODE)
+      .getEntry(OPTIONS_KEY)
+      .getStringArray(new String[0]);
+  }
+
+  /**
+   * Run one robot loop, as the robot's periodic loop does
+   */
+  private void step() {
+    DriverStation.refreshData();
+    PurpleManager.update();
+    CommandScheduler.getInstance().run();
+    m_robotContainer.simulationPeriodic();
+    SmartDashboard.updateValues();
+    SimHooks.stepTiming(GlobalConstants.ROBOT_LOOP_PERIOD);
+  }
+
+  /**
+   * Set driver station mode
+   * @param enabled True to enable robot in autonomous mode
+   */
+  private void setEnabled(boolean enabled) {
+    DriverStationSim.setAutonomous(enabled);
+    DriverStationSim.setEnabled(enabled);
+    DriverStationSim.notifyNewData();
+  }
+
+  /**
+   * Select auto from chooser and run it to completion or timeout
+   * @param autoName Name of auto in chooser
+   * @return Result of simulation
+   */
+  public synchronized Result run(String autoName) {
+    if (!Arrays.asList(getAutoNames()).contains(autoName))
+      throw new IllegalArgumentException("No auto named \"" + autoName + "\" in chooser");
+
+    // Start from disabled with nothing running
+    CommandScheduler.getInstance().cancelAll();
+    setEnabled(false);
+    step();
+
+    // Select auto and let chooser pick it up
+    m_autoModePublisher.set(autoName);
+    SmartDashboard.updateValues();
+    Command autonomousCommand = m_robotContainer.getAutonomousCommand();
+
+    // Enable and schedule auto, as autonomousInit does
+    setEnabled(true);
+    m_targetPose = null;
+    autonomousCommand.schedule();
+
+    DriveSimulator simulator = m_driveSubsystem.getSimulator();
+    long threadId = Thread.currentThread().getId();
+    long startAllocatedBytes = m_threadBean.getThreadAllocatedBytes(threadId);
+    double trackingErrorSumSquares = 0.0, trackingErrorMax = 0.0, estimationErrorMax = 0.0;
+    int trackingSamples = 0, loops = 0;
+
+    while (autonomousCommand.isScheduled() && loops < m_loopTimes.length) {
+      long startTime = System.nanoTime();
+      step();
+      m_loopTimes[loops++] = System.nanoTime() - startTime;
+
+      // Compare true pose against path target and pose estimate
+      double trueX = simulator != null ? simulator.getX() : m_driveSubsystem.getPose().getX();
+      double trueY = simulator != null ? simulator.getY() : m_driveSubsystem.getPose().getY();
+      if (m_targetPose != null) {
+        double trackingError = Math.hypot(m_targetPose.getX() - trueX, m_targetPose.getY() - trueY);
+        trackingErrorSumSquares += trackingError * trackingError;
+        trackingErrorMax = Math.max(trackingErrorMax, trackingError);
+        trackingSamples++;
+      }
+      Pose2d estimatedPose = m_driveSubsystem.getPose();
+      estimationErrorMax = Math.max(estimationErrorMax, Math.hypot(estimatedPose.getX() - trueX, estimatedPose.getY() - trueY));
+    }
+    long allocatedBytes = m_threadBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+    boolean completed = !autonomousCommand.isScheduled();
+
+    // Stop robot
+    CommandScheduler.getInstance().cancelAll();
+    setEnabled(false);
+    step();
+
+    // Summarize loop timing
+    long[] loopTimes = Arrays.copyOf(m_loopTimes, loops);
+    Arrays.sort(loopTimes);
+    double loopTimeSum = 0.0;
+    int loopOverruns = 0;
+    for (long loopTime : loopTimes) {
+      loopTimeSum += loopTime;
+      if (loopTime > GlobalConstants.ROBOT_LOOP_PERIOD * 1e9) loopOverruns++;
+    }
+    int count = Math.max(loops, 1);
+
+    return new Result(
+      autoName,
+      completed,
+      loops * GlobalConstants.ROBOT_LOOP_PERIOD,
+      loops,
+      trackingSamples > 0 ? Math.sqrt(trackingErrorSumSquares / trackingSamples) : 0.0,
+      trackingErrorMax,
+      estimationErrorMax,
+      loopTimeSum / count / 1e6,
+      percentile(loopTimes, 0.50) / 1e6,
+      percentile(loopTimes, 0.99) / 1e6,
+      percentile(loopTimes, 1.00) / 1e6,
+      loopOverruns,
+      (double)allocatedBytes / count,
+      allocatedBytes / (count * GlobalConstants.ROBOT_LOOP_PERIOD)
+    );
+  }
+
+  /**
+   * Get percentile of sorted samples
+   * @param sorted Sorted samples
+   * @param percentile Percentile [0.0, 1.0]
+   * @return Sample at percentile, or 0 if empty
+   */
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) return 0.0;
+    int index = (int)Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(Math.min(index, sorted.length - 1), 0)];
+  }
+
+  /**
+   * Write result as JSON report
+   * @param result Result to write
+   * @param directory Report directory
+   * @return Path of written report
+   * @throws IOException If report could not be written
+   */
+  public static Path writeReport(Result result, Path directory) throws IOException {
+    Files.createDirectories(directory);
+    Path report = directory.resolve(result.autoName.replaceAll("[^A-Za-z0-9]+", "_") + ".json");
+    Files.writeString(report, result.toJson());
+    return report;
+  }
+}
@@ -0,0 +1,75 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.lasarobotics.utils.GlobalConstants;
+
+/**
+ * Run with ./gradlew simulateAutos, reports are written to build/reports/autosim
+ */
+@Tag("autoSimulation")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AutoSimulationTest {
+  private static final double MAX_AUTO_TIME = 15.0;
+  private static final double MAX_TRACKING_ERROR = 0.5;
+  private static final Path REPORT_DIRECTORY = Path.of(System.getProperty("autosim.reportDir", "build/reports/autosim"));
+
+  private static AutoSimulation m_autoSimulation;
+
+  @BeforeAll
+  public static void setup() {
+    m_autoSimulation = AutoSimulation.getInstance();
+  }
+
+  /**
+   * Run auto, write its report and check it against limits
+   * @param autoName Name of auto in chooser
+   */
+  private void runAuto(String autoName) throws IOException {
+    var result = m_autoSimulation.run(autoName);
+    AutoSimulation.writeReport(result, REPORT_DIRECTORY);
+
+    assertTrue(result.completed, autoName + " did not complete");
+    assertTrue(result.completionTime < MAX_AUTO_TIME, autoName + " took " + result.completionTime + " s");
+    assertTrue(result.trackingErrorMax < MAX_TRACKING_ERROR, autoName + " tracking error " + result.trackingErrorMax + " m");
+    assertTrue(
+      result.loopTimeMedian < GlobalConstants.ROBOT_LOOP_PERIOD * 1e3,
+      autoName + " median loop time " + result.loopTimeMedian + " ms"
+    );
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if Leave auto completes on path")
+  public void leave() throws IOException {
+    runAuto("Leave");
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if Preload + 1 auto completes on path")
+  public void preloadOne() throws IOException {
+    runAuto("Preload + 1");
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if Preload + 3 Ring auto completes on path")
+  public void preloadThree() throws IOException {
+    runAuto("Preload + 3 Ring");
+  }
+}
@@ -5,6 +5,8 @@
 package frc.robot.commands;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -35,13 +37,18 @@ import edu.wpi.first.hal.HAL;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.robot.Constants;
 import frc.robot.subsystems.drive.DriveSubsystem;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class AntiTipCommandTest {
   private final double DELTA = 5e-3;
+  private final double TIP_ANGLE = 35.0;
+  private final int MAX_LOOPS = 50;
   private DriveSubsystem m_driveSubsystem;
   private DriveSubsystem.Hardware m_drivetrainHardware;
   private Command m_antiTipCommand;
@@ -166,6 +173,10 @@ public class AntiTipCommandTest {
 
   @AfterEach
   public void close() {
+    CommandScheduler.getInstance().cancelAll();
+    DriverStationSim.setEnabled(false);
+    DriverStationSim.notifyNewData();
+    SimHooks.resumeTiming();
     m_driveSubsystem.close();
     m_driveSubsystem = null;
     m_antiTipCommand = null;
@@ -184,6 +195,22 @@ public class AntiTipCommandTest {
     return sparkInputs;
   }
 
+  /**
+   * Feed roll changing at constant rate to drive subsystem, one update per robot loop
+   * @param inputs NavX inputs returned by mock
+   * @param roll Start roll in degrees
+   * @param rollRate Roll rate in degrees per second
+   * @param count Number of robot loops
+   */
+  private void rampRoll(NavX2InputsAutoLogged inputs, double roll, double rollRate, int count) {
+    SimHooks.pauseTiming();
+    for (int i = 0; i < count; i++) {
+      inputs.rollAngle = Units.Degrees.of(roll + rollRate * GlobalConstants.ROBOT_LOOP_PERIOD * i);
+      m_driveSubsystem.periodic();
+      SimHooks.stepTiming(GlobalConstants.ROBOT_LOOP_PERIOD);
+    }
+  }
+
   @Test
   @Order(1)
   @DisplayName("Test if robot can execute anti-tip")
@@ -199,7 +226,8 @@ public class AntiTipCommandTest {
 
     when(m_navx.getInputs()).thenReturn(inputs);
 
-    // Try to execute anti-tip command
+    // Update tip prediction, then try to execute anti-tip command, as scheduler does
+    m_driveSubsystem.periodic();
     m_antiTipCommand.execute();
 
     // Verify motors are being driven with expected values
@@ -256,4 +284,100 @@ public class AntiTipCommandTest {
     verify(m_rRearDriveMotor, times(1)).stopMotor();
     verify(m_rRearRotateMotor, times(1)).stopMotor();
   }
-}
\ No newline at end of file
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if robot predicts tip from roll rate before reaching tip angle")
+  public void predictTip() {
+    NavX2InputsAutoLogged inputs = new NavX2InputsAutoLogged();
+    when(m_navx.getInputs()).thenReturn(inputs);
+
+    // Roll rising at 100 deg/s, up to 24 deg
+    rampRoll(inputs, 0.0, 100.0, 13);
+
+    // Assert tipping is predicted while still below tip angle
+    assertTrue(inputs.rollAngle.in(Units.Degrees) < TIP_ANGLE);
+    assertTrue(m_driveSubsystem.isTipping());
+    assertEquals(1, m_driveSubsystem.getTipPredictor().getDetectionCount());
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if counter-drive is scaled by predicted time to tip")
+  public void scaledCounterDrive() {
+    NavX2InputsAutoLogged inputs = new NavX2InputsAutoLogged();
+    when(m_navx.getInputs()).thenReturn(inputs);
+
+    when(m_lFrontRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_PI.div(2), MAXSwerveModule.ModuleLocation.LeftFront));
+    when(m_rFrontRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_PI.div(2), MAXSwerveModule.ModuleLocation.RightFront));
+    when(m_lRearRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_PI.div(2), MAXSwerveModule.ModuleLocation.LeftRear));
+    when(m_rRearRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_PI.div(2), MAXSwerveModule.ModuleLocation.RightRear));
+
+    // Roll rising at 100 deg/s, up to 24 deg
+    rampRoll(inputs, 0.0, 100.0, 13);
+
+    // Try to execute anti-tip command
+    m_antiTipCommand.execute();
+
+    // Assert tip is predicted within horizon, but not yet at tip angle
+    double severity = m_driveSubsystem.getTipPredictor().getSeverity();
+    assertTrue(severity > 0.0 && severity < 1.0);
+
+    // Verify modules drive towards roll at anti-tip speed scaled by severity
+    double speed = severity * m_driveSubsystem.DRIVE_MAX_LINEAR_SPEED.in(Units.MetersPerSecond) / 4;
+    verify(m_lFrontDriveMotor, times(1)).set(AdditionalMatchers.eq(-speed, DELTA), ArgumentMatchers.eq(ControlType.kVelocity));
+    verify(m_rFrontDriveMotor, times(1)).set(AdditionalMatchers.eq(+speed, DELTA), ArgumentMatchers.eq(ControlType.kVelocity));
+    verify(m_lRearDriveMotor, times(1)).set(AdditionalMatchers.eq(+speed, DELTA), ArgumentMatchers.eq(ControlType.kVelocity));
+    verify(m_rRearDriveMotor, times(1)).set(AdditionalMatchers.eq(-speed, DELTA), ArgumentMatchers.eq(ControlType.kVelocity));
+  }
+
+  @Test
+  @Order(6)
+  @DisplayName("Test if steady lean does not trigger anti-tip")
+  public void steadyLean() {
+    NavX2InputsAutoLogged inputs = new NavX2InputsAutoLogged();
+    when(m_navx.getInputs()).thenReturn(inputs);
+
+    // Slowly roll up to 20 deg, then hold
+    rampRoll(inputs, 0.0, 20.0, 51);
+    rampRoll(inputs, 20.0, 0.0, 25);
+
+    // Assert no tip predicted or detected
+    assertFalse(m_driveSubsystem.isTipping());
+    assertEquals(0, m_driveSubsystem.getTipPredictor().getDetectionCount());
+  }
+
+  @Test
+  @Order(7)
+  @DisplayName("Test if anti-tip is scheduled in the same loop that tipping is predicted")
+  public void triggerLatency() {
+    NavX2InputsAutoLogged inputs = new NavX2InputsAutoLogged();
+    when(m_navx.getInputs()).thenReturn(inputs);
+
+    // Enable robot, so that scheduler runs commands
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+
+    // Roll rising at 100 deg/s, running scheduler once per robot loop until anti-tip is scheduled
+    SimHooks.pauseTiming();
+    double predictedTime = Double.NaN;
+    double scheduledTime = Double.NaN;
+    for (int i = 0; i < MAX_LOOPS; i++) {
+      inputs.rollAngle = Units.Degrees.of(100.0 * GlobalConstants.ROBOT_LOOP_PERIOD * i);
+      CommandScheduler.getInstance().run();
+
+      double now = Timer.getFPGATimestamp();
+      if (Double.isNaN(predictedTime) && m_driveSubsystem.isTipping()) predictedTime = now;
+      if (m_antiTipCommand.isScheduled()) {
+        scheduledTime = now;
+        break;
+      }
+      SimHooks.stepTiming(GlobalConstants.ROBOT_LOOP_PERIOD);
+    }
+
+    // Assert anti-tip engaged before tip angle, with no latency added after prediction
+    assertTrue(m_antiTipCommand.isScheduled());
+    assertTrue(inputs.rollAngle.in(Units.Degrees) < TIP_ANGLE);
+    assertEquals(predictedTime, scheduledTime, 0.0);
+  }
+}
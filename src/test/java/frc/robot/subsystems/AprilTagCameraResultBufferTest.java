@@ -0,0 +1,118 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import frc.robot.subsystems.vision.AprilTagCamera.AprilTagCameraResult;
+import frc.robot.subsystems.vision.AprilTagCameraResultBuffer;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AprilTagCameraResultBufferTest {
+  private final int DEPTH = 4;
+  private final String CAMERA_NAME = "Camera";
+
+  private AprilTagCameraResultBuffer m_buffer;
+  private ArrayList<AprilTagCameraResult> m_results;
+
+  @BeforeEach
+  public void setup() {
+    m_buffer = new AprilTagCameraResultBuffer(DEPTH);
+    m_results = new ArrayList<>();
+  }
+
+  /**
+   * Create camera result
+   * @return Camera result, compared by identity
+   */
+  private AprilTagCameraResult createResult() {
+    return new AprilTagCameraResult(CAMERA_NAME, null, null);
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if every result is drained once, in order")
+  public void drainInOrder() {
+    var first = createResult();
+    var second = createResult();
+    assertTrue(m_buffer.offer(first));
+    assertTrue(m_buffer.offer(second));
+    assertEquals(2, m_buffer.size());
+
+    assertEquals(2, m_buffer.drainTo(m_results));
+    assertSame(first, m_results.get(0));
+    assertSame(second, m_results.get(1));
+
+    // Nothing is returned twice
+    assertEquals(0, m_buffer.drainTo(m_results));
+    assertEquals(2, m_results.size());
+    assertEquals(0, m_buffer.size());
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if results are dropped and counted when full")
+  public void overflow() {
+    var results = new AprilTagCameraResult[DEPTH];
+    for (int i = 0; i < DEPTH; i++) {
+      results[i] = createResult();
+      assertTrue(m_buffer.offer(results[i]));
+    }
+    assertFalse(m_buffer.offer(createResult()));
+    assertFalse(m_buffer.offer(createResult()));
+    assertEquals(2, m_buffer.getOverflowCount());
+
+    // Oldest results are kept, space is available again once drained
+    assertEquals(DEPTH, m_buffer.drainTo(m_results));
+    for (int i = 0; i < DEPTH; i++) assertSame(results[i], m_results.get(i));
+    assertTrue(m_buffer.offer(createResult()));
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if depth is rounded up to a power of two")
+  public void capacity() {
+    assertEquals(8, new AprilTagCameraResultBuffer(5).getCapacity());
+    assertEquals(DEPTH, m_buffer.getCapacity());
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if results offered on another thread are delivered exactly once")
+  public void concurrentProducer() throws InterruptedException {
+    int count = 10000;
+    var offered = new AprilTagCameraResult[count];
+    for (int i = 0; i < count; i++) offered[i] = createResult();
+
+    // Producer retries when full, so nothing should be lost
+    var producer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        while (!m_buffer.offer(offered[i])) Thread.yield();
+      }
+    });
+    producer.start();
+
+    while (m_results.size() < count) {
+      if (m_buffer.drainTo(m_results) == 0) Thread.yield();
+    }
+    producer.join();
+
+    assertEquals(count, m_results.size());
+    for (int i = 0; i < count; i++) assertSame(offered[i], m_results.get(i));
+    assertEquals(0, m_buffer.drainTo(m_results));
+  }
+}
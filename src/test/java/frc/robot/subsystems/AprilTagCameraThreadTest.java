@@ -0,0 +1,94 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.RawPublisher;
+import frc.robot.subsystems.vision.AprilTagCamera;
+import frc.robot.subsystems.vision.AprilTagCameraThread;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AprilTagCameraThreadTest {
+  private final String CAMERA_NAME = "TestCamera";
+  private final String RESULT_TOPIC = "/photonvision/" + CAMERA_NAME + "/rawBytes";
+  private final double LONG_IDLE_PERIOD = 60.0;
+  private final double SHORT_IDLE_PERIOD = 0.01;
+  private final long VERIFY_TIMEOUT_MILLIS = 1000;
+
+  private NetworkTableInstance m_instance;
+  private RawPublisher m_publisher;
+  private AprilTagCamera m_camera;
+  private AprilTagCameraThread m_cameraThread;
+
+  @BeforeEach
+  public void setup() {
+    m_instance = NetworkTableInstance.create();
+    m_publisher = m_instance.getRawTopic(RESULT_TOPIC).publish("rawBytes");
+    m_camera = mock(AprilTagCamera.class);
+    when(m_camera.getName()).thenReturn(CAMERA_NAME);
+  }
+
+  @AfterEach
+  public void close() {
+    if (m_cameraThread != null) m_cameraThread.close();
+    m_publisher.close();
+    m_instance.close();
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if camera is run when new result is published")
+  public void wakeOnResult() {
+    m_cameraThread = new AprilTagCameraThread(m_camera, m_instance, LONG_IDLE_PERIOD);
+    m_cameraThread.start();
+    verify(m_camera, after(100).never()).run();
+
+    m_publisher.set(new byte[] { 1 });
+    verify(m_camera, timeout(VERIFY_TIMEOUT_MILLIS).atLeastOnce()).run();
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if camera is still run when no result arrives")
+  public void idle() {
+    m_cameraThread = new AprilTagCameraThread(m_camera, m_instance, SHORT_IDLE_PERIOD);
+    m_cameraThread.start();
+
+    verify(m_camera, timeout(VERIFY_TIMEOUT_MILLIS).atLeast(2)).run();
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if camera is no longer run once thread is closed")
+  public void stop() {
+    m_cameraThread = new AprilTagCameraThread(m_camera, m_instance, SHORT_IDLE_PERIOD);
+    m_cameraThread.start();
+    assertTrue(m_cameraThread.isRunning());
+    verify(m_camera, timeout(VERIFY_TIMEOUT_MILLIS).atLeastOnce()).run();
+
+    m_cameraThread.close();
+    assertFalse(m_cameraThread.isRunning());
+    clearInvocations(m_camera);
+    m_publisher.set(new byte[] { 2 });
+    verify(m_camera, after(100).never()).run();
+  }
+}
@@ -0,0 +1,167 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.subsystems.drive.DriveSimulator;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class DriveSimulatorTest {
+  private final double DELTA = 1e-3;
+  private final double DT = 0.02;
+  private final double MAX_LINEAR_SPEED = 4.8;
+  private final double CURRENT_LIMIT = 60.0;
+  private final double GYRO_DRIFT_RATE = Math.toRadians(0.01);
+  private final double HALF_WHEELBASE = 0.2794;
+
+  private DriveSimulator createSimulator(long seed) {
+    return new DriveSimulator(
+      seed,
+      MAX_LINEAR_SPEED,
+      CURRENT_LIMIT,
+      GYRO_DRIFT_RATE,
+      new Translation2d(+HALF_WHEELBASE, +HALF_WHEELBASE),
+      new Translation2d(+HALF_WHEELBASE, -HALF_WHEELBASE),
+      new Translation2d(-HALF_WHEELBASE, +HALF_WHEELBASE),
+      new Translation2d(-HALF_WHEELBASE, -HALF_WHEELBASE)
+    );
+  }
+
+  private SwerveModuleState[] createStates(double speed, double angle) {
+    return new SwerveModuleState[] {
+      new SwerveModuleState(speed, Rotation2d.fromRadians(angle)),
+      new SwerveModuleState(speed, Rotation2d.fromRadians(angle)),
+      new SwerveModuleState(speed, Rotation2d.fromRadians(angle)),
+      new SwerveModuleState(speed, Rotation2d.fromRadians(angle))
+    };
+  }
+
+  private SwerveModuleState[] createRotateStates(double speed) {
+    return new SwerveModuleState[] {
+      new SwerveModuleState(speed, Rotation2d.fromDegrees(+135.0)),
+      new SwerveModuleState(speed, Rotation2d.fromDegrees(+45.0)),
+      new SwerveModuleState(speed, Rotation2d.fromDegrees(-135.0)),
+      new SwerveModuleState(speed, Rotation2d.fromDegrees(-45.0))
+    };
+  }
+
+  private void run(DriveSimulator simulator, double time) {
+    int steps = (int)Math.round(time / DT);
+    for (int i = 0; i < steps; i++) simulator.update(DT);
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if simulation is repeatable with same seed")
+  public void deterministic() {
+    var simulatorA = createSimulator(42L);
+    var simulatorB = createSimulator(42L);
+
+    for (int i = 0; i < 100; i++) {
+      var states = createStates(3.0, i * 0.02);
+      simulatorA.setInputs(states);
+      simulatorB.setInputs(states);
+      simulatorA.update(DT);
+      simulatorB.update(DT);
+    }
+
+    assertEquals(simulatorA.getX(), simulatorB.getX(), 0.0);
+    assertEquals(simulatorA.getY(), simulatorB.getY(), 0.0);
+    assertEquals(simulatorA.getGyroYaw(), simulatorB.getGyroYaw(), 0.0);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(
+        simulatorA.getModuleStates()[i].speedMetersPerSecond,
+        simulatorB.getModuleStates()[i].speedMetersPerSecond,
+        0.0
+      );
+    }
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if robot reaches commanded speed")
+  public void forward() {
+    var simulator = createSimulator(0L);
+
+    simulator.setInputs(createStates(4.0, 0.0));
+    run(simulator, 2.0);
+
+    assertEquals(4.0, simulator.getVelocityX(), 0.05);
+    assertEquals(0.0, simulator.getVelocityY(), DELTA);
+    assertEquals(0.0, simulator.getY(), DELTA);
+    assertTrue(simulator.getX() > 5.0);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if acceleration is limited by traction")
+  public void tractionLimit() {
+    var simulator = createSimulator(0L);
+
+    simulator.setInputs(createStates(MAX_LINEAR_SPEED, 0.0));
+    simulator.update(DT);
+
+    // Friction coefficient of carpet bounds acceleration to about 1.1 g
+    assertTrue(simulator.getVelocityX() > 0.0);
+    assertTrue(simulator.getVelocityX() <= 1.1 * 9.81 * DT + DELTA);
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if rotating in place does not translate robot")
+  public void rotateInPlace() {
+    var simulator = createSimulator(0L);
+
+    simulator.setInputs(createRotateStates(3.0));
+    run(simulator, 1.0);
+
+    assertTrue(simulator.getYawRate() > 5.0);
+    assertEquals(0.0, simulator.getX(), 0.01);
+    assertEquals(0.0, simulator.getY(), 0.01);
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if robot comes to rest when stopped")
+  public void stop() {
+    var simulator = createSimulator(0L);
+
+    simulator.setInputs(createStates(4.0, 0.0));
+    run(simulator, 2.0);
+    simulator.stop();
+    run(simulator, 1.0);
+
+    assertEquals(0.0, simulator.getVelocityX(), 0.01);
+    assertEquals(0.0, simulator.getVelocityY(), 0.01);
+    for (int i = 0; i < 4; i++) assertEquals(0.0, simulator.getWheelSpeed(i), 0.01);
+  }
+
+  @Test
+  @Order(6)
+  @DisplayName("Test if placing robot elsewhere does not change gyro yaw")
+  public void resetPose() {
+    var simulator = createSimulator(0L);
+    run(simulator, 1.0);
+    double gyroYaw = simulator.getGyroYaw();
+
+    simulator.resetPose(2.0, 3.0, Math.PI / 2);
+
+    assertEquals(2.0, simulator.getX(), 0.0);
+    assertEquals(3.0, simulator.getY(), 0.0);
+    assertEquals(Math.PI / 2, simulator.getHeading(), 0.0);
+    assertEquals(gyroYaw, simulator.getGyroYaw(), 1e-9);
+  }
+}
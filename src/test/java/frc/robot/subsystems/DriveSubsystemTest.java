@@ -4,11 +4,16 @@
 
 package frc.robot.subsystems;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.management.ManagementFactory;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -34,14 +39,23 @@ import edu.wpi.first.hal.HAL;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants;
 import frc.robot.subsystems.drive.DriveSubsystem;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class DriveSubsystemTest {
   private final double DELTA = 5e-3;
+  private final int MODULE_COUNT = 4;
+  private final long ROTATION2D_BYTES = 48;
+  private final int ALLOCATION_WARMUP_CYCLES = 3_000;
+  private final int ALLOCATION_CYCLES = 500;
+  private final double ALLOCATION_INPUT_STEP = 1e-2;
+  private final double[] m_teleopRequest = new double[2];
+  private final ChassisSpeeds m_autoSpeeds = new ChassisSpeeds();
   private DriveSubsystem driveSubsystem;
 
     private NavX2 m_navx;
@@ -156,8 +170,9 @@ public class DriveSubsystemTest {
       Constants.Drive.DRIVE_LOOKAHEAD
     );
 
-    // Disable traction control for unit tests
+    // Disable traction control and setpoint generator for unit tests
     driveSubsystem.disableTractionControlCommand().initialize();
+    driveSubsystem.disableSetpointGeneratorCommand().initialize();
   }
 
   @AfterEach
@@ -501,4 +516,98 @@ public class DriveSubsystemTest {
     verify(m_rRearDriveMotor, times(1)).set(AdditionalMatchers.lt(0.0), ArgumentMatchers.eq(ControlType.kVelocity));
     verify(m_rRearRotateMotor, times(1)).set(AdditionalMatchers.eq(+Math.PI / 4, DELTA), ArgumentMatchers.eq(ControlType.kPosition));
   }
-}
\ No newline at end of file
+
+  @Test
+  @Order(14)
+  @DisplayName("Test if setpoint generator limits module acceleration")
+  public void setpointGenerator() {
+    // Hardcode sensor values
+    when(m_lFrontRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_ZERO, MAXSwerveModule.ModuleLocation.LeftFront));
+    when(m_rFrontRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_ZERO, MAXSwerveModule.ModuleLocation.RightFront));
+    when(m_lRearRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_ZERO, MAXSwerveModule.ModuleLocation.LeftRear));
+    when(m_rRearRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_ZERO, MAXSwerveModule.ModuleLocation.RightRear));
+
+    // Try to drive forward at full speed from rest
+    driveSubsystem.enableSetpointGeneratorCommand().initialize();
+    driveSubsystem.driveCommand(() -> +1.0, () -> 0.0, () -> 0.0).execute();
+
+    // Verify that drive motors only accelerate by one loop's worth
+    double maxSpeedStep = DriveSubsystem.MODULE_MAX_DRIVE_ACCELERATION.in(Units.MetersPerSecondPerSecond) * GlobalConstants.ROBOT_LOOP_PERIOD;
+    verify(lFrontDriveMotor, times(1)).set(AdditionalMatchers.and(AdditionalMatchers.gt(0.0), AdditionalMatchers.leq(+maxSpeedStep)), ArgumentMatchers.eq(ControlType.kVelocity));
+    verify(m_lFrontRotateMotor, times(1)).set(AdditionalMatchers.eq(+Math.PI / 2, DELTA), ArgumentMatchers.eq(ControlType.kPosition));
+    verify(m_rFrontDriveMotor, times(1)).set(AdditionalMatchers.and(AdditionalMatchers.lt(0.0), AdditionalMatchers.geq(-maxSpeedStep)), ArgumentMatchers.eq(ControlType.kVelocity));
+    verify(m_rFrontRotateMotor, times(1)).set(AdditionalMatchers.eq(0.0, DELTA), ArgumentMatchers.eq(ControlType.kPosition));
+    verify(m_lRearDriveMotor, times(1)).set(AdditionalMatchers.and(AdditionalMatchers.lt(0.0), AdditionalMatchers.geq(-maxSpeedStep)), ArgumentMatchers.eq(ControlType.kVelocity));
+    verify(m_lRearRotateMotor, times(1)).set(AdditionalMatchers.eq(+Math.PI, DELTA), ArgumentMatchers.eq(ControlType.kPosition));
+    verify(m_rRearDriveMotor, times(1)).set(AdditionalMatchers.and(AdditionalMatchers.gt(0.0), AdditionalMatchers.leq(+maxSpeedStep)), ArgumentMatchers.eq(ControlType.kVelocity));
+    verify(m_rRearRotateMotor, times(1)).set(AdditionalMatchers.eq(-Math.PI / 2, DELTA), ArgumentMatchers.eq(ControlType.kPosition));
+  }
+
+  @Test
+  @Order(15)
+  @DisplayName("Test if teleop and auto drive cycles stay within allocation budget")
+  public void allocationBudget() {
+    var threadBean = ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+    var allocationBean = (com.sun.management.ThreadMXBean)threadBean;
+    assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+    allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+    // Hardcode sensor values, so requests near straight ahead never flip modules
+    when(m_lFrontRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_ZERO, MAXSwerveModule.ModuleLocation.LeftFront));
+    when(m_rFrontRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_ZERO, MAXSwerveModule.ModuleLocation.RightFront));
+    when(m_lRearRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_ZERO, MAXSwerveModule.ModuleLocation.LeftRear));
+    when(m_rRearRotateMotor.getInputs()).thenReturn(getRotateSparkInput(GlobalConstants.ROTATION_ZERO, MAXSwerveModule.ModuleLocation.RightRear));
+    var driveCommand = driveSubsystem.driveCommand(() -> m_teleopRequest[0], () -> m_teleopRequest[1], () -> 0.0);
+
+    // Warm up both paths so that steady state is measured
+    for (int i = 0; i < ALLOCATION_WARMUP_CYCLES; i += ALLOCATION_CYCLES) {
+      measureDriveCycles(allocationBean, driveCommand, ALLOCATION_CYCLES, false);
+      measureDriveCycles(allocationBean, driveCommand, ALLOCATION_CYCLES, true);
+    }
+
+    // Measure with speed changing every cycle, then with direction changing as well
+    long steadyBytes = measureDriveCycles(allocationBean, driveCommand, ALLOCATION_CYCLES, false);
+    long turningBytes = measureDriveCycles(allocationBean, driveCommand, ALLOCATION_CYCLES, true);
+
+    // Mock hardware and PurpleLib allocate the same amount in both runs, so only the difference is ours.
+    // PurpleLib's MAXSwerveModule only accepts SwerveModuleState, whose angle is an immutable Rotation2d,
+    // so FastSwerveKinematics.calculate must create one per module whose angle changed. Nothing else
+    // in the teleop or auto drive path may allocate.
+    long budget = 2 * MODULE_COUNT * ROTATION2D_BYTES;
+    assertTrue((turningBytes - steadyBytes) / ALLOCATION_CYCLES <= budget);
+  }
+
+  /**
+   * Run one teleop and one auto drive cycle per iteration
+   * @param allocationBean Thread allocation bean
+   * @param driveCommand Teleop drive command reading {@code m_teleopRequest}
+   * @param cycles Number of cycles to run
+   * @param isTurning True to change request direction every cycle, false to only change speed
+   * @return Bytes allocated by this thread during cycles
+   */
+  private long measureDriveCycles(com.sun.management.ThreadMXBean allocationBean, Command driveCommand, int cycles, boolean isTurning) {
+    // Drop recorded mock invocations, so memory used for verification stays bounded
+    clearInvocations(lFrontDriveMotor, m_lFrontRotateMotor, m_rFrontDriveMotor, m_rFrontRotateMotor,
+                     m_lRearDriveMotor, m_lRearRotateMotor, m_rRearDriveMotor, m_rRearRotateMotor, m_navx);
+
+    long threadId = Thread.currentThread().getId();
+    long before = allocationBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < cycles; i++) {
+      double t = i * ALLOCATION_INPUT_STEP;
+      double speed = 0.6 + 0.3 * Math.sin(t);
+      double direction = isTurning ? 0.3 * Math.sin(3.0 * t) : 0.0;
+
+      // Teleop cycle
+      m_teleopRequest[0] = speed * Math.cos(direction);
+      m_teleopRequest[1] = speed * Math.sin(direction);
+      driveCommand.execute();
+
+      // Auto cycle
+      m_autoSpeeds.vxMetersPerSecond = 2.0 * m_teleopRequest[0];
+      m_autoSpeeds.vyMetersPerSecond = 2.0 * m_teleopRequest[1];
+      driveSubsystem.autoDrive(m_autoSpeeds);
+    }
+    return allocationBean.getThreadAllocatedBytes(threadId) - before;
+  }
+}
@@ -0,0 +1,172 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.lasarobotics.drive.AdvancedSwerveKinematics;
+import org.lasarobotics.drive.AdvancedSwerveKinematics.ControlCentricity;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.subsystems.drive.FastSwerveKinematics;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class FastSwerveKinematicsTest {
+  private final double DELTA = 1e-9;
+  private final double MAX_LINEAR_SPEED = 5.0;
+  private final int WARMUP_CYCLES = 20_000;
+  private final int STEADY_STATE_CYCLES = 10_000;
+  private final double INPUT_STEP = 1e-3;
+
+  private final Translation2d[] MODULE_LOCATIONS = {
+    new Translation2d(+0.2794, +0.2794),
+    new Translation2d(+0.2794, -0.2794),
+    new Translation2d(-0.2794, +0.2794),
+    new Translation2d(-0.2794, -0.2794)
+  };
+
+  private final Translation2d[] OFFSET_MODULE_LOCATIONS = {
+    new Translation2d(+0.4, +0.3),
+    new Translation2d(+0.4, -0.2),
+    new Translation2d(-0.1, +0.3),
+    new Translation2d(-0.1, -0.2)
+  };
+
+  private FastSwerveKinematics m_fastKinematics;
+  private AdvancedSwerveKinematics m_advancedKinematics;
+
+  @BeforeEach
+  public void setup() {
+    m_fastKinematics = new FastSwerveKinematics(MODULE_LOCATIONS);
+    m_advancedKinematics = new AdvancedSwerveKinematics(MODULE_LOCATIONS);
+  }
+
+  /**
+   * Calculate module states using the PurpleLib path fast kinematics replaces
+   */
+  private SwerveModuleState[] getExpectedStates(double vx, double vy, double omega, Rotation2d heading, ControlCentricity controlCentricity) {
+    var speeds = AdvancedSwerveKinematics.correctForDynamics(new ChassisSpeeds(vx, vy, omega));
+    var states = m_advancedKinematics.toSwerveModuleStates(speeds, heading, controlCentricity);
+    SwerveDriveKinematics.desaturateWheelSpeeds(states, MAX_LINEAR_SPEED);
+
+    return states;
+  }
+
+  /**
+   * Assert that both calculations produce the same module states
+   */
+  private void assertMatches(double vx, double vy, double omega, Rotation2d heading, ControlCentricity controlCentricity) {
+    var expected = getExpectedStates(vx, vy, omega, heading, controlCentricity);
+    var actual = m_fastKinematics.calculate(vx, vy, omega, heading.getRadians(), controlCentricity, MAX_LINEAR_SPEED);
+
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i].speedMetersPerSecond, actual[i].speedMetersPerSecond, DELTA);
+      if (expected[i].speedMetersPerSecond == 0.0) continue;
+      assertEquals(expected[i].angle.getCos(), actual[i].angle.getCos(), DELTA);
+      assertEquals(expected[i].angle.getSin(), actual[i].angle.getSin(), DELTA);
+    }
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if fast kinematics matches advanced kinematics")
+  public void matchesAdvancedKinematics() {
+    assertMatches(+3.0, 0.0, 0.0, Rotation2d.fromDegrees(0.0), ControlCentricity.ROBOT_CENTRIC);
+    assertMatches(0.0, -2.0, 0.0, Rotation2d.fromDegrees(0.0), ControlCentricity.ROBOT_CENTRIC);
+    assertMatches(0.0, 0.0, +4.0, Rotation2d.fromDegrees(0.0), ControlCentricity.ROBOT_CENTRIC);
+    assertMatches(+2.0, +1.0, -3.0, Rotation2d.fromDegrees(+37.0), ControlCentricity.FIELD_CENTRIC);
+    assertMatches(-1.5, +2.5, +6.0, Rotation2d.fromDegrees(-120.0), ControlCentricity.FIELD_CENTRIC);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if fast kinematics desaturates wheel speeds")
+  public void desaturate() {
+    assertMatches(+5.0, +5.0, +12.0, Rotation2d.fromDegrees(+15.0), ControlCentricity.FIELD_CENTRIC);
+
+    for (int i = 0; i < m_fastKinematics.getModuleCount(); i++)
+      assertEquals(true, m_fastKinematics.getSpeed(i) <= MAX_LINEAR_SPEED + DELTA);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if fast kinematics holds module angles when stationary")
+  public void holdAngle() {
+    m_fastKinematics.calculate(0.0, +1.0, 0.0, 0.0, ControlCentricity.ROBOT_CENTRIC, MAX_LINEAR_SPEED);
+    var states = m_fastKinematics.calculate(0.0, 0.0, 0.0, 0.0, ControlCentricity.ROBOT_CENTRIC, MAX_LINEAR_SPEED);
+
+    for (var state : states) {
+      assertEquals(0.0, state.speedMetersPerSecond, DELTA);
+      assertEquals(Math.PI / 2, state.angle.getRadians(), DELTA);
+    }
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if update allocates nothing while inputs change")
+  public void allocationFree() {
+    var threadBean = ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+    var allocationBean = (com.sun.management.ThreadMXBean)threadBean;
+    assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+    allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+    // Warm up so that steady state is measured
+    for (int i = 0; i < WARMUP_CYCLES; i++) update(i);
+
+    long threadId = Thread.currentThread().getId();
+    long before = allocationBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < STEADY_STATE_CYCLES; i++) update(i);
+    long after = allocationBean.getThreadAllocatedBytes(threadId);
+
+    assertEquals(0L, after - before);
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if forward kinematics matches WPILib least squares solution")
+  public void forwardKinematics() {
+    // Module states that no single chassis motion explains exactly
+    var moduleStates = new SwerveModuleState[] {
+      new SwerveModuleState(+2.0, Rotation2d.fromDegrees(+30.0)),
+      new SwerveModuleState(+1.5, Rotation2d.fromDegrees(+45.0)),
+      new SwerveModuleState(-0.5, Rotation2d.fromDegrees(-80.0)),
+      new SwerveModuleState(+3.0, Rotation2d.fromDegrees(+170.0))
+    };
+
+    // Compare with module layouts centered on and offset from robot center
+    for (var moduleLocations : new Translation2d[][] { MODULE_LOCATIONS, OFFSET_MODULE_LOCATIONS }) {
+      var expected = new SwerveDriveKinematics(moduleLocations).toChassisSpeeds(moduleStates);
+      var actual = new ChassisSpeeds();
+      new FastSwerveKinematics(moduleLocations).toChassisSpeeds(moduleStates, actual);
+
+      assertEquals(expected.vxMetersPerSecond, actual.vxMetersPerSecond, DELTA);
+      assertEquals(expected.vyMetersPerSecond, actual.vyMetersPerSecond, DELTA);
+      assertEquals(expected.omegaRadiansPerSecond, actual.omegaRadiansPerSecond, DELTA);
+    }
+  }
+
+  /**
+   * Update fast kinematics with request that changes every cycle, so every module angle changes
+   * @param cycle Cycle number
+   */
+  private void update(int cycle) {
+    double t = cycle * INPUT_STEP;
+    m_fastKinematics.update(+2.0 * Math.cos(t), +1.0 * Math.sin(t), +1.0 + t % 1.0, t, ControlCentricity.FIELD_CENTRIC, MAX_LINEAR_SPEED);
+  }
+}
@@ -0,0 +1,270 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.subsystems.drive.FastSwervePoseEstimator;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class FastSwervePoseEstimatorTest {
+  private final double DELTA = 1e-6;
+  private final double DT = 0.004;
+  private final double MODULE_OFFSET = 0.2794;
+  private final double GYRO_OFFSET = -0.7;
+  private final int HISTORY_CAPACITY = 512;
+  private final Matrix<N3, N1> ODOMETRY_STDDEV = VecBuilder.fill(0.03, 0.03, Math.toRadians(1.0));
+  private final Matrix<N3, N1> VISION_STDDEV = VecBuilder.fill(1.0, 1.0, Math.toRadians(3.0));
+  private final Translation2d[] MODULE_LOCATIONS = {
+    new Translation2d(+MODULE_OFFSET, +MODULE_OFFSET),
+    new Translation2d(+MODULE_OFFSET, -MODULE_OFFSET),
+    new Translation2d(-MODULE_OFFSET, +MODULE_OFFSET),
+    new Translation2d(-MODULE_OFFSET, -MODULE_OFFSET)
+  };
+
+  private SwerveDrivePoseEstimator m_referenceEstimator;
+  private FastSwervePoseEstimator m_fastEstimator;
+  private double[] m_distances;
+  private double[] m_angles;
+
+  @BeforeEach
+  public void setup() {
+    m_distances = new double[MODULE_LOCATIONS.length];
+    m_angles = new double[MODULE_LOCATIONS.length];
+
+    Rotation2d gyroAngle = Rotation2d.fromRadians(GYRO_OFFSET);
+    Pose2d initialPose = new Pose2d(1.0, 2.0, new Rotation2d());
+    m_referenceEstimator = new SwerveDrivePoseEstimator(
+      new SwerveDriveKinematics(MODULE_LOCATIONS),
+      gyroAngle,
+      getModulePositions(),
+      initialPose,
+      ODOMETRY_STDDEV,
+      VISION_STDDEV
+    );
+    m_fastEstimator = new FastSwervePoseEstimator(
+      MODULE_LOCATIONS,
+      gyroAngle,
+      getModulePositions(),
+      initialPose,
+      ODOMETRY_STDDEV,
+      VISION_STDDEV,
+      HISTORY_CAPACITY
+    );
+  }
+
+  /**
+   * Get current module positions as objects
+   * @return Module positions
+   */
+  private SwerveModulePosition[] getModulePositions() {
+    var positions = new SwerveModulePosition[m_distances.length];
+    for (int i = 0; i < positions.length; i++)
+      positions[i] = new SwerveModulePosition(m_distances[i], Rotation2d.fromRadians(m_angles[i]));
+    return positions;
+  }
+
+  /**
+   * Advance module readings for given chassis speeds over one odometry period
+   * @param vx Robot relative X velocity in meters per second
+   * @param vy Robot relative Y velocity in meters per second
+   * @param omega Rotate rate in radians per second
+   */
+  private void stepModules(double vx, double vy, double omega) {
+    for (int i = 0; i < MODULE_LOCATIONS.length; i++) {
+      double moduleX = vx - omega * MODULE_LOCATIONS[i].getY();
+      double moduleY = vy + omega * MODULE_LOCATIONS[i].getX();
+      m_distances[i] += Math.hypot(moduleX, moduleY) * DT;
+      m_angles[i] = Math.atan2(moduleY, moduleX);
+    }
+  }
+
+  /**
+   * Assert both estimators report same pose
+   */
+  private void assertPoseEquals() {
+    Pose2d expected = m_referenceEstimator.getEstimatedPosition();
+    Pose2d actual = m_fastEstimator.getEstimatedPosition();
+
+    assertEquals(expected.getX(), actual.getX(), DELTA);
+    assertEquals(expected.getY(), actual.getY(), DELTA);
+    assertEquals(0.0, expected.getRotation().minus(actual.getRotation()).getRadians(), DELTA);
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if estimate matches WPILib estimator on recorded drive")
+  public void matchesReference() {
+    var random = new Random(0);
+    var truth = new ArrayList<Pose2d>();
+    double x = 1.0, y = 2.0, heading = 0.0;
+
+    for (int i = 1; i <= 2500; i++) {
+      // Curved drive with varying rotation
+      double t = i * DT;
+      double vx = 2.0 + Math.sin(t), vy = Math.cos(0.5 * t), omega = 2.5 * Math.sin(0.3 * t);
+      stepModules(vx, vy, omega);
+      x += (vx * Math.cos(heading) - vy * Math.sin(heading)) * DT;
+      y += (vx * Math.sin(heading) + vy * Math.cos(heading)) * DT;
+      heading += omega * DT;
+      truth.add(new Pose2d(x, y, Rotation2d.fromRadians(heading)));
+
+      // Feed same odometry to both estimators
+      double gyroAngle = heading + GYRO_OFFSET + 0.0005 * random.nextGaussian();
+      m_referenceEstimator.updateWithTime(t, Rotation2d.fromRadians(gyroAngle), getModulePositions());
+      m_fastEstimator.updateWithTime(t, gyroAngle, m_distances, m_angles);
+
+      // Two cameras with noisy, lagged measurements at 50Hz
+      if (i % 5 == 0) {
+        for (int camera = 0; camera < 2; camera++) {
+          int lag = Math.min(5 + random.nextInt(40), truth.size() - 1);
+          Pose2d pose = truth.get(truth.size() - 1 - lag);
+          double timestamp = t - lag * DT + camera * 0.0013;
+          var measurement = new Pose2d(
+            pose.getX() + 0.1 * random.nextGaussian(),
+            pose.getY() + 0.1 * random.nextGaussian(),
+            pose.getRotation().plus(Rotation2d.fromRadians(0.05 * random.nextGaussian()))
+          );
+          var stdDevs = VecBuilder.fill(0.2 + random.nextDouble(), 0.2 + random.nextDouble(), 0.1 + random.nextDouble());
+          m_referenceEstimator.addVisionMeasurement(measurement, timestamp, stdDevs);
+          m_fastEstimator.addVisionMeasurement(measurement, timestamp, stdDevs);
+        }
+      }
+
+      assertPoseEquals();
+    }
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if measurement older than history is ignored")
+  public void oldMeasurement() {
+    for (int i = 1; i <= 500; i++) {
+      stepModules(1.0, 0.0, 0.0);
+      m_fastEstimator.updateWithTime(i * DT, GYRO_OFFSET, m_distances, m_angles);
+    }
+    Pose2d pose = m_fastEstimator.getEstimatedPosition();
+
+    m_fastEstimator.addVisionMeasurement(new Pose2d(), 0.1);
+
+    assertEquals(pose, m_fastEstimator.getEstimatedPosition());
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if reset clears history and sets pose")
+  public void resetPosition() {
+    for (int i = 1; i <= 10; i++) {
+      stepModules(1.0, 0.0, 0.0);
+      m_fastEstimator.updateWithTime(i * DT, GYRO_OFFSET, m_distances, m_angles);
+    }
+    assertEquals(10, m_fastEstimator.getHistorySize());
+
+    var pose = new Pose2d(3.0, 4.0, Rotation2d.fromDegrees(90.0));
+    m_fastEstimator.resetPosition(Rotation2d.fromRadians(GYRO_OFFSET), getModulePositions(), pose);
+
+    assertEquals(0, m_fastEstimator.getHistorySize());
+    assertEquals(pose, m_fastEstimator.getEstimatedPosition());
+
+    // Vision with no history is ignored
+    m_fastEstimator.addVisionMeasurement(new Pose2d(), 0.0);
+    assertEquals(pose, m_fastEstimator.getEstimatedPosition());
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if batch fusion matches measurements applied one at a time in order")
+  public void batchMatchesSequential() {
+    var sequentialEstimator = new FastSwervePoseEstimator(
+      MODULE_LOCATIONS,
+      Rotation2d.fromRadians(GYRO_OFFSET),
+      getModulePositions(),
+      new Pose2d(1.0, 2.0, new Rotation2d()),
+      ODOMETRY_STDDEV,
+      VISION_STDDEV,
+      HISTORY_CAPACITY
+    );
+
+    for (int i = 1; i <= 100; i++) {
+      stepModules(1.0, 0.5, 1.0);
+      sequentialEstimator.updateWithTime(i * DT, GYRO_OFFSET + i * DT, m_distances, m_angles);
+      m_fastEstimator.updateWithTime(i * DT, GYRO_OFFSET + i * DT, m_distances, m_angles);
+    }
+
+    // Queue measurements out of order, apply sequential copy in timestamp order
+    m_fastEstimator.queueVisionMeasurement(new Pose2d(1.5, 2.3, Rotation2d.fromRadians(0.3)), 0.30, VecBuilder.fill(0.5, 0.5, 0.2));
+    m_fastEstimator.queueVisionMeasurement(new Pose2d(1.2, 2.1, Rotation2d.fromRadians(0.1)), 0.10, VecBuilder.fill(0.8, 0.6, 0.4));
+    m_fastEstimator.queueVisionMeasurement(new Pose2d(1.4, 2.2, Rotation2d.fromRadians(0.2)), 0.20, VecBuilder.fill(0.3, 0.9, 0.1));
+    sequentialEstimator.addVisionMeasurement(new Pose2d(1.2, 2.1, Rotation2d.fromRadians(0.1)), 0.10, VecBuilder.fill(0.8, 0.6, 0.4));
+    sequentialEstimator.addVisionMeasurement(new Pose2d(1.4, 2.2, Rotation2d.fromRadians(0.2)), 0.20, VecBuilder.fill(0.3, 0.9, 0.1));
+    sequentialEstimator.addVisionMeasurement(new Pose2d(1.5, 2.3, Rotation2d.fromRadians(0.3)), 0.30, VecBuilder.fill(0.5, 0.5, 0.2));
+
+    assertEquals(3, m_fastEstimator.fuseVisionMeasurements(0.0));
+    assertEquals(sequentialEstimator.getX(), m_fastEstimator.getX(), DELTA);
+    assertEquals(sequentialEstimator.getY(), m_fastEstimator.getY(), DELTA);
+    assertEquals(sequentialEstimator.getHeading(), m_fastEstimator.getHeading(), DELTA);
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if near-simultaneous measurements are combined into one correction")
+  public void combineMeasurements() {
+    var sequentialEstimator = new FastSwervePoseEstimator(
+      MODULE_LOCATIONS,
+      Rotation2d.fromRadians(GYRO_OFFSET),
+      getModulePositions(),
+      new Pose2d(1.0, 2.0, new Rotation2d()),
+      ODOMETRY_STDDEV,
+      VISION_STDDEV,
+      HISTORY_CAPACITY
+    );
+
+    for (int i = 1; i <= 100; i++) {
+      stepModules(1.0, 0.0, 0.0);
+      sequentialEstimator.updateWithTime(i * DT, GYRO_OFFSET, m_distances, m_angles);
+      m_fastEstimator.updateWithTime(i * DT, GYRO_OFFSET, m_distances, m_angles);
+    }
+
+    // Two equally trusted cameras either side of true pose
+    m_fastEstimator.queueVisionMeasurement(new Pose2d(1.2, 2.2, Rotation2d.fromRadians(+0.1)), 0.200, VecBuilder.fill(0.5, 0.5, 0.2));
+    m_fastEstimator.queueVisionMeasurement(new Pose2d(1.4, 1.8, Rotation2d.fromRadians(-0.1)), 0.202, VecBuilder.fill(0.5, 0.5, 0.2));
+
+    // Equivalent to their average with variance halved
+    double stdDevScale = 1.0 / Math.sqrt(2.0);
+    sequentialEstimator.addVisionMeasurement(
+      new Pose2d(1.3, 2.0, new Rotation2d()),
+      0.201,
+      VecBuilder.fill(0.5 * stdDevScale, 0.5 * stdDevScale, 0.2 * stdDevScale)
+    );
+
+    assertEquals(1, m_fastEstimator.fuseVisionMeasurements(0.01));
+    assertEquals(sequentialEstimator.getX(), m_fastEstimator.getX(), DELTA);
+    assertEquals(sequentialEstimator.getY(), m_fastEstimator.getY(), DELTA);
+    assertEquals(sequentialEstimator.getHeading(), m_fastEstimator.getHeading(), DELTA);
+
+    // Batch is cleared once fused
+    assertEquals(0, m_fastEstimator.fuseVisionMeasurements(0.01));
+  }
+}
@@ -0,0 +1,97 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import frc.robot.subsystems.drive.GyroBiasEstimator;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GyroBiasEstimatorTest {
+  private final double DT = 0.02;
+  private final double HEADING_NOISE = 1e-3;
+  private final double BIAS_NOISE = 1e-5;
+  private final double MAX_BIAS = 0.02;
+  private final double VISION_STDDEV = 0.01;
+  private final double GYRO_OFFSET = 1.0;
+
+  private GyroBiasEstimator m_gyroBiasEstimator;
+
+  @BeforeEach
+  public void setup() {
+    m_gyroBiasEstimator = new GyroBiasEstimator(HEADING_NOISE, BIAS_NOISE, MAX_BIAS);
+  }
+
+  /**
+   * Feed vision headings while robot turns and gyro drifts
+   * @param drift Gyro drift rate in radians per second
+   * @param duration Duration in seconds
+   */
+  private void run(double drift, double duration) {
+    var random = new Random(0);
+    for (double t = 0.0; t < duration; t += DT) {
+      double heading = Math.sin(0.5 * t);
+      double gyroAngle = heading - GYRO_OFFSET + drift * t + m_gyroBiasEstimator.getCorrection(t);
+      m_gyroBiasEstimator.addMeasurement(t, gyroAngle, heading + VISION_STDDEV * random.nextGaussian(), VISION_STDDEV);
+    }
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if gyro drift is estimated and corrected")
+  public void estimateDrift() {
+    double initialStdDev = m_gyroBiasEstimator.getBiasStdDev();
+    double drift = Math.toRadians(0.5);
+
+    run(drift, 60.0);
+
+    assertEquals(-drift, m_gyroBiasEstimator.getBias(), drift * 0.1);
+    assertTrue(m_gyroBiasEstimator.getBiasStdDev() < initialStdDev * 0.1);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if applied bias is limited")
+  public void boundedBias() {
+    double drift = MAX_BIAS * 3.0;
+
+    run(drift, 30.0);
+
+    assertEquals(-MAX_BIAS, m_gyroBiasEstimator.getBias(), 1e-9);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if correction stays continuous when bias changes")
+  public void continuousCorrection() {
+    run(Math.toRadians(0.5), 10.0);
+    double before = m_gyroBiasEstimator.getCorrection(10.0);
+
+    // Large heading measurement changes bias, but not correction already accumulated
+    m_gyroBiasEstimator.addMeasurement(10.0, 0.0, 0.5, VISION_STDDEV);
+
+    assertEquals(before, m_gyroBiasEstimator.getCorrection(10.0), 1e-9);
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if out of order measurement is ignored")
+  public void outOfOrder() {
+    assertTrue(m_gyroBiasEstimator.addMeasurement(1.0, 0.0, 0.0, VISION_STDDEV));
+    assertFalse(m_gyroBiasEstimator.addMeasurement(0.5, 0.0, 0.0, VISION_STDDEV));
+    assertEquals(0.0, m_gyroBiasEstimator.getCorrection(2.0));
+  }
+}
@@ -0,0 +1,132 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.lasarobotics.drive.RotatePIDController;
+import org.lasarobotics.utils.GlobalConstants;
+import org.lasarobotics.utils.PIDConstants;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.units.Units;
+import frc.robot.Constants;
+import frc.robot.subsystems.drive.HeadingController;
+import frc.robot.utils.LookupTableSplineFunction;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class HeadingControllerTest {
+  private final double DELTA = 1e-3;
+  private final double TOLERANCE = 1.5;
+  private final PIDConstants AIM_PID = new PIDConstants(10.0, 0.0, 0.5, 0.0, 0.0, GlobalConstants.ROBOT_LOOP_PERIOD);
+  private final TrapezoidProfile.Constraints AIM_CONSTRAINT = new TrapezoidProfile.Constraints(2160.0, 4320.0);
+
+  private HeadingController m_headingController;
+
+  @BeforeEach
+  public void setup() {
+    m_headingController = new HeadingController(
+      new RotatePIDController(
+        new LookupTableSplineFunction(Constants.Drive.DRIVE_TURN_INPUT_CURVE, 1001),
+        Constants.Drive.DRIVE_ROTATE_PID,
+        Constants.Drive.DRIVE_TURN_SCALAR,
+        Constants.HID.CONTROLLER_DEADBAND,
+        Constants.Drive.DRIVE_LOOKAHEAD
+      ),
+      AIM_PID,
+      AIM_CONSTRAINT,
+      TOLERANCE
+    );
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if aim turns towards target heading")
+  public void aimDirection() {
+    assertTrue(m_headingController.aim(0.0, 0.0, +90.0, false) > 0.0);
+    m_headingController.reset();
+    assertTrue(m_headingController.aim(0.0, 0.0, -90.0, false) < 0.0);
+    assertEquals(HeadingController.Mode.AIM_FRONT, m_headingController.getMode());
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if rear aim points back of robot at target")
+  public void aimRear() {
+    double output = m_headingController.aim(180.0, 0.0, 0.0, true);
+
+    assertEquals(0.0, output, DELTA);
+    assertTrue(m_headingController.atGoal());
+    assertEquals(HeadingController.Mode.AIM_REAR, m_headingController.getMode());
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if mode change starts from current heading")
+  public void bumplessTransfer() {
+    // Aim while heading does not follow, so profile runs ahead of robot
+    for (int i = 0; i < 10; i++) m_headingController.aim(0.0, 0.0, 90.0, false);
+
+    // Snap to current heading, no correction should be needed
+    double output = m_headingController.snap(0.0, 0.0, 0.0);
+
+    assertEquals(0.0, output, DELTA);
+    assertTrue(m_headingController.atGoal());
+    assertEquals(HeadingController.Mode.SNAP, m_headingController.getMode());
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if aimed only reflects active mode")
+  public void atGoal() {
+    m_headingController.snap(45.0, 0.0, 45.0);
+    assertTrue(m_headingController.atGoal());
+
+    // Driver mode is never at goal
+    m_headingController.resetDriver(Units.Degrees.of(45.0));
+    assertFalse(m_headingController.atGoal());
+    assertEquals(HeadingController.Mode.DRIVER, m_headingController.getMode());
+
+    // Released controller is never at goal
+    m_headingController.reset();
+    assertFalse(m_headingController.atGoal());
+    assertEquals(HeadingController.Mode.NONE, m_headingController.getMode());
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if driver mode holds heading it was engaged at")
+  public void driverHold() {
+    double output = m_headingController.driverRate(Units.Degrees.of(30.0), Units.DegreesPerSecond.of(0.0), 0.0);
+
+    assertEquals(0.0, output, DELTA);
+    assertEquals(HeadingController.Mode.DRIVER, m_headingController.getMode());
+  }
+
+  @Test
+  @Order(6)
+  @DisplayName("Test if turn uses driver rotate PID towards requested angle")
+  public void turn() {
+    assertTrue(m_headingController.turn(0.0, +90.0) > 0.0);
+    m_headingController.reset();
+    assertTrue(m_headingController.turn(0.0, -90.0) < 0.0);
+    assertEquals(HeadingController.Mode.TURN, m_headingController.getMode());
+    assertFalse(m_headingController.atGoal());
+
+    // Driver mode holds heading reached by turn
+    double output = m_headingController.driverRate(Units.Degrees.of(60.0), Units.DegreesPerSecond.of(0.0), 0.0);
+
+    assertEquals(0.0, output, DELTA);
+    assertEquals(HeadingController.Mode.DRIVER, m_headingController.getMode());
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import frc.robot.Constants;
+import frc.robot.subsystems.drive.MovingShotSolver;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class MovingShotSolverTest {
+  private final double DELTA = 1e-3;
+  private final double EXIT_VELOCITY = 12.0;
+  private final double LATENCY = 0.1;
+
+  private MovingShotSolver createSolver() {
+    return new MovingShotSolver(MovingShotSolver.ProjectileModel.constantVelocity(EXIT_VELOCITY, LATENCY), 20, 1e-6);
+  }
+
+  /**
+   * Calculate miss distance of shot fired along solved heading
+   */
+  private double missDistance(MovingShotSolver solver, double robotX, double robotY,
+                              double velocityX, double velocityY, double targetX, double targetY) {
+    double time = solver.getTimeOfFlight();
+    double flightTime = time - LATENCY;
+    double landX = robotX + velocityX * time + EXIT_VELOCITY * flightTime * Math.cos(solver.getHeading());
+    double landY = robotY + velocityY * time + EXIT_VELOCITY * flightTime * Math.sin(solver.getHeading());
+    return Math.hypot(landX - targetX, landY - targetY);
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if stationary solution points directly at target")
+  public void stationary() {
+    var solver = createSolver();
+    var speaker = Constants.Field.BLUE_SPEAKER.getSecond();
+
+    assertTrue(solver.solve(3.0, 2.0, 0.0, 0.0, speaker.getX(), speaker.getY()));
+    assertEquals(Math.atan2(speaker.getY() - 2.0, speaker.getX() - 3.0), solver.getHeading(), DELTA);
+    assertEquals(0.0, solver.getYawRate(), DELTA);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if moving solution hits target")
+  public void moving() {
+    var solver = createSolver();
+    var speaker = Constants.Field.RED_SPEAKER.getSecond();
+    double robotX = 12.0, robotY = 3.0, velocityX = 1.5, velocityY = 3.0;
+
+    assertTrue(solver.solve(robotX, robotY, velocityX, velocityY, speaker.getX(), speaker.getY()));
+    assertEquals(0.0, missDistance(solver, robotX, robotY, velocityX, velocityY, speaker.getX(), speaker.getY()), DELTA);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if feedforward yaw rate matches bearing change")
+  public void yawRate() {
+    var solver = createSolver();
+    double dt = 1e-4, velocityX = 0.0, velocityY = 2.0;
+
+    solver.solve(0.0, 0.0, velocityX, velocityY, 4.0, 0.0);
+    double heading = solver.getHeading();
+    double yawRate = solver.getYawRate();
+
+    // Robot moving left past target on its right should turn clockwise
+    solver.solve(velocityX * dt, velocityY * dt, velocityX, velocityY, 4.0, 0.0);
+    assertTrue(yawRate < 0.0);
+    assertEquals((solver.getHeading() - heading) / dt, yawRate, DELTA);
+  }
+}
@@ -0,0 +1,135 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.subsystems.drive.OdometryTrustEstimator;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class OdometryTrustEstimatorTest {
+  private final double DELTA = 1e-9;
+  private final double DT = 0.02;
+  private final double HALF_WHEELBASE = 0.3;
+  private final double MODULE_THRESHOLD = 0.3;
+  private final double INERTIAL_THRESHOLD = 0.5;
+  private final double JERK_THRESHOLD = 250.0;
+  private final double MAX_SCALE = 10.0;
+  private final double RECOVERY_TIME = 0.5;
+
+  private OdometryTrustEstimator m_odometryTrustEstimator;
+  private Translation2d[] m_moduleLocations;
+  private SwerveModuleState[] m_moduleStates;
+
+  @BeforeEach
+  public void setup() {
+    m_moduleLocations = new Translation2d[] {
+      new Translation2d(+HALF_WHEELBASE, +HALF_WHEELBASE),
+      new Translation2d(+HALF_WHEELBASE, -HALF_WHEELBASE),
+      new Translation2d(-HALF_WHEELBASE, +HALF_WHEELBASE),
+      new Translation2d(-HALF_WHEELBASE, -HALF_WHEELBASE)
+    };
+    m_moduleStates = new SwerveModuleState[m_moduleLocations.length];
+    m_odometryTrustEstimator = new OdometryTrustEstimator(
+      m_moduleLocations,
+      MODULE_THRESHOLD,
+      INERTIAL_THRESHOLD,
+      JERK_THRESHOLD,
+      MAX_SCALE,
+      RECOVERY_TIME
+    );
+  }
+
+  /**
+   * Set module states for rigid body motion
+   * @param vx X velocity in m/s
+   * @param vy Y velocity in m/s
+   * @param omega Rotate rate in rad/s
+   */
+  private void setRigidBodyMotion(double vx, double vy, double omega) {
+    for (int i = 0; i < m_moduleLocations.length; i++) {
+      double moduleVx = vx - omega * m_moduleLocations[i].getY();
+      double moduleVy = vy + omega * m_moduleLocations[i].getX();
+      m_moduleStates[i] = new SwerveModuleState(Math.hypot(moduleVx, moduleVy), new Rotation2d(moduleVx, moduleVy));
+    }
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if odometry is fully trusted during clean driving")
+  public void cleanDriving() {
+    setRigidBodyMotion(2.0, 1.0, 1.5);
+    double speed = Math.hypot(2.0, 1.0);
+
+    for (int i = 0; i < 50; i++) m_odometryTrustEstimator.update(i * DT, m_moduleStates, speed, 2.0, 1.0);
+
+    assertEquals(0.0, m_odometryTrustEstimator.getModuleResidual(), DELTA);
+    assertEquals(0.0, m_odometryTrustEstimator.getInertialError(), DELTA);
+    assertEquals(0.0, m_odometryTrustEstimator.getJerk(), DELTA);
+    assertEquals(1.0, m_odometryTrustEstimator.getScale(), DELTA);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if slipping module reduces trust")
+  public void moduleSlip() {
+    setRigidBodyMotion(2.0, 0.0, 0.0);
+    m_moduleStates[0] = new SwerveModuleState(3.2, Rotation2d.fromRadians(0.0));
+
+    m_odometryTrustEstimator.update(0.0, m_moduleStates, 2.3, 2.3, 0.0);
+
+    // One module 1.2 m/s fast is partly explained by translation and rotation, not by rigid body
+    double residual = m_odometryTrustEstimator.getModuleResidual();
+    assertTrue(residual > 2.0 * MODULE_THRESHOLD);
+    assertEquals(residual / MODULE_THRESHOLD, m_odometryTrustEstimator.getScale(), DELTA);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if wheel and inertial speed discrepancy reduces trust")
+  public void inertialError() {
+    setRigidBodyMotion(3.0, 0.0, 0.0);
+
+    m_odometryTrustEstimator.update(0.0, m_moduleStates, 1.0, 1.0, 0.0);
+
+    assertEquals(2.0, m_odometryTrustEstimator.getInertialError(), DELTA);
+    assertEquals(4.0, m_odometryTrustEstimator.getScale(), DELTA);
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if collision drops trust immediately, then recovers gradually")
+  public void collision() {
+    setRigidBodyMotion(0.0, 0.0, 0.0);
+    m_odometryTrustEstimator.update(0.0, m_moduleStates, 0.0, 0.0, 0.0);
+    m_odometryTrustEstimator.update(DT, m_moduleStates, 0.0, 0.0, 0.0);
+
+    // Sudden sideways velocity change is a jerk spike
+    m_odometryTrustEstimator.update(2 * DT, m_moduleStates, 0.0, 0.0, 2.0);
+    assertTrue(m_odometryTrustEstimator.getJerk() > JERK_THRESHOLD * MAX_SCALE);
+    assertEquals(MAX_SCALE, m_odometryTrustEstimator.getScale(), DELTA);
+
+    // Velocity holds steady, scale relaxes towards one over recovery time
+    m_odometryTrustEstimator.update(3 * DT, m_moduleStates, 0.0, 0.0, 2.0);
+    m_odometryTrustEstimator.update(4 * DT, m_moduleStates, 0.0, 0.0, 2.0);
+    double recovering = m_odometryTrustEstimator.getScale();
+    assertTrue(recovering < MAX_SCALE && recovering > 1.0);
+
+    for (int i = 5; i < 5 + (int)(10 * RECOVERY_TIME / DT); i++)
+      m_odometryTrustEstimator.update(i * DT, m_moduleStates, 0.0, 0.0, 2.0);
+    assertEquals(1.0, m_odometryTrustEstimator.getScale(), 1e-3);
+  }
+}
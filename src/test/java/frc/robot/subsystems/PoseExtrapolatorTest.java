@@ -0,0 +1,86 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.subsystems.drive.PoseExtrapolator;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PoseExtrapolatorTest {
+  private final double DELTA = 1e-9;
+  private final double LATENCY = 0.03;
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if stationary robot is not extrapolated")
+  public void stationary() {
+    var extrapolator = new PoseExtrapolator(LATENCY);
+    var pose = new Pose2d(3.0, 2.0, Rotation2d.fromDegrees(45.0));
+
+    var predictedPose = extrapolator.predict(pose, new ChassisSpeeds());
+
+    assertEquals(pose.getX(), predictedPose.getX(), DELTA);
+    assertEquals(pose.getY(), predictedPose.getY(), DELTA);
+    assertEquals(pose.getRotation().getRadians(), predictedPose.getRotation().getRadians(), DELTA);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if straight line motion is extrapolated in field frame")
+  public void straight() {
+    var extrapolator = new PoseExtrapolator(LATENCY);
+    var pose = new Pose2d(3.0, 2.0, Rotation2d.fromDegrees(90.0));
+
+    var predictedPose = extrapolator.predict(pose, new ChassisSpeeds(4.0, 0.0, 0.0));
+
+    assertEquals(3.0, predictedPose.getX(), DELTA);
+    assertEquals(2.0 + 4.0 * LATENCY, predictedPose.getY(), DELTA);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if turning motion matches Pose2d twist integration")
+  public void turning() {
+    var extrapolator = new PoseExtrapolator(LATENCY);
+    var pose = new Pose2d(3.0, 2.0, Rotation2d.fromDegrees(-30.0));
+    var speeds = new ChassisSpeeds(3.0, -1.5, 4.0 * Math.PI);
+
+    var predictedPose = extrapolator.predict(pose, speeds);
+    var expectedPose = pose.exp(new Twist2d(
+      speeds.vxMetersPerSecond * LATENCY,
+      speeds.vyMetersPerSecond * LATENCY,
+      speeds.omegaRadiansPerSecond * LATENCY
+    ));
+
+    assertEquals(expectedPose.getX(), predictedPose.getX(), DELTA);
+    assertEquals(expectedPose.getY(), predictedPose.getY(), DELTA);
+    assertEquals(expectedPose.getRotation().getRadians(), predictedPose.getRotation().getRadians(), DELTA);
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if zero latency returns measured pose")
+  public void zeroLatency() {
+    var extrapolator = new PoseExtrapolator(0.0);
+    var pose = new Pose2d(3.0, 2.0, Rotation2d.fromDegrees(10.0));
+
+    var predictedPose = extrapolator.predict(pose, new ChassisSpeeds(3.0, 1.0, 2.0));
+
+    assertEquals(pose.getX(), predictedPose.getX(), DELTA);
+    assertEquals(pose.getY(), predictedPose.getY(), DELTA);
+    assertEquals(pose.getRotation().getRadians(), predictedPose.getRotation().getRadians(), DELTA);
+  }
+}
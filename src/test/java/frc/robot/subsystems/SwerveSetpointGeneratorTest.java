@@ -0,0 +1,122 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.subsystems.drive.SwerveSetpointGenerator;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SwerveSetpointGeneratorTest {
+  private final double DELTA = 1e-6;
+  private final double DT = 0.02;
+  private final double MAX_DRIVE_ACCELERATION = 10.0;
+  private final double MAX_AZIMUTH_VELOCITY = 20.0;
+  private final double MAX_SPEED_STEP = MAX_DRIVE_ACCELERATION * DT;
+  private final double MAX_ANGLE_STEP = MAX_AZIMUTH_VELOCITY * DT;
+
+  private SwerveSetpointGenerator createGenerator(double speed, double angle) {
+    var generator = new SwerveSetpointGenerator(4, MAX_DRIVE_ACCELERATION, MAX_AZIMUTH_VELOCITY);
+    generator.reset(createStates(speed, angle));
+    return generator;
+  }
+
+  private SwerveModuleState[] createStates(double speed, double angle) {
+    return new SwerveModuleState[] {
+      new SwerveModuleState(speed, Rotation2d.fromRadians(angle)),
+      new SwerveModuleState(speed, Rotation2d.fromRadians(angle)),
+      new SwerveModuleState(speed, Rotation2d.fromRadians(angle)),
+      new SwerveModuleState(speed, Rotation2d.fromRadians(angle))
+    };
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if feasible setpoint is passed through unchanged")
+  public void feasible() {
+    var generator = createGenerator(3.0, 0.0);
+
+    var states = generator.calculate(createStates(3.1, 0.1), DT);
+
+    assertEquals(1.0, generator.getFraction(), DELTA);
+    for (var state : states) {
+      assertEquals(3.1, state.speedMetersPerSecond, DELTA);
+      assertEquals(0.1, state.angle.getRadians(), DELTA);
+    }
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if drive acceleration is limited from rest")
+  public void accelerationLimit() {
+    var generator = createGenerator(0.0, 0.0);
+    var desiredStates = createStates(5.0, 0.0);
+
+    double previousSpeed = 0.0;
+    for (int i = 0; i < 10; i++) {
+      var states = generator.calculate(desiredStates, DT);
+      double speed = states[0].speedMetersPerSecond;
+      assertTrue(speed > previousSpeed);
+      assertTrue(speed - previousSpeed <= MAX_SPEED_STEP + DELTA);
+      previousSpeed = speed;
+    }
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if azimuth velocity is limited while moving")
+  public void azimuthLimit() {
+    var generator = createGenerator(4.0, 0.0);
+    var desiredStates = createStates(4.0, Math.PI / 2);
+
+    double previousAngle = 0.0;
+    for (int i = 0; i < 10; i++) {
+      var states = generator.calculate(desiredStates, DT);
+      double angle = states[0].angle.getRadians();
+      assertTrue(Math.abs(MathUtil.angleModulus(angle - previousAngle)) <= MAX_ANGLE_STEP + DELTA);
+      previousAngle = angle;
+    }
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if direction reversal decelerates without turning")
+  public void reversal() {
+    var generator = createGenerator(3.0, 0.0);
+    var desiredStates = createStates(3.0, Math.PI);
+
+    var states = generator.calculate(desiredStates, DT);
+
+    for (var state : states) {
+      assertEquals(0.0, state.angle.getRadians(), DELTA);
+      assertTrue(state.speedMetersPerSecond < 3.0);
+      assertTrue(state.speedMetersPerSecond >= 3.0 - MAX_SPEED_STEP - DELTA);
+    }
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if stopped modules steer before driving")
+  public void steerFromRest() {
+    var generator = createGenerator(0.0, 0.0);
+
+    var states = generator.calculate(createStates(5.0, Math.PI / 2), DT);
+
+    for (var state : states) {
+      assertEquals(MAX_ANGLE_STEP, state.angle.getRadians(), DELTA);
+      assertTrue(state.speedMetersPerSecond < MAX_SPEED_STEP);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import frc.robot.subsystems.drive.TipPredictor;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class TipPredictorTest {
+  private final double DELTA = 1e-6;
+  private final double DT = 0.01;
+  private final double TIP_ANGLE = 35.0;
+  private final double ONSET_ANGLE = 5.0;
+  private final double CONFIRM_ANGLE = 20.0;
+  private final double HORIZON = 0.3;
+  private final double FILTER_GAIN = 0.5;
+
+  private TipPredictor createPredictor() {
+    return new TipPredictor(TIP_ANGLE, ONSET_ANGLE, CONFIRM_ANGLE, HORIZON, FILTER_GAIN);
+  }
+
+  /**
+   * Feed samples of tilt changing at constant rate
+   * @param predictor Tip predictor
+   * @param time Start time in seconds
+   * @param pitch Start pitch in degrees
+   * @param roll Start roll in degrees
+   * @param pitchRate Pitch rate in degrees per second
+   * @param rollRate Roll rate in degrees per second
+   * @param count Number of samples
+   * @return Time after last sample
+   */
+  private double ramp(TipPredictor predictor, double time, double pitch, double roll, double pitchRate, double rollRate, int count) {
+    for (int i = 0; i < count; i++) {
+      predictor.update(time, pitch + pitchRate * DT * i, roll + rollRate * DT * i);
+      time += DT;
+    }
+    return time;
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if tipping is detected at tip angle without history")
+  public void atTipAngle() {
+    var predictor = createPredictor();
+
+    predictor.update(0.0, 0.0, TIP_ANGLE);
+
+    assertTrue(predictor.isTipping());
+    assertEquals(0.0, predictor.getTimeToTip(), DELTA);
+    assertEquals(1.0, predictor.getSeverity(), DELTA);
+    assertEquals(Math.PI / 2, predictor.getDirection(), DELTA);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if fast rising tilt is predicted before tip angle")
+  public void predictFromRate() {
+    var predictor = createPredictor();
+
+    // Pitch rising at 100 deg/s, reaches 25 deg
+    ramp(predictor, 0.0, 0.0, 0.0, 100.0, 0.0, 26);
+
+    assertTrue(predictor.isTipping());
+    assertTrue(predictor.getTimeToTip() > 0.0);
+    assertTrue(predictor.getTimeToTip() <= HORIZON);
+    assertTrue(predictor.getSeverity() > 0.5 && predictor.getSeverity() < 1.0);
+    assertEquals(0.0, predictor.getDirection(), 0.05);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if steady lean is not predicted as tip")
+  public void steadyLean() {
+    var predictor = createPredictor();
+
+    // Settle at 25 deg, then hold still long enough for rate to decay
+    double time = ramp(predictor, 0.0, 0.0, 0.0, 20.0, 0.0, 126);
+    ramp(predictor, time, 25.0, 0.0, 0.0, 0.0, 50);
+
+    assertFalse(predictor.isTipping());
+    assertEquals(Double.POSITIVE_INFINITY, predictor.getTimeToTip());
+    assertEquals(0.0, predictor.getSeverity(), DELTA);
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if predicted direction follows combined pitch and roll motion")
+  public void direction() {
+    var predictor = createPredictor();
+
+    // Roll rising twice as fast as pitch
+    ramp(predictor, 0.0, 0.0, 0.0, 40.0, 80.0, 26);
+
+    assertTrue(predictor.isTipping());
+    assertEquals(Math.atan2(2.0, 1.0), predictor.getDirection(), 0.05);
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if repeated sensor frames are ignored")
+  public void duplicateSample() {
+    var predictor = createPredictor();
+
+    assertTrue(predictor.update(0.00, 10.0, 0.0));
+    assertFalse(predictor.update(0.01, 10.0, 0.0));
+    assertFalse(predictor.update(0.00, 11.0, 0.0));
+    assertTrue(predictor.update(0.02, 11.0, 0.0));
+  }
+
+  @Test
+  @Order(6)
+  @DisplayName("Test if detection latency and false positives are counted")
+  public void statistics() {
+    var predictor = createPredictor();
+
+    // Quick jolt to 15 deg that recovers, detected but never confirmed
+    double time = ramp(predictor, 0.0, 0.0, 0.0, 0.0, 150.0, 11);
+    time = ramp(predictor, time, 0.0, 15.0, 0.0, -150.0, 11);
+
+    assertEquals(1, predictor.getDetectionCount());
+    assertEquals(1, predictor.getFalsePositiveCount());
+    assertTrue(predictor.getDetectionLatency() >= 0.0);
+
+    // Genuine tip beyond confirm angle that recovers
+    time = ramp(predictor, time, 0.0, 0.0, 100.0, 0.0, 31);
+    ramp(predictor, time, 30.0, 0.0, -100.0, 0.0, 31);
+
+    assertEquals(2, predictor.getDetectionCount());
+    assertEquals(1, predictor.getFalsePositiveCount());
+    assertTrue(predictor.getDetectionLatency() < 0.25);
+  }
+}
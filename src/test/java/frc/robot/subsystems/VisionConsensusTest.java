@@ -0,0 +1,170 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import frc.robot.subsystems.drive.VisionConsensus;
+import frc.robot.subsystems.vision.AprilTagCamera.AprilTagCameraResult;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class VisionConsensusTest {
+  private final double DELTA = 1e-9;
+  private final double MAX_DISTANCE = 0.5;
+  private final double MAX_HEADING = Math.toRadians(10.0);
+  private final double TAG_DISTANCE = 2.0;
+  private final int MIN_RESULTS = 2;
+  private final double MIN_SCORE = 2.0 / (TAG_DISTANCE * TAG_DISTANCE);
+  private final double MAX_AGE = 0.5;
+
+  private VisionConsensus m_visionConsensus;
+
+  @BeforeEach
+  public void setup() {
+    m_visionConsensus = new VisionConsensus(MAX_DISTANCE, MAX_HEADING, MIN_RESULTS, MIN_SCORE, MAX_AGE);
+  }
+
+  /**
+   * Create camera result
+   * @param x Estimated X position in meters
+   * @param theta Estimated heading in radians
+   * @param ambiguity Ambiguity of each tag
+   * @param tagCount Number of tags used
+   * @return Camera result
+   */
+  private AprilTagCameraResult createResult(double x, double theta, double ambiguity, int tagCount) {
+    return createResult("Camera", 0.0, x, theta, ambiguity, tagCount);
+  }
+
+  /**
+   * Create camera result
+   * @param cameraName Name of camera
+   * @param timestamp Result timestamp in seconds
+   * @param x Estimated X position in meters
+   * @param theta Estimated heading in radians
+   * @param ambiguity Ambiguity of each tag
+   * @param tagCount Number of tags used
+   * @return Camera result
+   */
+  private AprilTagCameraResult createResult(String cameraName, double timestamp, double x, double theta, double ambiguity, int tagCount) {
+    var targets = new PhotonTrackedTarget[tagCount];
+    var cameraToTarget = new Transform3d(new Translation3d(TAG_DISTANCE, 0.0, 0.0), new Rotation3d());
+    for (int i = 0; i < tagCount; i++)
+      targets[i] = new PhotonTrackedTarget(0.0, 0.0, 1.0, 0.0, i + 1, cameraToTarget, cameraToTarget, ambiguity, List.of(), List.of());
+
+    return new AprilTagCameraResult(
+      cameraName,
+      new EstimatedRobotPose(new Pose3d(x, 5.5, 0.0, new Rotation3d(0.0, 0.0, theta)), timestamp, List.of(targets), PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR),
+      VecBuilder.fill(0.1, 0.1, 0.1)
+    );
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if results are scored by tag count, ambiguity and distance")
+  public void score() {
+    double single = VisionConsensus.getScore(createResult(0.0, 0.0, 0.0, 1));
+
+    assertEquals(1.0 / (TAG_DISTANCE * TAG_DISTANCE), single, DELTA);
+    assertEquals(2.0 * single, VisionConsensus.getScore(createResult(0.0, 0.0, 0.0, 2)), DELTA);
+    assertEquals(single, VisionConsensus.getScore(createResult(0.0, 0.0, -1.0, 1)), DELTA);
+    assertTrue(VisionConsensus.getScore(createResult(0.0, 0.0, 0.1, 1)) < single);
+    assertEquals(0.0, VisionConsensus.getScore(createResult(0.0, 0.0, 0.0, 0)));
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if consensus pose is score weighted mean")
+  public void weightedMean() {
+    var results = List.of(createResult(1.0, 0.1, 0.0, 3), createResult(1.4, -0.1, 0.0, 1));
+
+    assertEquals(VisionConsensus.Outcome.AGREE, m_visionConsensus.calculate(results));
+    assertEquals(2, m_visionConsensus.getResultCount());
+    assertEquals(1.1, m_visionConsensus.getPose().getX(), DELTA);
+    assertEquals(5.5, m_visionConsensus.getPose().getY(), DELTA);
+    assertEquals(0.3, m_visionConsensus.getDistance(), DELTA);
+    assertTrue(m_visionConsensus.getPose().getRotation().getRadians() > 0.0);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if heading is averaged across wrap around")
+  public void headingWrap() {
+    var results = List.of(createResult(1.0, Math.PI - 0.05, 0.0, 1), createResult(1.0, -Math.PI + 0.05, 0.0, 1));
+
+    assertEquals(VisionConsensus.Outcome.AGREE, m_visionConsensus.calculate(results));
+    assertEquals(Math.PI, Math.abs(m_visionConsensus.getPose().getRotation().getRadians()), DELTA);
+    assertEquals(0.05, m_visionConsensus.getHeading(), DELTA);
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if disagreeing cameras are refused")
+  public void disagree() {
+    assertEquals(VisionConsensus.Outcome.NO_RESULTS, m_visionConsensus.calculate(List.of()));
+    assertEquals(VisionConsensus.Outcome.NO_RESULTS, m_visionConsensus.calculate(List.of(createResult(1.0, 0.0, 0.0, 0))));
+
+    var position = List.of(createResult(1.0, 0.0, 0.0, 2), createResult(3.0, 0.0, 0.0, 2));
+    assertEquals(VisionConsensus.Outcome.DISAGREE, m_visionConsensus.calculate(position));
+    assertEquals(1.0, m_visionConsensus.getDistance(), DELTA);
+    assertNull(m_visionConsensus.getPose());
+
+    var heading = List.of(createResult(1.0, 0.0, 0.0, 2), createResult(1.0, 0.5, 0.0, 2));
+    assertEquals(VisionConsensus.Outcome.DISAGREE, m_visionConsensus.calculate(heading));
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if lone result is only trusted with enough score")
+  public void minResults() {
+    assertEquals(VisionConsensus.Outcome.NO_RESULTS, m_visionConsensus.calculate(List.of(createResult(1.0, 0.0, 0.0, 1))));
+    assertEquals(1, m_visionConsensus.getResultCount());
+    assertNull(m_visionConsensus.getPose());
+
+    assertEquals(VisionConsensus.Outcome.AGREE, m_visionConsensus.calculate(List.of(createResult(1.0, 0.0, 0.0, 2))));
+    assertEquals(1.0, m_visionConsensus.getPose().getX(), DELTA);
+  }
+
+  @Test
+  @Order(6)
+  @DisplayName("Test if latest fresh result of each camera is used")
+  public void latestResults() {
+    m_visionConsensus.addResult(createResult("CameraA", 0.0, 1.0, 0.0, 0.0, 1));
+    m_visionConsensus.addResult(createResult("CameraA", -1.0, 9.0, 0.0, 0.0, 1));
+    m_visionConsensus.addResult(createResult("CameraB", 0.2, 1.2, 0.0, 0.0, 1));
+
+    // Older result of CameraA is ignored
+    assertEquals(VisionConsensus.Outcome.AGREE, m_visionConsensus.calculate(0.3));
+    assertEquals(2, m_visionConsensus.getResultCount());
+    assertEquals(1.1, m_visionConsensus.getPose().getX(), DELTA);
+
+    // CameraA result is stale, CameraB alone is not enough
+    assertEquals(VisionConsensus.Outcome.NO_RESULTS, m_visionConsensus.calculate(0.7));
+    assertEquals(1, m_visionConsensus.getResultCount());
+
+    // Newer CameraA result replaces stale one
+    m_visionConsensus.addResult(createResult("CameraA", 0.6, 3.0, 0.0, 0.0, 1));
+    assertEquals(VisionConsensus.Outcome.DISAGREE, m_visionConsensus.calculate(0.7));
+  }
+}
@@ -0,0 +1,166 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.math.VecBuilder;
+import frc.robot.subsystems.drive.VisionGate;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class VisionGateTest {
+  private final double DELTA = 1e-6;
+  private final double DOWNWEIGHT_THRESHOLD = 3.0;
+  private final double REJECT_THRESHOLD = 5.0;
+  private final int RELOCALIZE_COUNT = 3;
+  private final double STATE_STDDEV = 0.1;
+  private final double VISION_STDDEV = 0.1;
+  private final String CAMERA_A = "CameraA";
+  private final String CAMERA_B = "CameraB";
+  private final int SINGLE_TAG = 1;
+  private final int MULTI_TAG = 2;
+
+  private VisionGate m_visionGate;
+
+  @BeforeEach
+  public void setup() {
+    m_visionGate = new VisionGate(
+      "VisionGateTest",
+      VecBuilder.fill(STATE_STDDEV, STATE_STDDEV, STATE_STDDEV),
+      DOWNWEIGHT_THRESHOLD,
+      REJECT_THRESHOLD,
+      RELOCALIZE_COUNT
+    );
+  }
+
+  /**
+   * Evaluate multi-tag measurement offset in X from predicted pose at origin
+   * @param camera Camera name
+   * @param offset X offset in meters
+   * @return Gating decision
+   */
+  private VisionGate.Decision evaluate(String camera, double offset) {
+    return evaluate(camera, MULTI_TAG, offset);
+  }
+
+  /**
+   * Evaluate measurement offset in X from predicted pose at origin
+   * @param camera Camera name
+   * @param tagCount Number of tags used in measurement
+   * @param offset X offset in meters
+   * @return Gating decision
+   */
+  private VisionGate.Decision evaluate(String camera, int tagCount, double offset) {
+    return m_visionGate.evaluate(camera, tagCount, 0.0, 0.0, 0.0, offset, 0.0, 0.0, VISION_STDDEV, VISION_STDDEV, VISION_STDDEV);
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if distance is normalised by innovation variance")
+  public void mahalanobisDistance() {
+    // Innovation variance is sqrt(q * r) + r, twice the variance when both are equal
+    double offset = 2.0 * Math.sqrt(2.0) * VISION_STDDEV;
+
+    assertEquals(VisionGate.Decision.ACCEPT, evaluate(CAMERA_A, offset));
+    assertEquals(2.0, m_visionGate.getDistance(), DELTA);
+    assertEquals(1.0, m_visionGate.getScale(), DELTA);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if borderline measurement is downweighted")
+  public void downweight() {
+    double offset = 4.0 * Math.sqrt(2.0) * VISION_STDDEV;
+
+    assertEquals(VisionGate.Decision.DOWNWEIGHT, evaluate(CAMERA_A, offset));
+    assertEquals(4.0, m_visionGate.getDistance(), DELTA);
+    assertEquals(Math.sqrt(4.0 / DOWNWEIGHT_THRESHOLD), m_visionGate.getScale(), DELTA);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if heading innovation wraps around")
+  public void headingWrap() {
+    var decision = m_visionGate.evaluate(CAMERA_A, MULTI_TAG, 0.0, 0.0, Math.PI - 0.01, 0.0, 0.0, -Math.PI + 0.01, VISION_STDDEV, VISION_STDDEV, VISION_STDDEV);
+
+    assertEquals(VisionGate.Decision.ACCEPT, decision);
+    assertTrue(m_visionGate.getDistance() < 1.0);
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if consecutive outliers trigger re-localization")
+  public void relocalize() {
+    for (int i = 0; i < RELOCALIZE_COUNT; i++) assertEquals(VisionGate.Decision.REJECT, evaluate(CAMERA_A, 2.0));
+    assertEquals(VisionGate.Decision.RELOCALIZE, evaluate(CAMERA_A, 2.0));
+    assertEquals(1, m_visionGate.getRelocalizations());
+
+    // Accepted measurement restarts count
+    for (int i = 0; i < RELOCALIZE_COUNT; i++) assertEquals(VisionGate.Decision.REJECT, evaluate(CAMERA_A, 2.0));
+    assertEquals(VisionGate.Decision.ACCEPT, evaluate(CAMERA_A, 0.0));
+    assertEquals(VisionGate.Decision.REJECT, evaluate(CAMERA_A, 2.0));
+    assertEquals(1, m_visionGate.getRelocalizations());
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if statistics are tracked per camera and per tag")
+  public void statistics() {
+    evaluate(CAMERA_A, 0.0);
+    m_visionGate.recordTag(4);
+    m_visionGate.recordTag(7);
+    evaluate(CAMERA_B, 2.0);
+    m_visionGate.recordTag(7);
+    evaluate(CAMERA_B, 0.5);
+    m_visionGate.recordTag(7);
+
+    assertEquals(1, m_visionGate.getCameraStatistics(CAMERA_A).getAccepted());
+    assertEquals(0, m_visionGate.getCameraStatistics(CAMERA_A).getRejected());
+    assertEquals(1, m_visionGate.getCameraStatistics(CAMERA_B).getRejected());
+    assertEquals(1, m_visionGate.getCameraStatistics(CAMERA_B).getDownweighted());
+    assertEquals(1, m_visionGate.getTagStatistics(4).getAccepted());
+    assertEquals(1, m_visionGate.getTagStatistics(7).getAccepted());
+    assertEquals(1, m_visionGate.getTagStatistics(7).getDownweighted());
+    assertEquals(1, m_visionGate.getTagStatistics(7).getRejected());
+    assertNull(m_visionGate.getTagStatistics(1));
+    assertNull(m_visionGate.getCameraStatistics("CameraC"));
+  }
+
+  @Test
+  @Order(6)
+  @DisplayName("Test if single-tag outliers never re-localize")
+  public void relocalizeSingleTag() {
+    for (int i = 0; i < RELOCALIZE_COUNT + 2; i++) assertEquals(VisionGate.Decision.REJECT, evaluate(CAMERA_A, SINGLE_TAG, 2.0));
+    assertEquals(0, m_visionGate.getRelocalizations());
+
+    // Next multi-tag outlier re-localizes
+    assertEquals(VisionGate.Decision.RELOCALIZE, evaluate(CAMERA_A, MULTI_TAG, 2.0));
+    assertEquals(1, m_visionGate.getRelocalizations());
+  }
+
+  @Test
+  @Order(7)
+  @DisplayName("Test if consecutive rejections are counted per camera")
+  public void relocalizePerCamera() {
+    // Outliers from one camera do not count towards another
+    for (int i = 0; i < RELOCALIZE_COUNT; i++) assertEquals(VisionGate.Decision.REJECT, evaluate(CAMERA_B, 2.0));
+    assertEquals(VisionGate.Decision.REJECT, evaluate(CAMERA_A, 2.0));
+    assertEquals(0, m_visionGate.getRelocalizations());
+
+    // Accepted measurement from one camera does not restart count of another
+    assertEquals(VisionGate.Decision.ACCEPT, evaluate(CAMERA_A, 0.0));
+    assertEquals(VisionGate.Decision.RELOCALIZE, evaluate(CAMERA_B, 2.0));
+    assertEquals(1, m_visionGate.getRelocalizations());
+  }
+}
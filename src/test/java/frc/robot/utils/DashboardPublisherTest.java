@@ -0,0 +1,83 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class DashboardPublisherTest {
+  private final double DELTA = 1e-9;
+
+  private double m_time;
+  private DashboardPublisher m_publisher;
+
+  @BeforeEach
+  public void setup() {
+    m_time = 0.0;
+    m_publisher = new DashboardPublisher(() -> m_time);
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if unchanged boolean writes are suppressed")
+  public void unchangedBoolean() {
+    var entry = m_publisher.booleanEntry("DashboardPublisherTest/Boolean");
+
+    entry.set(true);
+    entry.set(true);
+    entry.set(true);
+    entry.set(false);
+
+    assertEquals(2, entry.getPublishedCount());
+    assertEquals(2, entry.getSuppressedCount());
+    assertEquals(false, SmartDashboard.getBoolean("DashboardPublisherTest/Boolean", true));
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if Field2d pose is rate limited and eventually published")
+  public void rateLimitedPose() {
+    var field = new Field2d();
+    var entry = m_publisher.field2dEntry(field, 10.0);
+
+    // Change pose every 30 ms for 150 ms
+    for (int i = 0; i < 6; i++) {
+      m_time = i * 0.03;
+      entry.setRobotPose(new Pose2d(i, 0.0, Rotation2d.fromDegrees(i)));
+    }
+
+    assertEquals(2, entry.getPublishedCount());
+    assertEquals(4, entry.getSuppressedCount());
+    assertEquals(4.0, field.getRobotPose().getX(), DELTA);
+    assertEquals(2, m_publisher.getPublishedCount());
+    assertEquals(4, m_publisher.getSuppressedCount());
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if recreating an entry replaces it instead of growing publisher")
+  public void replaceEntry() {
+    m_publisher.booleanEntry("DashboardPublisherTest/Replaced").set(true);
+    var entry = m_publisher.booleanEntry("DashboardPublisherTest/Replaced");
+    entry.set(false);
+    entry.set(false);
+
+    assertEquals(1, m_publisher.getEntryCount());
+    assertEquals(1, m_publisher.getPublishedCount());
+    assertEquals(1, m_publisher.getSuppressedCount());
+  }
+}
@@ -0,0 +1,68 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import frc.robot.Constants;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class LookupTableSplineFunctionTest {
+  private final int TABLE_SIZE = 1001;
+  private final int TEST_POINTS = 100000;
+  private final double MAX_ERROR = 1e-4;
+
+  private void assertBoundedError(PolynomialSplineFunction spline) {
+    var table = new LookupTableSplineFunction(spline, TABLE_SIZE);
+    double[] knots = spline.getKnots();
+    double min = knots[0], max = knots[knots.length - 1];
+
+    // Compare against spline over entire domain, including endpoints
+    double maxError = 0.0;
+    for (int i = 0; i <= TEST_POINTS; i++) {
+      double x = min + (max - min) * i / TEST_POINTS;
+      maxError = Math.max(maxError, Math.abs(table.value(x) - spline.value(x)));
+    }
+
+    assertTrue(maxError < MAX_ERROR, "Max error " + maxError + " exceeds " + MAX_ERROR);
+    assertTrue(table.getMaxError() < MAX_ERROR);
+    assertEquals(spline.value(min), table.value(min), 0.0);
+    assertEquals(spline.value(max), table.value(max), 0.0);
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if throttle lookup table is within error bound of spline")
+  public void throttleCurve() {
+    assertBoundedError(Constants.Drive.DRIVE_THROTTLE_INPUT_CURVE);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if turn lookup table is within error bound of spline")
+  public void turnCurve() {
+    assertBoundedError(Constants.Drive.DRIVE_TURN_INPUT_CURVE);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if lookup table rejects points outside spline domain")
+  public void outOfRange() {
+    var table = new LookupTableSplineFunction(Constants.Drive.DRIVE_THROTTLE_INPUT_CURVE, TABLE_SIZE);
+
+    assertThrows(OutOfRangeException.class, () -> table.value(-0.001));
+    assertThrows(OutOfRangeException.class, () -> table.value(+1.001));
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class LoopProfilerTest {
+  private final double DELTA = 1e-9;
+  private final int PUBLISH_PERIOD = 100;
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if profiler computes percentiles and maximum per stage")
+  public void percentiles() {
+    var profiler = new LoopProfiler("Test", true, PUBLISH_PERIOD, "A", "B");
+
+    // Stage A takes 1 ms, except for one 15 ms spike; stage B takes i * 10 us
+    for (int i = 1; i <= PUBLISH_PERIOD; i++) {
+      profiler.start();
+      profiler.record(0, (i == PUBLISH_PERIOD) ? 15_000_000 : 1_000_000);
+      profiler.record(1, i * 10_000);
+      profiler.end();
+    }
+
+    assertEquals(1.02, profiler.getP50(0), DELTA);
+    assertEquals(1.02, profiler.getP99(0), DELTA);
+    assertEquals(15.0, profiler.getMax(0), DELTA);
+    assertEquals(0.52, profiler.getP50(1), DELTA);
+    assertEquals(1.0, profiler.getP99(1), DELTA);
+    assertEquals(1.0, profiler.getMax(1), DELTA);
+    assertEquals(16.0, profiler.getMax(2), DELTA);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if profiler only summarises complete windows")
+  public void window() {
+    var profiler = new LoopProfiler("Test", true, PUBLISH_PERIOD, "A");
+
+    for (int i = 0; i < PUBLISH_PERIOD - 1; i++) {
+      profiler.start();
+      profiler.record(0, 5_000_000);
+      profiler.end();
+    }
+    assertEquals(0.0, profiler.getMax(0), DELTA);
+
+    profiler.start();
+    profiler.record(0, 5_000_000);
+    profiler.end();
+    assertEquals(5.0, profiler.getMax(0), DELTA);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if disabled profiler records nothing")
+  public void disabled() {
+    var profiler = new LoopProfiler("Test", false, 1, "A");
+
+    profiler.start();
+    profiler.mark(0);
+    profiler.end();
+    profiler.publish();
+
+    assertEquals(0.0, profiler.getMax(0), DELTA);
+    assertEquals(0.0, profiler.getMax(1), DELTA);
+  }
+}
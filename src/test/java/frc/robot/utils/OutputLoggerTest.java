@@ -0,0 +1,98 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class OutputLoggerTest {
+  @Test
+  @Order(1)
+  @DisplayName("Test if every cycle policy records every call")
+  public void everyCycle() {
+    var output = OutputLogger.doubleOutput("OutputLoggerTest/EveryCycle", OutputLogger.Policy.EVERY_CYCLE);
+
+    for (int i = 0; i < 10; i++) output.set(1.0);
+
+    assertEquals(10, output.getRecordedCount());
+    assertEquals(0, output.getSuppressedCount());
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if every N cycles policy records first of every N calls")
+  public void everyNCycles() {
+    var output = OutputLogger.longOutput("OutputLoggerTest/EveryN", OutputLogger.Policy.everyNCycles(4));
+
+    for (int i = 0; i < 10; i++) output.set(i);
+
+    assertEquals(3, output.getRecordedCount());
+    assertEquals(7, output.getSuppressedCount());
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if on change policy ignores changes within epsilon")
+  public void onChange() {
+    var output = OutputLogger.pose2dOutput("OutputLoggerTest/OnChange", OutputLogger.Policy.onChange(0.01));
+
+    output.set(new Pose2d(1.0, 1.0, Rotation2d.fromRadians(0.0)));
+    output.set(new Pose2d(1.005, 1.0, Rotation2d.fromRadians(0.0)));
+    output.set(1.009, 1.0, 0.009);
+    output.set(1.0, 1.0, 0.02);
+
+    assertEquals(2, output.getRecordedCount());
+    assertEquals(2, output.getSuppressedCount());
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if on change policy compares module states")
+  public void moduleStates() {
+    var output = OutputLogger.swerveModuleStatesOutput("OutputLoggerTest/ModuleStates", OutputLogger.Policy.onChange(0.001), 2);
+    var states = new SwerveModuleState[] {
+      new SwerveModuleState(1.0, Rotation2d.fromDegrees(0.0)),
+      new SwerveModuleState(1.0, Rotation2d.fromDegrees(0.0))
+    };
+
+    output.set(states);
+    output.set(states);
+    states[1].speedMetersPerSecond = 2.0;
+    output.set(states);
+
+    assertEquals(2, output.getRecordedCount());
+    assertEquals(1, output.getSuppressedCount());
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if struct array output handles changing list length")
+  public void structArray() {
+    var output = OutputLogger.structArrayOutput("OutputLoggerTest/StructArray", OutputLogger.Policy.onChange(0.0), Pose2d[]::new, 2);
+    var a = new Pose2d(1.0, 0.0, Rotation2d.fromDegrees(0.0));
+    var b = new Pose2d(2.0, 0.0, Rotation2d.fromDegrees(0.0));
+
+    output.set(List.of(a));
+    output.set(List.of(a));
+    output.set(List.of(a, b));
+    output.set(List.of(a, b, a));
+    output.set(List.of());
+
+    assertEquals(4, output.getRecordedCount());
+    assertEquals(1, output.getSuppressedCount());
+  }
+}
@@ -0,0 +1,137 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PoseHistoryTest {
+  private final double DELTA = 1e-9;
+  private final int CAPACITY = 8;
+
+  private PoseHistory m_poseHistory;
+  private double[] m_result;
+
+  @BeforeEach
+  public void setup() {
+    m_poseHistory = new PoseHistory(CAPACITY);
+    m_result = new double[3];
+  }
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if pose is interpolated between recorded poses")
+  public void interpolate() {
+    m_poseHistory.record(1.0, 0.0, 0.0, 0.0);
+    m_poseHistory.record(2.0, 2.0, 4.0, 1.0);
+
+    assertTrue(m_poseHistory.getPoseAt(1.25, m_result));
+    assertEquals(0.5, m_result[0], DELTA);
+    assertEquals(1.0, m_result[1], DELTA);
+    assertEquals(0.25, m_result[2], DELTA);
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if heading is interpolated the short way around")
+  public void headingWrap() {
+    m_poseHistory.record(1.0, 0.0, 0.0, Math.PI - 0.1);
+    m_poseHistory.record(2.0, 0.0, 0.0, -Math.PI + 0.1);
+
+    assertTrue(m_poseHistory.getPoseAt(1.5, m_result));
+    assertEquals(Math.PI, Math.abs(m_result[2]), DELTA);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if queries outside history are clamped or refused")
+  public void bounds() {
+    assertFalse(m_poseHistory.getPoseAt(1.0, m_result));
+
+    m_poseHistory.record(1.0, 1.0, 0.0, 0.0);
+    m_poseHistory.record(2.0, 2.0, 0.0, 0.0);
+
+    // Newer than history returns newest pose
+    assertTrue(m_poseHistory.getPoseAt(3.0, m_result));
+    assertEquals(2.0, m_result[0], DELTA);
+
+    // Older than history is unknown
+    assertFalse(m_poseHistory.getPoseAt(0.5, m_result));
+  }
+
+  @Test
+  @Order(4)
+  @DisplayName("Test if oldest poses are overwritten when full")
+  public void capacity() {
+    for (int i = 0; i < CAPACITY * 2; i++) m_poseHistory.record(i, i, 0.0, 0.0);
+
+    assertEquals(CAPACITY, m_poseHistory.size());
+    assertFalse(m_poseHistory.getPoseAt(CAPACITY - 1.5, m_result));
+    assertTrue(m_poseHistory.getPoseAt(CAPACITY + 0.5, m_result));
+    assertEquals(CAPACITY + 0.5, m_result[0], DELTA);
+
+    // Out of order pose is ignored, clear empties history
+    m_poseHistory.record(0.0, 0.0, 0.0, 0.0);
+    assertEquals(CAPACITY, m_poseHistory.size());
+    m_poseHistory.clear();
+    assertEquals(0, m_poseHistory.size());
+  }
+
+  @Test
+  @Order(5)
+  @DisplayName("Test if velocity is calculated from poses either side of time")
+  public void velocity() {
+    m_poseHistory.record(1.0, 0.0, 0.0, 0.0);
+    assertFalse(m_poseHistory.getVelocityAt(1.0, m_result));
+
+    m_poseHistory.record(1.5, 1.0, -0.5, 0.5);
+    m_poseHistory.record(2.0, 1.0, -0.5, 0.5);
+
+    assertTrue(m_poseHistory.getVelocityAt(1.2, m_result));
+    assertEquals(2.0, m_result[0], DELTA);
+    assertEquals(-1.0, m_result[1], DELTA);
+    assertEquals(1.0, m_result[2], DELTA);
+
+    // Newer than history uses newest two poses
+    assertTrue(m_poseHistory.getVelocityAt(5.0, m_result));
+    assertEquals(0.0, m_result[0], DELTA);
+  }
+
+  @Test
+  @Order(6)
+  @DisplayName("Test if reader on another thread always sees consistent poses")
+  public void concurrentReader() throws InterruptedException {
+    var isRunning = new AtomicBoolean(true);
+    var errors = new AtomicInteger();
+
+    // Poses lie on x = t, y = 2t, so any torn read is detectable
+    var reader = new Thread(() -> {
+      var pose = new double[3];
+      while (isRunning.get()) {
+        if (!m_poseHistory.getPoseAt(Double.MAX_VALUE, pose)) continue;
+        if (Math.abs(pose[1] - 2.0 * pose[0]) > 1e-6) errors.incrementAndGet();
+      }
+    });
+    reader.start();
+
+    for (int i = 0; i < 200000; i++) m_poseHistory.record(i, i, 2.0 * i, 0.0);
+    isRunning.set(false);
+    reader.join();
+
+    assertEquals(0, errors.get());
+  }
+}
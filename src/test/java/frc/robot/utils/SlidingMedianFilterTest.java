@@ -0,0 +1,73 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.wpi.first.math.filter.MedianFilter;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SlidingMedianFilterTest {
+  private final int[] TAP_COUNTS = { 1, 2, 3, 10, 25, 100, 255, 500 };
+  private final int SAMPLE_COUNT = 5000;
+  private final long SEED = 1745;
+
+  @Test
+  @Order(1)
+  @DisplayName("Test if sliding median matches MedianFilter exactly")
+  public void matchesMedianFilter() {
+    var random = new Random(SEED);
+
+    for (int taps : TAP_COUNTS) {
+      var expected = new MedianFilter(taps);
+      var actual = new SlidingMedianFilter(taps);
+
+      for (int i = 0; i < SAMPLE_COUNT; i++) {
+        // Mix continuous and repeated values to exercise ties
+        double value = (random.nextInt(4) == 0) ? random.nextInt(5) : random.nextGaussian();
+        assertEquals(expected.calculate(value), actual.calculate(value), 0.0);
+      }
+    }
+  }
+
+  @Test
+  @Order(2)
+  @DisplayName("Test if sliding median resets")
+  public void reset() {
+    var filter = new SlidingMedianFilter(5);
+    for (int i = 0; i < 5; i++) filter.calculate(100.0);
+
+    filter.reset();
+
+    assertEquals(1.0, filter.calculate(1.0), 0.0);
+  }
+
+  @Test
+  @Order(3)
+  @DisplayName("Test if independent 2D filter matches per-axis MedianFilter")
+  public void independent2d() {
+    var random = new Random(SEED);
+    var expectedX = new MedianFilter(100);
+    var expectedY = new MedianFilter(100);
+    var actual = new SlidingMedianFilter2d(100, SlidingMedianFilter2d.Mode.INDEPENDENT);
+
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      double x = random.nextGaussian(), y = random.nextGaussian();
+      actual.calculate(x, y);
+      double filteredX = expectedX.calculate(x), filteredY = expectedY.calculate(y);
+      assertEquals(filteredX, actual.getX(), 0.0);
+      assertEquals(filteredY, actual.getY(), 0.0);
+      assertEquals(Math.hypot(filteredX, filteredY), actual.getMagnitude(), 0.0);
+    }
+  }
+}